@@ -0,0 +1,53 @@
+import edu.uwm.cs351.SortledtonGraph;
+
+import java.util.Random;
+
+/**
+ * Random test graphs with hubs, shared by the tests of the graph kernels.
+ *
+ * Every hubEvery-th edge leaves a hub, so the hubs' neighborhoods grow into UnrolledSkipLists
+ * while the other vertices keep PowerofTwo neighborhoods, and a kernel under test has to handle
+ * both. The hubs are vertices 0 to hubs - 1 and take their edges in turn.
+ */
+final class HubGraphs {
+
+    private HubGraphs() { }
+
+    /**
+     * Inserts random unweighted edges with vertex 0 as the only hub.
+     *
+     * @param g        The graph to insert into.
+     * @param seed     The seed of the random edges.
+     * @param edges    How many edges to insert, duplicates included.
+     * @param vertices The range [0, vertices) the other ends are drawn from.
+     * @param hubEvery How often an edge leaves the hub.
+     */
+    static void addEdges(SortledtonGraph<Integer> g, long seed, int edges, int vertices, int hubEvery) {
+        addEdges(g, seed, edges, vertices, hubEvery, 1, false);
+    }
+
+    /**
+     * Inserts random edges around the given number of hubs.
+     *
+     * @param g        The graph to insert into.
+     * @param seed     The seed of the random edges.
+     * @param edges    How many edges to insert, duplicates included.
+     * @param vertices The range [0, vertices) the other ends are drawn from.
+     * @param hubEvery How often an edge leaves a hub.
+     * @param hubs     How many hubs there are.
+     * @param weighted Whether to give the edges random weights in [0.5, 99.5].
+     */
+    static void addEdges(SortledtonGraph<Integer> g, long seed, int edges, int vertices, int hubEvery,
+            int hubs, boolean weighted) {
+        Random random = new Random(seed);
+        for (int i = 0; i < edges; i++) {
+            int src = (i % hubEvery == 0) ? i / hubEvery % hubs : random.nextInt(vertices);
+            int dest = random.nextInt(vertices);
+            if (weighted) {
+                g.insertEdge(src, dest, 0.5 + random.nextInt(100));
+            } else {
+                g.insertEdge(src, dest);
+            }
+        }
+    }
+}
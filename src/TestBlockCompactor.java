@@ -0,0 +1,183 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.BlockCompactor;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.StructureReport;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class TestBlockCompactor extends TestCase {
+
+    private SortledtonGraph<Integer> graph;
+
+    protected void setUp() {
+        graph = new SortledtonGraph<>();
+    }
+
+    /**
+     * Gives vertex 0 nearly full blocks by ascending inserts, then removes two in three from
+     * the last block to the first. Each block drops under half full next to one too full to
+     * merge with.
+     *
+     * @param g        The graph.
+     * @param in       Whether the edges point into vertex 0 instead of out of it.
+     * @param weighted Whether the edges have weights, each half its neighbor.
+     * @return the number of neighbors left.
+     */
+    private static int sparseHub(SortledtonGraph<Integer> g, boolean in, boolean weighted) {
+        for (int i = 1; i <= 2000; i++) {
+            insert(g, in, weighted, i);
+        }
+        int left = 0;
+        for (int i = 2000; i >= 1; i--) {
+            if (i % 3 == 0) {
+                left++;
+            } else if (in) {
+                g.deleteEdge(i, 0);
+            } else {
+                g.deleteEdge(0, i);
+            }
+        }
+        return left;
+    }
+
+    private static void insert(SortledtonGraph<Integer> g, boolean in, boolean weighted, int v) {
+        int src = in ? v : 0;
+        int dest = in ? 0 : v;
+        if (weighted) {
+            g.insertEdge(src, dest, v / 2.0);
+        } else {
+            g.insertEdge(src, dest);
+        }
+    }
+
+    public void testBadArguments() {
+        ReentrantLock lock = new ReentrantLock();
+        try {
+            new BlockCompactor(null, lock, 4);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new BlockCompactor(graph, null, 4);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new BlockCompactor(graph, lock, 0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new BlockCompactor(graph, lock, 4).start(-1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testEmptyGraph() {
+        BlockCompactor compactor = new BlockCompactor(graph, new ReentrantLock(), 4);
+        assertFalse(compactor.step());
+        assertEquals(0, compactor.getChangedBlocks());
+    }
+
+    public void testNothingToDo() {
+        for (int i = 1; i <= 1000; i++) {
+            graph.insertEdge(0, i);
+        }
+        BlockCompactor compactor = new BlockCompactor(graph, new ReentrantLock(), 100);
+        int steps = 0;
+        while (compactor.step()) {
+            steps++;
+        }
+        assertEquals(1000 / 100, steps); // One round over the 1001 neighborhoods
+        assertEquals(0, compactor.getChangedBlocks());
+    }
+
+    public void testIdleSteps() {
+        int left = sparseHub(graph, false, false);
+        List<Integer> before = graph.getNeighbors(0);
+        StructureReport report = StructureReport.of(graph);
+        assertTrue(report.getUnderfilledBlocks() > 1);
+        long blocks = report.getBlocks();
+
+        BlockCompactor compactor = new BlockCompactor(graph, new ReentrantLock(), 2);
+        int steps = 0;
+        while (compactor.step()) {
+            assertTrue(++steps < 10_000);
+        }
+        assertTrue(steps > 1); // The work was spread over small steps
+
+        report = StructureReport.of(graph);
+        assertEquals(0, report.getUnderfilledBlocks());
+        assertTrue(report.getBlocks() < blocks);
+        assertEquals(before, graph.getNeighbors(0));
+        assertEquals(left, graph.getNeighbors(0).size());
+        long changed = compactor.getChangedBlocks();
+        assertTrue(changed > 0);
+        while (compactor.step()) { }
+        assertEquals(changed, compactor.getChangedBlocks()); // A second round finds nothing
+    }
+
+    public void testWeightsMove() {
+        sparseHub(graph, false, true);
+        BlockCompactor compactor = new BlockCompactor(graph, new ReentrantLock(), 100);
+        while (compactor.step()) { }
+        assertEquals(0, StructureReport.of(graph).getUnderfilledBlocks());
+        for (int i : graph.getNeighbors(0)) {
+            assertEquals(i / 2.0, graph.getEdgeWeight(0, i));
+        }
+    }
+
+    public void testInEdges() {
+        SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, true);
+        int left = sparseHub(directed, true, false);
+        assertTrue(StructureReport.of(directed).getUnderfilledBlocks() > 1);
+        BlockCompactor compactor = new BlockCompactor(directed, new ReentrantLock(), 16);
+        while (compactor.step()) { }
+        assertEquals(0, StructureReport.of(directed).getUnderfilledBlocks());
+        assertEquals(left, directed.getNeighbors(0, SortledtonGraph.Direction.IN).size());
+    }
+
+    public void testBackground() throws InterruptedException {
+        graph.setDebug(false);
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        BlockCompactor compactor = new BlockCompactor(graph, lock.writeLock(), 4);
+        int left;
+        try (BlockCompactor running = compactor) {
+            running.start(10_000);
+            try {
+                running.start(10_000);
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+            lock.writeLock().lock();
+            try {
+                left = sparseHub(graph, false, false);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline) {
+                lock.readLock().lock();
+                try {
+                    if (StructureReport.of(graph).getUnderfilledBlocks() == 0) break;
+                } finally {
+                    lock.readLock().unlock();
+                }
+                Thread.sleep(10);
+            }
+        }
+        long steps = compactor.getSteps(); // Closing joined the thread
+        assertEquals(0, StructureReport.of(graph).getUnderfilledBlocks());
+        assertEquals(left, graph.getNeighbors(0).size());
+        Thread.sleep(20);
+        assertEquals(steps, compactor.getSteps());
+    }
+}
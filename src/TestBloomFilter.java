@@ -0,0 +1,113 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.UnrolledSkipList;
+
+/**
+ * The Bloom filter is package-private, so it is tested through the UnrolledSkipList that owns
+ * it and {@link UnrolledSkipList.Spy}.
+ */
+public class TestBloomFilter extends TestCase {
+
+    private final UnrolledSkipList.Spy spy = new UnrolledSkipList.Spy();
+    private UnrolledSkipList<Integer> list;
+
+    protected void setUp() {
+        list = new UnrolledSkipList<>();
+    }
+
+    // Counts the odd IDs below limit that the filter fails to rule out
+    private int falsePositives(int limit) {
+        int count = 0;
+        for (int id = 1; id < limit; id += 2) {
+            if (spy.filterMightContain(list, id)) count++;
+        }
+        return count;
+    }
+
+    public void testNoFilter() {
+        list.addNeighbor(1);
+        assertEquals(0, spy.getFilterCapacity(list));
+        spy.setFiltered(list, true);
+        assertEquals(256, spy.getFilterCapacity(list)); // Never sized under two blocks
+        spy.setFiltered(list, false);
+        assertEquals(0, spy.getFilterCapacity(list));
+        assertTrue(list.contains(1));
+    }
+
+    public void testReportsEveryNeighbor() {
+        spy.setFiltered(list, true);
+        for (int i = 0; i < 10_000; i += 2) {
+            list.addNeighbor(i);
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            assertTrue(spy.filterMightContain(list, i));
+        }
+        assertTrue(spy.wellFormed(list));
+    }
+
+    public void testFalsePositiveRateWhenFull() {
+        for (int i = 0; i < 10_000; i += 2) {
+            list.addNeighbor(i);
+        }
+        spy.setFiltered(list, true); // Sized for twice the 5000 neighbors
+        assertEquals(10_000, spy.getFilterCapacity(list));
+        for (int i = 10_000; i < 20_000; i += 2) {
+            list.addNeighbor(i);
+        }
+        assertEquals(10_000, spy.getFilterCapacity(list)); // Full, but not rebuilt yet
+        int positives = falsePositives(200_000);
+        double rate = positives / 100_000.0;
+        // About one percent at ten bits per key; rounding the blocks up to a power of two
+        // gives this filter about thirteen, so it does somewhat better
+        assertTrue("false positive rate " + rate, rate > 0.001 && rate < 0.015);
+        for (int i = 1; i < 200_000; i += 2) {
+            assertFalse(list.contains(i));
+        }
+    }
+
+    public void testContainsConsultsFilter() {
+        for (int i = 0; i < 1000; i++) {
+            list.addNeighbor(i);
+        }
+        spy.setFiltered(list, true);
+        assertTrue(list.contains(500));
+        spy.clearFilter(list);
+        assertFalse(list.contains(500)); // Answered by the filter without a search
+        assertFalse(spy.wellFormed(list));
+    }
+
+    public void testGrowsWhenOverCapacity() {
+        spy.setFiltered(list, true);
+        assertEquals(256, spy.getFilterCapacity(list));
+        for (int i = 0; i < 256; i++) {
+            list.addNeighbor(i);
+        }
+        assertEquals(256, spy.getFilterCapacity(list));
+        list.addNeighbor(256);
+        assertEquals(2 * 257, spy.getFilterCapacity(list));
+        assertTrue(spy.wellFormed(list));
+    }
+
+    public void testRebuildAfterQuarterRemoved() {
+        for (int i = 0; i < 8_000; i += 2) {
+            list.addNeighbor(i);
+        }
+        spy.setFiltered(list, true);
+        // Rebuilt once the removed neighbors outnumber a quarter of those left: 801 > 3199 / 4
+        for (int r = 1; r <= 800; r++) {
+            list.removeNeighbor(2 * r);
+            assertEquals(r, spy.getStaleKeys(list));
+        }
+        assertEquals(8_000, spy.getFilterCapacity(list));
+        assertTrue(spy.filterMightContain(list, 2)); // Removed, but still reported
+        list.removeNeighbor(2 * 801);
+        assertEquals(0, spy.getStaleKeys(list));
+        assertEquals(2 * 3_199, spy.getFilterCapacity(list));
+
+        int stillReported = 0;
+        for (int r = 1; r <= 801; r++) {
+            if (spy.filterMightContain(list, 2 * r)) stillReported++;
+        }
+        assertTrue("removed neighbors still reported: " + stillReported, stillReported < 801 / 20);
+        assertTrue(spy.wellFormed(list));
+    }
+}
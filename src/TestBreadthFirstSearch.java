@@ -0,0 +1,144 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.BreadthFirstSearch;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestBreadthFirstSearch extends TestCase {
+
+    private SortledtonGraph<Integer> graph;
+    private ForkJoinPool pool;
+
+    protected void setUp() {
+        graph = new SortledtonGraph<>();
+        graph.setDebug(false);
+        pool = new ForkJoinPool(4);
+    }
+
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    // A plain sequential BFS over getNeighbors, keyed by vertex ID
+    private static <U extends Comparable<U>> Map<U, Integer> referenceDepths(SortledtonGraph<U> g, U source) {
+        Map<U, Integer> depths = new HashMap<>();
+        ArrayDeque<U> queue = new ArrayDeque<>();
+        depths.put(source, 0);
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            U v = queue.remove();
+            for (U u : g.getNeighbors(v, Direction.OUT)) {
+                if (!depths.containsKey(u)) {
+                    depths.put(u, depths.get(v) + 1);
+                    queue.add(u);
+                }
+            }
+        }
+        return depths;
+    }
+
+    private void assertDepths(SortledtonGraph<Integer> g, int source, int[] depth) {
+        Map<Integer, Integer> expected = referenceDepths(g, source);
+        assertEquals(g.getVertexCount(), depth.length);
+        for (int p = 0; p < depth.length; p++) {
+            Integer d = expected.get(g.logicalId(p));
+            assertEquals("depth of " + g.logicalId(p), d == null ? BreadthFirstSearch.UNREACHABLE : (int) d, depth[p]);
+        }
+    }
+
+    public void testInvalidSource() {
+        BreadthFirstSearch<Integer> bfs = new BreadthFirstSearch<>(graph, pool);
+        graph.insertEdge(1, 2);
+        try {
+            bfs.run(null);
+            fail("Expected IllegalArgumentException for null source.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            bfs.run(3);
+            fail("Expected IllegalArgumentException for a missing source.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            new BreadthFirstSearch<Integer>(null);
+            fail("Expected IllegalArgumentException for null graph.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+
+    public void testPathAndIsolatedVertex() {
+        for (int i = 0; i < 10; i++) {
+            graph.insertEdge(i, i + 1);
+        }
+        graph.insertVertex(100);
+        int[] depth = new BreadthFirstSearch<>(graph, pool).run(0);
+        for (int i = 0; i <= 10; i++) {
+            assertEquals(i, depth[graph.physicalId(i)]);
+        }
+        assertEquals(BreadthFirstSearch.UNREACHABLE, depth[graph.physicalId(100)]);
+    }
+
+    public void testRandomGraphSwitchesDirection() {
+        Random random = new Random(17);
+        int vertices = 20_000;
+        for (int i = 0; i < 200_000; i++) {
+            graph.insertEdge(random.nextInt(vertices), random.nextInt(vertices));
+        }
+        BreadthFirstSearch<Integer> bfs = new BreadthFirstSearch<>(graph, pool);
+        int source = graph.logicalId(0);
+        assertDepths(graph, source, bfs.run(source));
+        assertTrue(bfs.getBottomUpSteps() > 0);
+        assertTrue(bfs.getTopDownSteps() > 0);
+    }
+
+    public void testHubsAndComponents() {
+        Random random = new Random(23);
+        for (int i = 0; i < 30_000; i++) {
+            // Two components, each around a hub
+            int offset = (i % 2 == 0) ? 0 : 10_000;
+            int src = (i % 3 == 0) ? offset : offset + random.nextInt(5_000);
+            graph.insertEdge(src, offset + random.nextInt(5_000));
+        }
+        BreadthFirstSearch<Integer> bfs = new BreadthFirstSearch<>(graph, pool);
+        assertDepths(graph, 0, bfs.run(0));
+        assertDepths(graph, 10_000, bfs.run(10_000));
+    }
+
+    public void testDirectedGraph() {
+        for (boolean storeInEdges : new boolean[] { true, false }) {
+            SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, storeInEdges);
+            directed.setDebug(false);
+            Random random = new Random(29);
+            for (int i = 0; i < 50_000; i++) {
+                directed.insertEdge(random.nextInt(5_000), random.nextInt(5_000));
+            }
+            BreadthFirstSearch<Integer> bfs = new BreadthFirstSearch<>(directed, pool);
+            int source = directed.logicalId(0);
+            assertDepths(directed, source, bfs.run(source));
+            if (!storeInEdges) assertEquals(0, bfs.getBottomUpSteps());
+        }
+    }
+
+    public void testStringVertices() {
+        SortledtonGraph<String> strings = new SortledtonGraph<>();
+        Random random = new Random(31);
+        for (int i = 0; i < 3_000; i++) {
+            strings.insertEdge("v" + random.nextInt(500), "v" + random.nextInt(500));
+        }
+        String source = "v" + 7;
+        if (!strings.hasVertex(source.hashCode())) strings.insertVertex(source);
+        int[] depth = new BreadthFirstSearch<>(strings).run(source);
+        Map<String, Integer> expected = referenceDepths(strings, source);
+        for (Map.Entry<String, Integer> e : expected.entrySet()) {
+            assertEquals((int) e.getValue(), depth[strings.physicalId(e.getKey().hashCode())]);
+        }
+    }
+}
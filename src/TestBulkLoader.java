@@ -0,0 +1,177 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.BulkLoader;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestBulkLoader extends TestCase {
+
+    private SortledtonGraph<Integer> sequential;
+    private SortledtonGraph<Integer> bulk;
+    private BulkLoader<Integer> loader;
+
+    protected void setUp() {
+        sequential = new SortledtonGraph<>();
+        bulk = new SortledtonGraph<>();
+        sequential.setDebug(false);
+        bulk.setDebug(false);
+        loader = new BulkLoader<>(bulk, new ForkJoinPool(4));
+    }
+
+    // Both graphs must have the same physical layout and the same neighborhoods
+    private <U extends Comparable<U>> void assertSameGraph(SortledtonGraph<U> expected, SortledtonGraph<U> actual) {
+        assertEquals(expected.getVertexCount(), actual.getVertexCount());
+        for (int p = 0; p < expected.getVertexCount(); p++) {
+            assertEquals(expected.logicalId(p), actual.logicalId(p));
+        }
+    }
+
+    private void assertSameNeighbors(int vertexCount) {
+        assertSameGraph(sequential, bulk);
+        for (int v = 0; v < vertexCount; v++) {
+            if (!sequential.hasVertex(v)) continue;
+            assertEquals(sequential.getNeighbors(v), bulk.getNeighbors(v));
+        }
+        assertTrue(SortledtonGraph.Spy.wellFormed(bulk));
+    }
+
+    public void testNullArguments() {
+        try {
+            new BulkLoader<Integer>(null);
+            fail("Expected IllegalArgumentException for null graph.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            loader.addEdge(1, null);
+            fail("Expected IllegalArgumentException for null destination.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+
+    public void testEmptyLoad() {
+        loader.load();
+        assertEquals(0, bulk.getVertexCount());
+    }
+
+    public void testSmallGraph() {
+        int[][] edges = { {1, 2}, {2, 3}, {3, 1}, {4, 4}, {1, 2}, {2, 1} };
+        for (int[] e : edges) {
+            sequential.insertEdge(e[0], e[1]);
+            loader.addEdge(e[0], e[1]);
+        }
+        assertEquals(edges.length, loader.pendingEdges());
+        loader.load();
+        assertEquals(0, loader.pendingEdges());
+        assertSameNeighbors(5);
+        assertTrue(bulk.findEdge(4, 4));
+    }
+
+    public void testRandomGraphWithHubs() {
+        Random random = new Random(7);
+        int vertices = 2_000;
+        for (int i = 0; i < 60_000; i++) {
+            // A quarter of the edges touch vertex 0, forcing an UnrolledSkipList
+            int src = (i % 4 == 0) ? 0 : random.nextInt(vertices);
+            int dest = random.nextInt(vertices);
+            sequential.insertEdge(src, dest);
+            loader.addEdge(src, dest);
+        }
+        loader.load();
+        assertSameNeighbors(vertices);
+    }
+
+    public void testLoadIntoExistingGraph() {
+        Random random = new Random(11);
+        for (int i = 0; i < 5_000; i++) {
+            int src = random.nextInt(300);
+            int dest = random.nextInt(300);
+            sequential.insertEdge(src, dest);
+            bulk.insertEdge(src, dest);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            int src = random.nextInt(400);
+            int dest = random.nextInt(400);
+            sequential.insertEdge(src, dest);
+            loader.addEdge(src, dest);
+        }
+        loader.load();
+        assertSameNeighbors(400);
+    }
+
+    public void testBatchSize() {
+        assertEquals(BulkLoader.MAX_ENTRIES, loader.getBatchSize());
+        try {
+            loader.setBatchSize(0);
+            fail("Expected IllegalArgumentException for an empty batch.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+
+    public void testLoadInBatches() {
+        loader.setBatchSize(777);
+        Random random = new Random(13);
+        for (int i = 0; i < 10_000; i++) {
+            int src = (i % 4 == 0) ? 0 : random.nextInt(600);
+            int dest = random.nextInt(600);
+            sequential.insertEdge(src, dest);
+            loader.addEdge(src, dest);
+        }
+        loader.load(); // Thirteen passes, the last one short
+        assertEquals(0, loader.pendingEdges());
+        assertSameNeighbors(600);
+    }
+
+    public void testStringVertices() {
+        SortledtonGraph<String> expected = new SortledtonGraph<>();
+        SortledtonGraph<String> actual = new SortledtonGraph<>();
+        BulkLoader<String> stringLoader = new BulkLoader<>(actual);
+        Random random = new Random(3);
+        for (int i = 0; i < 1_000; i++) {
+            String src = "v" + random.nextInt(200);
+            String dest = "v" + random.nextInt(200);
+            expected.insertEdge(src, dest);
+            stringLoader.addEdge(src, dest);
+        }
+        stringLoader.load();
+        assertSameGraph(expected, actual);
+        for (int i = 0; i < 200; i++) {
+            String v = "v" + i;
+            if (expected.hasVertex(v.hashCode())) {
+                assertEquals(expected.getNeighbors(v), actual.getNeighbors(v));
+            }
+        }
+    }
+
+    public void testDirectedGraph() {
+        for (boolean storeInEdges : new boolean[] { true, false }) {
+            SortledtonGraph<Integer> expected = new SortledtonGraph<>(true, storeInEdges);
+            SortledtonGraph<Integer> actual = new SortledtonGraph<>(true, storeInEdges);
+            expected.setDebug(false);
+            actual.setDebug(false);
+            BulkLoader<Integer> directedLoader = new BulkLoader<>(actual);
+            directedLoader.setBatchSize(storeInEdges ? 3_000 : BulkLoader.MAX_ENTRIES);
+            Random random = new Random(5);
+            for (int i = 0; i < 20_000; i++) {
+                int src = (i % 3 == 0) ? 1 : random.nextInt(500);
+                int dest = (i % 5 == 0) ? 2 : random.nextInt(500);
+                expected.insertEdge(src, dest);
+                directedLoader.addEdge(src, dest);
+            }
+            directedLoader.load();
+            assertSameGraph(expected, actual);
+            for (int v = 0; v < 500; v++) {
+                if (!expected.hasVertex(v)) continue;
+                assertEquals(expected.getNeighbors(v, Direction.OUT), actual.getNeighbors(v, Direction.OUT));
+                if (storeInEdges) {
+                    assertEquals(expected.getNeighbors(v, Direction.IN), actual.getNeighbors(v, Direction.IN));
+                }
+            }
+            assertTrue(SortledtonGraph.Spy.wellFormed(actual));
+        }
+    }
+}
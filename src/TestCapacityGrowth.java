@@ -4,8 +4,8 @@ import edu.uwm.cs351.SortledtonGraph;
 public class TestCapacityGrowth extends TestCase {
 	/**
 	 * The authors proposed a quite large initial capacity (131_072) due to the size of graphs
-	 * Sortledton is intended for. This method rises beyond that level to ensure that
-	 * ensureCapacity functions as intended. 
+	 * Sortledton is intended for. The index now grows by segments instead, but this method
+	 * still rises beyond that level to ensure that ensureCapacity functions as intended. 
 	 * 
 	 * This test has been broken out due to the extensive time required to complete it.
 	 * !!! THIS IS A LONG ONE !!!
@@ -1,5 +1,9 @@
 import junit.framework.TestCase;
+import edu.uwm.cs351.BreadthFirstSearch;
+import edu.uwm.cs351.PageRank;
+import edu.uwm.cs351.ShortestPaths;
 import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.WeaklyConnectedComponents;
 import java.util.Random;
 import java.util.List;
 
@@ -109,7 +113,9 @@ public class TestEfficiency extends TestCase {
             int dest = random.nextInt(NUM_VERTICES);
             graph.insertEdge(src, dest);
         }
-        assertTrue(graph.getVertexCount() > 0);
+        WeaklyConnectedComponents<Integer> wcc = new WeaklyConnectedComponents<>(graph);
+        assertEquals(NUM_VERTICES, wcc.run().length);
+        assertTrue(wcc.getComponentCount() > 0);
     }
 
     public void testPageRank() {
@@ -121,7 +127,8 @@ public class TestEfficiency extends TestCase {
             int dest = random.nextInt(NUM_VERTICES);
             graph.insertEdge(src, dest);
         }
-        assertTrue(graph.getVertexCount() > 0);
+        double[] rank = new PageRank<>(graph).run(20, 1e-9);
+        assertEquals(NUM_VERTICES, rank.length);
     }
 
     public void testBreadthFirstSearch() {
@@ -133,7 +140,9 @@ public class TestEfficiency extends TestCase {
             int dest = random.nextInt(NUM_VERTICES);
             graph.insertEdge(src, dest);
         }
-        assertTrue(graph.getVertexCount() > 0);
+        int[] depth = new BreadthFirstSearch<>(graph).run(0);
+        assertEquals(NUM_VERTICES, depth.length);
+        assertEquals(0, depth[graph.physicalId(0)]);
     }
 
     public void testSingleSourceShortestPath() {
@@ -145,6 +154,8 @@ public class TestEfficiency extends TestCase {
             int dest = random.nextInt(NUM_VERTICES);
             graph.insertEdge(src, dest);
         }
-        assertTrue(graph.getVertexCount() > 0);
+        double[] dist = new ShortestPaths<>(graph).run(0);
+        assertEquals(NUM_VERTICES, dist.length);
+        assertEquals(0.0, dist[graph.physicalId(0)]);
     }
 }
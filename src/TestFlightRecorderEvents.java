@@ -0,0 +1,175 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.FlightRecorderEvents;
+import edu.uwm.cs351.GraphMetrics;
+import edu.uwm.cs351.SortledtonGraph;
+
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The recordings are driven through reflection, since jdk.jfr is not part of the Java 8 API
+ * the project compiles against.
+ */
+public class TestFlightRecorderEvents extends TestCase {
+
+    private static final String PREFIX = "edu.uwm.cs351.";
+
+    private SortledtonGraph<Integer> graph;
+
+    protected void setUp() {
+        graph = new SortledtonGraph<>();
+        graph.setDebug(false);
+    }
+
+    /**
+     * An event read back from a recording: its type name and vertex ID.
+     */
+    private static final class Recorded {
+        final String name;
+        final int vertexId;
+        final Object extra;
+
+        Recorded(String name, int vertexId, Object extra) {
+            this.name = name;
+            this.vertexId = vertexId;
+            this.extra = extra;
+        }
+    }
+
+    /**
+     * Runs an action inside a Flight Recorder recording and reads back the events of this package.
+     */
+    private static List<Recorded> record(Runnable action) throws Exception {
+        Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingClass.getConstructor().newInstance();
+        Method enable = recordingClass.getMethod("enable", String.class);
+        for (String name : new String[] { "SlowOperation", "NeighborhoodConversion", "BlockSplit", "BlockMerge", "IndexGrowth" }) {
+            enable.invoke(recording, PREFIX + name);
+        }
+        Path file = Files.createTempFile("sortledton", ".jfr");
+        try {
+            recordingClass.getMethod("start").invoke(recording);
+            action.run();
+            recordingClass.getMethod("stop").invoke(recording);
+            recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+
+            Class<?> fileClass = Class.forName("jdk.jfr.consumer.RecordingFile");
+            List<?> events = (List<?>) fileClass.getMethod("readAllEvents", Path.class).invoke(null, file);
+            List<Recorded> result = new ArrayList<>();
+            for (Object event : events) {
+                Object type = event.getClass().getMethod("getEventType").invoke(event);
+                String name = (String) type.getClass().getMethod("getName").invoke(type);
+                if (!name.startsWith(PREFIX)) continue;
+                name = name.substring(PREFIX.length());
+                Method getValue = event.getClass().getMethod("getValue", String.class);
+                int vertexId = (Integer) getValue.invoke(event, "vertexId");
+                Object extra = null;
+                if (name.equals("SlowOperation")) extra = getValue.invoke(event, "operation");
+                if (name.equals("NeighborhoodConversion")) extra = getValue.invoke(event, "representation");
+                result.add(new Recorded(name, vertexId, extra));
+            }
+            return result;
+        } finally {
+            recordingClass.getMethod("close").invoke(recording);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int count(List<Recorded> events, String name, int vertexId) {
+        int n = 0;
+        for (Recorded e : events) {
+            if (e.name.equals(name) && e.vertexId == vertexId) n++;
+        }
+        return n;
+    }
+
+    private static boolean has(List<Recorded> events, String name, Object extra) {
+        for (Recorded e : events) {
+            if (e.name.equals(name) && (extra == null || extra.equals(e.extra))) return true;
+        }
+        return false;
+    }
+
+    public void testNegativeThreshold() {
+        try {
+            new FlightRecorderEvents(-1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testDisabledByDefault() {
+        assertNull(graph.getFlightRecorderEvents());
+        if (!FlightRecorderEvents.isAvailable()) return;
+        FlightRecorderEvents events = new FlightRecorderEvents();
+        assertEquals(FlightRecorderEvents.DEFAULT_THRESHOLD_NANOS, events.getThresholdNanos());
+        graph.setFlightRecorderEvents(events);
+        assertSame(events, graph.getFlightRecorderEvents());
+        graph.setFlightRecorderEvents(null);
+        assertNull(graph.getFlightRecorderEvents());
+    }
+
+    public void testStructuralEvents() throws Exception {
+        if (!FlightRecorderEvents.isAvailable()) return;
+        graph.setFlightRecorderEvents(new FlightRecorderEvents(Long.MAX_VALUE));
+        List<Recorded> events = record(() -> {
+            for (int i = 1; i <= 300; i++) {
+                graph.insertEdge(0, i);
+            }
+            for (int i = 1; i <= 300; i++) {
+                graph.deleteEdge(0, i);
+            }
+        });
+        assertEquals(2, count(events, "NeighborhoodConversion", 0));
+        assertTrue(has(events, "NeighborhoodConversion", "UnrolledSkipList"));
+        assertTrue(has(events, "NeighborhoodConversion", "PowerofTwo"));
+        assertTrue(count(events, "BlockSplit", 0) >= 2);
+        assertTrue(count(events, "BlockMerge", 0) >= 1);
+        assertTrue(has(events, "IndexGrowth", null));
+        assertEquals(0, count(events, "SlowOperation", 0));
+    }
+
+    public void testHashedConversionEvent() throws Exception {
+        if (!FlightRecorderEvents.isAvailable()) return;
+        graph.setHashThreshold(256);
+        graph.setFlightRecorderEvents(new FlightRecorderEvents(Long.MAX_VALUE));
+        List<Recorded> events = record(() -> {
+            for (int i = 1; i <= 300; i++) {
+                graph.insertEdge(0, i);
+            }
+        });
+        assertEquals(2, count(events, "NeighborhoodConversion", 0));
+        assertTrue(has(events, "NeighborhoodConversion", "UnrolledSkipList"));
+        assertTrue(has(events, "NeighborhoodConversion", "HashedUnrolledSkipList"));
+    }
+
+    public void testSlowOperations() throws Exception {
+        if (!FlightRecorderEvents.isAvailable()) return;
+        graph.insertEdge(5, 6);
+        graph.setFlightRecorderEvents(new FlightRecorderEvents(0));
+        List<Recorded> events = record(() -> {
+            graph.insertEdge(5, 7);
+            graph.findEdge(5, 6);
+            graph.scanNeighbors(6, id -> { });
+        });
+        assertEquals(2, count(events, "SlowOperation", 5));
+        assertEquals(1, count(events, "SlowOperation", 6));
+        assertTrue(has(events, "SlowOperation", GraphMetrics.Operation.INSERT_EDGE.label()));
+        assertTrue(has(events, "SlowOperation", GraphMetrics.Operation.FIND_EDGE.label()));
+        assertTrue(has(events, "SlowOperation", GraphMetrics.Operation.SCAN_NEIGHBORS.label()));
+    }
+
+    public void testWithMetrics() throws Exception {
+        if (!FlightRecorderEvents.isAvailable()) return;
+        GraphMetrics metrics = new GraphMetrics();
+        graph.setMetrics(metrics);
+        graph.setFlightRecorderEvents(new FlightRecorderEvents(0));
+        List<Recorded> events = record(() -> graph.insertEdge(1, 2));
+        assertEquals(1, count(events, "SlowOperation", 1));
+        assertEquals(1, metrics.snapshot().getCount(GraphMetrics.Operation.INSERT_EDGE));
+    }
+}
@@ -0,0 +1,155 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.GraphGenerator;
+import edu.uwm.cs351.GraphGenerator.EdgeList;
+import edu.uwm.cs351.GraphGenerator.Model;
+import edu.uwm.cs351.SortledtonGraph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestGraphGenerator extends TestCase {
+
+    private ForkJoinPool pool;
+
+    protected void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    private static int maxDegree(EdgeList edges, int n) {
+        int[] degree = new int[n];
+        for (int i = 0; i < edges.size(); i++) {
+            degree[edges.source(i)]++;
+            degree[edges.destination(i)]++;
+        }
+        int max = 0;
+        for (int d : degree) max = Math.max(max, d);
+        return max;
+    }
+
+    public void testSizesAndRanges() {
+        for (Model model : Model.values()) {
+            GraphGenerator generator = new GraphGenerator(model, 10, 8, 1, pool);
+            EdgeList edges = generator.generate();
+            assertEquals(1024, generator.getVertexCount());
+            assertEquals(8192, generator.getEdgeCount());
+            assertEquals(8192, edges.size());
+            for (int i = 0; i < edges.size(); i++) {
+                assertTrue(edges.source(i) >= 0 && edges.source(i) < 1024);
+                assertTrue(edges.destination(i) >= 0 && edges.destination(i) < 1024);
+            }
+        }
+    }
+
+    public void testDeterministicAcrossPools() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            for (Model model : Model.values()) {
+                EdgeList a = new GraphGenerator(model, 12, 16, 7, pool).generate();
+                EdgeList b = new GraphGenerator(model, 12, 16, 7, single).generate();
+                for (int i = 0; i < a.size(); i++) {
+                    assertEquals(model + " edge " + i, a.source(i), b.source(i));
+                    assertEquals(model + " edge " + i, a.destination(i), b.destination(i));
+                }
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    public void testSeedChangesEdges() {
+        EdgeList a = new GraphGenerator(Model.RMAT, 10, 4, 1, pool).generate();
+        EdgeList b = new GraphGenerator(Model.RMAT, 10, 4, 2, pool).generate();
+        int same = 0;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.source(i) == b.source(i) && a.destination(i) == b.destination(i)) same++;
+        }
+        assertTrue(same < a.size() / 10);
+    }
+
+    public void testPowerLawModelsHaveHubs() {
+        int uniform = maxDegree(new GraphGenerator(Model.UNIFORM, 14, 16, 3, pool).generate(), 1 << 14);
+        int rmat = maxDegree(new GraphGenerator(Model.RMAT, 14, 16, 3, pool).generate(), 1 << 14);
+        int attachment = maxDegree(new GraphGenerator(Model.PREFERENTIAL_ATTACHMENT, 14, 16, 3, pool).generate(), 1 << 14);
+        assertTrue("uniform " + uniform, uniform < 128);
+        assertTrue("rmat " + rmat, rmat > 4 * uniform);
+        assertTrue("attachment " + attachment, attachment > 4 * uniform);
+    }
+
+    public void testPreferentialAttachmentPointsBackwards() {
+        EdgeList edges = new GraphGenerator(Model.PREFERENTIAL_ATTACHMENT, 10, 4, 5, pool).generate();
+        for (int i = 0; i < edges.size(); i++) {
+            assertEquals(i / 4, edges.source(i));
+            assertTrue(edges.destination(i) < edges.source(i) || edges.source(i) == 0);
+        }
+    }
+
+    public void testLoad() {
+        GraphGenerator generator = new GraphGenerator(Model.RMAT, 9, 8, 11, pool);
+        SortledtonGraph<Integer> graph = new SortledtonGraph<>();
+        generator.load(graph);
+        assertEquals(512, graph.getVertexCount());
+        EdgeList edges = generator.generate();
+        for (int i = 0; i < edges.size(); i++) {
+            assertTrue(graph.findEdge(edges.source(i), edges.destination(i)));
+            assertTrue(graph.findEdge(edges.destination(i), edges.source(i)));
+        }
+        assertTrue(SortledtonGraph.Spy.wellFormed(graph));
+    }
+
+    public void testWrite() throws IOException {
+        Path dir = Files.createTempDirectory("generator");
+        try {
+            GraphGenerator generator = new GraphGenerator(Model.UNIFORM, 4, 2, 9, pool);
+            generator.write(dir.resolve("tiny"));
+            List<String> vertices = Files.readAllLines(dir.resolve("tiny.v"));
+            List<String> lines = Files.readAllLines(dir.resolve("tiny.e"));
+            assertEquals(16, vertices.size());
+            assertEquals(32, lines.size());
+            EdgeList edges = generator.generate();
+            assertEquals(edges.source(5) + " " + edges.destination(5), lines.get(5));
+        } finally {
+            Files.deleteIfExists(dir.resolve("tiny.v"));
+            Files.deleteIfExists(dir.resolve("tiny.e"));
+            Files.delete(dir);
+        }
+    }
+
+    public void testBadParameters() {
+        try {
+            new GraphGenerator(Model.RMAT, 31, 1, 0, pool);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new GraphGenerator(Model.UNIFORM, 28, 16, 0, pool);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new GraphGenerator(Model.RMAT, 4, 1, 0, pool).setRmatProbabilities(0.6, 0.3, 0.2);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testDistinctEdgesMostlyUnique() {
+        EdgeList edges = new GraphGenerator(Model.UNIFORM, 12, 4, 13, pool).generate();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < edges.size(); i++) {
+            seen.add((long) edges.source(i) << 32 | edges.destination(i));
+        }
+        assertTrue(seen.size() > edges.size() * 9 / 10);
+    }
+}
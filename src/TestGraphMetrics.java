@@ -0,0 +1,150 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.GraphMetrics;
+import edu.uwm.cs351.GraphMetrics.Event;
+import edu.uwm.cs351.GraphMetrics.Operation;
+import edu.uwm.cs351.GraphMetrics.Snapshot;
+import edu.uwm.cs351.LatencyHistogram;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+public class TestGraphMetrics extends TestCase {
+
+    private SortledtonGraph<Integer> graph;
+    private GraphMetrics metrics;
+
+    protected void setUp() {
+        graph = new SortledtonGraph<>();
+        graph.setDebug(false);
+        metrics = new GraphMetrics();
+    }
+
+    public void testDisabledByDefault() {
+        assertNull(graph.getMetrics());
+        graph.insertEdge(1, 2);
+        graph.setMetrics(metrics);
+        assertSame(metrics, graph.getMetrics());
+        assertEquals(0, metrics.snapshot().getCount(Operation.INSERT_EDGE));
+    }
+
+    public void testOperationsCounted() {
+        graph.setMetrics(metrics);
+        graph.insertEdge(1, 2);
+        graph.insertEdge(2, 3, 0.5);
+        graph.insertEdge(1, 3);
+        graph.findEdge(1, 2);
+        graph.findEdge(7, 8);
+        graph.scanNeighbors(1, id -> { });
+        graph.scanWeightedNeighbors(2, Direction.OUT, (id, w) -> { });
+        graph.intersectNeighbors(1, 2);
+        graph.deleteEdge(1, 3);
+
+        Snapshot snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.getCount(Operation.INSERT_EDGE));
+        assertEquals(1, snapshot.getCount(Operation.DELETE_EDGE));
+        assertEquals(2, snapshot.getCount(Operation.FIND_EDGE));
+        assertEquals(2, snapshot.getCount(Operation.SCAN_NEIGHBORS));
+        assertEquals(1, snapshot.getCount(Operation.INTERSECT_NEIGHBORS));
+        LatencyHistogram latency = snapshot.getLatency(Operation.INSERT_EDGE);
+        assertEquals(3, latency.getCount());
+        assertTrue(latency.getMax() > 0);
+        assertTrue(latency.getValueAtPercentile(50) <= latency.getMax());
+    }
+
+    public void testFailedOperationNotCounted() {
+        graph.setMetrics(metrics);
+        graph.insertEdge(1, 2);
+        try {
+            graph.deleteEdge(1, 3);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(0, metrics.snapshot().getCount(Operation.DELETE_EDGE));
+    }
+
+    public void testStructuralEvents() {
+        graph.setMetrics(metrics);
+        for (int i = 1; i <= 300; i++) {
+            graph.insertEdge(0, i);
+        }
+        Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getCount(Event.CONVERSION_TO_UNROLLED_SKIP_LIST));
+        assertTrue(snapshot.getCount(Event.BLOCK_SPLIT) >= 2);
+        assertTrue(snapshot.getCount(Event.INDEX_GROWTH) >= 1);
+
+        for (int i = 1; i <= 300; i++) {
+            graph.deleteEdge(0, i);
+        }
+        snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getCount(Event.CONVERSION_TO_POWER_OF_TWO));
+        assertTrue(snapshot.getCount(Event.BLOCK_MERGE) >= 1);
+    }
+
+    public void testAttachToExistingSkipLists() {
+        for (int i = 1; i <= 300; i++) {
+            graph.insertEdge(0, i);
+        }
+        graph.setMetrics(metrics);
+        for (int i = 301; i <= 600; i++) {
+            graph.insertEdge(0, i);
+        }
+        assertTrue(metrics.snapshot().getCount(Event.BLOCK_SPLIT) >= 2);
+        assertEquals(0, metrics.snapshot().getCount(Event.CONVERSION_TO_UNROLLED_SKIP_LIST));
+
+        graph.setMetrics(null);
+        long splits = metrics.snapshot().getCount(Event.BLOCK_SPLIT);
+        for (int i = 601; i <= 900; i++) {
+            graph.insertEdge(0, i);
+        }
+        assertEquals(splits, metrics.snapshot().getCount(Event.BLOCK_SPLIT));
+        assertEquals(300, metrics.snapshot().getCount(Operation.INSERT_EDGE));
+    }
+
+    public void testSnapshotDoesNotChange() {
+        graph.setMetrics(metrics);
+        graph.insertEdge(1, 2);
+        Snapshot snapshot = metrics.snapshot();
+        graph.insertEdge(1, 3);
+        assertEquals(1, snapshot.getCount(Operation.INSERT_EDGE));
+        snapshot.getLatency(Operation.INSERT_EDGE).reset();
+        assertEquals(1, snapshot.getCount(Operation.INSERT_EDGE));
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().getCount(Operation.INSERT_EDGE));
+        assertEquals(0, metrics.snapshot().getCount(Event.INDEX_GROWTH));
+    }
+
+    public void testMXBean() throws Exception {
+        graph.setMetrics(metrics);
+        graph.insertEdge(1, 2);
+        graph.findEdge(1, 2);
+        ObjectName name = metrics.register("test-graph");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertTrue(server.isRegistered(name));
+            TabularData counts = (TabularData) server.getAttribute(name, "OperationCounts");
+            CompositeData row = counts.get(new Object[] { "findEdge" });
+            assertEquals(1L, row.get("value"));
+            TabularData latency = (TabularData) server.getAttribute(name, "LatencyMicros");
+            assertNotNull(latency.get(new Object[] { "insertEdge.p99" }));
+            Map<String, Long> events = metrics.getEventCounts();
+            assertTrue(events.containsKey("blockSplit"));
+            try {
+                metrics.register("again");
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
@@ -0,0 +1,120 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.GraphalyticsDriver;
+import edu.uwm.cs351.GraphalyticsDriver.Result;
+import edu.uwm.cs351.GraphalyticsDriver.Validation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class TestGraphalyticsDriver extends TestCase {
+
+    private Path dir;
+    private GraphalyticsDriver driver;
+
+    // A weighted triangle 1-2-3 and a separate edge 4-5
+    protected void setUp() throws IOException {
+        dir = Files.createTempDirectory("graphalytics");
+        write("tiny.properties",
+              "graph.tiny.directed = false\n"
+              + "graph.tiny.algorithms = bfs, pr, wcc, cdlp, lcc, sssp\n"
+              + "graph.tiny.bfs.source-vertex = 1\n"
+              + "graph.tiny.cdlp.max-iterations = 2\n"
+              + "graph.tiny.pr.damping-factor = 0.85\n"
+              + "graph.tiny.pr.num-iterations = 5\n"
+              + "graph.tiny.sssp.weight-property = weight\n"
+              + "graph.tiny.sssp.source-vertex = 1\n");
+        write("tiny.v", "1\n2\n3\n4\n5\n");
+        write("tiny.e", "1 2 0.5\n2 3 1.5\n1 3 3.0\n4 5 1.0\n");
+        write("tiny-BFS", "1 0\n2 1\n3 1\n4 9223372036854775807\n5 9223372036854775807\n");
+        write("tiny-PR", "1 0.2\n2 0.2\n3 0.2\n4 0.2\n5 0.2\n");
+        write("tiny-WCC", "1 10\n2 10\n3 10\n4 40\n5 40\n");
+        write("tiny-CDLP", "1 1\n2 1\n3 1\n4 4\n5 5\n");
+        write("tiny-LCC", "1 1.0\n2 1.0\n3 1.0\n4 0.0\n5 0.0\n");
+        write("tiny-SSSP", "1 0.0\n2 0.5\n3 2.0\n4 infinity\n5 infinity\n");
+        driver = new GraphalyticsDriver(dir, "tiny", 2);
+    }
+
+    protected void tearDown() throws IOException {
+        driver.shutdown();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void testLoad() throws IOException {
+        assertTrue(driver.load() >= 0);
+        assertEquals(5, driver.getVertexCount());
+        assertEquals(4, driver.getEdgeCount());
+        assertEquals(6, driver.configuredAlgorithms().size());
+    }
+
+    public void testAllAlgorithmsValidate() throws IOException {
+        driver.load();
+        for (String algorithm : driver.configuredAlgorithms()) {
+            Result result = driver.run(algorithm);
+            assertEquals(algorithm, Validation.PASSED, result.getValidation());
+            assertTrue(result.getMakespanSeconds() > 0);
+            assertTrue(result.getEvps() > 0);
+        }
+    }
+
+    public void testWrongReferenceFails() throws IOException {
+        write("tiny-WCC", "1 10\n2 10\n3 40\n4 40\n5 40\n");
+        write("tiny-SSSP", "1 0.0\n2 0.5\n3 4.5\n4 infinity\n5 infinity\n");
+        driver.load();
+        assertEquals(Validation.FAILED, driver.run("wcc").getValidation());
+        assertEquals(Validation.FAILED, driver.run("sssp").getValidation());
+    }
+
+    public void testMissingReferenceSkipped() throws IOException {
+        Files.delete(dir.resolve("tiny-LCC"));
+        driver.load();
+        assertEquals(Validation.SKIPPED, driver.run("LCC").getValidation());
+    }
+
+    public void testJson() throws IOException {
+        String load = driver.loadJson(driver.load());
+        assertTrue(load, load.startsWith("{\"graph\":\"tiny\",\"phase\":\"load\""));
+        String run = driver.resultJson(driver.run("BFS"), 1);
+        assertTrue(run, run.contains("\"algorithm\":\"BFS\""));
+        assertTrue(run, run.contains("\"validation\":\"passed\""));
+        assertTrue(run, run.contains("\"evps\":"));
+    }
+
+    public void testRunBeforeLoad() throws IOException {
+        try {
+            driver.run("BFS");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    public void testUnknownAlgorithm() throws IOException {
+        driver.load();
+        try {
+            driver.run("APSP");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testVertexIdOutOfRange() throws IOException {
+        write("tiny.v", "1\n4294967296\n");
+        try {
+            driver.load();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
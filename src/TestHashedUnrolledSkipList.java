@@ -0,0 +1,116 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.HashedUnrolledSkipList;
+import edu.uwm.cs351.NeighborCursor;
+import edu.uwm.cs351.UnrolledSkipList;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestHashedUnrolledSkipList extends TestCase {
+
+    private HashedUnrolledSkipList<Integer> list;
+
+    protected void setUp() {
+        list = new HashedUnrolledSkipList<>();
+    }
+
+    public void testEmpty() {
+        assertEquals(0, list.size());
+        assertFalse(list.contains(1));
+        assertFalse(list.contains(null));
+        assertTrue(list.getNeighbors().isEmpty());
+    }
+
+    public void testAddAndContains() {
+        for (int i = 0; i < 1000; i += 2) {
+            list.addNeighbor(i);
+        }
+        list.addNeighbor(10); // Duplicate
+        assertEquals(500, list.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0, list.contains(i));
+        }
+    }
+
+    public void testRemove() {
+        for (int i = 0; i < 1000; i++) {
+            list.addNeighbor(i);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            list.removeNeighbor(i);
+        }
+        list.removeNeighbor(0); // Already gone
+        list.removeNeighbor(5000); // Never there
+        assertEquals(666, list.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 3 != 0, list.contains(i));
+        }
+    }
+
+    public void testRandomChurnAgreesWithTreeSet() {
+        Random random = new Random(42);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                list.removeNeighbor(id);
+                expected.remove(id);
+            } else {
+                list.addNeighbor(id);
+                expected.add(id);
+            }
+        }
+        assertEquals(expected.size(), list.size());
+        assertEquals(new java.util.ArrayList<>(expected), list.getNeighbors());
+        for (int id = 0; id < 2000; id++) {
+            assertEquals(expected.contains(id), list.contains(id));
+        }
+    }
+
+    public void testWeightsAndScans() {
+        for (int i = 499; i >= 0; i--) {
+            list.addNeighbor(i, i / 2.0);
+        }
+        list.addNeighbor(7, 70.0); // Replaces the weight only
+        assertEquals(500, list.size());
+        assertEquals(70.0, list.getWeight(7));
+        NeighborCursor<Integer> cursor = list.cursor();
+        for (int i = 0; i < 500; i++) {
+            assertTrue(cursor.next());
+            assertEquals(Integer.valueOf(i), cursor.id());
+        }
+        assertFalse(cursor.next());
+    }
+
+    public void testIntersectWithUnrolledSkipList() {
+        UnrolledSkipList<Integer> other = new UnrolledSkipList<>();
+        for (int i = 0; i < 600; i++) {
+            list.addNeighbor(2 * i);
+            other.addNeighbor(3 * i);
+        }
+        List<Integer> common = list.intersect(other);
+        assertEquals(200, common.size());
+        for (int id : common) {
+            assertEquals(0, id % 6);
+        }
+    }
+
+    public void testStringIds() {
+        HashedUnrolledSkipList<String> strings = new HashedUnrolledSkipList<>();
+        for (int i = 1; i <= 300; i++) {
+            strings.addNeighbor("v" + i);
+        }
+        assertTrue(strings.contains("v42"));
+        assertTrue(strings.contains("v042")); // The comparator ignores leading zeros
+        assertFalse(strings.contains("v301"));
+        strings.removeNeighbor("v0042");
+        assertFalse(strings.contains("v42"));
+        assertEquals(299, strings.size());
+    }
+
+    public void testToString() {
+        list.addNeighbor(1);
+        assertEquals("HashedUnrolledSkipList[1]", list.toString());
+    }
+}
@@ -4,6 +4,8 @@ import java.lang.reflect.Array;
 import java.util.HashMap;
 import java.util.Map;
 
+import edu.uwm.cs351.EdgeProperty;
+import edu.uwm.cs351.PowerofTwo;
 import edu.uwm.cs351.SortledtonGraph;
 import edu.uwm.cs351.SortledtonGraph.Spy;
 import edu.uwm.cs351.VertexRecord;
@@ -167,5 +169,70 @@ public class TestInternals extends TestCase {
         graph.deleteVertex(2);
         assertTrue(Spy.wellFormed(graph));
     }
+
+    // Test method for checking that a debugging instance keeps edge property columns
+    public void testInstanceKeepsEdgeProperties() {
+        EdgeProperty label = graph.registerEdgeProperty("label", EdgeProperty.Type.INT);
+        Map<Integer, Integer> logicalToPhysical = new HashMap<>();
+        logicalToPhysical.put(1, 0);
+        logicalToPhysical.put(2, 1);
+        @SuppressWarnings("unchecked")
+        VertexRecord<Integer>[] index = (VertexRecord<Integer>[]) Array.newInstance(VertexRecord.class, 2);
+        PowerofTwo<Integer> neighbors1 = new PowerofTwo<>();
+        neighbors1.addNeighbor(2);
+        neighbors1.setProperty(2, label, label.encode(7));
+        PowerofTwo<Integer> neighbors2 = new PowerofTwo<>();
+        neighbors2.addNeighbor(1);
+        neighbors2.setProperty(1, label, label.encode(7));
+        index[0] = new VertexRecord<>(1, neighbors1);
+        index[1] = new VertexRecord<>(2, neighbors2);
+
+        SortledtonGraph<Integer> instance = Spy.newInstance(2, logicalToPhysical, index, Spy.getEdgeProperties(graph));
+        assertTrue(Spy.wellFormed(instance));
+        assertSame(label, instance.getEdgeProperty("label"));
+        assertEquals(7, instance.getEdgeProperty(1, 2, label));
+        neighbors1.setProperty(2, label, label.encode(9)); // The instance holds copies
+        assertEquals(7, instance.getEdgeProperty(1, 2, label));
+
+        EdgeProperty other = new SortledtonGraph<Integer>().registerEdgeProperty("other", EdgeProperty.Type.INT);
+        try {
+            Spy.newInstance(2, logicalToPhysical, index, java.util.Arrays.asList(label, other));
+            fail("Expected IllegalArgumentException for properties out of column order.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+
+    // Test method for creating a directed debugging instance that stores in-edges
+    public void testDirectedInstance() {
+        Map<Integer, Integer> logicalToPhysical = new HashMap<>();
+        logicalToPhysical.put(1, 0);
+        logicalToPhysical.put(2, 1);
+        @SuppressWarnings("unchecked")
+        VertexRecord<Integer>[] index = (VertexRecord<Integer>[]) Array.newInstance(VertexRecord.class, 2);
+        PowerofTwo<Integer> out1 = new PowerofTwo<>();
+        out1.addNeighbor(2);
+        PowerofTwo<Integer> in2 = new PowerofTwo<>();
+        in2.addNeighbor(1);
+        index[0] = new VertexRecord<>(1, out1, new PowerofTwo<Integer>());
+        index[0].adjacencySetSize = 1;
+        index[1] = new VertexRecord<>(2, new PowerofTwo<Integer>(), in2);
+        index[1].inAdjacencySetSize = 1;
+
+        SortledtonGraph<Integer> instance = Spy.newInstance(true, true, 2, logicalToPhysical, index,
+                java.util.Collections.<EdgeProperty>emptyList());
+        assertTrue(Spy.wellFormed(instance));
+        assertTrue(instance.isDirected());
+        assertTrue(instance.findEdge(1, 2));
+        assertFalse(instance.findEdge(2, 1));
+        assertEquals(java.util.Arrays.asList(1), instance.getNeighbors(2, SortledtonGraph.Direction.IN));
+
+        try {
+            Spy.newInstance(false, true, 2, logicalToPhysical, index, java.util.Collections.<EdgeProperty>emptyList());
+            fail("Expected IllegalArgumentException for in-edges in an undirected graph.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
     
 }
\ No newline at end of file
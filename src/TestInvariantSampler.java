@@ -0,0 +1,130 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.InvariantSampler;
+import edu.uwm.cs351.PowerofTwo;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.SortledtonGraph.Spy;
+import edu.uwm.cs351.VertexRecord;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+public class TestInvariantSampler extends TestCase {
+
+    private final Spy spy = new Spy();
+    private Consumer<String> reporter;
+    private List<String> errors;
+
+    protected void setUp() {
+        reporter = spy.getReporter();
+        errors = new ArrayList<>();
+        spy.setReporter(errors::add);
+    }
+
+    protected void tearDown() {
+        spy.setReporter(reporter);
+    }
+
+    public void testBadArguments() {
+        SortledtonGraph<Integer> graph = new SortledtonGraph<>();
+        ReentrantLock lock = new ReentrantLock();
+        try {
+            new InvariantSampler(null, lock, 10, 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new InvariantSampler(graph, null, 10, 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new InvariantSampler(graph, lock, 0, 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testEmptyGraph() {
+        InvariantSampler sampler = new InvariantSampler(new SortledtonGraph<Integer>(), new ReentrantLock(), 10, 1);
+        assertTrue(sampler.auditOne());
+        assertEquals(0, sampler.getAudited());
+    }
+
+    public void testHealthyGraph() {
+        SortledtonGraph<Integer> graph = new SortledtonGraph<>();
+        for (int i = 1; i <= 300; i++) {
+            graph.insertEdge(0, i);
+            graph.insertEdge(i, i + 1);
+        }
+        InvariantSampler sampler = new InvariantSampler(graph, new ReentrantLock(), 10, 1);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(sampler.auditOne());
+        }
+        assertEquals(1000, sampler.getAudited());
+        assertEquals(0, sampler.getFailures());
+        assertEquals(-1, sampler.getLastFailure());
+        assertTrue(errors.isEmpty());
+    }
+
+    public void testBrokenVertex() {
+        Map<Integer, Integer> logicalToPhysical = new HashMap<>();
+        logicalToPhysical.put(1, 0);
+        @SuppressWarnings("unchecked")
+        VertexRecord<Integer>[] index = (VertexRecord<Integer>[]) Array.newInstance(VertexRecord.class, 1);
+        PowerofTwo<Integer> neighbors = new PowerofTwo<>();
+        neighbors.addNeighbor(2);
+        index[0] = new VertexRecord<>(1, neighbors);
+        index[0].adjacencySetSize = 5; // Wrong
+        SortledtonGraph<Integer> graph = Spy.newInstance(1, logicalToPhysical, index);
+
+        InvariantSampler sampler = new InvariantSampler(graph, new ReentrantLock(), 10, 1);
+        assertFalse(sampler.auditOne());
+        assertEquals(1, sampler.getFailures());
+        assertEquals(0, sampler.getLastFailure());
+        assertEquals(1, errors.size());
+    }
+
+    public void testBackgroundAudits() throws InterruptedException {
+        SortledtonGraph<Integer> graph = new SortledtonGraph<>();
+        graph.setDebug(false);
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        InvariantSampler sampler = new InvariantSampler(graph, lock.readLock(), 10_000, 7);
+        try (InvariantSampler running = sampler) {
+            running.start();
+            try {
+                running.start();
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+            for (int i = 1; i <= 2000; i++) {
+                lock.writeLock().lock();
+                try {
+                    graph.insertEdge(i % 3, i);
+                    if (i % 5 == 0) graph.deleteEdge(i % 3, i);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (running.getAudited() < 100 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        long audited = sampler.getAudited(); // Closing joined the thread
+        assertTrue(audited >= 100);
+        assertEquals(0, sampler.getFailures());
+        Thread.sleep(20);
+        assertEquals(audited, sampler.getAudited());
+        assertTrue(errors.isEmpty());
+    }
+}
@@ -0,0 +1,117 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.LabelPropagation;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestLabelPropagation extends TestCase {
+
+    private ForkJoinPool pool;
+
+    protected void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    // The Graphalytics reference: a map of label counts per vertex per iteration
+    private static int[] referenceLabels(SortledtonGraph<Integer> g, int iterations) {
+        int n = g.getVertexCount();
+        int[] labels = new int[n];
+        for (int p = 0; p < n; p++) {
+            labels[p] = g.logicalId(p);
+        }
+        for (int i = 0; i < iterations; i++) {
+            int[] next = new int[n];
+            for (int p = 0; p < n; p++) {
+                int v = g.logicalId(p);
+                List<Integer> neighbors = new ArrayList<>(g.getNeighbors(v, Direction.OUT));
+                if (g.isDirected()) neighbors.addAll(g.getNeighbors(v, Direction.IN));
+                Map<Integer, Integer> counts = new TreeMap<>();
+                for (int u : neighbors) {
+                    counts.merge(labels[g.physicalId(u)], 1, Integer::sum);
+                }
+                next[p] = labels[p];
+                int best = 0;
+                for (Map.Entry<Integer, Integer> e : counts.entrySet()) {
+                    if (e.getValue() > best) {
+                        best = e.getValue();
+                        next[p] = e.getKey();
+                    }
+                }
+            }
+            labels = next;
+        }
+        return labels;
+    }
+
+    private void assertLabels(SortledtonGraph<Integer> g, int iterations) {
+        int[] expected = referenceLabels(g, iterations);
+        int[] actual = new LabelPropagation<>(g, pool).run(iterations);
+        assertEquals(expected.length, actual.length);
+        for (int p = 0; p < expected.length; p++) {
+            assertEquals("label of " + g.logicalId(p), expected[p], actual[p]);
+        }
+    }
+
+    public void testInvalidArguments() {
+        try {
+            new LabelPropagation<>(new SortledtonGraph<Integer>(), pool).run(-1);
+            fail("Expected IllegalArgumentException for negative iterations.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            new LabelPropagation<>(new SortledtonGraph<Integer>(true, false), pool).run(5);
+            fail("Expected IllegalStateException without in-edges.");
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+    }
+
+    public void testTwoCliques() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        for (int i = 10; i < 15; i++) {
+            for (int j = i + 1; j < 15; j++) {
+                g.insertEdge(i, j);
+                g.insertEdge(i + 10, j + 10);
+            }
+        }
+        g.insertEdge(14, 20);
+        g.insertVertex(99);
+        LabelPropagation<Integer> cdlp = new LabelPropagation<>(g);
+        int[] labels = cdlp.run(10);
+        for (int i = 10; i < 14; i++) {
+            assertEquals(10, labels[g.physicalId(i)]);
+        }
+        for (int i = 21; i < 25; i++) {
+            assertEquals(20, labels[g.physicalId(i)]);
+        }
+        assertEquals(99, labels[g.physicalId(99)]);
+        assertTrue(cdlp.getIterations() < 10);
+        assertLabels(g, 10);
+    }
+
+    public void testRandomUndirectedGraph() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        g.setDebug(false);
+        HubGraphs.addEdges(g, 59, 8_000, 1_000, 20);
+        for (int iterations = 0; iterations <= 5; iterations++) {
+            assertLabels(g, iterations);
+        }
+    }
+
+    public void testRandomDirectedGraph() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>(true, true);
+        g.setDebug(false);
+        HubGraphs.addEdges(g, 61, 8_000, 1_000, 20);
+        assertLabels(g, 5);
+    }
+}
@@ -0,0 +1,86 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestLatencyHistogram extends TestCase {
+
+    public void testEmpty() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0.0, h.getMean());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getValueAtPercentile(99));
+    }
+
+    public void testSmallValuesExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int v = 1; v <= 100; v++) {
+            h.record(v);
+        }
+        assertEquals(100, h.getCount());
+        assertEquals(50.5, h.getMean(), 1e-9);
+        assertEquals(50, h.getValueAtPercentile(50));
+        assertEquals(99, h.getValueAtPercentile(99));
+        assertEquals(100, h.getValueAtPercentile(100));
+        assertEquals(1, h.getValueAtPercentile(0));
+    }
+
+    public void testNegativeClamped() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        assertEquals(1, h.getCount());
+        assertEquals(0, h.getMax());
+    }
+
+    public void testRelativeError() {
+        Random random = new Random(3);
+        long[] values = new long[100_000];
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 40);
+            h.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double p : new double[] { 10, 50, 90, 99, 99.9 }) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long estimate = h.getValueAtPercentile(p);
+            assertTrue(p + ": " + estimate + " vs " + exact, estimate >= exact);
+            assertTrue(p + ": " + estimate + " vs " + exact, estimate <= exact + exact / 64 + 1);
+        }
+        assertEquals(values[values.length - 1], h.getMax());
+    }
+
+    public void testLargestValues() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(Long.MAX_VALUE);
+        h.record(Long.MAX_VALUE - 1);
+        assertEquals(Long.MAX_VALUE, h.getValueAtPercentile(100));
+        assertEquals(Long.MAX_VALUE, h.getMax());
+    }
+
+    public void testAddAndReset() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        b.record(1000);
+        b.record(30);
+        a.add(b);
+        assertEquals(3, a.getCount());
+        assertEquals(1000, a.getMax());
+        assertEquals(30, a.getValueAtPercentile(50));
+        a.reset();
+        assertEquals(0, a.getCount());
+        assertEquals(0, a.getValueAtPercentile(50));
+    }
+
+    public void testBadPercentile() {
+        try {
+            new LatencyHistogram().getValueAtPercentile(101);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
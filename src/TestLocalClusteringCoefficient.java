@@ -0,0 +1,104 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.LocalClusteringCoefficient;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestLocalClusteringCoefficient extends TestCase {
+
+    private static final double EPSILON = 1e-12;
+
+    private ForkJoinPool pool;
+
+    protected void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    // Counts the directed edges among the neighbors of each vertex with findEdge
+    private static double[] referenceCoefficients(SortledtonGraph<Integer> g) {
+        int n = g.getVertexCount();
+        double[] lcc = new double[n];
+        for (int p = 0; p < n; p++) {
+            int v = g.logicalId(p);
+            Set<Integer> neighbors = new HashSet<>(g.getNeighbors(v, Direction.OUT));
+            if (g.isDirected()) neighbors.addAll(g.getNeighbors(v, Direction.IN));
+            neighbors.remove(v);
+            int d = neighbors.size();
+            if (d < 2) continue;
+            int links = 0;
+            for (int u : neighbors) {
+                for (int w : neighbors) {
+                    if (u != w && g.getNeighbors(u, Direction.OUT).contains(w)) links++;
+                }
+            }
+            lcc[p] = (double) links / ((double) d * (d - 1));
+        }
+        return lcc;
+    }
+
+    private void assertCoefficients(SortledtonGraph<Integer> g) {
+        double[] expected = referenceCoefficients(g);
+        double[] actual = new LocalClusteringCoefficient<>(g, pool).run();
+        assertEquals(expected.length, actual.length);
+        for (int p = 0; p < expected.length; p++) {
+            assertEquals("coefficient of " + g.logicalId(p), expected[p], actual[p], EPSILON);
+        }
+    }
+
+    public void testDirectedWithoutInEdges() {
+        try {
+            new LocalClusteringCoefficient<>(new SortledtonGraph<Integer>(true, false), pool).run();
+            fail("Expected IllegalStateException without in-edges.");
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+    }
+
+    public void testTriangleWithTail() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        g.insertEdge(1, 2);
+        g.insertEdge(2, 3);
+        g.insertEdge(3, 1);
+        g.insertEdge(3, 4);
+        g.insertEdge(4, 4);
+        double[] lcc = new LocalClusteringCoefficient<>(g).run();
+        assertEquals(1.0, lcc[g.physicalId(1)], EPSILON);
+        assertEquals(1.0, lcc[g.physicalId(2)], EPSILON);
+        assertEquals(1.0 / 3, lcc[g.physicalId(3)], EPSILON);
+        assertEquals(0.0, lcc[g.physicalId(4)], EPSILON);
+    }
+
+    public void testCompleteGraph() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        g.setDebug(false);
+        for (int i = 0; i < 150; i++) {
+            for (int j = i + 1; j < 150; j++) {
+                g.insertEdge(i, j);
+            }
+        }
+        for (double c : new LocalClusteringCoefficient<>(g, pool).run()) {
+            assertEquals(1.0, c, EPSILON);
+        }
+    }
+
+    public void testRandomUndirectedGraph() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        g.setDebug(false);
+        HubGraphs.addEdges(g, 47, 6_000, 400, 15);
+        assertCoefficients(g);
+    }
+
+    public void testRandomDirectedGraph() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>(true, true);
+        g.setDebug(false);
+        HubGraphs.addEdges(g, 53, 4_000, 300, 15);
+        assertCoefficients(g);
+    }
+}
@@ -0,0 +1,51 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.NeighborhoodBenchmark;
+import edu.uwm.cs351.NeighborhoodBenchmark.Result;
+
+import java.util.List;
+
+public class TestNeighborhoodBenchmark extends TestCase {
+
+    private static final long ITERATION_NANOS = 2_000_000;
+
+    public void testEveryCaseRuns() {
+        for (String implementation : NeighborhoodBenchmark.IMPLEMENTATIONS) {
+            for (String order : NeighborhoodBenchmark.ORDERS) {
+                for (String operation : NeighborhoodBenchmark.OPERATIONS) {
+                    for (int degree : new int[] { 1, 200 }) {
+                        NeighborhoodBenchmark benchmark = new NeighborhoodBenchmark(implementation, order, operation, degree);
+                        List<Result> results = benchmark.measure(1, 2, ITERATION_NANOS);
+                        assertEquals(2, results.size());
+                        for (Result result : results) {
+                            assertTrue(result.getOperations() > 0);
+                            assertTrue(result.getNanosPerOperation() >= 0);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void testJson() {
+        NeighborhoodBenchmark benchmark = new NeighborhoodBenchmark("unrolledSkipList", "random", "contains", 300);
+        String json = benchmark.toJson(0, benchmark.measure(0, 1, ITERATION_NANOS));
+        assertTrue(json, json.startsWith("{\"implementation\":\"unrolledSkipList\",\"order\":\"random\",\"operation\":\"contains\",\"degree\":300"));
+        assertTrue(json, json.contains("\"ns_per_op\":"));
+        assertTrue(json, json.contains("\"bytes_per_op\":"));
+    }
+
+    public void testUnknownCase() {
+        try {
+            new NeighborhoodBenchmark("hashSet", "random", "add", 10);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new NeighborhoodBenchmark("powerOfTwo", "random", "add", 0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.PageRank;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestPageRank extends TestCase {
+
+    private static final double EPSILON = 1e-9;
+
+    private ForkJoinPool pool;
+
+    protected void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    // A plain sequential push-style PageRank over getNeighbors, indexed by physical ID
+    private static double[] referenceRanks(SortledtonGraph<Integer> g, double d, int iterations) {
+        int n = g.getVertexCount();
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int i = 0; i < iterations; i++) {
+            double[] next = new double[n];
+            double dangling = 0;
+            for (int p = 0; p < n; p++) {
+                List<Integer> out = g.getNeighbors(g.logicalId(p), Direction.OUT);
+                if (out.isEmpty()) {
+                    dangling += rank[p];
+                    continue;
+                }
+                for (int u : out) {
+                    next[g.physicalId(u)] += rank[p] / out.size();
+                }
+            }
+            for (int p = 0; p < n; p++) {
+                next[p] = (1 - d) / n + d * (next[p] + dangling / n);
+            }
+            rank = next;
+        }
+        return rank;
+    }
+
+    private static SortledtonGraph<Integer> randomGraph(boolean directed, long seed) {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>(directed, directed);
+        g.setDebug(false);
+        HubGraphs.addEdges(g, seed, 20_000, 2_000, 10);
+        for (int i = 2_000; i < 2_010; i++) {
+            g.insertVertex(i); // Dangling vertices
+        }
+        return g;
+    }
+
+    private static void assertRanks(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        double sum = 0;
+        for (int p = 0; p < expected.length; p++) {
+            assertEquals(expected[p], actual[p], EPSILON);
+            sum += actual[p];
+        }
+        assertEquals(1.0, sum, 1e-6);
+    }
+
+    public void testInvalidArguments() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        PageRank<Integer> pageRank = new PageRank<>(g, pool);
+        try {
+            pageRank.run(1.5, 10, 0);
+            fail("Expected IllegalArgumentException for a damping factor above 1.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            pageRank.run(-1, 0);
+            fail("Expected IllegalArgumentException for negative iterations.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            new PageRank<>(new SortledtonGraph<Integer>(true, false), pool).run(10, 0);
+            fail("Expected IllegalStateException without in-edges.");
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+    }
+
+    public void testEmptyGraph() {
+        assertEquals(0, new PageRank<>(new SortledtonGraph<Integer>(), pool).run(10, 0).length);
+    }
+
+    public void testCycle() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>(true, true);
+        g.insertEdge(1, 2);
+        g.insertEdge(2, 3);
+        g.insertEdge(3, 1);
+        double[] rank = new PageRank<>(g, pool).run(50, 0);
+        for (double r : rank) {
+            assertEquals(1.0 / 3, r, EPSILON);
+        }
+    }
+
+    public void testUndirectedGraph() {
+        SortledtonGraph<Integer> g = randomGraph(false, 3);
+        assertRanks(referenceRanks(g, 0.85, 20), new PageRank<>(g, pool).run(0.85, 20, 0));
+    }
+
+    public void testDirectedGraph() {
+        SortledtonGraph<Integer> g = randomGraph(true, 5);
+        PageRank<Integer> pageRank = new PageRank<>(g, pool);
+        assertRanks(referenceRanks(g, 0.7, 15), pageRank.run(0.7, 15, 0));
+        assertEquals(15, pageRank.getIterations());
+    }
+
+    public void testConvergence() {
+        SortledtonGraph<Integer> g = randomGraph(false, 7);
+        PageRank<Integer> pageRank = new PageRank<>(g);
+        double[] rank = pageRank.run(1_000, 1e-10);
+        assertTrue(pageRank.getIterations() < 1_000);
+        assertRanks(referenceRanks(g, PageRank.DEFAULT_DAMPING_FACTOR, pageRank.getIterations()), rank);
+    }
+}
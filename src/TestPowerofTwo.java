@@ -1,4 +1,5 @@
 import junit.framework.TestCase;
+import edu.uwm.cs351.NeighborCursor;
 import edu.uwm.cs351.PowerofTwo;
 import java.util.List;
 import java.lang.reflect.Field;
@@ -840,4 +841,57 @@ public class TestPowerofTwo extends TestCase {
         // Should not fail
         assertEquals(3, vector.size());
     }
+
+    /**
+     * Test that weights stay aligned with their neighbors as the list shifts.
+     */
+    public void testWeightedNeighbors() {
+        vector.addNeighbor("B", 2.0);
+        vector.addNeighbor("D", 4.0);
+        vector.addNeighbor("A", 1.5);
+        vector.addNeighbor("C");
+        assertTrue(vector.isWeighted());
+        assertEquals(1.5, vector.getWeight("A"));
+        assertEquals(2.0, vector.getWeight("B"));
+        assertEquals(1.0, vector.getWeight("C"));
+        assertEquals(4.0, vector.getWeight("D"));
+        assertTrue(Double.isNaN(vector.getWeight("E")));
+
+        vector.removeNeighbor("B");
+        vector.addNeighbor("D", 8.0); // Replaces the weight only
+        assertEquals(3, vector.size());
+        assertEquals(1.0, vector.getWeight("C"));
+        assertEquals(8.0, vector.getWeight("D"));
+    }
+
+    /**
+     * Test that weights are allocated for neighbors added before the first weight.
+     */
+    public void testWeightsAddedLater() {
+        assertFalse(vector.isWeighted());
+        for (int i = 0; i < 20; i++) {
+            vector.addNeighbor("N" + (char) ('a' + i));
+        }
+        vector.addNeighbor("Nz", 7.0);
+        assertEquals(1.0, vector.getWeight("Na"));
+        assertEquals(7.0, vector.getWeight("Nz"));
+    }
+
+    /**
+     * Test that the cursor reads neighbors and weights in sorted order.
+     */
+    public void testCursor() {
+        vector.addNeighbor("C", 3.0);
+        vector.addNeighbor("A", 1.0);
+        vector.addNeighbor("B", 2.0);
+        NeighborCursor<String> cursor = vector.cursor();
+        String expected = "ABC";
+        for (int i = 0; i < expected.length(); i++) {
+            assertTrue(cursor.next());
+            assertEquals(String.valueOf(expected.charAt(i)), cursor.id());
+            assertEquals(i + 1.0, cursor.weight());
+        }
+        assertFalse(cursor.next());
+        assertFalse(new PowerofTwo<String>().cursor().next());
+    }
 }
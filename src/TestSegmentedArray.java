@@ -0,0 +1,74 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.SegmentedArray;
+
+public class TestSegmentedArray extends TestCase {
+
+    private SegmentedArray<Integer> array;
+
+    protected void setUp() {
+        array = new SegmentedArray<>();
+    }
+
+    public void testEmpty() {
+        assertEquals(0, array.capacity());
+        assertEquals(0, array.allocatedSegments());
+        assertNull(array.get(0));
+        assertNull(array.get(1_000_000));
+    }
+
+    public void testSetAndGet() {
+        array.set(0, 10);
+        array.set(5, 15);
+        assertEquals(Integer.valueOf(10), array.get(0));
+        assertEquals(Integer.valueOf(15), array.get(5));
+        assertNull(array.get(1));
+        assertEquals(1, array.allocatedSegments());
+    }
+
+    public void testNegativeIndex() {
+        try {
+            array.get(-1);
+            fail("Expected IllegalArgumentException for negative index.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            array.set(-1, 1);
+            fail("Expected IllegalArgumentException for negative index.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+
+    public void testLazySegments() {
+        array.ensureCapacity(10 * SegmentedArray.SEGMENT_SIZE);
+        assertTrue(array.capacity() >= 10 * SegmentedArray.SEGMENT_SIZE);
+        assertEquals(0, array.allocatedSegments());
+
+        // Only the segment that is written gets allocated
+        array.set(7 * SegmentedArray.SEGMENT_SIZE + 3, 42);
+        assertEquals(1, array.allocatedSegments());
+        assertEquals(Integer.valueOf(42), array.get(7 * SegmentedArray.SEGMENT_SIZE + 3));
+
+        // Clearing an unallocated slot does not allocate it
+        array.set(2 * SegmentedArray.SEGMENT_SIZE, null);
+        assertEquals(1, array.allocatedSegments());
+    }
+
+    public void testGrowthKeepsElements() {
+        int n = 5 * SegmentedArray.SEGMENT_SIZE + 17;
+        for (int i = 0; i < n; i++) {
+            array.set(i, i);
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(Integer.valueOf(i), array.get(i));
+        }
+        assertEquals(6, array.allocatedSegments());
+    }
+
+    public void testLargeIndex() {
+        array.set(Integer.MAX_VALUE, 1);
+        assertEquals(Integer.valueOf(1), array.get(Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, array.capacity());
+    }
+}
@@ -0,0 +1,121 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.ShortestPaths;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestShortestPaths extends TestCase {
+
+    private static final double EPSILON = 1e-9;
+
+    private ForkJoinPool pool;
+
+    protected void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    // A plain sequential Dijkstra over scanWeightedNeighbors, indexed by physical ID
+    private static double[] referenceDistances(SortledtonGraph<Integer> g, int source) {
+        double[] dist = new double[g.getVertexCount()];
+        Arrays.fill(dist, ShortestPaths.UNREACHABLE);
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        dist[g.physicalId(source)] = 0;
+        queue.add(new double[] { 0, source });
+        while (!queue.isEmpty()) {
+            double[] top = queue.remove();
+            int v = (int) top[1];
+            if (top[0] > dist[g.physicalId(v)]) continue;
+            g.scanWeightedNeighbors(v, Direction.OUT, (u, w) -> {
+                int q = g.physicalId(u);
+                if (top[0] + w < dist[q]) {
+                    dist[q] = top[0] + w;
+                    queue.add(new double[] { dist[q], u });
+                }
+            });
+        }
+        return dist;
+    }
+
+    private static void assertDistances(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int p = 0; p < expected.length; p++) {
+            assertEquals(expected[p], actual[p], EPSILON);
+        }
+    }
+
+    private static SortledtonGraph<Integer> randomGraph(boolean directed, boolean weighted, long seed) {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>(directed, false);
+        g.setDebug(false);
+        HubGraphs.addEdges(g, seed, 20_000, 3_000, 20, 1, weighted);
+        g.insertVertex(5_000); // Unreachable
+        return g;
+    }
+
+    public void testInvalidArguments() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        g.insertEdge(1, 2);
+        ShortestPaths<Integer> sssp = new ShortestPaths<>(g, pool);
+        try {
+            sssp.run(1, 0);
+            fail("Expected IllegalArgumentException for a zero delta.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            sssp.run(3);
+            fail("Expected IllegalArgumentException for a missing source.");
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        g.insertEdge(2, 3, -1.0);
+        try {
+            sssp.run(1, 1.0);
+            fail("Expected IllegalStateException for a negative weight.");
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+    }
+
+    public void testSmallWeightedGraph() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        g.insertEdge(1, 2, 4.0);
+        g.insertEdge(1, 3, 1.0);
+        g.insertEdge(3, 2, 2.0);
+        g.insertEdge(2, 4, 1.5);
+        g.insertVertex(5);
+        double[] dist = new ShortestPaths<>(g, pool).run(1, 1.0);
+        assertEquals(0.0, dist[g.physicalId(1)]);
+        assertEquals(3.0, dist[g.physicalId(2)]);
+        assertEquals(1.0, dist[g.physicalId(3)]);
+        assertEquals(4.5, dist[g.physicalId(4)]);
+        assertEquals(ShortestPaths.UNREACHABLE, dist[g.physicalId(5)]);
+    }
+
+    public void testUnweightedGraph() {
+        SortledtonGraph<Integer> g = randomGraph(false, false, 37);
+        assertDistances(referenceDistances(g, 0), new ShortestPaths<>(g, pool).run(0));
+    }
+
+    public void testWeightedGraphAnyDelta() {
+        SortledtonGraph<Integer> g = randomGraph(false, true, 41);
+        double[] expected = referenceDistances(g, 0);
+        ShortestPaths<Integer> sssp = new ShortestPaths<>(g, pool);
+        for (double delta : new double[] { 0.25, 10, 1_000 }) {
+            assertDistances(expected, sssp.run(0, delta));
+        }
+        assertDistances(expected, sssp.run(0));
+        assertTrue(sssp.getBucketsProcessed() > 1);
+    }
+
+    public void testDirectedGraph() {
+        SortledtonGraph<Integer> g = randomGraph(true, true, 43);
+        assertDistances(referenceDistances(g, 0), new ShortestPaths<>(g, pool).run(0, 20));
+    }
+}
@@ -1,9 +1,13 @@
 import junit.framework.TestCase;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import edu.uwm.cs351.EdgeProperty;
 import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.StructureReport;
+import edu.uwm.cs351.StructureReport.Representation;
 
 
 public class TestSortledtonGraph extends TestCase {
@@ -781,4 +785,310 @@ public class TestSortledtonGraph extends TestCase {
 	    assertTrue(intersection.contains(10));
 	    assertTrue(intersection.contains(15));
 	}
+
+	// ----- Directed graphs ----- //
+
+	// Test that a directed graph only stores the edge in one direction
+	public void testDirectedInsertEdge() {
+		SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, true);
+		directed.insertEdge(1, 2);
+		assertTrue(directed.isDirected());
+		assertTrue(directed.findEdge(1, 2));
+		assertFalse(directed.findEdge(2, 1));
+		assertEquals(Arrays.asList(2), directed.getNeighbors(1, SortledtonGraph.Direction.OUT));
+		assertEquals(Arrays.asList(1), directed.getNeighbors(2, SortledtonGraph.Direction.IN));
+		assertTrue(directed.getNeighbors(1, SortledtonGraph.Direction.IN).isEmpty());
+		assertTrue(SortledtonGraph.Spy.wellFormed(directed));
+	}
+
+	// Test deleting a directed edge, including one that only exists the other way
+	public void testDirectedDeleteEdge() {
+		SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, true);
+		directed.insertEdge(1, 2);
+		try {
+			directed.deleteEdge(2, 1);
+			fail("Expected IllegalArgumentException for an edge in the wrong direction.");
+		} catch (IllegalArgumentException e) {
+			// Expected behavior
+		}
+		directed.deleteEdge(1, 2);
+		assertFalse(directed.findEdge(1, 2));
+		assertTrue(directed.getNeighbors(2, SortledtonGraph.Direction.IN).isEmpty());
+		assertTrue(SortledtonGraph.Spy.wellFormed(directed));
+	}
+
+	// Test that in-edges are unavailable when they are not stored
+	public void testDirectedWithoutInEdges() {
+		SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, false);
+		directed.insertEdge(1, 2);
+		assertFalse(directed.hasInEdges());
+		try {
+			directed.getNeighbors(2, SortledtonGraph.Direction.IN);
+			fail("Expected IllegalStateException when in-edges are not stored.");
+		} catch (IllegalStateException e) {
+			// Expected behavior
+		}
+		try {
+			new SortledtonGraph<Integer>(false, true);
+			fail("Expected IllegalArgumentException for in-edges on an undirected graph.");
+		} catch (IllegalArgumentException e) {
+			// Expected behavior
+		}
+	}
+
+	// Test that deleting a vertex removes the edges pointing at it, with and without in-edges
+	public void testDirectedDeleteVertex() {
+		for (boolean storeInEdges : new boolean[] { true, false }) {
+			SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, storeInEdges);
+			directed.insertEdge(1, 2);
+			directed.insertEdge(3, 2);
+			directed.insertEdge(2, 4);
+			directed.insertEdge(2, 2);
+			directed.deleteVertex(2);
+			assertFalse(directed.findEdge(1, 2));
+			assertFalse(directed.findEdge(3, 2));
+			assertEquals(3, directed.getVertexCount());
+			if (storeInEdges) assertTrue(directed.getNeighbors(4, SortledtonGraph.Direction.IN).isEmpty());
+			assertTrue(SortledtonGraph.Spy.wellFormed(directed));
+		}
+	}
+
+	// Test that out- and in-neighborhoods convert independently
+	public void testDirectedHubConversion() {
+		SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, true);
+		for (int i = 1; i <= 300; i++) {
+			directed.insertEdge(0, i);
+		}
+		assertEquals(300, directed.getNeighbors(0, SortledtonGraph.Direction.OUT).size());
+		assertTrue(directed.getNeighbors(0, SortledtonGraph.Direction.IN).isEmpty());
+		for (int i = 1; i <= 300; i++) {
+			directed.deleteEdge(0, i);
+		}
+		assertTrue(directed.getNeighbors(0).isEmpty());
+		assertTrue(SortledtonGraph.Spy.wellFormed(directed));
+	}
+
+	// Test that scanNeighbors follows the requested direction
+	public void testDirectedScanNeighbors() {
+		SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, true);
+		directed.insertEdge(1, 2);
+		directed.insertEdge(3, 2);
+		List<Integer> scanned = new ArrayList<>();
+		directed.scanNeighbors(2, SortledtonGraph.Direction.IN, scanned::add);
+		assertEquals(Arrays.asList(1, 3), scanned);
+		scanned.clear();
+		directed.scanNeighbors(2, SortledtonGraph.Direction.OUT, scanned::add);
+		assertTrue(scanned.isEmpty());
+	}
+
+	// ----- Weighted edges ----- //
+
+	// Test inserting and reading weighted edges in both directions of an undirected graph
+	public void testWeightedEdges() {
+		graph.insertEdge(1, 2, 2.5);
+		graph.insertEdge(1, 3);
+		assertEquals(2.5, graph.getEdgeWeight(1, 2));
+		assertEquals(2.5, graph.getEdgeWeight(2, 1));
+		assertEquals(1.0, graph.getEdgeWeight(1, 3));
+		graph.insertEdge(2, 1, 4.0); // Replaces the weight
+		assertEquals(4.0, graph.getEdgeWeight(1, 2));
+		assertEquals(2, graph.getNeighbors(1).size());
+		try {
+			graph.getEdgeWeight(2, 3);
+			fail("Expected IllegalArgumentException for a missing edge.");
+		} catch (IllegalArgumentException e) {
+			// Expected behavior
+		}
+	}
+
+	// Test that weights survive conversion to an UnrolledSkipList and back
+	public void testWeightsSurviveConversion() {
+		for (int i = 1; i <= 200; i++) {
+			graph.insertEdge(0, i, i / 10.0);
+		}
+		for (int i = 1; i <= 150; i++) {
+			graph.deleteEdge(0, i);
+		}
+		for (int i = 151; i <= 200; i++) {
+			assertEquals(i / 10.0, graph.getEdgeWeight(0, i));
+		}
+		assertTrue(SortledtonGraph.Spy.wellFormed(graph));
+	}
+
+	// Test that the weighted scan reads each neighbor with its weight
+	public void testScanWeightedNeighbors() {
+		SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, true);
+		directed.insertEdge(1, 2, 0.5);
+		directed.insertEdge(3, 2, 1.5);
+		List<Double> weights = new ArrayList<>();
+		directed.scanWeightedNeighbors(2, SortledtonGraph.Direction.IN, (n, w) -> weights.add(n + w));
+		assertEquals(Arrays.asList(1.5, 4.5), weights);
+	}
+
+	// ----- Edge properties ----- //
+
+	// Test registering properties and reading unset values
+	public void testRegisterEdgeProperty() {
+		EdgeProperty label = graph.registerEdgeProperty("label", EdgeProperty.Type.INT);
+		assertSame(label, graph.getEdgeProperty("label"));
+		assertNull(graph.getEdgeProperty("missing"));
+		try {
+			graph.registerEdgeProperty("label", EdgeProperty.Type.LONG);
+			fail("Expected IllegalArgumentException for a duplicate property name.");
+		} catch (IllegalArgumentException e) {
+			// Expected behavior
+		}
+		graph.insertEdge(1, 2);
+		assertEquals(0, graph.getEdgeProperty(1, 2, label));
+		try {
+			new SortledtonGraph<Integer>().getEdgeProperty(1, 2, label);
+			fail("Expected IllegalArgumentException for a property of another graph.");
+		} catch (IllegalArgumentException e) {
+			// Expected behavior
+		}
+	}
+
+	// Test typed property values on both directions of an undirected edge
+	public void testSetEdgeProperties() {
+		EdgeProperty label = graph.registerEdgeProperty("label", EdgeProperty.Type.INT);
+		EdgeProperty created = graph.registerEdgeProperty("created", EdgeProperty.Type.LONG);
+		EdgeProperty score = graph.registerEdgeProperty("score", EdgeProperty.Type.DOUBLE);
+		graph.insertEdge(1, 2, 3.0);
+		graph.setEdgeProperty(1, 2, label, 7);
+		graph.setEdgeProperty(1, 2, created, 1_700_000_000_000L);
+		graph.setEdgeProperty(2, 1, score, 0.25);
+		assertEquals(7, graph.getEdgeProperty(2, 1, label));
+		assertEquals(1_700_000_000_000L, graph.getEdgeProperty(2, 1, created));
+		assertEquals(0.25, graph.getDoubleEdgeProperty(1, 2, score));
+		assertEquals(3.0, graph.getEdgeWeight(1, 2));
+		try {
+			graph.setEdgeProperty(1, 3, label, 1);
+			fail("Expected IllegalArgumentException for a missing edge.");
+		} catch (IllegalArgumentException e) {
+			// Expected behavior
+		}
+	}
+
+	// Test that properties follow their edges through conversions and deletions
+	public void testEdgePropertiesSurviveConversion() {
+		EdgeProperty created = graph.registerEdgeProperty("created", EdgeProperty.Type.LONG);
+		for (int i = 1; i <= 300; i++) {
+			graph.insertEdge(0, i);
+			graph.setEdgeProperty(0, i, created, 1000L + i);
+		}
+		for (int i = 1; i <= 300; i += 2) {
+			graph.deleteEdge(0, i);
+		}
+		for (int i = 2; i <= 300; i += 2) {
+			assertEquals(1000L + i, graph.getEdgeProperty(0, i, created));
+			assertEquals(1000L + i, graph.getEdgeProperty(i, 0, created));
+		}
+		for (int i = 2; i <= 200; i += 2) {
+			graph.deleteEdge(0, i);
+		}
+		assertEquals(1250L, graph.getEdgeProperty(0, 250, created));
+		assertTrue(SortledtonGraph.Spy.wellFormed(graph));
+	}
+
+	// Test a property-filtered scan
+	public void testScanNeighborsWithFilter() {
+		final int FOLLOWS = 1;
+		SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, false);
+		EdgeProperty label = directed.registerEdgeProperty("label", EdgeProperty.Type.INT);
+		for (int i = 1; i <= 200; i++) {
+			directed.insertEdge(0, i);
+			if (i % 10 == 0) directed.setEdgeProperty(0, i, label, FOLLOWS);
+		}
+		List<Integer> follows = new ArrayList<>();
+		directed.scanNeighbors(0, SortledtonGraph.Direction.OUT, c -> c.longProperty(label) == FOLLOWS, follows::add);
+		assertEquals(20, follows.size());
+		for (int n : follows) {
+			assertEquals(0, n % 10);
+		}
+	}
+
+	// Test that Bloom filters never hide an edge, through inserts, deletes and rebuilds
+	public void testBloomFilters() {
+		assertFalse(graph.hasBloomFilters());
+		for (int i = 1; i <= 500; i++) {
+			graph.insertEdge(0, 2 * i);
+		}
+		graph.setBloomFilters(true);
+		assertTrue(graph.hasBloomFilters());
+		for (int i = 501; i <= 3000; i++) {
+			graph.insertEdge(0, 2 * i);
+		}
+		for (int i = 1; i <= 3000; i++) {
+			assertTrue(graph.findEdge(0, 2 * i));
+			assertFalse(graph.findEdge(0, 2 * i - 1));
+		}
+		for (int i = 1; i <= 3000; i += 3) {
+			graph.deleteEdge(0, 2 * i);
+		}
+		for (int i = 1; i <= 3000; i++) {
+			assertEquals(i % 3 != 1, graph.findEdge(0, 2 * i));
+		}
+		assertTrue(SortledtonGraph.Spy.wellFormed(graph));
+
+		graph.setBloomFilters(false);
+		assertTrue(graph.findEdge(0, 6));
+		assertFalse(graph.findEdge(0, 2));
+	}
+
+	// Test that a filter agrees with the comparator on string IDs that differ only in leading zeros
+	public void testBloomFiltersWithStringIds() {
+		SortledtonGraph<String> strings = new SortledtonGraph<>();
+		strings.setBloomFilters(true);
+		for (int i = 1; i <= 300; i++) {
+			strings.insertEdge("hub", "v" + i);
+		}
+		assertTrue(strings.findEdge("hub", "v7"));
+		assertTrue(strings.findEdge("hub", "v007"));
+		assertFalse(strings.findEdge("hub", "v301"));
+		assertFalse(strings.findEdge("hub", "w7"));
+	}
+
+	// Test that a hub switches to a hashed neighborhood at the threshold and back under half of it
+	public void testHashThreshold() {
+		assertEquals(SortledtonGraph.DEFAULT_HASH_THRESHOLD, graph.getHashThreshold());
+		try {
+			graph.setHashThreshold(255);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		graph.setHashThreshold(1000);
+		for (int i = 1; i <= 1200; i++) {
+			graph.insertEdge(0, i, i / 2.0);
+		}
+		StructureReport report = StructureReport.of(graph);
+		assertEquals(1, report.getNeighborhoods(Representation.HASHED_UNROLLED_SKIP_LIST));
+		for (int i = 1; i <= 1200; i++) {
+			assertTrue(graph.findEdge(0, i));
+			assertEquals(i / 2.0, graph.getEdgeWeight(0, i));
+		}
+		assertFalse(graph.findEdge(0, 1201));
+
+		// Still hashed down to 500 neighbors, plain below
+		for (int i = 1; i <= 700; i++) {
+			graph.deleteEdge(0, i);
+		}
+		assertEquals(1, StructureReport.of(graph).getNeighborhoods(Representation.HASHED_UNROLLED_SKIP_LIST));
+		graph.deleteEdge(0, 701);
+		report = StructureReport.of(graph);
+		assertEquals(0, report.getNeighborhoods(Representation.HASHED_UNROLLED_SKIP_LIST));
+		assertEquals(1, report.getNeighborhoods(Representation.UNROLLED_SKIP_LIST));
+		for (int i = 1; i <= 1200; i++) {
+			assertEquals(i > 701, graph.findEdge(0, i));
+		}
+		assertEquals(1200 / 2.0, graph.getEdgeWeight(0, 1200));
+		assertTrue(SortledtonGraph.Spy.wellFormed(graph));
+
+		// Lowering the threshold refits the hubs already there; raising it past them undoes that
+		graph.setHashThreshold(400);
+		assertEquals(1, StructureReport.of(graph).getNeighborhoods(Representation.HASHED_UNROLLED_SKIP_LIST));
+		graph.setHashThreshold(Integer.MAX_VALUE);
+		assertEquals(0, StructureReport.of(graph).getNeighborhoods(Representation.HASHED_UNROLLED_SKIP_LIST));
+		assertTrue(graph.findEdge(0, 800));
+	}
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.StructureReport;
+import edu.uwm.cs351.StructureReport.Representation;
+
+public class TestStructureReport extends TestCase {
+
+    private SortledtonGraph<Integer> graph;
+
+    protected void setUp() {
+        graph = new SortledtonGraph<>();
+        graph.setDebug(false);
+    }
+
+    public void testNullGraph() {
+        try {
+            StructureReport.of(null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testEmptyGraph() {
+        StructureReport report = StructureReport.of(graph);
+        assertEquals(0, report.getVertexCount());
+        assertEquals(0, report.getMaxDegree());
+        assertEquals(0.0, report.getMeanDegree());
+        assertEquals(1, report.getDegreeHistogram().length);
+        assertEquals(0, report.getBlocks());
+        assertEquals(0.0, report.getMeanBlockFill());
+        assertTrue(Double.isNaN(report.getBytesPerEntry(Representation.UNROLLED_SKIP_LIST)));
+        assertTrue(report.toJson().contains("\"bytes_per_entry\":null"));
+    }
+
+    public void testDegreesAndRepresentations() {
+        // A hub of degree 300 and 300 leaves of degree 1, plus an isolated vertex
+        for (int i = 1; i <= 300; i++) {
+            graph.insertEdge(0, i);
+        }
+        graph.insertVertex(1000);
+        StructureReport report = StructureReport.of(graph);
+
+        assertEquals(302, report.getVertexCount());
+        assertEquals(300, report.getMaxDegree());
+        assertEquals(600.0 / 302, report.getMeanDegree(), 1e-9);
+        long[] degrees = report.getDegreeHistogram();
+        assertEquals(10, degrees.length);   // 300 is in [256, 512)
+        assertEquals(1, degrees[0]);
+        assertEquals(300, degrees[1]);
+        assertEquals(1, degrees[9]);
+
+        assertEquals(301, report.getNeighborhoods(Representation.POWER_OF_TWO));
+        assertEquals(1, report.getNeighborhoods(Representation.UNROLLED_SKIP_LIST));
+        assertEquals(300, report.getEntries(Representation.POWER_OF_TWO));
+        assertEquals(300, report.getEntries(Representation.UNROLLED_SKIP_LIST));
+        assertTrue(report.getEstimatedBytes(Representation.UNROLLED_SKIP_LIST) > 300 * 4);
+        assertTrue(report.getBytesPerEntry(Representation.POWER_OF_TWO)
+                   > report.getBytesPerEntry(Representation.UNROLLED_SKIP_LIST));
+    }
+
+    public void testBlockFill() {
+        for (int i = 1; i <= 1000; i++) {
+            graph.insertEdge(0, i);
+        }
+        StructureReport report = StructureReport.of(graph);
+        long blocks = report.getBlocks();
+        assertTrue(blocks >= 1000 / 128);
+        long total = 0;
+        for (long count : report.getBlockFillHistogram()) {
+            total += count;
+        }
+        assertEquals(blocks, total);
+        assertEquals(1000.0 / blocks / 128, report.getMeanBlockFill(), 1e-9);
+        assertEquals(0, report.getUnderfilledBlocks());
+    }
+
+    public void testUnderfilledBlocks() {
+        // Ascending inserts leave blocks of 112 evens
+        for (int i = 1; i <= 1000; i++) {
+            graph.insertEdge(0, 2 * i);
+        }
+        assertEquals(0, StructureReport.of(graph).getUnderfilledBlocks());
+
+        // The second block drops under half, but does not fit into the first, and the next is not tried
+        for (int i = 226; i <= 324; i += 2) {
+            graph.deleteEdge(0, i);
+        }
+        StructureReport report = StructureReport.of(graph);
+        assertEquals(1, report.getUnderfilledBlocks());
+        assertEquals(1, report.getBlockFillHistogram()[4]);
+    }
+
+    public void testAscendingInsertsFillBlocks() {
+        for (int i = 1; i <= 2000; i++) {
+            graph.insertEdge(0, i);
+        }
+        StructureReport report = StructureReport.of(graph);
+        assertEquals(2000 / 112 + 1, report.getBlocks());
+        assertEquals(2000 / 112, report.getBlockFillHistogram()[8]);
+        assertTrue(report.getMeanBlockFill() > 0.8);
+    }
+
+    public void testDescendingInsertsFillBlocks() {
+        for (int i = 2000; i >= 1; i--) {
+            graph.insertEdge(0, i);
+        }
+        StructureReport report = StructureReport.of(graph);
+        // Converting from PowerofTwo copies the neighbors in ascending order, so the first split is in the middle
+        assertEquals(2000 / 112 + 2, report.getBlocks());
+        assertEquals(2000 / 112, report.getBlockFillHistogram()[8]);
+        assertTrue(report.getMeanBlockFill() > 0.8);
+    }
+
+    public void testRandomInsertsSplitInTheMiddle() {
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < 2000; i++) {
+            graph.insertEdge(0, 1 + random.nextInt(100_000));
+        }
+        StructureReport report = StructureReport.of(graph);
+        long[] fill = report.getBlockFillHistogram();
+        assertTrue(fill[5] > 0); // Halves of a split block start here
+        assertEquals(0, report.getUnderfilledBlocks());
+    }
+
+    public void testWeightsCostBytes() {
+        for (int i = 1; i <= 10; i++) {
+            graph.insertEdge(0, i);
+        }
+        long unweighted = StructureReport.of(graph).getEstimatedBytes(Representation.POWER_OF_TWO);
+        graph.insertEdge(0, 1, 2.5);
+        long weighted = StructureReport.of(graph).getEstimatedBytes(Representation.POWER_OF_TWO);
+        assertTrue(weighted > unweighted);
+    }
+
+    public void testHashedNeighborhoods() {
+        graph.setHashThreshold(256);
+        for (int i = 1; i <= 300; i++) {
+            graph.insertEdge(0, i);
+        }
+        StructureReport report = StructureReport.of(graph);
+        assertEquals(1, report.getNeighborhoods(Representation.HASHED_UNROLLED_SKIP_LIST));
+        assertEquals(0, report.getNeighborhoods(Representation.UNROLLED_SKIP_LIST));
+        assertEquals(300, report.getEntries(Representation.HASHED_UNROLLED_SKIP_LIST));
+        assertTrue(report.getBlocks() >= 2);
+        assertEquals(300.0 / report.getBlocks() / 128, report.getMeanBlockFill(), 1e-9);
+        assertTrue(report.toJson().contains("\"HashedUnrolledSkipList\":{\"neighborhoods\":1,\"entries\":300,"));
+    }
+
+    public void testDirectedWithInEdges() {
+        SortledtonGraph<Integer> directed = new SortledtonGraph<>(true, true);
+        directed.setDebug(false);
+        for (int i = 1; i <= 200; i++) {
+            directed.insertEdge(0, i);
+        }
+        StructureReport report = StructureReport.of(directed);
+        assertEquals(200, report.getMaxDegree());
+        assertEquals(2 * 201 - 1, report.getNeighborhoods(Representation.POWER_OF_TWO));
+        assertEquals(1, report.getNeighborhoods(Representation.UNROLLED_SKIP_LIST));
+        assertEquals(200, report.getEntries(Representation.POWER_OF_TWO));
+        assertEquals(200, report.getEntries(Representation.UNROLLED_SKIP_LIST));
+    }
+
+    public void testJson() {
+        for (int i = 1; i <= 200; i++) {
+            graph.insertEdge(0, i);
+        }
+        String json = StructureReport.of(graph).toJson();
+        assertTrue(json.startsWith("{\"vertices\":201,"));
+        assertTrue(json.contains("\"UnrolledSkipList\":{\"neighborhoods\":1,\"entries\":200,"));
+        assertTrue(json.contains("\"block_fill_histogram\":["));
+        assertTrue(json.endsWith("]}"));
+    }
+}
@@ -0,0 +1,111 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.SortledtonGraph.Direction;
+import edu.uwm.cs351.TriangleCounting;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestTriangleCounting extends TestCase {
+
+    private ForkJoinPool pool;
+
+    protected void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    // Checks every pair of neighbors of every vertex, ignoring direction and self-loops
+    private static long[] referenceCounts(SortledtonGraph<Integer> g) {
+        int n = g.getVertexCount();
+        List<Set<Integer>> neighbors = new ArrayList<>();
+        for (int p = 0; p < n; p++) {
+            int v = g.logicalId(p);
+            Set<Integer> set = new HashSet<>(g.getNeighbors(v, Direction.OUT));
+            if (g.isDirected()) set.addAll(g.getNeighbors(v, Direction.IN));
+            set.remove(v);
+            neighbors.add(set);
+        }
+        long[] counts = new long[n];
+        for (int p = 0; p < n; p++) {
+            for (int u : neighbors.get(p)) {
+                for (int w : neighbors.get(p)) {
+                    if (u < w && neighbors.get(g.physicalId(u)).contains(w)) counts[p]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    private void assertCounts(SortledtonGraph<Integer> g) {
+        TriangleCounting<Integer> tc = new TriangleCounting<>(g, pool);
+        long[] expected = referenceCounts(g);
+        long[] actual = tc.countTrianglesPerVertex();
+        assertEquals(expected.length, actual.length);
+        long sum = 0;
+        for (int p = 0; p < expected.length; p++) {
+            assertEquals("triangles of " + g.logicalId(p), expected[p], actual[p]);
+            sum += actual[p];
+        }
+        assertEquals(sum / 3, tc.countTriangles());
+    }
+
+    public void testDirectedWithoutInEdges() {
+        try {
+            new TriangleCounting<>(new SortledtonGraph<Integer>(true, false), pool).countTriangles();
+            fail("Expected IllegalStateException without in-edges.");
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+    }
+
+    public void testSmallGraph() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        assertEquals(0, new TriangleCounting<>(g).countTriangles());
+        g.insertEdge(1, 2);
+        g.insertEdge(2, 3);
+        g.insertEdge(3, 1);
+        g.insertEdge(3, 4);
+        g.insertEdge(4, 1);
+        g.insertEdge(4, 4);
+        TriangleCounting<Integer> tc = new TriangleCounting<>(g);
+        assertEquals(2, tc.countTriangles());
+        long[] perVertex = tc.countTrianglesPerVertex();
+        assertEquals(2, perVertex[g.physicalId(1)]);
+        assertEquals(1, perVertex[g.physicalId(2)]);
+        assertEquals(2, perVertex[g.physicalId(3)]);
+        assertEquals(1, perVertex[g.physicalId(4)]);
+    }
+
+    public void testCompleteGraph() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        g.setDebug(false);
+        int k = 200;
+        for (int i = 0; i < k; i++) {
+            for (int j = i + 1; j < k; j++) {
+                g.insertEdge(i, j);
+            }
+        }
+        assertEquals((long) k * (k - 1) * (k - 2) / 6, new TriangleCounting<>(g, pool).countTriangles());
+    }
+
+    public void testRandomGraphWithHubs() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        g.setDebug(false);
+        HubGraphs.addEdges(g, 67, 10_000, 600, 10, 2, false);
+        assertCounts(g);
+    }
+
+    public void testDirectedGraph() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>(true, true);
+        g.setDebug(false);
+        HubGraphs.addEdges(g, 71, 5_000, 400, 10);
+        assertCounts(g);
+    }
+}
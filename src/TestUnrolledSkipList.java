@@ -1,4 +1,7 @@
 import junit.framework.TestCase;
+import edu.uwm.cs351.EdgeProperty;
+import edu.uwm.cs351.NeighborCursor;
+import edu.uwm.cs351.SortledtonGraph;
 import edu.uwm.cs351.UnrolledSkipList;
 
 import java.util.List;
@@ -537,4 +540,115 @@ public class TestUnrolledSkipList extends TestCase {
         assertTrue(intersection.contains("A"));
         assertTrue(intersection.contains("B"));
     }
+
+    /**
+     * Test that weights follow their neighbors through block splits and merges.
+     */
+    public void testWeightsSurviveSplitAndMerge() {
+        UnrolledSkipList<Integer> list = new UnrolledSkipList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.addNeighbor(i, i * 0.5);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            list.removeNeighbor(i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            if (i % 3 == 0) {
+                assertTrue(Double.isNaN(list.getWeight(i)));
+            } else {
+                assertEquals(i * 0.5, list.getWeight(i));
+            }
+        }
+    }
+
+    /**
+     * Test that enabling weights on a populated list keeps the old neighbors at weight 1.0.
+     */
+    public void testWeightsAddedLater() {
+        for (int i = 1; i <= 300; i++) {
+            unrolledSkipList.addNeighbor("N" + i);
+        }
+        assertFalse(unrolledSkipList.isWeighted());
+        unrolledSkipList.addNeighbor("N150", 9.0);
+        unrolledSkipList.addNeighbor("N301", 3.0);
+        assertTrue(unrolledSkipList.isWeighted());
+        assertEquals(1.0, unrolledSkipList.getWeight("N1"));
+        assertEquals(9.0, unrolledSkipList.getWeight("N150"));
+        assertEquals(3.0, unrolledSkipList.getWeight("N301"));
+        assertEquals(301, unrolledSkipList.size());
+    }
+
+    /**
+     * Test that the cursor walks every block in order with matching weights.
+     */
+    public void testCursor() {
+        UnrolledSkipList<Integer> list = new UnrolledSkipList<>();
+        assertFalse(list.cursor().next());
+        for (int i = 999; i >= 0; i--) {
+            list.addNeighbor(i, -i);
+        }
+        NeighborCursor<Integer> cursor = list.cursor();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(cursor.next());
+            assertEquals(Integer.valueOf(i), cursor.id());
+            assertEquals((double) -i, cursor.weight());
+        }
+        assertFalse(cursor.next());
+    }
+
+    /**
+     * Test that property columns follow their neighbors through block splits and merges.
+     */
+    public void testPropertiesSurviveSplitAndMerge() {
+        SortledtonGraph<Integer> graph = new SortledtonGraph<>();
+        EdgeProperty label = graph.registerEdgeProperty("label", EdgeProperty.Type.INT);
+        UnrolledSkipList<Integer> list = new UnrolledSkipList<>();
+        for (int i = 0; i < 500; i++) {
+            list.addNeighbor(i);
+            assertTrue(list.setProperty(i, label, label.encode(i % 7)));
+        }
+        for (int i = 0; i < 500; i += 2) {
+            list.removeNeighbor(i);
+        }
+        assertFalse(list.setProperty(0, label, 1));
+        for (int i = 1; i < 500; i += 2) {
+            assertEquals(i % 7, list.getProperty(i, label));
+        }
+        assertFalse(list.isWeighted());
+        NeighborCursor<Integer> cursor = list.cursor();
+        while (cursor.next()) {
+            assertEquals(cursor.id() % 7, cursor.longProperty(label));
+        }
+    }
+
+    /**
+     * Test lookups before, between and after blocks while block first elements change.
+     */
+    public void testLookupsAsBlockBoundariesMove() {
+        UnrolledSkipList<Integer> list = new UnrolledSkipList<>();
+        for (int i = 10; i <= 5000; i += 10) {
+            list.addNeighbor(i);
+        }
+        assertFalse(list.contains(5));
+        assertFalse(list.contains(5005));
+        for (int i = 10; i <= 5000; i += 10) {
+            assertTrue(list.contains(i));
+            assertFalse(list.contains(i + 5));
+        }
+        // Fill the gaps, then remove every original neighbor, which moves every block's first element
+        for (int i = 0; i <= 5000; i += 10) {
+            list.addNeighbor(i + 5);
+        }
+        for (int i = 10; i <= 5000; i += 10) {
+            list.removeNeighbor(i);
+        }
+        assertEquals(501, list.size());
+        for (int i = 0; i <= 5000; i += 10) {
+            assertTrue(list.contains(i + 5));
+            assertFalse(list.contains(i + 10));
+        }
+        list.addNeighbor(1);
+        assertTrue(list.contains(1));
+        assertEquals(Integer.valueOf(1), list.getNeighbors().get(0));
+    }
 }
@@ -56,6 +56,27 @@ public class TestVertexRecord extends TestCase {
         assertTrue( spy.wellFormed(instance) );
     }
 
+    // inAdjacencySetSize is set without an in-adjacency set
+    public void test006WellFormed() {
+        VertexRecord.Spy spy = new VertexRecord.Spy();
+        VertexRecord<Integer> instance = spy.newInstance(mockAdjacencySet, 0, 0);
+        instance.inAdjacencySetSize = 1;
+        
+        spy.setReporter((WellFormedError message) -> assertEquals(message, WellFormedError.IN_ADJACENCY_SET_SIZE));
+        assertFalse( spy.wellFormed(instance) );
+    }
+    
+    // inAdjacencySetSize is incorrect
+    public void test007WellFormed() {
+        VertexRecord.Spy spy = new VertexRecord.Spy();
+        VertexRecord<Integer> instance = spy.newInstance(mockAdjacencySet, 0, 0);
+        instance.inAdjacencySet = new UnrolledSkipList<Integer>();
+        instance.inAdjacencySetSize = 2;
+        
+        spy.setReporter((WellFormedError message) -> assertEquals(message, WellFormedError.IN_ADJACENCY_SET_MISMATCH));
+        assertFalse( spy.wellFormed(instance) );
+    }
+
     // ----- Tests of Constructors ----- //
     
     // Constructor without arguments
@@ -79,6 +100,17 @@ public class TestVertexRecord extends TestCase {
         assertEquals( instance.adjacencySetSize, 0 );
     }
     
+    // directed constructor keeps both neighborhoods
+    public void test102Constructor() {
+        Neighborhood<Integer> in = new UnrolledSkipList<Integer>();
+        in.addNeighbor(4);
+        VertexRecord<Integer> instance = new VertexRecord<Integer>(3, mockAdjacencySet, in);
+        
+        assertSame(in, instance.inAdjacencySet);
+        assertEquals(1, instance.getInAdjacencySetSize());
+        assertEquals(0, instance.getAdjacencySetSize());
+    }
+    
     // ----- Tests of getAdjacencySetSize ----- //
     
     public void test200GetAdjacencySetSize() {
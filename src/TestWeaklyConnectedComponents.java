@@ -0,0 +1,122 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.SortledtonGraph.Direction;
+import edu.uwm.cs351.WeaklyConnectedComponents;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestWeaklyConnectedComponents extends TestCase {
+
+    private ForkJoinPool pool;
+
+    protected void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    // Labels each vertex with the smallest physical ID reachable from it, ignoring direction
+    private static int[] referenceLabels(SortledtonGraph<Integer> g) {
+        int n = g.getVertexCount();
+        int[] label = new int[n];
+        Arrays.fill(label, -1);
+        for (int start = 0; start < n; start++) {
+            if (label[start] != -1) continue;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            label[start] = start;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int p = queue.remove();
+                int v = g.logicalId(p);
+                for (int u : g.getNeighbors(v, Direction.OUT)) {
+                    visit(g, label, queue, start, u);
+                }
+                if (g.isDirected()) {
+                    for (int u = 0; u < n; u++) {
+                        if (g.getNeighbors(g.logicalId(u), Direction.OUT).contains(v)) visit(g, label, queue, start, g.logicalId(u));
+                    }
+                }
+            }
+        }
+        return label;
+    }
+
+    private static void visit(SortledtonGraph<Integer> g, int[] label, ArrayDeque<Integer> queue, int start, int u) {
+        int q = g.physicalId(u);
+        if (label[q] == -1) {
+            label[q] = start;
+            queue.add(q);
+        }
+    }
+
+    private void assertComponents(SortledtonGraph<Integer> g) {
+        WeaklyConnectedComponents<Integer> wcc = new WeaklyConnectedComponents<>(g, pool);
+        int[] expected = referenceLabels(g);
+        int[] actual = wcc.run();
+        assertEquals(expected.length, actual.length);
+        int components = 0;
+        for (int p = 0; p < expected.length; p++) {
+            assertEquals("label of " + g.logicalId(p), expected[p], actual[p]);
+            if (actual[p] == p) components++;
+        }
+        assertEquals(components, wcc.getComponentCount());
+    }
+
+    public void testEmptyGraph() {
+        WeaklyConnectedComponents<Integer> wcc = new WeaklyConnectedComponents<>(new SortledtonGraph<Integer>(), pool);
+        assertEquals(0, wcc.run().length);
+        assertEquals(0, wcc.getComponentCount());
+    }
+
+    public void testSmallComponents() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        g.insertEdge(1, 2);
+        g.insertEdge(3, 4);
+        g.insertEdge(4, 5);
+        g.insertEdge(2, 6);
+        g.insertVertex(7);
+        g.insertEdge(8, 8);
+        int[] labels = new WeaklyConnectedComponents<>(g).run();
+        assertEquals(labels[g.physicalId(1)], labels[g.physicalId(6)]);
+        assertEquals(labels[g.physicalId(3)], labels[g.physicalId(5)]);
+        assertFalse(labels[g.physicalId(1)] == labels[g.physicalId(3)]);
+        assertEquals(g.physicalId(7), (Integer) labels[g.physicalId(7)]);
+        assertComponents(g);
+    }
+
+    public void testGiantComponentWithFragments() {
+        SortledtonGraph<Integer> g = new SortledtonGraph<>();
+        g.setDebug(false);
+        Random random = new Random(13);
+        for (int i = 0; i < 30_000; i++) {
+            g.insertEdge(random.nextInt(5_000), random.nextInt(5_000));
+        }
+        // Small fragments, one of them attached to a hub through its later neighbors only
+        for (int i = 0; i < 200; i++) {
+            g.insertEdge(10_000 + 2 * i, 10_001 + 2 * i);
+        }
+        for (int i = 0; i < 300; i++) {
+            g.insertEdge(20_000, 20_001 + i);
+        }
+        assertComponents(g);
+    }
+
+    public void testDirectedGraph() {
+        for (boolean storeInEdges : new boolean[] { true, false }) {
+            SortledtonGraph<Integer> g = new SortledtonGraph<>(true, storeInEdges);
+            g.setDebug(false);
+            Random random = new Random(19);
+            for (int i = 0; i < 1_500; i++) {
+                g.insertEdge(random.nextInt(1_000), random.nextInt(1_000));
+            }
+            // Only reachable against the direction of its edge
+            g.insertEdge(5_000, random.nextInt(1_000));
+            assertComponents(g);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import junit.framework.TestCase;
+import edu.uwm.cs351.LatencyHistogram;
+import edu.uwm.cs351.SortledtonGraph;
+import edu.uwm.cs351.WorkloadDriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+public class TestWorkloadDriver extends TestCase {
+
+    private static final double[] EVEN_MIX = { 1, 1, 1 };
+
+    public void testReplayAppliesUpdates() throws InterruptedException {
+        SortledtonGraph<Integer> graph = new SortledtonGraph<>();
+        WorkloadDriver driver = new WorkloadDriver(graph);
+        for (int i = 0; i < 500; i++) {
+            driver.addUpdate(i, true, i % 50, (i * 7 + 1) % 50, Double.NaN);
+        }
+        driver.addUpdate(500, false, 0, 1, Double.NaN);
+        driver.addUpdate(500, false, 0, 2, Double.NaN);   // Never inserted
+        Map<String, LatencyHistogram> latencies = driver.run(2, 0, 0, EVEN_MIX, 1);
+
+        assertEquals(WorkloadDriver.OPERATIONS, new java.util.ArrayList<>(latencies.keySet()));
+        assertEquals(500, latencies.get("insertEdge").getCount());
+        assertEquals(2, latencies.get("deleteEdge").getCount());
+        assertEquals(1, driver.getFailedUpdates());
+        assertFalse(graph.findEdge(0, 1));
+        assertTrue(graph.findEdge(1, 8));
+        assertTrue(driver.getElapsedSeconds() > 0);
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            String json = driver.toJson(entry.getKey(), entry.getValue());
+            assertTrue(json, json.startsWith("{\"operation\":\"" + entry.getKey() + "\""));
+            assertTrue(json, json.contains("\"p99_us\":"));
+        }
+    }
+
+    public void testTargetRate() throws InterruptedException {
+        WorkloadDriver driver = new WorkloadDriver(new SortledtonGraph<>());
+        for (int i = 0; i < 200; i++) {
+            driver.addUpdate(0, true, i, i + 1, 2.0);
+        }
+        driver.run(1, 2000, 0, EVEN_MIX, 1);
+        // 200 updates at 2000 per second take at least 0.1 seconds
+        assertTrue(driver.getElapsedSeconds() >= 0.099);
+    }
+
+    public void testTimestampPacing() throws InterruptedException {
+        WorkloadDriver driver = new WorkloadDriver(new SortledtonGraph<>());
+        driver.addUpdate(0, true, 1, 2, Double.NaN);
+        driver.addUpdate(1000, true, 2, 3, Double.NaN);
+        driver.run(0, 0, 20, EVEN_MIX, 1);
+        assertTrue(driver.getElapsedSeconds() >= 0.049);
+    }
+
+    public void testReadLog() throws IOException {
+        Path file = Files.createTempFile("updates", ".log");
+        try {
+            Files.write(file, "# comment\n1 + 1 2\n2 insert 2 3 0.5\n\n3 - 1 2\n".getBytes(StandardCharsets.UTF_8));
+            WorkloadDriver driver = new WorkloadDriver(new SortledtonGraph<>());
+            driver.readLog(file);
+            assertEquals(3, driver.getUpdateCount());
+
+            Files.write(file, "5 + 1 2\n4 + 2 3\n".getBytes(StandardCharsets.UTF_8));
+            try {
+                driver.readLog(file);
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException e) {
+                // expected: out of order
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testBadArguments() throws InterruptedException {
+        WorkloadDriver driver = new WorkloadDriver(new SortledtonGraph<>());
+        try {
+            driver.run(1, -1, 0, EVEN_MIX, 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            driver.run(1, 0, 0, new double[] { 0, 0, 0 }, 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
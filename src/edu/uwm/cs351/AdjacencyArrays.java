@@ -0,0 +1,111 @@
+package edu.uwm.cs351;
+
+/**
+ * AdjacencyArrays is a read-only compressed sparse row copy of some of the edges of a graph,
+ * by physical ID: the kept neighbors of vertex v are targets[offsets[v]] up to
+ * targets[offsets[v + 1]], sorted by physical ID.
+ *
+ * The kernels that intersect neighborhoods build one at the start of a run (see
+ * {@link GraphKernel#adjacencyArrays}), since intersections need every neighborhood in the same
+ * order and as plain ints, while the neighborhoods themselves are sorted by vertex ID.
+ */
+final class AdjacencyArrays {
+    /** Length ratio above which an intersection gallops through the longer run. */
+    private static final int GALLOP_RATIO = 32;
+
+    final int[] offsets;
+    final int[] targets;
+
+    /**
+     * Wraps the given arrays.
+     *
+     * @param offsets The start of each vertex's run, with one extra entry for the end.
+     * @param targets The runs of neighbors, each sorted.
+     */
+    AdjacencyArrays(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Gets the number of kept neighbors of a vertex.
+     *
+     * @param v The physical ID of the vertex.
+     * @return the length of its run.
+     */
+    int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Counts the values two sorted runs have in common. Runs of similar length are merged;
+     * when one is much longer, the shorter one gallops through it instead.
+     *
+     * @param a     The first array.
+     * @param aFrom The first index of the first run (inclusive).
+     * @param aTo   The last index of the first run (exclusive).
+     * @param b     The second array.
+     * @param bFrom The first index of the second run (inclusive).
+     * @param bTo   The last index of the second run (exclusive).
+     * @return the size of the intersection.
+     */
+    static int intersectionSize(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo) {
+        if (aTo - aFrom > bTo - bFrom) {
+            return intersectionSize(b, bFrom, bTo, a, aFrom, aTo);
+        }
+        int aLength = aTo - aFrom;
+        if (aLength == 0) return 0;
+        int count = 0;
+        if ((bTo - bFrom) / aLength >= GALLOP_RATIO) {
+            for (int i = aFrom; i < aTo && bFrom < bTo; i++) {
+                bFrom = gallop(b, bFrom, bTo, a[i]);
+                if (bFrom < bTo && b[bFrom] == a[i]) {
+                    count++;
+                    bFrom++;
+                }
+            }
+            return count;
+        }
+        int i = aFrom;
+        int j = bFrom;
+        while (i < aTo && j < bTo) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first index in a sorted run whose value is at least key, probing at
+     * exponentially growing distances before a binary search.
+     *
+     * @return the index, or to if every value is smaller.
+     */
+    private static int gallop(int[] array, int from, int to, int key) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < to && array[high] < key) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, to);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,76 @@
+package edu.uwm.cs351;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * BackgroundThread runs the loop of a background helper, such as {@link InvariantSampler} or
+ * {@link BlockCompactor}, on a daemon thread that can be started once and closed.
+ *
+ * The loop polls {@link #isRunning()} and waits between iterations with
+ * {@link LockSupport#parkNanos(long)}; {@link #close()} clears the flag, unparks the thread so
+ * that it sees the change without finishing its pause, and waits for it to end.
+ */
+final class BackgroundThread implements AutoCloseable {
+    private final String name;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Creates a thread that has not started.
+     *
+     * @param name The name of the thread.
+     */
+    BackgroundThread(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Starts the loop on a daemon thread.
+     *
+     * @param loop  The loop, which should return once {@link #isRunning()} is false.
+     * @param owner What the loop belongs to, for the error message.
+     * @throws IllegalStateException if the thread was already started.
+     */
+    synchronized void start(Runnable loop, String owner) {
+        if (thread != null) {
+            throw new IllegalStateException("The " + owner + " was already started.");
+        }
+        running = true;
+        thread = new Thread(loop, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Tells the loop whether to go on.
+     *
+     * @return true between start and close.
+     */
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops the loop and waits for the iteration in progress to finish. An interrupt while
+     * waiting does not cut the wait short; it is kept for the caller.
+     */
+    @Override
+    public void close() {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = thread;
+        }
+        if (t == null) return;
+        LockSupport.unpark(t);
+        boolean interrupted = false;
+        while (t.isAlive()) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
@@ -0,0 +1,177 @@
+package edu.uwm.cs351;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+/**
+ * BlockCompactor repacks the under-filled blocks of the UnrolledSkipList neighborhoods of a
+ * SortledtonGraph, a little at a time, so that space lost to removals is won back without a
+ * pause in the foreground.
+ *
+ * A removal merges a block only into one neighbor and only when the two fit together, so runs
+ * of blocks under half full can stay behind (see {@link StructureReport#getUnderfilledBlocks()}).
+ * The compactor visits the neighborhoods round-robin; in each under-filled block it moves
+ * neighbors forward from the block after it, and drops the blocks it empties.
+ *
+ * Work is done in steps, each visiting at most blocksPerStep blocks under the lock, so the
+ * lock is held for time proportional to blocksPerStep times BLOCK_SIZE. Call {@link #step()}
+ * when the application is idle, or {@link #start(long)} to step on a daemon thread.
+ *
+ * A step moves neighbors between blocks, which a reader must not see half done, so it needs
+ * the graph to itself: pass the write lock that the writers take, not the read lock.
+ */
+public final class BlockCompactor implements AutoCloseable {
+    private final SortledtonGraph<?> graph;
+    private final Lock lock;
+    private final int blocksPerStep;
+
+    /** Guards the cursor, for callers that step under a shared lock. */
+    private final Object cursor = new Object();
+    /** The physical index of the vertex to visit next. */
+    private int vertex;
+    /** Whether the in-neighborhood of the vertex is next. */
+    private boolean in;
+    /** The neighborhoods visited in full since a block last changed. */
+    private long cleanVisits;
+
+    private final AtomicLong steps = new AtomicLong();
+    private final AtomicLong changedBlocks = new AtomicLong();
+
+    private final BackgroundThread background = new BackgroundThread("block-compactor");
+
+    /**
+     * Creates a compactor; call {@link #step()} or {@link #start(long)} to compact.
+     *
+     * @param graph         The graph to compact.
+     * @param lock          The lock to hold during a step.
+     * @param blocksPerStep The most blocks to visit in one step.
+     * @throws IllegalArgumentException if graph or lock is null, or blocksPerStep is not positive.
+     */
+    public BlockCompactor(SortledtonGraph<?> graph, Lock lock, int blocksPerStep) {
+        if (graph == null || lock == null) {
+            throw new IllegalArgumentException("@BlockCompactor, the parameters, graph and lock, may not be null.");
+        }
+        if (blocksPerStep <= 0) {
+            throw new IllegalArgumentException("@BlockCompactor, the parameter, blocksPerStep, must be positive.");
+        }
+        this.graph = graph;
+        this.lock = lock;
+        this.blocksPerStep = blocksPerStep;
+    }
+
+    /**
+     * Starts compacting on a daemon thread, one step at a time.
+     *
+     * @param pauseNanos How long to wait after each step, leaving the lock to the foreground;
+     *                   ten times as long once every neighborhood is compact.
+     * @throws IllegalArgumentException if pauseNanos is negative.
+     * @throws IllegalStateException if the compactor was already started.
+     */
+    public void start(long pauseNanos) {
+        if (pauseNanos < 0) {
+            throw new IllegalArgumentException("@start, the parameter, pauseNanos, may not be negative.");
+        }
+        background.start(() -> run(pauseNanos), "compactor");
+    }
+
+    /**
+     * Steps until closed.
+     */
+    private void run(long pauseNanos) {
+        while (background.isRunning()) {
+            boolean more = step();
+            if (!background.isRunning()) break;
+            if (pauseNanos > 0 || !more) {
+                LockSupport.parkNanos(more ? pauseNanos : Math.max(10 * pauseNanos, 1_000_000));
+            }
+        }
+    }
+
+    /**
+     * Does one bounded step of compaction now, on the calling thread.
+     *
+     * @return false if this step ended a whole round of the neighborhoods that found nothing
+     *         to repack, so idle callers can stop until the graph changes; true otherwise.
+     */
+    public boolean step() {
+        lock.lock();
+        try {
+            synchronized (cursor) {
+                return stepLocked();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Does one step, holding the lock and the cursor.
+     */
+    private boolean stepLocked() {
+        steps.incrementAndGet();
+        int vertexCount = graph.getVertexCount();
+        boolean inEdges = graph.storesInEdges();
+        long neighborhoods = inEdges ? 2L * vertexCount : vertexCount;
+        int budget = blocksPerStep;
+        while (budget > 0 && cleanVisits < neighborhoods) {
+            if (vertex >= vertexCount) {
+                vertex = 0; // Deletions can shrink the graph under the cursor
+                in = false;
+            }
+            Neighborhood<?> neighborhood = graph.neighborhood(vertex, in ? Direction.IN : Direction.OUT);
+            if (neighborhood instanceof UnrolledSkipList) {
+                UnrolledSkipList<?> list = (UnrolledSkipList<?>) neighborhood;
+                int visits = Math.min(budget, list.blockCount());
+                int changed = list.compact(visits);
+                budget -= Math.max(1, visits);
+                if (changed > 0) {
+                    changedBlocks.addAndGet(changed);
+                    cleanVisits = 0;
+                }
+                if (list.isCompacting()) break; // Out of budget; resume this list next step
+                if (changed == 0) cleanVisits++;
+            } else {
+                budget--;
+                cleanVisits++;
+            }
+            if (inEdges && !in) {
+                in = true;
+            } else {
+                in = false;
+                vertex++;
+            }
+        }
+        if (cleanVisits < neighborhoods) return true;
+        cleanVisits = 0; // Start a fresh round on the next call
+        return false;
+    }
+
+    /**
+     * Gets the number of steps taken so far.
+     *
+     * @return the count.
+     */
+    public long getSteps() {
+        return steps.get();
+    }
+
+    /**
+     * Gets the number of times a block was repacked so far.
+     *
+     * @return the count.
+     */
+    public long getChangedBlocks() {
+        return changedBlocks.get();
+    }
+
+    /**
+     * Stops compacting and waits for the step in progress to finish.
+     */
+    @Override
+    public void close() {
+        background.close();
+    }
+}
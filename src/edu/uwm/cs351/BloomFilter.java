@@ -0,0 +1,108 @@
+package edu.uwm.cs351;
+
+/**
+ * BloomFilter answers "might this neighborhood hold the ID?" so that most lookups of
+ * absent neighbors stop before searching any block.
+ *
+ * The filter is blocked: each key hashes to one 512-bit block, a cache line of eight longs,
+ * and sets BITS_PER_KEY_SET bits inside it, so a query reads a single cache line. With
+ * BITS_PER_KEY bits per key the false positive rate is about one percent.
+ *
+ * Keys cannot be removed. The owner counts removals and rebuilds the filter from its neighbors
+ * when too many stale keys have piled up, and when more keys were added than it was sized for.
+ */
+final class BloomFilter {
+    /** The bits allotted per key the filter is sized for. */
+    static final int BITS_PER_KEY = 10;
+
+    /** The bits each key sets in its block. */
+    static final int BITS_PER_KEY_SET = 6;
+
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_LONGS = BLOCK_BITS / Long.SIZE;
+
+    private final long[] bits;
+    private final int blockMask;
+    private final int capacity;
+
+    /**
+     * Creates an empty filter.
+     *
+     * @param capacity the number of keys to size it for, at least 1.
+     */
+    BloomFilter(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        long wanted = ((long) this.capacity * BITS_PER_KEY + BLOCK_BITS - 1) / BLOCK_BITS;
+        int blocks = Integer.highestOneBit((int) Math.min(wanted, 1 << 24));
+        if (blocks < wanted) blocks <<= 1;
+        this.bits = new long[blocks * BLOCK_LONGS];
+        this.blockMask = blocks - 1;
+    }
+
+    /**
+     * Gets the number of keys the filter was sized for.
+     *
+     * @return the capacity.
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param hash the hash of the key.
+     */
+    void add(int hash) {
+        long h = mix(hash);
+        int base = ((int) (h >>> 32) & blockMask) * BLOCK_LONGS;
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 41) | 1;
+        for (int i = 0; i < BITS_PER_KEY_SET; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            bits[base + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Tests for a key.
+     *
+     * @param hash the hash of the key.
+     * @return false if the key was never added; true if it may have been.
+     */
+    boolean mightContain(int hash) {
+        long h = mix(hash);
+        int base = ((int) (h >>> 32) & blockMask) * BLOCK_LONGS;
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 41) | 1;
+        for (int i = 0; i < BITS_PER_KEY_SET; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the heap bytes of this filter, for {@link StructureReport}.
+     *
+     * @return the estimated bytes of this object and its bits.
+     */
+    long estimateBytes() {
+        return StructureReport.objectBytes(StructureReport.REFERENCE_BYTES + 2 * Integer.BYTES)
+                + StructureReport.arrayBytes(bits.length, Long.BYTES);
+    }
+
+    /**
+     * Spreads a 32-bit hash over 64 bits (the MurmurHash3 finalizer), so that keys with
+     * nearby hash codes, such as consecutive Integer IDs, land in unrelated blocks.
+     */
+    private static long mix(int hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,297 @@
+package edu.uwm.cs351;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+/**
+ * BreadthFirstSearch computes the depth of every vertex reachable from a source vertex,
+ * following out-edges, with the direction-optimizing algorithm of Beamer et al.
+ *
+ * Each level is expanded either top-down, where the vertices of a sparse frontier queue push
+ * to their unvisited neighbors, or bottom-up, where every unvisited vertex pulls from its
+ * in-neighbors and stops at the first one found in a dense frontier bitmap. The search starts
+ * top-down and switches to bottom-up once the edges leaving the frontier outnumber a fraction
+ * (1/ALPHA) of the edges left to check, then back when the frontier shrinks below 1/BETA of
+ * the vertices. Both kinds of step split their work across a ForkJoinPool and scan the
+ * neighborhoods in place.
+ *
+ * Bottom-up steps need in-neighborhoods, so a directed graph without stored in-edges is
+ * searched top-down only.
+ *
+ * <p>Sources:</p>
+ * <ul>
+ *     <li>S. Beamer, K. Asanović, D. Patterson, "Direction-Optimizing Breadth-First Search", SC 2012.</li>
+ * </ul>
+ *
+ * @param <T> The type of the vertex ID
+ */
+public class BreadthFirstSearch<T extends Comparable<T>> extends GraphKernel<T> {
+    /** Switch to bottom-up when the frontier's edges exceed 1/ALPHA of the unexplored edges. */
+    private static final int ALPHA = 15;
+    /** Switch back to top-down when the frontier has fewer than 1/BETA of the vertices. */
+    private static final int BETA = 18;
+    /** Frontier entries per leaf task in a top-down step. */
+    private static final int QUEUE_GRAIN = 64;
+    /** Bitmap words (64 vertices each) per leaf task in a bottom-up step. */
+    private static final int WORD_GRAIN = 16;
+
+    /** The depth given to vertices that cannot be reached from the source. */
+    public static final int UNREACHABLE = -1;
+
+    private int topDownSteps;
+    private int bottomUpSteps;
+
+    // State of the current run
+    private int[] depth;
+    private AtomicLongArray visited;
+
+    /**
+     * Creates a search over the given graph that runs on the common ForkJoinPool.
+     *
+     * @param graph The graph to search.
+     * @throws IllegalArgumentException if graph is null.
+     */
+    public BreadthFirstSearch(SortledtonGraph<T> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a search over the given graph that runs on the given ForkJoinPool.
+     *
+     * @param graph The graph to search.
+     * @param pool  The pool that expands the frontiers.
+     * @throws IllegalArgumentException if graph or pool is null.
+     */
+    public BreadthFirstSearch(SortledtonGraph<T> graph, ForkJoinPool pool) {
+        super(graph, pool);
+    }
+
+    /**
+     * Runs the search from the given source vertex.
+     * The graph must not be modified while the search runs.
+     *
+     * @param source The ID of the vertex to start from.
+     * @return the depth of every vertex indexed by physical ID (see {@link SortledtonGraph#logicalId(int)}),
+     *         0 for the source and UNREACHABLE for vertices not reached.
+     * @throws IllegalArgumentException if source is null or not in the graph.
+     */
+    public int[] run(T source) {
+        snapshot();
+        int root = requireVertex(source, "run");
+        int n = vertexCount;
+        depth = new int[n];
+        Arrays.fill(depth, UNREACHABLE);
+        visited = new AtomicLongArray(words(n));
+        topDownSteps = 0;
+        bottomUpSteps = 0;
+
+        depth[root] = 0;
+        setBit(visited, root);
+        int[] queue = new int[n];
+        int[] next = new int[n];
+        queue[0] = root;
+        int queueSize = 1;
+        int level = 0;
+
+        long edgesToCheck = 0;
+        for (int v = 0; v < n; v++) {
+            edgesToCheck += degree(v, Direction.OUT);
+        }
+        long scoutCount = degree(root, Direction.OUT);
+        boolean canPull = canPull();
+
+        while (queueSize > 0) {
+            if (canPull && scoutCount > edgesToCheck / ALPHA) {
+                AtomicLongArray frontier = toBitmap(queue, queueSize);
+                int awake = queueSize;
+                int oldAwake;
+                do {
+                    oldAwake = awake;
+                    AtomicLongArray nextFrontier = new AtomicLongArray(frontier.length());
+                    awake = bottomUpStep(frontier, nextFrontier, ++level);
+                    frontier = nextFrontier;
+                } while (awake >= oldAwake || awake > n / BETA);
+                queueSize = toQueue(frontier, queue);
+                scoutCount = 1;
+            } else {
+                edgesToCheck -= scoutCount;
+                AtomicInteger nextSize = new AtomicInteger();
+                scoutCount = topDownStep(queue, queueSize, next, nextSize, ++level);
+                int[] swap = queue;
+                queue = next;
+                next = swap;
+                queueSize = nextSize.get();
+            }
+        }
+
+        int[] result = depth;
+        depth = null;
+        visited = null;
+        return result;
+    }
+
+    /**
+     * Gets the number of levels the last run expanded top-down.
+     *
+     * @return the top-down step count.
+     */
+    public int getTopDownSteps() {
+        return topDownSteps;
+    }
+
+    /**
+     * Gets the number of levels the last run expanded bottom-up.
+     *
+     * @return the bottom-up step count.
+     */
+    public int getBottomUpSteps() {
+        return bottomUpSteps;
+    }
+
+    /**
+     * Expands the frontier queue by pushing along the out-edges of its vertices.
+     * A neighbor is claimed by whichever task first sets its visited bit.
+     *
+     * @param queue     The frontier.
+     * @param queueSize The number of vertices in the frontier.
+     * @param next      Receives the next frontier.
+     * @param nextSize  Receives the size of the next frontier.
+     * @param level     The depth of the vertices found.
+     * @return the number of out-edges of the next frontier.
+     */
+    private long topDownStep(int[] queue, int queueSize, int[] next, AtomicInteger nextSize, int level) {
+        topDownSteps++;
+        AtomicLong scouts = new AtomicLong();
+        parallelFor(0, queueSize, QUEUE_GRAIN, (low, high) -> {
+            int[] found = new int[QUEUE_GRAIN];
+            int count = 0;
+            long scoutCount = 0;
+            for (int i = low; i < high; i++) {
+                NeighborCursor<T> cursor = cursor(queue[i], Direction.OUT);
+                while (cursor.next()) {
+                    int u = physicalIndex(cursor.id());
+                    if (testBit(visited, u) || !claimBit(visited, u)) continue;
+                    depth[u] = level;
+                    scoutCount += degree(u, Direction.OUT);
+                    if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                    found[count++] = u;
+                }
+            }
+            System.arraycopy(found, 0, next, nextSize.getAndAdd(count), count);
+            scouts.addAndGet(scoutCount);
+        });
+        return scouts.get();
+    }
+
+    /**
+     * Expands the frontier bitmap by letting every unvisited vertex look for a parent among
+     * its in-neighbors. Each task owns whole words of the bitmaps, so only it writes them.
+     *
+     * @param frontier The frontier.
+     * @param next     Receives the next frontier.
+     * @param level    The depth of the vertices found.
+     * @return the number of vertices in the next frontier.
+     */
+    private int bottomUpStep(AtomicLongArray frontier, AtomicLongArray next, int level) {
+        bottomUpSteps++;
+        int n = vertexCount;
+        AtomicInteger awake = new AtomicInteger();
+        parallelFor(0, frontier.length(), WORD_GRAIN, (low, high) -> {
+            int count = 0;
+            for (int w = low; w < high; w++) {
+                long unvisited = ~visited.get(w);
+                if (unvisited == 0) continue;
+                long found = 0;
+                int end = Math.min(n, (w + 1) << 6);
+                for (int v = w << 6; v < end; v++) {
+                    if ((unvisited & (1L << v)) == 0) continue;
+                    NeighborCursor<T> cursor = cursor(v, Direction.IN);
+                    while (cursor.next()) {
+                        if (testBit(frontier, physicalIndex(cursor.id()))) {
+                            depth[v] = level;
+                            found |= 1L << v;
+                            count++;
+                            break;
+                        }
+                    }
+                }
+                if (found != 0) {
+                    next.set(w, found);
+                    visited.set(w, visited.get(w) | found);
+                }
+            }
+            awake.addAndGet(count);
+        });
+        return awake.get();
+    }
+
+    /**
+     * Converts a frontier queue into a bitmap.
+     */
+    private AtomicLongArray toBitmap(int[] queue, int queueSize) {
+        AtomicLongArray bitmap = new AtomicLongArray(words(vertexCount));
+        parallelFor(0, queueSize, GRAIN, (low, high) -> {
+            for (int i = low; i < high; i++) {
+                claimBit(bitmap, queue[i]);
+            }
+        });
+        return bitmap;
+    }
+
+    /**
+     * Converts a frontier bitmap into a queue.
+     *
+     * @return the number of vertices written to the queue.
+     */
+    private int toQueue(AtomicLongArray bitmap, int[] queue) {
+        AtomicInteger tail = new AtomicInteger();
+        parallelFor(0, bitmap.length(), WORD_GRAIN, (low, high) -> {
+            int count = 0;
+            for (int w = low; w < high; w++) {
+                count += Long.bitCount(bitmap.get(w));
+            }
+            int at = tail.getAndAdd(count);
+            for (int w = low; w < high; w++) {
+                long bits = bitmap.get(w);
+                while (bits != 0) {
+                    queue[at++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+        });
+        return tail.get();
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static boolean testBit(AtomicLongArray bitmap, int bit) {
+        return (bitmap.get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    private static void setBit(AtomicLongArray bitmap, int bit) {
+        bitmap.set(bit >>> 6, bitmap.get(bit >>> 6) | (1L << bit));
+    }
+
+    /**
+     * Atomically sets a bit.
+     *
+     * @return true if this call set it, false if it was already set.
+     */
+    private static boolean claimBit(AtomicLongArray bitmap, int bit) {
+        int w = bit >>> 6;
+        long mask = 1L << bit;
+        long old;
+        do {
+            old = bitmap.get(w);
+            if ((old & mask) != 0) return false;
+        } while (!bitmap.compareAndSet(w, old, old | mask));
+        return true;
+    }
+}
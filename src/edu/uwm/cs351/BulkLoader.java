@@ -0,0 +1,280 @@
+package edu.uwm.cs351;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+/**
+ * BulkLoader builds the neighborhoods of a SortledtonGraph in parallel from a batch of edges.
+ *
+ * Edges are buffered with {@link #addEdge(Comparable, Comparable)} and written by {@link #load()}.
+ * Loading happens in three phases:
+ * <ol>
+ *     <li>Physical IDs are assigned sequentially, in the same order insertEdge would assign them.</li>
+ *     <li>Every edge is bucketed by owning physical ID with a counting sort: under both endpoints
+ *     for an undirected graph, or under its source (and its destination, for in-edges) when directed.</li>
+ *     <li>Ranges of owners are split across a ForkJoinPool; each task sorts its buckets and fills
+ *     the PowerofTwo/UnrolledSkipList neighborhoods of the vertices it owns.</li>
+ * </ol>
+ * Since every neighborhood is owned by exactly one task, no locking is needed per edge. The resulting
+ * graph has the same vertices, physical IDs and neighborhoods as sequential insertion.
+ *
+ * The buckets are arrays, so one pass holds at most MAX_ENTRIES neighbor entries: that many
+ * edges of a directed graph, but only half as many of an undirected one, which buckets each
+ * edge under both endpoints. load() runs as many passes as the buffer needs, each of at most
+ * {@link #setBatchSize(int) the batch size} edges; loading into a graph that already has
+ * edges gives the same result as loading everything at once. The buffer itself holds at most
+ * MAX_ENTRIES edges, so a graph with more edges than that must be loaded with several rounds
+ * of addEdge and load, and a smaller batch size bounds the memory a pass needs.
+ *
+ * @param <T> The type of the vertex ID
+ */
+public class BulkLoader<T extends Comparable<T>> {
+    /** Number of buffered neighbor entries below which a task stops splitting. */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+
+    /** The most entries an array can hold, and so the most edges buffered or bucketed at once. */
+    public static final int MAX_ENTRIES = Integer.MAX_VALUE - 8;
+
+    private final SortledtonGraph<T> graph;
+    private final ForkJoinPool pool;
+    private List<T> sources = new ArrayList<>();
+    private List<T> destinations = new ArrayList<>();
+    private int batchSize = MAX_ENTRIES;
+
+    /**
+     * Creates a loader for the given graph that runs on the common ForkJoinPool.
+     *
+     * @param graph The graph to load into.
+     * @throws IllegalArgumentException if graph is null.
+     */
+    public BulkLoader(SortledtonGraph<T> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a loader for the given graph that runs on the given ForkJoinPool.
+     *
+     * @param graph The graph to load into.
+     * @param pool  The pool that builds the neighborhoods.
+     * @throws IllegalArgumentException if graph or pool is null.
+     */
+    public BulkLoader(SortledtonGraph<T> graph, ForkJoinPool pool) {
+        if (graph == null || pool == null) {
+            throw new IllegalArgumentException("@BulkLoader, the parameters, graph and pool, may not be null.");
+        }
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * Buffers an edge to be written by the next call to {@link #load()}.
+     *
+     * @param srcId  The source vertex ID.
+     * @param destId The destination vertex ID.
+     * @throws IllegalArgumentException if either ID is null.
+     * @throws IllegalStateException    if MAX_ENTRIES edges are already waiting to be loaded.
+     */
+    public void addEdge(T srcId, T destId) {
+        if (srcId == null || destId == null) {
+            throw new IllegalArgumentException("@addEdge, the parameters, srcID and destID may not be null.");
+        }
+        if (sources.size() >= MAX_ENTRIES) {
+            throw new IllegalStateException("The buffer is full: call load() before adding more edges.");
+        }
+        sources.add(srcId);
+        destinations.add(destId);
+    }
+
+    /**
+     * Gets the number of edges waiting to be loaded.
+     *
+     * @return the number of buffered edges.
+     */
+    public int pendingEdges() {
+        return sources.size();
+    }
+
+    /**
+     * Sets the most edges one pass of {@link #load()} buckets at once. Smaller batches need
+     * less memory per pass; an undirected graph never takes more than MAX_ENTRIES / 2 per pass.
+     *
+     * @param edges The batch size.
+     * @throws IllegalArgumentException if edges is not positive.
+     */
+    public void setBatchSize(int edges) {
+        if (edges <= 0) {
+            throw new IllegalArgumentException("@setBatchSize, the parameter, edges, must be positive.");
+        }
+        batchSize = edges;
+    }
+
+    /**
+     * Gets the most edges one pass of {@link #load()} buckets at once.
+     *
+     * @return the batch size.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Writes all buffered edges into the graph, in as many passes as the batch size needs,
+     * and clears the buffer. The graph must not be modified by other threads while loading.
+     */
+    public void load() {
+        int edgeCount = sources.size();
+        if (edgeCount == 0) return;
+        // Each undirected edge is bucketed twice
+        int perPass = graph.isDirected() ? batchSize : Math.min(batchSize, MAX_ENTRIES / 2);
+        for (long from = 0; from < edgeCount; from += perPass) {
+            int to = (int) Math.min(edgeCount, from + perPass);
+            loadBatch(sources.subList((int) from, to), destinations.subList((int) from, to));
+        }
+        sources = new ArrayList<>();
+        destinations = new ArrayList<>();
+
+        assert graph.checkInvariant() : "Invariant failed at end of load.";
+    }
+
+    /**
+     * Writes one batch of edges into the graph.
+     *
+     * @param sources      The source IDs of the batch.
+     * @param destinations The destination IDs of the batch.
+     * @throws IllegalStateException if the batch has more neighbor entries than an array can hold;
+     *                               the graph is left unchanged.
+     */
+    private void loadBatch(List<T> sources, List<T> destinations) {
+        int edgeCount = sources.size();
+        long entries = graph.isDirected() ? edgeCount : 2L * edgeCount;
+        if (entries > MAX_ENTRIES) {
+            throw new IllegalStateException("Too many edges to bucket in one pass: " + entries + " neighbor entries");
+        }
+
+        // Phase 1: coordinated physical ID assignment, in insertEdge order
+        int[] srcPhysical = new int[edgeCount];
+        int[] destPhysical = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            srcPhysical[i] = graph.physicalIndexFor(sources.get(i));
+            destPhysical[i] = graph.physicalIndexFor(destinations.get(i));
+        }
+
+        // Phase 2: counting sort of the edge directions by owning vertex
+        int vertexCount = graph.getVertexCount();
+        Bucket out, in = null;
+        if (graph.isDirected()) {
+            out = new Bucket(vertexCount, srcPhysical, destinations, null, null);
+            if (graph.hasInEdges()) in = new Bucket(vertexCount, destPhysical, sources, null, null);
+        } else {
+            out = new Bucket(vertexCount, srcPhysical, destinations, destPhysical, sources);
+        }
+
+        // Phase 3: build each partition's neighborhoods independently
+        if (in == null) {
+            pool.invoke(new PartitionTask(Direction.OUT, out, 0, vertexCount));
+        } else {
+            pool.invoke(new DirectionTask(new PartitionTask(Direction.OUT, out, 0, vertexCount),
+                                          new PartitionTask(Direction.IN, in, 0, vertexCount)));
+        }
+    }
+
+    /**
+     * Neighbor IDs grouped by owning physical ID, in compressed sparse row form:
+     * the neighbors of owner v are neighbors[offsets[v]] up to neighbors[offsets[v + 1]].
+     */
+    private static class Bucket {
+        final int[] offsets;
+        final Object[] neighbors;
+
+        /**
+         * Groups values[i] under owners[i] for one or two parallel owner/value sequences.
+         * Within an owner, entries keep the order in which they were given.
+         *
+         * @throws IllegalStateException if there are more entries than an array can hold.
+         */
+        <T> Bucket(int vertexCount, int[] owners, List<T> values, int[] otherOwners, List<T> otherValues) {
+            offsets = new int[vertexCount + 1];
+            for (int i = 0; i < owners.length; i++) {
+                offsets[owners[i] + 1]++;
+                if (otherOwners != null) offsets[otherOwners[i] + 1]++;
+            }
+            long total = 0;
+            for (int v = 1; v <= vertexCount; v++) {
+                total += offsets[v];
+                if (total > MAX_ENTRIES) {
+                    throw new IllegalStateException("Too many neighbor entries to bucket: more than " + total);
+                }
+                offsets[v] = (int) total;
+            }
+            neighbors = new Object[offsets[vertexCount]];
+            int[] cursor = Arrays.copyOf(offsets, vertexCount);
+            for (int i = 0; i < owners.length; i++) {
+                neighbors[cursor[owners[i]]++] = values.get(i);
+                if (otherOwners != null) neighbors[cursor[otherOwners[i]]++] = otherValues.get(i);
+            }
+        }
+    }
+
+    /**
+     * Runs the out-edge and in-edge partitions of a directed graph side by side.
+     */
+    private static class DirectionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RecursiveAction out;
+        private final RecursiveAction in;
+
+        DirectionTask(RecursiveAction out, RecursiveAction in) {
+            this.out = out;
+            this.in = in;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(out, in);
+        }
+    }
+
+    /**
+     * Loads the neighborhoods of the physical IDs in [low, high), splitting the range
+     * in half while it holds more than SEQUENTIAL_THRESHOLD neighbor entries.
+     */
+    private class PartitionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Direction direction;
+        private final Bucket bucket;
+        private final int low;
+        private final int high;
+
+        PartitionTask(Direction direction, Bucket bucket, int low, int high) {
+            this.direction = direction;
+            this.bucket = bucket;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected void compute() {
+            int[] offsets = bucket.offsets;
+            if (high - low > 1 && offsets[high] - offsets[low] > SEQUENTIAL_THRESHOLD) {
+                int mid = (low + high) >>> 1;
+                invokeAll(new PartitionTask(direction, bucket, low, mid),
+                          new PartitionTask(direction, bucket, mid, high));
+                return;
+            }
+            for (int v = low; v < high; v++) {
+                int from = offsets[v];
+                int to = offsets[v + 1];
+                if (from == to) continue;
+                Arrays.sort(bucket.neighbors, from, to); // Stable, so the first occurrence of a duplicate wins
+                graph.loadNeighbors(v, direction, bucket.neighbors, from, to);
+            }
+        }
+    }
+}
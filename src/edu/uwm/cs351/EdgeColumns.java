@@ -0,0 +1,288 @@
+package edu.uwm.cs351;
+
+import java.util.Arrays;
+
+/**
+ * EdgeColumns holds the per-edge values of a run of sorted neighbor IDs in primitive arrays
+ * that run parallel to the IDs: slot i belongs to the i-th neighbor of the run.
+ *
+ * A PowerofTwo keeps one EdgeColumns for its whole list, and an UnrolledSkipList keeps one
+ * per block, so the values sit next to the IDs they belong to and move with them when elements
+ * are inserted, removed, split off into a new block or merged into a neighboring one.
+ *
+ * There is a weight column and one column per {@link EdgeProperty}. Each column is allocated
+ * the first time a value is set in it; until then every slot reads as the default (1.0 for
+ * weights, 0 for properties). INT properties are stored in an int[], all others in a long[].
+ *
+ * The owner tracks how many slots are in use; every method that shifts values is given that size.
+ */
+final class EdgeColumns {
+    /** The weight an edge gets when none was given. */
+    static final double DEFAULT_WEIGHT = 1.0;
+
+    private int capacity;
+    private double[] weights;    // null until a weight is set
+    private Object[] properties; // int[] or long[] per property column, null until one is set
+
+    /**
+     * Creates columns with no values set.
+     *
+     * @param capacity the initial number of slots.
+     */
+    EdgeColumns(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Estimates the heap bytes of these columns, for {@link StructureReport}.
+     *
+     * @return the estimated bytes of this object and its allocated columns.
+     */
+    long estimateBytes() {
+        long bytes = StructureReport.objectBytes(Integer.BYTES + 2 * StructureReport.REFERENCE_BYTES);
+        if (weights != null) bytes += StructureReport.arrayBytes(weights.length, Double.BYTES);
+        if (properties != null) {
+            bytes += StructureReport.arrayBytes(properties.length, StructureReport.REFERENCE_BYTES);
+            for (Object column : properties) {
+                if (column instanceof int[]) {
+                    bytes += StructureReport.arrayBytes(((int[]) column).length, Integer.BYTES);
+                } else if (column != null) {
+                    bytes += StructureReport.arrayBytes(((long[]) column).length, Long.BYTES);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Checks if any weight has been set.
+     *
+     * @return true if the weight column is allocated.
+     */
+    boolean hasWeights() {
+        return weights != null;
+    }
+
+    /**
+     * Gets the weight in the given slot.
+     *
+     * @param i the slot.
+     * @return the weight.
+     */
+    double weight(int i) {
+        return weights == null ? DEFAULT_WEIGHT : weights[i];
+    }
+
+    /**
+     * Sets the weight in the given slot, allocating the weight column if needed.
+     *
+     * @param i      the slot.
+     * @param size   the number of slots in use.
+     * @param weight the new weight.
+     */
+    void setWeight(int i, int size, double weight) {
+        if (weights == null) {
+            weights = new double[capacity];
+            Arrays.fill(weights, 0, size, DEFAULT_WEIGHT);
+        }
+        weights[i] = weight;
+    }
+
+    /**
+     * Gets the stored bits of a property in the given slot.
+     *
+     * @param property the property.
+     * @param i        the slot.
+     * @return the stored bits, or 0 if the property was never set here.
+     */
+    long property(EdgeProperty property, int i) {
+        Object column = column(property.column());
+        if (column == null) return 0;
+        return column instanceof int[] ? ((int[]) column)[i] : ((long[]) column)[i];
+    }
+
+    /**
+     * Sets the stored bits of a property in the given slot, allocating its column if needed.
+     *
+     * @param property the property.
+     * @param i        the slot.
+     * @param bits     the stored bits, see {@link EdgeProperty#encode(long)}.
+     */
+    void setProperty(EdgeProperty property, int i, long bits) {
+        int c = property.column();
+        Object column = column(c);
+        if (column == null) {
+            if (bits == 0) return; // Unallocated columns already read as 0
+            if (properties == null || properties.length <= c) {
+                properties = properties == null ? new Object[c + 1] : Arrays.copyOf(properties, c + 1);
+            }
+            column = property.getType() == EdgeProperty.Type.INT ? new int[capacity] : new long[capacity];
+            properties[c] = column;
+        }
+        if (column instanceof int[]) {
+            ((int[]) column)[i] = (int) bits;
+        } else {
+            ((long[]) column)[i] = bits;
+        }
+    }
+
+    /**
+     * Gets a property column.
+     *
+     * @param c the column number.
+     * @return the int[] or long[] column, or null if it is not allocated.
+     */
+    private Object column(int c) {
+        return properties == null || c >= properties.length ? null : properties[c];
+    }
+
+    /**
+     * Opens a slot at pos by shifting the slots [pos, size) of every column right by one,
+     * doubling the capacity if it is full. The new slot holds the default values.
+     *
+     * @param pos  the slot of the new edge.
+     * @param size the number of slots in use before the insertion.
+     */
+    void insert(int pos, int size) {
+        if (size == capacity) grow(capacity * 2);
+        if (weights != null) {
+            System.arraycopy(weights, pos, weights, pos + 1, size - pos);
+            weights[pos] = DEFAULT_WEIGHT;
+        }
+        if (properties != null) {
+            for (Object column : properties) {
+                if (column instanceof int[]) {
+                    int[] values = (int[]) column;
+                    System.arraycopy(values, pos, values, pos + 1, size - pos);
+                    values[pos] = 0;
+                } else if (column != null) {
+                    long[] values = (long[]) column;
+                    System.arraycopy(values, pos, values, pos + 1, size - pos);
+                    values[pos] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the slot at pos by shifting the slots (pos, size) of every column left by one.
+     *
+     * @param pos  the slot of the removed edge.
+     * @param size the number of slots in use before the removal.
+     */
+    void remove(int pos, int size) {
+        if (weights != null) System.arraycopy(weights, pos + 1, weights, pos, size - pos - 1);
+        if (properties != null) {
+            for (Object column : properties) {
+                if (column != null) System.arraycopy(column, pos + 1, column, pos, size - pos - 1);
+            }
+        }
+    }
+
+    /**
+     * Closes the first count slots by shifting the slots [count, size) of every column to the
+     * front, as when the front of a block is moved into the block before it.
+     *
+     * @param count the number of slots to close.
+     * @param size  the number of slots in use before the removal.
+     */
+    void removeFirst(int count, int size) {
+        if (weights != null) System.arraycopy(weights, count, weights, 0, size - count);
+        if (properties != null) {
+            for (Object column : properties) {
+                if (column != null) System.arraycopy(column, count, column, 0, size - count);
+            }
+        }
+    }
+
+    /**
+     * Moves the slots [from, size) into new columns, as when a block is split at from.
+     *
+     * @param from     the first slot to move.
+     * @param size     the number of slots in use.
+     * @param capacity the capacity of the new columns.
+     * @return new columns holding the moved slots, starting at slot 0.
+     */
+    EdgeColumns split(int from, int size, int capacity) {
+        EdgeColumns tail = new EdgeColumns(Math.max(capacity, size - from));
+        if (weights != null) {
+            tail.weights = new double[tail.capacity];
+            System.arraycopy(weights, from, tail.weights, 0, size - from);
+        }
+        if (properties != null) {
+            tail.properties = new Object[properties.length];
+            for (int c = 0; c < properties.length; c++) {
+                Object column = properties[c];
+                if (column == null) continue;
+                Object moved = column instanceof int[] ? new int[tail.capacity] : new long[tail.capacity];
+                System.arraycopy(column, from, moved, 0, size - from);
+                tail.properties[c] = moved;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Appends the first otherSize slots of other after the first size slots of these columns,
+     * as when a block is merged into the block before it. Columns only one side has are
+     * filled with the default values on the other side.
+     *
+     * @param size      the number of slots in use here.
+     * @param other     the columns to copy from.
+     * @param otherSize the number of slots in use in other.
+     */
+    void append(int size, EdgeColumns other, int otherSize) {
+        if (size + otherSize > capacity) grow(Math.max(capacity * 2, size + otherSize));
+        if (weights != null || other.weights != null) {
+            if (weights == null) {
+                weights = new double[capacity];
+                Arrays.fill(weights, 0, size, DEFAULT_WEIGHT);
+            }
+            if (other.weights != null) {
+                System.arraycopy(other.weights, 0, weights, size, otherSize);
+            } else {
+                Arrays.fill(weights, size, size + otherSize, DEFAULT_WEIGHT);
+            }
+        }
+        int columns = Math.max(properties == null ? 0 : properties.length,
+                               other.properties == null ? 0 : other.properties.length);
+        if (columns == 0) return;
+        if (properties == null || properties.length < columns) {
+            properties = properties == null ? new Object[columns] : Arrays.copyOf(properties, columns);
+        }
+        for (int c = 0; c < columns; c++) {
+            Object source = other.column(c);
+            if (properties[c] == null) {
+                if (source == null) continue;
+                properties[c] = source instanceof int[] ? new int[capacity] : new long[capacity];
+            }
+            if (source != null) {
+                System.arraycopy(source, 0, properties[c], size, otherSize);
+            } else if (properties[c] instanceof int[]) {
+                Arrays.fill((int[]) properties[c], size, size + otherSize, 0);
+            } else {
+                Arrays.fill((long[]) properties[c], size, size + otherSize, 0L);
+            }
+        }
+    }
+
+    /**
+     * Grows every allocated column to the new capacity.
+     *
+     * @param newCapacity the new number of slots.
+     */
+    private void grow(int newCapacity) {
+        capacity = newCapacity;
+        if (weights != null) weights = Arrays.copyOf(weights, newCapacity);
+        if (properties != null) {
+            for (int c = 0; c < properties.length; c++) {
+                Object column = properties[c];
+                if (column instanceof int[]) {
+                    properties[c] = Arrays.copyOf((int[]) column, newCapacity);
+                } else if (column != null) {
+                    properties[c] = Arrays.copyOf((long[]) column, newCapacity);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package edu.uwm.cs351;
+
+/**
+ * EdgeProperty identifies a typed column of per-edge values registered on a SortledtonGraph,
+ * such as a creation timestamp or a small type label.
+ *
+ * Values are stored in primitive columns next to the neighbor IDs (see {@link EdgeColumns})
+ * and read through {@link NeighborCursor} during scans. Edges that never had a value set read
+ * as 0. Internally every value travels as a long: integers as themselves, doubles as their
+ * raw bits; {@link #encode(long)}, {@link #encode(double)}, {@link #asLong(long)} and
+ * {@link #asDouble(long)} convert between the two.
+ */
+public final class EdgeProperty {
+
+    /**
+     * The primitive type of a property column.
+     */
+    public enum Type {
+        /** 32-bit integers, such as labels. */
+        INT,
+        /** 64-bit integers, such as timestamps. */
+        LONG,
+        /** 64-bit floating point numbers. */
+        DOUBLE
+    }
+
+    private final String name;
+    private final Type type;
+    private final int column;
+
+    /**
+     * Creates a property; only SortledtonGraph hands these out.
+     *
+     * @param name   The name the property was registered under.
+     * @param type   The type of its values.
+     * @param column The column number of the property within its graph.
+     */
+    EdgeProperty(String name, Type type, int column) {
+        this.name = name;
+        this.type = type;
+        this.column = column;
+    }
+
+    /**
+     * Gets the name of this property.
+     *
+     * @return the name the property was registered under.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the type of this property.
+     *
+     * @return the primitive type of its values.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the column number of this property within its graph.
+     *
+     * @return the column number, starting at 0.
+     */
+    int column() {
+        return column;
+    }
+
+    /**
+     * Converts an integer value into its stored form.
+     *
+     * @param value The value to store.
+     * @return the stored bits.
+     */
+    public long encode(long value) {
+        switch (type) {
+            case INT:    return (int) value;
+            case DOUBLE: return Double.doubleToRawLongBits(value);
+            default:     return value;
+        }
+    }
+
+    /**
+     * Converts a floating point value into its stored form.
+     *
+     * @param value The value to store.
+     * @return the stored bits.
+     */
+    public long encode(double value) {
+        switch (type) {
+            case INT:    return (int) value;
+            case DOUBLE: return Double.doubleToRawLongBits(value);
+            default:     return (long) value;
+        }
+    }
+
+    /**
+     * Reads stored bits as an integer value.
+     *
+     * @param bits The stored bits.
+     * @return the value, truncated if this is a DOUBLE property.
+     */
+    public long asLong(long bits) {
+        return type == Type.DOUBLE ? (long) Double.longBitsToDouble(bits) : bits;
+    }
+
+    /**
+     * Reads stored bits as a floating point value.
+     *
+     * @param bits The stored bits.
+     * @return the value.
+     */
+    public double asDouble(long bits) {
+        return type == Type.DOUBLE ? Double.longBitsToDouble(bits) : bits;
+    }
+
+    @Override // Implementation
+    public String toString() {
+        return name + ":" + type;
+    }
+}
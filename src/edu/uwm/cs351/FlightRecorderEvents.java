@@ -0,0 +1,281 @@
+package edu.uwm.cs351;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * FlightRecorderEvents emits Java Flight Recorder events for slow operations and structural
+ * maintenance of a SortledtonGraph, so that latency spikes can be matched against GC and
+ * safepoint pauses in the same recording. Attach it with {@link SortledtonGraph#setFlightRecorderEvents}.
+ *
+ * Events are emitted in the "Sortledton" category:
+ * <ul>
+ *     <li>edu.uwm.cs351.SlowOperation, for an operation that took at least the threshold, with
+ *     its name, the vertex ID and degree of its first vertex, and its duration.</li>
+ *     <li>edu.uwm.cs351.NeighborhoodConversion, when a neighborhood changes representation among
+ *     PowerofTwo, UnrolledSkipList and HashedUnrolledSkipList, with the new representation.</li>
+ *     <li>edu.uwm.cs351.BlockSplit and edu.uwm.cs351.BlockMerge, for UnrolledSkipList blocks.</li>
+ *     <li>edu.uwm.cs351.IndexGrowth, when the vertex indices grow, with the new capacity.</li>
+ * </ul>
+ * Each event carries a vertex ID (the logical ID), a degree and the duration of the work.
+ *
+ * The project compiles for Java 8, where jdk.jfr is not part of the platform API, so the
+ * event types are defined at run time through jdk.jfr.EventFactory, found by reflection.
+ * That works on any JVM that ships JFR (8u272 and later, and 11 and later); elsewhere
+ * {@link #isAvailable()} is false and nothing can be attached.
+ *
+ * Before building an event, emission asks its jdk.jfr.EventType whether a running recording
+ * has it enabled, which is one reflective call. Only then is the event created, filled and
+ * committed by reflection, at a cost of several reflective calls with boxed values. Block
+ * splits are frequent while a hub ingests edges, so recording BlockSplit then costs that
+ * much per split. An operation under the threshold costs only a clock read.
+ */
+public final class FlightRecorderEvents {
+    /** The default threshold for SlowOperation events: one millisecond. */
+    public static final long DEFAULT_THRESHOLD_NANOS = 1_000_000;
+
+    private static final String CATEGORY = "Sortledton";
+
+    private static final Method NEW_EVENT;
+    private static final Method SET;
+    private static final Method COMMIT;
+    private static final Method GET_EVENT_TYPE;
+    private static final Method IS_ENABLED;
+    private static final Kind SLOW_OPERATION;
+    private static final Kind CONVERSION;
+    private static final Kind BLOCK_SPLIT;
+    private static final Kind BLOCK_MERGE;
+    private static final Kind INDEX_GROWTH;
+
+    static {
+        Method newEvent = null;
+        Method set = null;
+        Method commit = null;
+        Method getEventType = null;
+        Method isEnabled = null;
+        Object[] factories = new Object[5];
+        try {
+            Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            newEvent = factoryClass.getMethod("newEvent");
+            set = eventClass.getMethod("set", int.class, Object.class);
+            commit = eventClass.getMethod("commit");
+            getEventType = factoryClass.getMethod("getEventType");
+            isEnabled = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+            factories[0] = define(factoryClass, "SlowOperation", "Slow Graph Operation",
+                                  "A graph operation that took at least the configured threshold",
+                                  field(String.class, "operation", "Operation", false));
+            factories[1] = define(factoryClass, "NeighborhoodConversion", "Neighborhood Conversion",
+                                  "A neighborhood changed to PowerofTwo, UnrolledSkipList or HashedUnrolledSkipList",
+                                  field(String.class, "representation", "New Representation", false));
+            factories[2] = define(factoryClass, "BlockSplit", "Block Split", "A full UnrolledSkipList block was split");
+            factories[3] = define(factoryClass, "BlockMerge", "Block Merge", "An UnrolledSkipList block was merged into its neighbor");
+            factories[4] = define(factoryClass, "IndexGrowth", "Index Growth", "The vertex indices grew",
+                                  field(int.class, "capacity", "Capacity", false));
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // No Flight Recorder in this JVM
+            newEvent = null;
+        }
+        NEW_EVENT = newEvent;
+        SET = set;
+        COMMIT = commit;
+        GET_EVENT_TYPE = getEventType;
+        IS_ENABLED = isEnabled;
+        SLOW_OPERATION = Kind.of(factories[0]);
+        CONVERSION = Kind.of(factories[1]);
+        BLOCK_SPLIT = Kind.of(factories[2]);
+        BLOCK_MERGE = Kind.of(factories[3]);
+        INDEX_GROWTH = Kind.of(factories[4]);
+    }
+
+    /**
+     * An event type defined at run time: the jdk.jfr.EventFactory that makes its events, and
+     * its jdk.jfr.EventType, which says whether a running recording has it enabled.
+     */
+    private static final class Kind {
+        final Object factory;
+        final Object type;
+
+        private Kind(Object factory, Object type) {
+            this.factory = factory;
+            this.type = type;
+        }
+
+        /**
+         * Looks up the event type of a factory.
+         *
+         * @return the kind, or null if there is no factory.
+         */
+        static Kind of(Object factory) {
+            if (factory == null) return null;
+            try {
+                return new Kind(factory, GET_EVENT_TYPE.invoke(factory));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                return new Kind(factory, null);
+            }
+        }
+
+        /**
+         * Checks whether a running recording has this event type enabled. If the type could
+         * not be looked up, events are built and left to commit to decide.
+         */
+        boolean isEnabled() {
+            if (type == null) return true;
+            try {
+                return (Boolean) IS_ENABLED.invoke(type);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                return true;
+            }
+        }
+    }
+
+    private final long thresholdNanos;
+
+    /**
+     * Creates event emission with the default slow-operation threshold.
+     *
+     * @throws UnsupportedOperationException if this JVM has no Flight Recorder.
+     */
+    public FlightRecorderEvents() {
+        this(DEFAULT_THRESHOLD_NANOS);
+    }
+
+    /**
+     * Creates event emission with the given slow-operation threshold.
+     *
+     * @param thresholdNanos The duration at or above which an operation emits a SlowOperation event.
+     * @throws IllegalArgumentException      if thresholdNanos is negative.
+     * @throws UnsupportedOperationException if this JVM has no Flight Recorder.
+     */
+    public FlightRecorderEvents(long thresholdNanos) {
+        if (thresholdNanos < 0) {
+            throw new IllegalArgumentException("@FlightRecorderEvents, the parameter, thresholdNanos, may not be negative.");
+        }
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("This JVM has no Flight Recorder (jdk.jfr.EventFactory).");
+        }
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    /**
+     * Checks if this JVM can emit the events.
+     *
+     * @return true if jdk.jfr.EventFactory was found and the event types are defined.
+     */
+    public static boolean isAvailable() {
+        return NEW_EVENT != null;
+    }
+
+    /**
+     * Gets the slow-operation threshold.
+     *
+     * @return the threshold in nanoseconds.
+     */
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * Emits a SlowOperation event if an operation took at least the threshold.
+     */
+    void operation(GraphMetrics.Operation operation, int vertexId, int degree, long nanos) {
+        if (nanos >= thresholdNanos && SLOW_OPERATION.isEnabled()) {
+            emit(SLOW_OPERATION, vertexId, degree, nanos, operation.label());
+        }
+    }
+
+    /**
+     * Emits a NeighborhoodConversion event.
+     */
+    void conversion(int vertexId, int degree, long nanos, String representation) {
+        if (CONVERSION.isEnabled()) emit(CONVERSION, vertexId, degree, nanos, representation);
+    }
+
+    /**
+     * Emits a BlockSplit event; degree is the size of the neighborhood after the split.
+     */
+    void blockSplit(int vertexId, int degree, long nanos) {
+        if (BLOCK_SPLIT.isEnabled()) emit(BLOCK_SPLIT, vertexId, degree, nanos);
+    }
+
+    /**
+     * Emits a BlockMerge event; degree is the size of the neighborhood after the merge.
+     */
+    void blockMerge(int vertexId, int degree, long nanos) {
+        if (BLOCK_MERGE.isEnabled()) emit(BLOCK_MERGE, vertexId, degree, nanos);
+    }
+
+    /**
+     * Emits an IndexGrowth event for the vertex whose insertion grew the indices.
+     */
+    void indexGrowth(int vertexId, int capacity, long nanos) {
+        if (INDEX_GROWTH.isEnabled()) emit(INDEX_GROWTH, vertexId, 0, nanos, capacity);
+    }
+
+    /**
+     * Creates, fills and commits one event. The common fields come first, then the extra ones
+     * in the order they were defined.
+     */
+    private static void emit(Kind kind, int vertexId, int degree, long nanos, Object... extra) {
+        try {
+            Object event = NEW_EVENT.invoke(kind.factory);
+            SET.invoke(event, 0, vertexId);
+            SET.invoke(event, 1, degree);
+            SET.invoke(event, 2, nanos);
+            for (int i = 0; i < extra.length; i++) {
+                SET.invoke(event, 3 + i, extra[i]);
+            }
+            COMMIT.invoke(event);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            // Losing a diagnostic event must not fail the graph operation
+        }
+    }
+
+    /**
+     * Defines an event type with the common vertexId, degree and elapsed fields and some extra ones.
+     *
+     * @return its jdk.jfr.EventFactory.
+     */
+    private static Object define(Class<?> factoryClass, String name, String label, String description, Object... extra)
+            throws ReflectiveOperationException {
+        List<Object> annotations = new ArrayList<>();
+        annotations.add(annotation("jdk.jfr.Name", "edu.uwm.cs351." + name));
+        annotations.add(annotation("jdk.jfr.Label", label));
+        annotations.add(annotation("jdk.jfr.Description", description));
+        annotations.add(annotation("jdk.jfr.Category", new String[] { CATEGORY }));
+
+        List<Object> fields = new ArrayList<>();
+        fields.add(field(int.class, "vertexId", "Vertex ID", false));
+        fields.add(field(int.class, "degree", "Degree", false));
+        fields.add(field(long.class, "elapsed", "Duration", true));
+        fields.addAll(Arrays.asList(extra));
+
+        Method create = factoryClass.getMethod("create", List.class, List.class);
+        return create.invoke(null, annotations, fields);
+    }
+
+    /**
+     * Creates a jdk.jfr.ValueDescriptor, optionally marked as a span of nanoseconds.
+     */
+    private static Object field(Class<?> type, String name, String label, boolean nanoseconds)
+            throws ReflectiveOperationException {
+        List<Object> annotations = new ArrayList<>();
+        annotations.add(annotation("jdk.jfr.Label", label));
+        if (nanoseconds) annotations.add(annotation("jdk.jfr.Timespan", "NANOSECONDS"));
+        Constructor<?> constructor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class, List.class);
+        return constructor.newInstance(type, name, Collections.unmodifiableList(annotations));
+    }
+
+    /**
+     * Creates a jdk.jfr.AnnotationElement for an annotation with a single value.
+     */
+    private static Object annotation(String type, Object value) throws ReflectiveOperationException {
+        Constructor<?> constructor = Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class);
+        return constructor.newInstance(Class.forName(type), value);
+    }
+}
@@ -0,0 +1,424 @@
+package edu.uwm.cs351;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * GraphGenerator builds synthetic edge lists for benchmarks, with 2^scale vertices numbered
+ * from 0 and edgeFactor * 2^scale edges, in one of three models:
+ * <ul>
+ *     <li>UNIFORM: both ends of every edge are uniform over the vertices (Erdős–Rényi G(n, m)),
+ *     so degrees are nearly equal.</li>
+ *     <li>RMAT: every edge descends scale levels of the adjacency matrix, picking a quadrant
+ *     with probabilities a, b, c and 1 - a - b - c at each level (Graph500 defaults
+ *     0.57, 0.19, 0.19), which gives a power-law degree distribution. The vertex IDs are then
+ *     shuffled, as in Graph500, so the hubs are not the smallest IDs.</li>
+ *     <li>PREFERENTIAL_ATTACHMENT: vertex v brings edgeFactor edges (Barabási–Albert), each to
+ *     an end of a uniformly chosen edge of an earlier vertex, that is, to a vertex picked with
+ *     probability proportional to its degree. Vertex 0 has nothing to attach to and loops on
+ *     itself.</li>
+ * </ul>
+ * As in Graph500, an edge list may hold self-loops and repeated edges; the graph ignores repeats.
+ *
+ * Edges are generated in parallel on a ForkJoinPool, yet the output depends only on the model,
+ * the sizes and the seed. Uniform and R-MAT edges are cut into fixed chunks, and each chunk
+ * draws from its own random stream seeded by the chunk number. For preferential attachment,
+ * the choice of edge j depends only on j (Sanders and Schulz), so the end an edge copies is
+ * found by following earlier choices back to a source, which needs no shared state.
+ *
+ * <p>Usage: {@code java edu.uwm.cs351.GraphGenerator <uniform|rmat|preferential-attachment> <scale>
+ * <edge-factor> <output-prefix> [--seed S] [--threads N] [--rmat a,b,c]} writes
+ * {@code <output-prefix>.v} and {@code <output-prefix>.e} in Graphalytics format.</p>
+ *
+ * <p>Sources:</p>
+ * <ul>
+ *     <li>D. Chakrabarti, Y. Zhan and C. Faloutsos, "R-MAT: A Recursive Model for Graph Mining", SDM 2004.</li>
+ *     <li>A.-L. Barabási and R. Albert, "Emergence of Scaling in Random Networks", Science 286, 1999.</li>
+ *     <li>P. Sanders and C. Schulz, "Scalable Generation of Scale-free Graphs", Information Processing Letters 116(7), 2016.</li>
+ * </ul>
+ */
+public final class GraphGenerator {
+    /** The random graph models. */
+    public enum Model {
+        /** Uniformly random ends. */
+        UNIFORM,
+        /** Recursive matrix, power-law degrees. */
+        RMAT,
+        /** Barabási–Albert preferential attachment, power-law degrees. */
+        PREFERENTIAL_ATTACHMENT
+    }
+
+    /** Edges per independently seeded chunk; fixed so the output does not depend on the pool. */
+    private static final int CHUNK = 1 << 14;
+
+    /** The largest scale; vertex IDs must stay non-negative ints. */
+    public static final int MAX_SCALE = 30;
+
+    private final Model model;
+    private final int scale;
+    private final int edgeFactor;
+    private final long seed;
+    private final ForkJoinPool pool;
+    private double a = 0.57;
+    private double b = 0.19;
+    private double c = 0.19;
+
+    /**
+     * The generated edges, as parallel arrays of source and destination IDs.
+     */
+    public static final class EdgeList {
+        private final int[] sources;
+        private final int[] destinations;
+
+        EdgeList(int[] sources, int[] destinations) {
+            this.sources = sources;
+            this.destinations = destinations;
+        }
+
+        /** @return the number of edges. */
+        public int size() {
+            return sources.length;
+        }
+
+        /**
+         * @param i The index of an edge, in [0, size()).
+         * @return its source vertex ID.
+         */
+        public int source(int i) {
+            return sources[i];
+        }
+
+        /**
+         * @param i The index of an edge, in [0, size()).
+         * @return its destination vertex ID.
+         */
+        public int destination(int i) {
+            return destinations[i];
+        }
+    }
+
+    /**
+     * Creates a generator that runs on the common ForkJoinPool.
+     *
+     * @param model      The random graph model.
+     * @param scale      log2 of the number of vertices, in [0, MAX_SCALE].
+     * @param edgeFactor The number of edges per vertex, at least 1.
+     * @param seed       The seed; the same seed gives the same edges.
+     * @throws IllegalArgumentException if model is null, scale or edgeFactor is out of range,
+     *                                  or there would be more edges than an array can hold.
+     */
+    public GraphGenerator(Model model, int scale, int edgeFactor, long seed) {
+        this(model, scale, edgeFactor, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a generator that runs on the given ForkJoinPool.
+     *
+     * @param model      The random graph model.
+     * @param scale      log2 of the number of vertices, in [0, MAX_SCALE].
+     * @param edgeFactor The number of edges per vertex, at least 1.
+     * @param seed       The seed; the same seed gives the same edges.
+     * @param pool       The pool that generates the edges.
+     * @throws IllegalArgumentException if model or pool is null, scale or edgeFactor is out of
+     *                                  range, or there would be more edges than an array can hold.
+     */
+    public GraphGenerator(Model model, int scale, int edgeFactor, long seed, ForkJoinPool pool) {
+        if (model == null || pool == null) {
+            throw new IllegalArgumentException("@GraphGenerator, the parameters, model and pool, may not be null.");
+        }
+        if (scale < 0 || scale > MAX_SCALE || edgeFactor < 1 || ((long) edgeFactor << scale) > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("@GraphGenerator, scale must be in [0, " + MAX_SCALE
+                                               + "], edgeFactor positive, and edgeFactor * 2^scale fit in an array.");
+        }
+        this.model = model;
+        this.scale = scale;
+        this.edgeFactor = edgeFactor;
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the quadrant probabilities of the RMAT model; the fourth is 1 - a - b - c.
+     *
+     * @param a The probability of the top-left quadrant.
+     * @param b The probability of the top-right quadrant.
+     * @param c The probability of the bottom-left quadrant.
+     * @throws IllegalArgumentException if a probability is negative or they add up to more than 1.
+     */
+    public void setRmatProbabilities(double a, double b, double c) {
+        if (!(a >= 0 && b >= 0 && c >= 0 && a + b + c <= 1)) {
+            throw new IllegalArgumentException("@setRmatProbabilities, the probabilities must be non-negative and add up to at most 1.");
+        }
+        this.a = a;
+        this.b = b;
+        this.c = c;
+    }
+
+    /**
+     * Gets the number of vertices, 2^scale.
+     *
+     * @return the vertex count.
+     */
+    public int getVertexCount() {
+        return 1 << scale;
+    }
+
+    /**
+     * Gets the number of edges generated, edgeFactor * 2^scale.
+     *
+     * @return the edge count.
+     */
+    public int getEdgeCount() {
+        return edgeFactor << scale;
+    }
+
+    /**
+     * Generates the edges.
+     *
+     * @return the edge list.
+     */
+    public EdgeList generate() {
+        int m = getEdgeCount();
+        int[] sources = new int[m];
+        int[] destinations = new int[m];
+        int chunks = (m + CHUNK - 1) / CHUNK;
+        pool.invoke(new ChunkTask(0, chunks, sources, destinations));
+        if (model == Model.RMAT) {
+            int[] permutation = permutation();
+            pool.invoke(new ChunkTask(0, chunks, sources, destinations, permutation));
+        }
+        return new EdgeList(sources, destinations);
+    }
+
+    /**
+     * Generates the edges and loads them into a graph: first the vertices in order of ID, which
+     * keeps isolated vertices, then the edges through a {@link BulkLoader}.
+     *
+     * @param graph The graph to load into.
+     * @throws IllegalArgumentException if graph is null.
+     */
+    public void load(SortledtonGraph<Integer> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("@load, the parameter, graph, may not be null.");
+        }
+        EdgeList edges = generate();
+        for (int v = 0; v < getVertexCount(); v++) {
+            if (!graph.hasVertex(v)) graph.insertVertex(v);
+        }
+        BulkLoader<Integer> loader = new BulkLoader<>(graph, pool);
+        for (int i = 0; i < edges.size(); i++) {
+            loader.addEdge(edges.source(i), edges.destination(i));
+        }
+        loader.load();
+    }
+
+    /**
+     * Generates the edges and writes them in Graphalytics format: prefix.v with one vertex ID
+     * per line and prefix.e with one "source destination" per line.
+     *
+     * @param prefix The path of the files, without the extension.
+     * @throws IOException if a file cannot be written.
+     * @throws IllegalArgumentException if prefix is null.
+     */
+    public void write(Path prefix) throws IOException {
+        if (prefix == null) {
+            throw new IllegalArgumentException("@write, the parameter, prefix, may not be null.");
+        }
+        EdgeList edges = generate();
+        Path directory = prefix.toAbsolutePath().getParent();
+        String name = prefix.getFileName().toString();
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(name + ".v"), StandardCharsets.UTF_8)) {
+            for (int v = 0; v < getVertexCount(); v++) {
+                writer.write(Integer.toString(v));
+                writer.newLine();
+            }
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(name + ".e"), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < edges.size(); i++) {
+                writer.write(Integer.toString(edges.source(i)));
+                writer.write(' ');
+                writer.write(Integer.toString(edges.destination(i)));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Fills the edges of one chunk from that chunk's own random stream.
+     */
+    private void generateChunk(int chunk, int[] sources, int[] destinations) {
+        int from = chunk * CHUNK;
+        int to = Math.min(sources.length, from + CHUNK);
+        SplittableRandom random = new SplittableRandom(mix(seed + mix(chunk)));
+        int n = getVertexCount();
+        for (int i = from; i < to; i++) {
+            switch (model) {
+                case UNIFORM:
+                    sources[i] = random.nextInt(n);
+                    destinations[i] = random.nextInt(n);
+                    break;
+                case RMAT:
+                    int row = 0;
+                    int column = 0;
+                    for (int level = 0; level < scale; level++) {
+                        double p = random.nextDouble();
+                        row <<= 1;
+                        column <<= 1;
+                        if (p < a) {
+                            // top-left: neither bit set
+                        } else if (p < a + b) {
+                            column |= 1;
+                        } else if (p < a + b + c) {
+                            row |= 1;
+                        } else {
+                            row |= 1;
+                            column |= 1;
+                        }
+                    }
+                    sources[i] = row;
+                    destinations[i] = column;
+                    break;
+                default:
+                    sources[i] = i / edgeFactor;
+                    destinations[i] = attach(i);
+            }
+        }
+    }
+
+    /**
+     * Picks the vertex edge j attaches to by copying an end of a uniformly chosen earlier edge.
+     * The edge list is read as 2m ends, source then destination; an even end is the source of
+     * its edge, known directly, and an odd one is a destination, found by repeating the choice
+     * that edge made. Every choice is a pure function of the seed and the edge index.
+     */
+    private int attach(long j) {
+        while (true) {
+            long v = j / edgeFactor;
+            if (v == 0) return 0;
+            long end = Long.remainderUnsigned(mix(seed ^ mix(j + 0x5DEECE66DL)), 2 * v * edgeFactor);
+            if ((end & 1) == 0) return (int) ((end >> 1) / edgeFactor);
+            j = end >> 1;
+        }
+    }
+
+    /**
+     * Builds a seeded random permutation of the vertex IDs.
+     */
+    private int[] permutation() {
+        int n = getVertexCount();
+        int[] permutation = new int[n];
+        for (int v = 0; v < n; v++) {
+            permutation[v] = v;
+        }
+        SplittableRandom random = new SplittableRandom(mix(~seed));
+        for (int v = n - 1; v > 0; v--) {
+            int u = random.nextInt(v + 1);
+            int swap = permutation[v];
+            permutation[v] = permutation[u];
+            permutation[u] = swap;
+        }
+        return permutation;
+    }
+
+    /**
+     * The finalizer of SplitMix64, which turns nearby inputs into unrelated outputs.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Generates a range of chunks, or relabels their vertices if given a permutation.
+     */
+    private class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int low;
+        private final int high;
+        private final int[] sources;
+        private final int[] destinations;
+        private final int[] permutation;
+
+        ChunkTask(int low, int high, int[] sources, int[] destinations) {
+            this(low, high, sources, destinations, null);
+        }
+
+        ChunkTask(int low, int high, int[] sources, int[] destinations, int[] permutation) {
+            this.low = low;
+            this.high = high;
+            this.sources = sources;
+            this.destinations = destinations;
+            this.permutation = permutation;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low > 1) {
+                int mid = (low + high) >>> 1;
+                invokeAll(new ChunkTask(low, mid, sources, destinations, permutation),
+                          new ChunkTask(mid, high, sources, destinations, permutation));
+            } else if (permutation == null) {
+                generateChunk(low, sources, destinations);
+            } else {
+                int to = Math.min(sources.length, (low + 1) * CHUNK);
+                for (int i = low * CHUNK; i < to; i++) {
+                    sources[i] = permutation[sources[i]];
+                    destinations[i] = permutation[destinations[i]];
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a generated graph to Graphalytics vertex and edge files.
+     *
+     * @param args the model, scale, edge factor and output prefix, then the options.
+     * @throws IOException if a file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: GraphGenerator <uniform|rmat|preferential-attachment> <scale> <edge-factor> "
+                               + "<output-prefix> [--seed S] [--threads N] [--rmat a,b,c]");
+            System.exit(2);
+        }
+        Model model = Model.valueOf(args[0].toUpperCase(Locale.ROOT).replace('-', '_'));
+        long seed = 42;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double[] rmat = null;
+        for (int i = 4; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--seed":    seed = Long.parseLong(args[i + 1]); break;
+                case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "--rmat":
+                    String[] p = args[i + 1].split(",");
+                    rmat = new double[] { Double.parseDouble(p[0]), Double.parseDouble(p[1]), Double.parseDouble(p[2]) };
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            GraphGenerator generator = new GraphGenerator(model, Integer.parseInt(args[1]), Integer.parseInt(args[2]), seed, pool);
+            if (rmat != null) generator.setRmatProbabilities(rmat[0], rmat[1], rmat[2]);
+            long start = System.nanoTime();
+            generator.write(Paths.get(args[3]));
+            System.out.println(String.format(Locale.ROOT, "{\"model\":\"%s\",\"vertices\":%d,\"edges\":%d,\"seconds\":%.3f}",
+                model.name().toLowerCase(Locale.ROOT), generator.getVertexCount(), generator.getEdgeCount(),
+                (System.nanoTime() - start) / 1e9));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package edu.uwm.cs351;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+/**
+ * GraphKernel is the common base of the analytics kernels that run over the physical IDs
+ * of a SortledtonGraph, such as {@link BreadthFirstSearch}.
+ *
+ * At the start of each run a kernel takes a snapshot of the logical-to-physical mapping in
+ * an open-addressing int table, so the neighbor IDs met during a scan are turned into physical
+ * IDs without boxing. Neighborhoods are read in place through {@link NeighborCursor}s, and
+ * results are primitive arrays indexed by physical ID.
+ *
+ * The graph must not be modified while a kernel runs, and a kernel object runs one
+ * computation at a time.
+ *
+ * @param <T> The type of the vertex ID
+ */
+abstract class GraphKernel<T extends Comparable<T>> {
+    /** Number of loop iterations below which a range task stops splitting. */
+    static final int GRAIN = 256;
+
+    private static final int EMPTY = -1;
+
+    final SortledtonGraph<T> graph;
+    final ForkJoinPool pool;
+
+    // The snapshot taken by the last call to snapshot()
+    int vertexCount;
+    private int[] keys;   // Logical IDs
+    private int[] values; // Physical indices, EMPTY for a free slot
+    private int mask;
+
+    /**
+     * Creates a kernel for the given graph that runs on the given ForkJoinPool.
+     *
+     * @param graph The graph to analyze.
+     * @param pool  The pool that runs the computation.
+     * @throws IllegalArgumentException if graph or pool is null.
+     */
+    GraphKernel(SortledtonGraph<T> graph, ForkJoinPool pool) {
+        if (graph == null || pool == null) {
+            throw new IllegalArgumentException("@" + getClass().getSimpleName() + ", the parameters, graph and pool, may not be null.");
+        }
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * Takes a snapshot of the graph's vertices. Called at the start of every run.
+     */
+    void snapshot() {
+        vertexCount = graph.getVertexCount();
+        int capacity = Integer.highestOneBit(Math.max(2, vertexCount) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(values, EMPTY);
+        for (int p = 0; p < vertexCount; p++) {
+            int logicalId = graph.logicalId(p);
+            int slot = mix(logicalId) & mask;
+            while (values[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = logicalId;
+            values[slot] = p;
+        }
+    }
+
+    /**
+     * Spreads the bits of a logical ID, since IDs are often small consecutive integers.
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Looks up the physical index of a vertex in the snapshot.
+     *
+     * @param id The vertex ID.
+     * @return its physical index, or -1 if it was not in the graph.
+     */
+    int physicalIndex(T id) {
+        int logicalId = id.hashCode();
+        int slot = mix(logicalId) & mask;
+        int value;
+        while ((value = values[slot]) != EMPTY) {
+            if (keys[slot] == logicalId) return value;
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Looks up the physical index of a vertex given to a public method.
+     *
+     * @param id     The vertex ID.
+     * @param method The name of the public method, for the error message.
+     * @return its physical index.
+     * @throws IllegalArgumentException if id is null or not in the graph.
+     */
+    int requireVertex(T id, String method) {
+        if (id == null) {
+            throw new IllegalArgumentException("@" + method + ", the parameter, id, may not be null.");
+        }
+        int physicalIndex = physicalIndex(id);
+        if (physicalIndex == EMPTY) {
+            throw new IllegalArgumentException("Vertex does not exist: " + id);
+        }
+        return physicalIndex;
+    }
+
+    /**
+     * Opens an in-place cursor over a neighborhood.
+     *
+     * @param v         The physical index of the vertex.
+     * @param direction Whether to follow out-edges or in-edges.
+     * @return a cursor positioned before the first neighbor.
+     */
+    NeighborCursor<T> cursor(int v, Direction direction) {
+        return graph.cursor(v, direction);
+    }
+
+    /**
+     * Gets the size of a neighborhood.
+     *
+     * @param v         The physical index of the vertex.
+     * @param direction Whether to count out-edges or in-edges.
+     * @return the number of neighbors in that direction.
+     */
+    int degree(int v, Direction direction) {
+        return graph.degree(v, direction);
+    }
+
+    /**
+     * Checks if in-neighborhoods can be scanned, either because the graph is undirected
+     * or because it stores in-edges.
+     *
+     * @return true if cursors over Direction.IN are available.
+     */
+    boolean canPull() {
+        return !graph.isDirected() || graph.hasInEdges();
+    }
+
+    /**
+     * Decides which edges go into {@link AdjacencyArrays}.
+     */
+    interface EdgeFilter {
+        /**
+         * Checks whether to keep the edge from v to u.
+         *
+         * @param v The physical ID of the vertex whose neighborhood is scanned.
+         * @param u The physical ID of the neighbor.
+         * @return true to keep the edge.
+         */
+        boolean keep(int v, int u);
+    }
+
+    /**
+     * Copies the edges that pass a filter into sorted runs of physical IDs, in two parallel
+     * passes over the neighborhoods: one to size the runs and one to fill and sort them.
+     *
+     * @param direction Whether to copy out-edges or in-edges.
+     * @param filter    Which edges to keep.
+     * @return the kept edges of every vertex in the snapshot.
+     * @throws IllegalStateException if more edges are kept than an array can hold.
+     */
+    AdjacencyArrays adjacencyArrays(Direction direction, EdgeFilter filter) {
+        int n = vertexCount;
+        int[] offsets = new int[n + 1];
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            for (int v = low; v < high; v++) {
+                int count = 0;
+                NeighborCursor<T> cursor = cursor(v, direction);
+                while (cursor.next()) {
+                    if (filter.keep(v, physicalIndex(cursor.id()))) count++;
+                }
+                offsets[v + 1] = count;
+            }
+        });
+        int[] targets = new int[prefixSum(offsets)];
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            for (int v = low; v < high; v++) {
+                int at = offsets[v];
+                NeighborCursor<T> cursor = cursor(v, direction);
+                while (cursor.next()) {
+                    int u = physicalIndex(cursor.id());
+                    if (filter.keep(v, u)) targets[at++] = u;
+                }
+                Arrays.sort(targets, offsets[v], at);
+            }
+        });
+        return new AdjacencyArrays(offsets, targets);
+    }
+
+    /**
+     * Copies the edges that pass a filter into sorted runs of physical IDs, ignoring direction:
+     * in a directed graph, the out- and in-neighbors of a vertex are merged into one run and a
+     * neighbor joined both ways appears once.
+     *
+     * @param filter Which edges to keep.
+     * @return the kept edges of every vertex in the snapshot.
+     * @throws IllegalStateException if the graph is directed and does not store in-edges,
+     *                               or more edges are kept than an array can hold.
+     */
+    AdjacencyArrays undirectedAdjacencyArrays(EdgeFilter filter) {
+        if (!graph.isDirected()) return adjacencyArrays(Direction.OUT, filter);
+        if (!graph.hasInEdges()) {
+            throw new IllegalStateException("Ignoring direction needs in-edges, which this graph does not store.");
+        }
+        int n = vertexCount;
+        int[] offsets = new int[n + 1];
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            int[] buffer = new int[64];
+            for (int v = low; v < high; v++) {
+                buffer = ensureLength(buffer, degree(v, Direction.OUT) + degree(v, Direction.IN));
+                offsets[v + 1] = gatherUndirected(v, filter, buffer);
+            }
+        });
+        int[] targets = new int[prefixSum(offsets)];
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            int[] buffer = new int[64];
+            for (int v = low; v < high; v++) {
+                buffer = ensureLength(buffer, degree(v, Direction.OUT) + degree(v, Direction.IN));
+                int size = gatherUndirected(v, filter, buffer);
+                System.arraycopy(buffer, 0, targets, offsets[v], size);
+            }
+        });
+        return new AdjacencyArrays(offsets, targets);
+    }
+
+    /**
+     * Gathers the kept out- and in-neighbors of v into a buffer, sorted and without repeats.
+     *
+     * @return the number of neighbors gathered.
+     */
+    private int gatherUndirected(int v, EdgeFilter filter, int[] buffer) {
+        int size = 0;
+        for (Direction direction : Direction.values()) {
+            NeighborCursor<T> cursor = cursor(v, direction);
+            while (cursor.next()) {
+                int u = physicalIndex(cursor.id());
+                if (filter.keep(v, u)) buffer[size++] = u;
+            }
+        }
+        Arrays.sort(buffer, 0, size);
+        return removeDuplicates(buffer, size);
+    }
+
+    /**
+     * Turns per-vertex counts, stored at offsets[v + 1], into run offsets.
+     *
+     * @return the total count.
+     * @throws IllegalStateException if the total is more than an array can hold.
+     */
+    private static int prefixSum(int[] offsets) {
+        long total = 0;
+        for (int v = 1; v < offsets.length; v++) {
+            total += offsets[v];
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Too many edges to copy into arrays: more than " + total);
+            }
+            offsets[v] = (int) total;
+        }
+        return (int) total;
+    }
+
+    /**
+     * Returns a buffer of at least the given length, reusing the given one if it is long enough.
+     *
+     * @param buffer The current buffer.
+     * @param length The length needed.
+     * @return buffer, or a new array if it is too short; its contents are not kept.
+     */
+    static int[] ensureLength(int[] buffer, int length) {
+        return length <= buffer.length ? buffer : new int[Math.max(length, buffer.length * 2)];
+    }
+
+    /**
+     * Removes repeated values from the start of a sorted buffer.
+     *
+     * @param buffer The buffer.
+     * @param size   The number of values in it.
+     * @return the number of distinct values, now at the start of the buffer.
+     */
+    static int removeDuplicates(int[] buffer, int size) {
+        if (size == 0) return 0;
+        int distinct = 1;
+        for (int i = 1; i < size; i++) {
+            if (buffer[i] != buffer[distinct - 1]) buffer[distinct++] = buffer[i];
+        }
+        return distinct;
+    }
+
+    /**
+     * Orders vertices by degree, breaking ties by physical ID. Keeping only the edges that lead
+     * to a higher vertex in this order keeps each undirected edge once, at its lower-degree end,
+     * which bounds the length of every kept run by the square root of the edge count.
+     *
+     * @param degree The degree of every vertex.
+     * @param v      The physical ID of the first vertex.
+     * @param u      The physical ID of the second vertex.
+     * @return true if u comes after v.
+     */
+    static boolean ranksHigher(int[] degree, int v, int u) {
+        return degree[u] > degree[v] || (degree[u] == degree[v] && u > v);
+    }
+
+    /**
+     * The body of a parallel loop, applied to a sub-range of its indices.
+     */
+    interface RangeBody {
+        /**
+         * Runs the loop body for the indices in [low, high).
+         *
+         * @param low  The first index (inclusive).
+         * @param high The last index (exclusive).
+         */
+        void apply(int low, int high);
+    }
+
+    /**
+     * Runs a loop over [low, high) on the pool, halving the range until it has at most grain
+     * indices. Idle workers steal the halves, which evens out ranges holding hubs.
+     *
+     * @param low   The first index (inclusive).
+     * @param high  The last index (exclusive).
+     * @param grain The size of the ranges run sequentially, at least 1.
+     * @param body  The loop body.
+     */
+    void parallelFor(int low, int high, int grain, RangeBody body) {
+        if (low >= high) return;
+        if (high - low <= grain) {
+            body.apply(low, high);
+        } else {
+            pool.invoke(new RangeTask(low, high, grain, body));
+        }
+    }
+
+    /**
+     * Splits a loop range in half until it is at most grain long.
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int low;
+        private final int high;
+        private final int grain;
+        private final RangeBody body;
+
+        RangeTask(int low, int high, int grain, RangeBody body) {
+            this.low = low;
+            this.high = high;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low <= grain) {
+                body.apply(low, high);
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            invokeAll(new RangeTask(low, mid, grain, body), new RangeTask(mid, high, grain, body));
+        }
+    }
+}
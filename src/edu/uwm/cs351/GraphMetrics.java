@@ -0,0 +1,274 @@
+package edu.uwm.cs351;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * GraphMetrics counts the operations of a SortledtonGraph, records their latencies, and counts
+ * the structural events behind them. Attach it with {@link SortledtonGraph#setMetrics}.
+ *
+ * A graph without metrics only tests a null field per operation. With metrics, an operation
+ * reads the clock twice and increments a bucket of a log-linear histogram (the buckets of
+ * {@link LatencyHistogram}) plus a sum, count and maximum, all atomic so concurrent readers
+ * may record at the same time, and none of it allocates. Structural events are counted in
+ * {@link LongAdder}s.
+ *
+ * {@link #snapshot()} copies everything into a {@link Snapshot}. Recording goes on during the
+ * copy, so a snapshot taken under load may be a few operations out of step between its parts.
+ * The same numbers can be watched over JMX once {@link #register(String)} is called.
+ */
+public final class GraphMetrics implements GraphMetricsMXBean {
+    /** The timed operations. */
+    public enum Operation {
+        INSERT_EDGE("insertEdge"),
+        DELETE_EDGE("deleteEdge"),
+        FIND_EDGE("findEdge"),
+        SCAN_NEIGHBORS("scanNeighbors"),
+        INTERSECT_NEIGHBORS("intersectNeighbors");
+
+        private final String label;
+
+        Operation(String label) { this.label = label; }
+
+        /** @return the name of the graph method, such as "insertEdge". */
+        public String label() { return label; }
+    }
+
+    /** The counted structural events. */
+    public enum Event {
+        /** A PowerofTwo neighborhood grew into an UnrolledSkipList, or a HashedUnrolledSkipList shrank into one. */
+        CONVERSION_TO_UNROLLED_SKIP_LIST("conversionToUnrolledSkipList"),
+        /** An UnrolledSkipList neighborhood shrank into a PowerofTwo. */
+        CONVERSION_TO_POWER_OF_TWO("conversionToPowerofTwo"),
+        /** A neighborhood grew past the hash threshold into a HashedUnrolledSkipList. */
+        CONVERSION_TO_HASHED_UNROLLED_SKIP_LIST("conversionToHashedUnrolledSkipList"),
+        /** A full UnrolledSkipList block was split in two. */
+        BLOCK_SPLIT("blockSplit"),
+        /** An under-filled UnrolledSkipList block was merged into its neighbor. */
+        BLOCK_MERGE("blockMerge"),
+        /** The vertex indices grew their capacity. */
+        INDEX_GROWTH("indexGrowth");
+
+        private final String label;
+
+        Event(String label) { this.label = label; }
+
+        /** @return the name used in reports, such as "blockSplit". */
+        public String label() { return label; }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final Event[] EVENTS = Event.values();
+
+    private final AtomicLongArray[] buckets = new AtomicLongArray[OPERATIONS.length];
+    private final LongAdder[] sums = new LongAdder[OPERATIONS.length];
+    private final LongAccumulator[] maxima = new LongAccumulator[OPERATIONS.length];
+    private final LongAdder[] events = new LongAdder[EVENTS.length];
+
+    private ObjectName registeredName;
+
+    /**
+     * Creates metrics with nothing recorded.
+     */
+    public GraphMetrics() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            buckets[i] = new AtomicLongArray(LatencyHistogram.buckets());
+            sums[i] = new LongAdder();
+            maxima[i] = new LongAccumulator(Math::max, 0);
+        }
+        for (int i = 0; i < EVENTS.length; i++) {
+            events[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one completed operation.
+     *
+     * @param operation The operation.
+     * @param nanos     How long it took.
+     */
+    void record(Operation operation, long nanos) {
+        if (nanos < 0) nanos = 0;
+        int i = operation.ordinal();
+        buckets[i].incrementAndGet(LatencyHistogram.bucket(nanos));
+        sums[i].add(nanos);
+        maxima[i].accumulate(nanos);
+    }
+
+    /**
+     * Counts one structural event.
+     *
+     * @param event The event.
+     */
+    void count(Event event) {
+        events[event.ordinal()].increment();
+    }
+
+    /**
+     * Copies the current counts and latencies.
+     *
+     * @return a snapshot that does not change as more is recorded.
+     */
+    public Snapshot snapshot() {
+        Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        for (Operation operation : OPERATIONS) {
+            int i = operation.ordinal();
+            long[] counts = new long[LatencyHistogram.buckets()];
+            for (int b = 0; b < counts.length; b++) {
+                counts[b] = buckets[i].get(b);
+            }
+            latencies.put(operation, new LatencyHistogram(counts, sums[i].sum(), maxima[i].get()));
+        }
+        Map<Event, Long> eventCounts = new EnumMap<>(Event.class);
+        for (Event event : EVENTS) {
+            eventCounts.put(event, events[event.ordinal()].sum());
+        }
+        return new Snapshot(latencies, eventCounts);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            for (int b = 0; b < buckets[i].length(); b++) {
+                buckets[i].set(b, 0);
+            }
+            sums[i].reset();
+            maxima[i].reset();
+        }
+        for (LongAdder event : events) {
+            event.reset();
+        }
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        Snapshot snapshot = snapshot();
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            result.put(operation.label(), snapshot.getCount(operation));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMicros() {
+        Snapshot snapshot = snapshot();
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            LatencyHistogram latency = snapshot.getLatency(operation);
+            String label = operation.label();
+            result.put(label + ".mean", latency.getMean() / 1e3);
+            result.put(label + ".p50", latency.getValueAtPercentile(50) / 1e3);
+            result.put(label + ".p90", latency.getValueAtPercentile(90) / 1e3);
+            result.put(label + ".p99", latency.getValueAtPercentile(99) / 1e3);
+            result.put(label + ".p999", latency.getValueAtPercentile(99.9) / 1e3);
+            result.put(label + ".max", latency.getMax() / 1e3);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getEventCounts() {
+        Snapshot snapshot = snapshot();
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Event event : EVENTS) {
+            result.put(event.label(), snapshot.getCount(event));
+        }
+        return result;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server, under
+     * {@code edu.uwm.cs351:type=SortledtonGraph,name=<name>}.
+     *
+     * @param name The name that tells this graph apart from others.
+     * @return the name the bean was registered under.
+     * @throws IllegalArgumentException if name is null or not usable in an ObjectName.
+     * @throws IllegalStateException    if these metrics are already registered, or the
+     *                                  name is taken.
+     */
+    public synchronized ObjectName register(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("@register, the parameter, name, may not be null.");
+        }
+        if (registeredName != null) {
+            throw new IllegalStateException("Metrics are already registered as " + registeredName);
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName("edu.uwm.cs351:type=SortledtonGraph,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+            registeredName = objectName;
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics as " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server, if registered.
+     */
+    public synchronized void unregister() {
+        if (registeredName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            // Already gone
+        }
+        registeredName = null;
+    }
+
+    /**
+     * The counts and latencies of a GraphMetrics at one moment.
+     */
+    public static final class Snapshot {
+        private final Map<Operation, LatencyHistogram> latencies;
+        private final Map<Event, Long> events;
+
+        Snapshot(Map<Operation, LatencyHistogram> latencies, Map<Event, Long> events) {
+            this.latencies = latencies;
+            this.events = events;
+        }
+
+        /**
+         * Gets the latency histogram of an operation, in nanoseconds.
+         *
+         * @param operation The operation.
+         * @return its histogram; a copy the caller may change.
+         */
+        public LatencyHistogram getLatency(Operation operation) {
+            LatencyHistogram copy = new LatencyHistogram();
+            copy.add(latencies.get(operation));
+            return copy;
+        }
+
+        /**
+         * Gets the number of times an operation completed.
+         *
+         * @param operation The operation.
+         * @return its count.
+         */
+        public long getCount(Operation operation) {
+            return latencies.get(operation).getCount();
+        }
+
+        /**
+         * Gets the number of times a structural event happened.
+         *
+         * @param event The event.
+         * @return its count.
+         */
+        public long getCount(Event event) {
+            return events.get(event);
+        }
+    }
+}
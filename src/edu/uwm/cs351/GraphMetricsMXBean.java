@@ -0,0 +1,37 @@
+package edu.uwm.cs351;
+
+import java.util.Map;
+
+/**
+ * GraphMetricsMXBean is the management interface of {@link GraphMetrics}, as registered
+ * with {@link GraphMetrics#register(String)}. Every attribute is read from a fresh snapshot.
+ */
+public interface GraphMetricsMXBean {
+
+    /**
+     * Gets how many times each operation completed.
+     *
+     * @return the counts keyed by operation name, such as "insertEdge".
+     */
+    Map<String, Long> getOperationCounts();
+
+    /**
+     * Gets the latency of each operation in microseconds.
+     *
+     * @return the values keyed by operation and statistic, such as "findEdge.p99";
+     *         the statistics are mean, p50, p90, p99, p999 and max.
+     */
+    Map<String, Double> getLatencyMicros();
+
+    /**
+     * Gets how many times each structural event happened.
+     *
+     * @return the counts keyed by event name, such as "blockSplit".
+     */
+    Map<String, Long> getEventCounts();
+
+    /**
+     * Forgets every count and latency recorded so far.
+     */
+    void reset();
+}
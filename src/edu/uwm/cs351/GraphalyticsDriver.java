@@ -0,0 +1,417 @@
+package edu.uwm.cs351;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * GraphalyticsDriver runs the LDBC Graphalytics kernels (BFS, PR, WCC, CDLP, LCC and SSSP)
+ * against a SortledtonGraph loaded from a Graphalytics dataset stored on local disk, and
+ * reports the results as JSON lines.
+ *
+ * A dataset named G in directory D is read from:
+ * <ul>
+ *     <li>D/G.properties, the Graphalytics graph configuration (directedness, algorithm parameters,
+ *     the name of the SSSP weight property),</li>
+ *     <li>D/G.v, one vertex ID per line, and D/G.e, one "source destination [weight]" per line,</li>
+ *     <li>D/G-BFS, D/G-PR, ... (optional), the reference outputs the results are validated against.</li>
+ * </ul>
+ * Validation follows the Graphalytics rules: BFS and CDLP must match exactly, WCC must produce
+ * the same partition (labels may differ), and PR, LCC and SSSP must match within a relative
+ * error of 1e-4.
+ *
+ * Every phase prints one JSON object per line: the load with its duration, then each run of
+ * each kernel with its makespan (the wall-clock time of the kernel, including its snapshot of
+ * the graph), its EVPS ((vertices + edges) / makespan), and the validation outcome.
+ *
+ * Vertex IDs must fit in an int, since they are used as the logical IDs of the graph.
+ *
+ * <p>Usage: {@code java edu.uwm.cs351.GraphalyticsDriver <dataset-dir> <graph-name>
+ * [--threads N] [--repetitions R] [--algorithms bfs,pr,...]}</p>
+ *
+ * <p>Sources:</p>
+ * <ul>
+ *     <li>A. Iosup et al., "LDBC Graphalytics: A Benchmark for Large-Scale Graph Analysis on Parallel
+ *     and Distributed Platforms", PVLDB 9(13), 2016.</li>
+ * </ul>
+ */
+public final class GraphalyticsDriver {
+    /** The kernels in the order they are run by default. */
+    public static final List<String> ALGORITHMS = Arrays.asList("BFS", "PR", "WCC", "CDLP", "LCC", "SSSP");
+
+    /** The maximal relative error allowed for PR, LCC and SSSP. */
+    private static final double EPSILON = 1e-4;
+
+    private final Path directory;
+    private final String graphName;
+    private final Properties properties = new Properties();
+    private final ForkJoinPool pool;
+    private final int threads;
+
+    private SortledtonGraph<Integer> graph;
+    private long edgeCount;
+
+    /**
+     * The outcome of validating a result against its reference output.
+     */
+    public enum Validation {
+        /** The result matches the reference. */
+        PASSED,
+        /** The result differs from the reference. */
+        FAILED,
+        /** There is no reference output for this kernel. */
+        SKIPPED
+    }
+
+    /**
+     * The measurements of one run of one kernel.
+     */
+    public static final class Result {
+        private final String algorithm;
+        private final double makespanSeconds;
+        private final double evps;
+        private final Validation validation;
+
+        Result(String algorithm, double makespanSeconds, double evps, Validation validation) {
+            this.algorithm = algorithm;
+            this.makespanSeconds = makespanSeconds;
+            this.evps = evps;
+            this.validation = validation;
+        }
+
+        /** @return the name of the kernel, such as "BFS". */
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        /** @return the wall-clock time of the kernel in seconds. */
+        public double getMakespanSeconds() {
+            return makespanSeconds;
+        }
+
+        /** @return the edges and vertices processed per second. */
+        public double getEvps() {
+            return evps;
+        }
+
+        /** @return how the output compared to the reference. */
+        public Validation getValidation() {
+            return validation;
+        }
+    }
+
+    /**
+     * Creates a driver for a dataset and reads its properties.
+     *
+     * @param directory The directory holding the dataset files.
+     * @param graphName The name of the graph, which prefixes every file and property.
+     * @param threads   The number of worker threads for loading and the kernels.
+     * @throws IllegalArgumentException if directory or graphName is null, or threads is not positive.
+     * @throws IOException              if the properties file cannot be read.
+     */
+    public GraphalyticsDriver(Path directory, String graphName, int threads) throws IOException {
+        if (directory == null || graphName == null || threads < 1) {
+            throw new IllegalArgumentException("@GraphalyticsDriver, the parameters, directory and graphName may not be null and threads must be positive.");
+        }
+        this.directory = directory;
+        this.graphName = graphName;
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+        try (Reader reader = Files.newBufferedReader(file(".properties"), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+    }
+
+    /**
+     * Loads the vertices and edges of the dataset into a new graph. Vertices are inserted in file
+     * order; unweighted edges go through a {@link BulkLoader}, weighted ones through insertEdge.
+     *
+     * @return the load time in seconds.
+     * @throws IOException           if a dataset file cannot be read.
+     * @throws IllegalStateException if a line cannot be parsed or a vertex ID does not fit in an int.
+     */
+    public double load() throws IOException {
+        boolean directed = Boolean.parseBoolean(property("directed", "false"));
+        boolean weighted = !property("sssp.weight-property", "").isEmpty();
+        long start = System.nanoTime();
+
+        graph = new SortledtonGraph<>(directed, directed);
+        graph.setDebug(false);
+        try (BufferedReader reader = Files.newBufferedReader(file(".v"), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                graph.insertVertex(parseId(line.trim()));
+            }
+        }
+
+        edgeCount = 0;
+        BulkLoader<Integer> loader = new BulkLoader<>(graph, pool);
+        try (BufferedReader reader = Files.newBufferedReader(file(".e"), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length < 2) continue;
+                Integer src = parseId(fields[0]);
+                Integer dest = parseId(fields[1]);
+                if (weighted && fields.length > 2) {
+                    graph.insertEdge(src, dest, Double.parseDouble(fields[2]));
+                } else {
+                    loader.addEdge(src, dest);
+                }
+                edgeCount++;
+            }
+        }
+        loader.load();
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * Runs one kernel on the loaded graph and validates its output if a reference exists.
+     *
+     * @param algorithm The name of the kernel, one of ALGORITHMS (case-insensitive).
+     * @return the measurements of the run.
+     * @throws IllegalArgumentException if the algorithm is unknown.
+     * @throws IllegalStateException    if the graph has not been loaded.
+     * @throws IOException              if the reference output cannot be read.
+     */
+    public Result run(String algorithm) throws IOException {
+        if (graph == null) {
+            throw new IllegalStateException("The dataset has not been loaded.");
+        }
+        String name = algorithm.toUpperCase(Locale.ROOT);
+        long start = System.nanoTime();
+        Object output;
+        switch (name) {
+            case "BFS":
+                output = new BreadthFirstSearch<>(graph, pool).run(parseId(property("bfs.source-vertex", null)));
+                break;
+            case "PR":
+                output = new PageRank<>(graph, pool).run(Double.parseDouble(property("pr.damping-factor", "0.85")),
+                                                         Integer.parseInt(property("pr.num-iterations", "10")), 0);
+                break;
+            case "WCC":
+                output = new WeaklyConnectedComponents<>(graph, pool).run();
+                break;
+            case "CDLP":
+                output = new LabelPropagation<>(graph, pool).run(Integer.parseInt(property("cdlp.max-iterations", "10")));
+                break;
+            case "LCC":
+                output = new LocalClusteringCoefficient<>(graph, pool).run();
+                break;
+            case "SSSP":
+                output = new ShortestPaths<>(graph, pool).run(parseId(property("sssp.source-vertex", null)));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double evps = (graph.getVertexCount() + edgeCount) / seconds;
+        return new Result(name, seconds, evps, validate(name, output));
+    }
+
+    /**
+     * Gets the number of vertices loaded.
+     *
+     * @return the vertex count.
+     */
+    public int getVertexCount() {
+        return graph == null ? 0 : graph.getVertexCount();
+    }
+
+    /**
+     * Gets the number of edge lines loaded.
+     *
+     * @return the edge count, as Graphalytics counts it.
+     */
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Gets the kernels the dataset lists in its properties, or all of them if it lists none.
+     *
+     * @return the names of the kernels, in upper case.
+     */
+    public List<String> configuredAlgorithms() {
+        String configured = property("algorithms", "");
+        if (configured.trim().isEmpty()) return ALGORITHMS;
+        List<String> algorithms = new ArrayList<>();
+        for (String algorithm : configured.split(",")) {
+            if (!algorithm.trim().isEmpty()) algorithms.add(algorithm.trim().toUpperCase(Locale.ROOT));
+        }
+        return algorithms;
+    }
+
+    /**
+     * Compares the output of a kernel with the reference file for it.
+     */
+    private Validation validate(String algorithm, Object output) throws IOException {
+        Path reference = file("-" + algorithm);
+        if (!Files.exists(reference)) return Validation.SKIPPED;
+
+        Map<Integer, String> expected = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(reference, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length < 2) continue;
+                expected.put(parseId(fields[0]), fields[1]);
+            }
+        }
+        if (expected.size() != graph.getVertexCount()) return Validation.FAILED;
+
+        Map<Integer, Integer> labelMap = new HashMap<>();    // WCC: expected label -> actual label
+        Map<Integer, Integer> inverseMap = new HashMap<>();  // WCC: actual label -> expected label
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            Integer physicalIndex = graph.physicalId(entry.getKey());
+            if (physicalIndex == null) return Validation.FAILED;
+            int p = physicalIndex;
+            String value = entry.getValue();
+            boolean matches;
+            switch (algorithm) {
+                case "BFS":
+                    int depth = ((int[]) output)[p];
+                    matches = Long.parseLong(value) == (depth == BreadthFirstSearch.UNREACHABLE ? Long.MAX_VALUE : depth);
+                    break;
+                case "CDLP":
+                    matches = Long.parseLong(value) == ((int[]) output)[p];
+                    break;
+                case "WCC":
+                    int expectedLabel = (int) Long.parseLong(value);
+                    int actualLabel = ((int[]) output)[p];
+                    Integer mapped = labelMap.putIfAbsent(expectedLabel, actualLabel);
+                    Integer inverse = inverseMap.putIfAbsent(actualLabel, expectedLabel);
+                    matches = (mapped == null || mapped == actualLabel) && (inverse == null || inverse == expectedLabel);
+                    break;
+                default: // PR, LCC and SSSP
+                    matches = closeEnough(parseDouble(value), ((double[]) output)[p]);
+            }
+            if (!matches) return Validation.FAILED;
+        }
+        return Validation.PASSED;
+    }
+
+    private static boolean closeEnough(double expected, double actual) {
+        if (Double.isInfinite(expected) || Double.isInfinite(actual)) return expected == actual;
+        return Math.abs(expected - actual) <= EPSILON * Math.abs(expected) + 1e-12;
+    }
+
+    private static double parseDouble(String value) {
+        return value.equalsIgnoreCase("infinity") ? Double.POSITIVE_INFINITY : Double.parseDouble(value);
+    }
+
+    private static Integer parseId(String value) {
+        if (value == null) {
+            throw new IllegalStateException("Missing source vertex in the graph properties.");
+        }
+        long id = Long.parseLong(value);
+        if (id < Integer.MIN_VALUE || id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Vertex ID does not fit in an int: " + value);
+        }
+        return (int) id;
+    }
+
+    private Path file(String suffix) {
+        return directory.resolve(graphName + suffix);
+    }
+
+    private String property(String key, String defaultValue) {
+        String value = properties.getProperty("graph." + graphName + "." + key);
+        return value == null ? defaultValue : value.trim();
+    }
+
+    /**
+     * Formats the load phase as a JSON object.
+     *
+     * @param loadSeconds The load time in seconds.
+     * @return one line of JSON.
+     */
+    public String loadJson(double loadSeconds) {
+        return String.format(Locale.ROOT,
+            "{\"graph\":\"%s\",\"phase\":\"load\",\"threads\":%d,\"vertices\":%d,\"edges\":%d,\"seconds\":%.6f}",
+            graphName, threads, getVertexCount(), edgeCount, loadSeconds);
+    }
+
+    /**
+     * Formats one kernel run as a JSON object.
+     *
+     * @param result     The measurements of the run.
+     * @param repetition The number of the run, starting at 1.
+     * @return one line of JSON.
+     */
+    public String resultJson(Result result, int repetition) {
+        return String.format(Locale.ROOT,
+            "{\"graph\":\"%s\",\"phase\":\"run\",\"algorithm\":\"%s\",\"repetition\":%d,\"threads\":%d,"
+            + "\"vertices\":%d,\"edges\":%d,\"makespan_seconds\":%.6f,\"evps\":%.1f,\"validation\":\"%s\"}",
+            graphName, result.getAlgorithm(), repetition, threads, getVertexCount(), edgeCount,
+            result.getMakespanSeconds(), result.getEvps(), result.getValidation().name().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Loads a dataset and runs the benchmark, printing JSON lines to standard output.
+     * Exits with status 1 if any validation fails, or 2 on a usage error.
+     *
+     * @param args the dataset directory and graph name, then the options.
+     * @throws IOException if a dataset file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        PrintStream out = System.out;
+        if (args.length < 2) {
+            System.err.println("Usage: GraphalyticsDriver <dataset-dir> <graph-name> "
+                               + "[--threads N] [--repetitions R] [--algorithms bfs,pr,wcc,cdlp,lcc,sssp]");
+            System.exit(2);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        int repetitions = 1;
+        String algorithms = null;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--threads":     threads = Integer.parseInt(args[i + 1]); break;
+                case "--repetitions": repetitions = Integer.parseInt(args[i + 1]); break;
+                case "--algorithms":  algorithms = args[i + 1]; break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        GraphalyticsDriver driver = new GraphalyticsDriver(Paths.get(args[0]), args[1], threads);
+        boolean failed = false;
+        try {
+            out.println(driver.loadJson(driver.load()));
+            List<String> selected = algorithms == null ? driver.configuredAlgorithms()
+                                                       : Arrays.asList(algorithms.toUpperCase(Locale.ROOT).split(","));
+            for (String algorithm : selected) {
+                for (int r = 1; r <= repetitions; r++) {
+                    Result result = driver.run(algorithm.trim());
+                    failed |= result.getValidation() == Validation.FAILED;
+                    out.println(driver.resultJson(result, r));
+                }
+            }
+        } finally {
+            driver.shutdown();
+        }
+        if (failed) System.exit(1);
+    }
+}
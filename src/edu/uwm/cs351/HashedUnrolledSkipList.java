@@ -0,0 +1,202 @@
+package edu.uwm.cs351;
+
+/**
+ * HashedUnrolledSkipList is an UnrolledSkipList that also keeps its neighbors in an
+ * open-addressing hash set, for neighborhoods so large that even a search over the block
+ * fences costs too much. Scans, intersections and everything else that walks the neighbors
+ * in order use the blocks; contains probes the hash set instead, in expected constant time.
+ *
+ * The set uses linear probing in a power-of-two table at most half full, and removes by
+ * shifting later entries of the probe run back, so it never holds tombstones. It costs
+ * about two references per neighbor on top of the blocks.
+ *
+ * @param <T> The type of the vertex ID, must be Comparable.
+ */
+public class HashedUnrolledSkipList<T extends Comparable<T>> extends UnrolledSkipList<T> {
+    private static final int MIN_TABLE = 16;
+
+    /** The hash set of the neighbors: null slots are empty. */
+    private Object[] table;
+
+    /** The number of neighbors in the table. */
+    private int keys;
+
+    /**
+     * Constructs an empty HashedUnrolledSkipList.
+     */
+    public HashedUnrolledSkipList() {
+        table = new Object[MIN_TABLE];
+        assert wellFormedTable() : "Invariant failed at end of constructor.";
+    }
+
+    /**
+     * Constructs a HashedUnrolledSkipList that takes over the blocks of an UnrolledSkipList
+     * and hashes its neighbors. The source must not be used afterwards.
+     *
+     * @param source The list to take over.
+     */
+    HashedUnrolledSkipList(UnrolledSkipList<T> source) {
+        super(source);
+        table = new Object[tableSize(size())];
+        NeighborCursor<T> cursor = cursor();
+        while (cursor.next()) {
+            insertKey(cursor.id());
+        }
+        assert wellFormedTable() : "Invariant failed at end of constructor.";
+    }
+
+    /**
+     * Finds the table length for a number of neighbors: a power of two at least twice as large.
+     */
+    private static int tableSize(int count) {
+        int length = MIN_TABLE;
+        while (length < 2L * count) {
+            length <<= 1;
+        }
+        return length;
+    }
+
+    /**
+     * Checks the hash set against the counts, and that it is at most half full.
+     * Takes constant time; {@link #checkInvariant()} looks every neighbor up.
+     *
+     * @return true if the table agrees with the blocks as far as can be told cheaply.
+     */
+    private boolean wellFormedTable() {
+        if (table == null || Integer.bitCount(table.length) != 1) return false;
+        if (keys != size()) return false;
+        return 2L * keys <= table.length;
+    }
+
+    @Override
+    boolean checkInvariant() {
+        if (!super.checkInvariant() || !wellFormedTable()) return false;
+        NeighborCursor<T> cursor = cursor();
+        while (cursor.next()) {
+            if (!contains(cursor.id())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the first slot of the probe run of an ID.
+     */
+    private int home(Object id, int mask) {
+        int h = hash(id) * 0x9E3779B9; // Fibonacci hashing spreads consecutive IDs
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Puts a neighbor that is not in the table into it, growing the table if needed.
+     */
+    private void insertKey(T id) {
+        if (2L * (keys + 1) > table.length) {
+            Object[] old = table;
+            table = new Object[old.length * 2];
+            for (Object key : old) {
+                if (key != null) table[probeEmpty(key)] = key;
+            }
+        }
+        table[probeEmpty(id)] = id;
+        keys++;
+    }
+
+    /**
+     * Finds the first empty slot of the probe run of an ID.
+     */
+    private int probeEmpty(Object id) {
+        int mask = table.length - 1;
+        int i = home(id, mask);
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Takes a neighbor out of the table, shifting back the entries of its probe run that
+     * would otherwise no longer be found.
+     */
+    @SuppressWarnings("unchecked")
+    private void removeKey(T id) {
+        int mask = table.length - 1;
+        int i = home(id, mask);
+        while (compare((T) table[i], id) != 0) {
+            i = (i + 1) & mask;
+        }
+        int hole = i;
+        for (int j = (hole + 1) & mask; table[j] != null; j = (j + 1) & mask) {
+            int want = home(table[j], mask);
+            // Move the entry into the hole unless its home lies cyclically in (hole, j]
+            if (((j - want) & mask) >= ((j - hole) & mask)) {
+                table[hole] = table[j];
+                hole = j;
+            }
+        }
+        table[hole] = null;
+        keys--;
+    }
+
+    @Override
+    public void addNeighbor(T id) {
+        int before = size();
+        super.addNeighbor(id);
+        if (size() > before) insertKey(id);
+        assert wellFormedTable() : "Invariant failed at end of addNeighbor.";
+    }
+
+    @Override
+    public void addNeighbor(T id, double weight) {
+        int before = size();
+        super.addNeighbor(id, weight);
+        if (size() > before) insertKey(id);
+        assert wellFormedTable() : "Invariant failed at end of addNeighbor.";
+    }
+
+    @Override
+    public void removeNeighbor(T id) {
+        int before = size();
+        super.removeNeighbor(id);
+        if (size() < before) removeKey(id);
+        assert wellFormedTable() : "Invariant failed at end of removeNeighbor.";
+    }
+
+    /**
+     * Checks if a neighbor exists in this neighborhood by probing the hash set.
+     *
+     * @param id The ID of the neighbor to check.
+     * @return True if the neighbor exists, otherwise false.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(T id) {
+        if (id == null) return false;
+        int mask = table.length - 1;
+        for (int i = home(id, mask); table[i] != null; i = (i + 1) & mask) {
+            if (compare((T) table[i], id) == 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ignores requests for a Bloom filter: the hash set already answers absent neighbors.
+     *
+     * @param filtered Whether a filter is wanted.
+     */
+    @Override
+    void setFiltered(boolean filtered) {
+        // The hash set makes a filter redundant
+    }
+
+    @Override
+    long estimateBytes() {
+        // This object's two extra fields, and the table
+        return super.estimateBytes() + StructureReport.REFERENCE_BYTES + Integer.BYTES
+                + StructureReport.arrayBytes(table.length, StructureReport.REFERENCE_BYTES);
+    }
+
+    @Override
+    public String toString() {
+        return "Hashed" + super.toString();
+    }
+}
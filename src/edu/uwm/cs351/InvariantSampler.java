@@ -0,0 +1,142 @@
+package edu.uwm.cs351;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * InvariantSampler audits random vertices of a SortledtonGraph in the background, at a
+ * configurable rate, so that the invariant can be watched on a graph too large to check
+ * in full after every operation.
+ *
+ * With assertions enabled, each operation of the graph checks only the vertices it touches,
+ * and each neighborhood only the blocks it changes. An audit checks one vertex in full: its
+ * mappings, its record, and the whole of each of its neighborhoods. Failures are reported like
+ * the graph's other invariant errors and counted here.
+ *
+ * An audit only reads the graph, but it must not catch a writer halfway through an update, so
+ * the sampler holds the given lock for the length of each audit. The read lock that pairs
+ * with the writers' write lock is enough, and lets audits run alongside other readers.
+ */
+public final class InvariantSampler implements AutoCloseable {
+    private final SortledtonGraph<?> graph;
+    private final Lock lock;
+    private final long periodNanos;
+    private final SplittableRandom random;
+
+    private final AtomicLong audited = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile int lastFailure = -1;
+
+    private final BackgroundThread background = new BackgroundThread("invariant-sampler");
+
+    /**
+     * Creates a sampler; call {@link #start()} to begin auditing.
+     *
+     * @param graph             The graph to audit.
+     * @param lock              The lock to hold while auditing a vertex.
+     * @param verticesPerSecond How many vertices to audit per second.
+     * @param seed              The seed of the random choice of vertices.
+     * @throws IllegalArgumentException if graph or lock is null, or verticesPerSecond is not positive.
+     */
+    public InvariantSampler(SortledtonGraph<?> graph, Lock lock, double verticesPerSecond, long seed) {
+        if (graph == null || lock == null) {
+            throw new IllegalArgumentException("@InvariantSampler, the parameters, graph and lock, may not be null.");
+        }
+        if (!(verticesPerSecond > 0)) {
+            throw new IllegalArgumentException("@InvariantSampler, the parameter, verticesPerSecond, must be positive.");
+        }
+        this.graph = graph;
+        this.lock = lock;
+        this.periodNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / verticesPerSecond));
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Starts auditing on a daemon thread.
+     *
+     * @throws IllegalStateException if the sampler was already started.
+     */
+    public void start() {
+        background.start(this::run, "sampler");
+    }
+
+    /**
+     * Audits vertices at the configured rate until closed.
+     */
+    private void run() {
+        long next = System.nanoTime();
+        while (background.isRunning()) {
+            auditOne();
+            next += periodNanos;
+            long remaining = next - System.nanoTime();
+            if (remaining > 0) {
+                LockSupport.parkNanos(remaining);
+            } else {
+                next = System.nanoTime(); // Fell behind; do not try to catch up in a burst
+            }
+        }
+    }
+
+    /**
+     * Audits one random vertex now, on the calling thread.
+     *
+     * @return false if the vertex broke the invariant; true if it did not or the graph is empty.
+     */
+    public boolean auditOne() {
+        lock.lock();
+        try {
+            int vertexCount = graph.getVertexCount();
+            if (vertexCount == 0) return true;
+            int physicalIndex;
+            synchronized (random) {
+                physicalIndex = random.nextInt(vertexCount);
+            }
+            audited.incrementAndGet();
+            if (graph.auditVertex(physicalIndex)) return true;
+            failures.incrementAndGet();
+            lastFailure = physicalIndex;
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of vertices audited so far.
+     *
+     * @return the count.
+     */
+    public long getAudited() {
+        return audited.get();
+    }
+
+    /**
+     * Gets the number of audits that found the invariant broken.
+     *
+     * @return the count.
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Gets the physical index of the vertex of the latest failed audit. Deleting vertices moves
+     * others, so it identifies the vertex only until the graph changes.
+     *
+     * @return the physical index, or -1 if no audit failed.
+     */
+    public int getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Stops auditing and waits for the audit in progress to finish.
+     */
+    @Override
+    public void close() {
+        background.close();
+    }
+}
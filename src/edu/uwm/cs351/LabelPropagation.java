@@ -0,0 +1,200 @@
+package edu.uwm.cs351;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+/**
+ * LabelPropagation detects communities with the synchronous, deterministic label propagation
+ * of Graphalytics (CDLP).
+ *
+ * Every vertex starts with its own logical ID as label. In each iteration, every vertex takes
+ * the label that is most frequent among its neighbors in the previous iteration, choosing the
+ * smallest one on a tie and keeping its own when it has no neighbors. In a directed graph the
+ * in- and out-neighbors both count, so a neighbor joined by edges both ways counts twice, and
+ * the graph must store in-edges.
+ *
+ * Iterations read one int[] of labels and write another, by physical ID, so vertices can be
+ * updated in parallel on a ForkJoinPool. Labels are counted in an open-addressing table of
+ * primitive ints that each worker thread reuses from vertex to vertex, instead of a map per vertex.
+ *
+ * @param <T> The type of the vertex ID
+ */
+public class LabelPropagation<T extends Comparable<T>> extends GraphKernel<T> {
+    private int iterations;
+
+    /**
+     * Creates a label propagation over the given graph that runs on the common ForkJoinPool.
+     *
+     * @param graph The graph to analyze.
+     * @throws IllegalArgumentException if graph is null.
+     */
+    public LabelPropagation(SortledtonGraph<T> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a label propagation over the given graph that runs on the given ForkJoinPool.
+     *
+     * @param graph The graph to analyze.
+     * @param pool  The pool that runs the iterations.
+     * @throws IllegalArgumentException if graph or pool is null.
+     */
+    public LabelPropagation(SortledtonGraph<T> graph, ForkJoinPool pool) {
+        super(graph, pool);
+    }
+
+    /**
+     * Runs label propagation. The graph must not be modified while this runs.
+     * Stops early once an iteration changes no label, since later ones would not either.
+     *
+     * @param maxIterations The number of iterations to run.
+     * @return the label of every vertex indexed by physical ID; each label is the logical ID of some vertex.
+     * @throws IllegalArgumentException if maxIterations is negative.
+     * @throws IllegalStateException    if the graph is directed and does not store in-edges.
+     */
+    public int[] run(int maxIterations) {
+        if (maxIterations < 0) {
+            throw new IllegalArgumentException("@run, the parameter, maxIterations, may not be negative.");
+        }
+        if (!canPull()) {
+            throw new IllegalStateException("Directed label propagation needs in-edges, which this graph does not store.");
+        }
+        snapshot();
+        int n = vertexCount;
+        boolean directed = graph.isDirected();
+
+        int[] initial = new int[n];
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            for (int v = low; v < high; v++) {
+                initial[v] = graph.logicalId(v);
+            }
+        });
+        int[] labels = initial;
+        int[] next = new int[n];
+
+        ThreadLocal<LabelCounts> tables = ThreadLocal.withInitial(LabelCounts::new);
+        iterations = 0;
+        while (iterations < maxIterations) {
+            int[] current = labels;
+            int[] updated = next;
+            AtomicBoolean changed = new AtomicBoolean();
+            parallelFor(0, n, GRAIN, (low, high) -> {
+                LabelCounts counts = tables.get();
+                boolean anyChange = false;
+                for (int v = low; v < high; v++) {
+                    count(counts, current, v, Direction.OUT);
+                    if (directed) count(counts, current, v, Direction.IN);
+                    updated[v] = counts.isEmpty() ? current[v] : counts.mostFrequent();
+                    counts.clear();
+                    if (updated[v] != current[v]) anyChange = true;
+                }
+                if (anyChange) changed.set(true);
+            });
+            next = labels;
+            labels = updated;
+            iterations++;
+            if (!changed.get()) break;
+        }
+        return labels;
+    }
+
+    /**
+     * Gets the number of iterations the last run took.
+     *
+     * @return the iteration count.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Counts the labels of a neighborhood of v.
+     */
+    private void count(LabelCounts counts, int[] labels, int v, Direction direction) {
+        NeighborCursor<T> cursor = cursor(v, direction);
+        while (cursor.next()) {
+            counts.add(labels[physicalIndex(cursor.id())]);
+        }
+    }
+
+    /**
+     * A reusable count of labels, in an open-addressing table that remembers which slots it
+     * used so clearing costs as much as the labels counted, not the size of the table.
+     */
+    private static final class LabelCounts {
+        private int[] keys = new int[64];
+        private int[] counts = new int[64]; // 0 marks a free slot
+        private int[] used = new int[32];
+        private int usedCount;
+
+        void add(int label) {
+            if ((usedCount + 1) * 2 > keys.length) grow();
+            int slot = find(keys, counts, label);
+            if (counts[slot] == 0) {
+                keys[slot] = label;
+                used[usedCount++] = slot;
+            }
+            counts[slot]++;
+        }
+
+        boolean isEmpty() {
+            return usedCount == 0;
+        }
+
+        /**
+         * Gets the label counted most often, the smallest of them on a tie.
+         */
+        int mostFrequent() {
+            int best = 0;
+            int bestCount = 0;
+            for (int i = 0; i < usedCount; i++) {
+                int slot = used[i];
+                if (counts[slot] > bestCount || (counts[slot] == bestCount && keys[slot] < best)) {
+                    best = keys[slot];
+                    bestCount = counts[slot];
+                }
+            }
+            return best;
+        }
+
+        void clear() {
+            for (int i = 0; i < usedCount; i++) {
+                counts[used[i]] = 0;
+            }
+            usedCount = 0;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new int[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            used = new int[oldKeys.length];
+            int oldUsed = usedCount;
+            usedCount = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldCounts[slot] == 0) continue;
+                int newSlot = find(keys, counts, oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                counts[newSlot] = oldCounts[slot];
+                used[usedCount++] = newSlot;
+            }
+            assert usedCount == oldUsed;
+        }
+
+        /**
+         * Finds the slot holding a label, or the free slot where it belongs.
+         */
+        private static int find(int[] keys, int[] counts, int label) {
+            int mask = keys.length - 1;
+            int h = label * 0x9E3779B9;
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (counts[slot] != 0 && keys[slot] != label) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package edu.uwm.cs351;
+
+import java.util.Arrays;
+
+/**
+ * LatencyHistogram counts non-negative values, such as latencies in nanoseconds, in
+ * log-linear buckets in the style of HdrHistogram.
+ *
+ * Values below 2^(SUB_BUCKET_BITS + 1) have a bucket each. Above that, every power of two is
+ * split into 2^SUB_BUCKET_BITS equal buckets, so a value is known to within 1/128 of itself
+ * (under 1%) at any magnitude. The buckets are one fixed long[], so recording a value only
+ * increments a counter and never allocates.
+ *
+ * A histogram is not thread-safe; give each thread its own and {@link #add} them together.
+ */
+public final class LatencyHistogram {
+    /** log2 of the number of buckets per power of two. */
+    static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKETS = SUB_BUCKETS << 1;
+    private static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        counts = new long[BUCKETS];
+    }
+
+    /**
+     * Creates a histogram from bucket counts gathered elsewhere, such as by {@link GraphMetrics}.
+     *
+     * @param counts The count of every bucket, BUCKETS long; owned by the histogram from now on.
+     * @param sum    The sum of the values counted.
+     * @param max    The largest value counted.
+     */
+    LatencyHistogram(long[] counts, long sum, long max) {
+        assert counts.length == BUCKETS : "Wrong number of buckets: " + counts.length;
+        this.counts = counts;
+        for (long c : counts) {
+            count += c;
+        }
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Gets the number of buckets of every histogram.
+     *
+     * @return the bucket count.
+     */
+    static int buckets() {
+        return BUCKETS;
+    }
+
+    /**
+     * Records one value.
+     *
+     * @param value The value, clamped to 0 if negative.
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * Finds the bucket of a value.
+     */
+    static int bucket(long value) {
+        if (value < LINEAR_BUCKETS) return (int) value;
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+        int top = (int) (value >>> shift);  // In [SUB_BUCKETS, LINEAR_BUCKETS)
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    /**
+     * Gets the largest value that falls in a bucket.
+     */
+    static long highestInBucket(int bucket) {
+        if (bucket < LINEAR_BUCKETS) return bucket;
+        int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long top = SUB_BUCKETS + (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long highest = ((top + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+
+    /**
+     * Adds the counts of another histogram to this one.
+     *
+     * @param other The histogram to add.
+     * @throws IllegalArgumentException if other is null.
+     */
+    public void add(LatencyHistogram other) {
+        if (other == null) {
+            throw new IllegalArgumentException("@add, the parameter, other, may not be null.");
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     *
+     * @return the exact mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Gets the largest value recorded.
+     *
+     * @return the exact maximum, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the value below or at which the given percentage of the values fall.
+     *
+     * @param percentile The percentage, from 0 to 100.
+     * @return the highest value in the bucket holding that rank, at most the maximum;
+     *         0 if nothing was recorded.
+     * @throws IllegalArgumentException if percentile is not in [0, 100].
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("@getValueAtPercentile, the parameter, percentile, must be in [0, 100].");
+        }
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(highestInBucket(i), max);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,116 @@
+package edu.uwm.cs351;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+/**
+ * LocalClusteringCoefficient computes, for every vertex, the fraction of pairs of its neighbors
+ * that are themselves connected, as defined by Graphalytics.
+ *
+ * The neighbors of a vertex v are gathered once into a sorted buffer of physical IDs that each
+ * task reuses. The edges among them are then counted by intersecting that buffer with the
+ * neighborhood of each neighbor, counting matches without building the intersection. For an
+ * undirected graph, each neighbor's neighborhood is cut down to the neighbors ranking above it
+ * by degree, so every edge among the neighbors of v is counted exactly once, from its lower end.
+ * Vertices are split across a ForkJoinPool, and each one writes only its own result.
+ *
+ * In a directed graph, the neighbors of a vertex are its out- and in-neighbors together, and
+ * the edges among them are counted in both directions, so the graph must store in-edges.
+ * Self-loops are ignored, and vertices with fewer than two neighbors have a coefficient of 0.
+ *
+ * @param <T> The type of the vertex ID
+ */
+public class LocalClusteringCoefficient<T extends Comparable<T>> extends GraphKernel<T> {
+    /** Vertices per leaf task; small, since a vertex's work grows with the square of its degree. */
+    private static final int VERTEX_GRAIN = 32;
+
+    /**
+     * Creates a clustering computation over the given graph that runs on the common ForkJoinPool.
+     *
+     * @param graph The graph to analyze.
+     * @throws IllegalArgumentException if graph is null.
+     */
+    public LocalClusteringCoefficient(SortledtonGraph<T> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a clustering computation over the given graph that runs on the given ForkJoinPool.
+     *
+     * @param graph The graph to analyze.
+     * @param pool  The pool that counts the edges.
+     * @throws IllegalArgumentException if graph or pool is null.
+     */
+    public LocalClusteringCoefficient(SortledtonGraph<T> graph, ForkJoinPool pool) {
+        super(graph, pool);
+    }
+
+    /**
+     * Computes the coefficients. The graph must not be modified while this runs.
+     *
+     * @return the coefficient of every vertex indexed by physical ID, in [0, 1].
+     * @throws IllegalStateException if the graph is directed and does not store in-edges.
+     */
+    public double[] run() {
+        boolean directed = graph.isDirected();
+        if (!canPull()) {
+            throw new IllegalStateException("Directed clustering needs in-edges, which this graph does not store.");
+        }
+        snapshot();
+        int n = vertexCount;
+
+        AdjacencyArrays arrays;
+        if (directed) {
+            arrays = adjacencyArrays(Direction.OUT, (v, u) -> u != v);
+        } else {
+            int[] degree = new int[n];
+            parallelFor(0, n, GRAIN, (low, high) -> {
+                for (int v = low; v < high; v++) {
+                    degree[v] = degree(v, Direction.OUT);
+                }
+            });
+            arrays = adjacencyArrays(Direction.OUT, (v, u) -> u != v && ranksHigher(degree, v, u));
+        }
+        int[] offsets = arrays.offsets;
+        int[] targets = arrays.targets;
+
+        double[] coefficient = new double[n];
+        parallelFor(0, n, VERTEX_GRAIN, (low, high) -> {
+            int[] neighbors = new int[64];
+            for (int v = low; v < high; v++) {
+                int capacity = degree(v, Direction.OUT) + (directed ? degree(v, Direction.IN) : 0);
+                neighbors = ensureLength(neighbors, capacity);
+                int d = gather(v, Direction.OUT, neighbors, 0);
+                if (directed) d = gather(v, Direction.IN, neighbors, d);
+                Arrays.sort(neighbors, 0, d);
+                d = removeDuplicates(neighbors, d);
+                if (d < 2) continue;
+
+                long links = 0;
+                for (int i = 0; i < d; i++) {
+                    int u = neighbors[i];
+                    links += AdjacencyArrays.intersectionSize(targets, offsets[u], offsets[u + 1], neighbors, 0, d);
+                }
+                double pairs = (double) d * (d - 1);
+                coefficient[v] = directed ? links / pairs : 2 * links / pairs;
+            }
+        });
+        return coefficient;
+    }
+
+    /**
+     * Appends the physical IDs of a neighborhood of v to a buffer, leaving out v itself.
+     *
+     * @return the new number of IDs in the buffer.
+     */
+    private int gather(int v, Direction direction, int[] buffer, int size) {
+        NeighborCursor<T> cursor = cursor(v, direction);
+        while (cursor.next()) {
+            int u = physicalIndex(cursor.id());
+            if (u != v) buffer[size++] = u;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,64 @@
+package edu.uwm.cs351;
+
+/**
+ * NeighborCursor walks the neighbors of a Neighborhood in sorted order, in place.
+ * Unlike {@link Neighborhood#getNeighbors()}, nothing is copied, and the values stored
+ * with each edge (its weight and {@link EdgeProperty} values) are read in the same pass
+ * as its neighbor ID, which also makes property-filtered scans cheap.
+ *
+ * A cursor starts before the first neighbor; call {@link #next()} to move onto it.
+ * The neighborhood must not be modified while a cursor is in use.
+ *
+ * @param <T> The type of the vertex ID.
+ */
+public interface NeighborCursor<T> {
+
+    /**
+     * Moves to the next neighbor.
+     *
+     * @return true if there is a neighbor at the new position, false if the scan is done.
+     */
+    boolean next();
+
+    /**
+     * Gets the ID of the neighbor at the current position.
+     *
+     * @return the neighbor ID.
+     */
+    T id();
+
+    /**
+     * Gets the weight of the edge to the neighbor at the current position.
+     *
+     * @return the edge weight, or 1.0 if the edge was added without one.
+     */
+    double weight();
+
+    /**
+     * Gets the stored bits of a property of the edge to the neighbor at the current position.
+     *
+     * @param property The property to read.
+     * @return the stored bits, or 0 if the property was never set on this edge.
+     */
+    long propertyBits(EdgeProperty property);
+
+    /**
+     * Gets an INT or LONG property of the edge to the neighbor at the current position.
+     *
+     * @param property The property to read.
+     * @return the value, or 0 if the property was never set on this edge.
+     */
+    default long longProperty(EdgeProperty property) {
+        return property.asLong(propertyBits(property));
+    }
+
+    /**
+     * Gets a DOUBLE property of the edge to the neighbor at the current position.
+     *
+     * @param property The property to read.
+     * @return the value, or 0.0 if the property was never set on this edge.
+     */
+    default double doubleProperty(EdgeProperty property) {
+        return property.asDouble(propertyBits(property));
+    }
+}
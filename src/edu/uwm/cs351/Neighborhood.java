@@ -7,7 +7,8 @@ import java.util.List;
  * It provides methods for adding, removing, and retrieving neighbors, as well as
  * finding intersections with other neighborhoods. This interface can be implemented
  * by classes optimized for handling small or large neighborhoods, such as
- * {@link PowerofTwo} (for smaller sets) and {@link UnrolledSkipList} (for larger sets).
+ * {@link PowerofTwo} (for smaller sets), {@link UnrolledSkipList} (for larger sets) and
+ * {@link HashedUnrolledSkipList} (for the largest, where lookups dominate).
  *
  * @param <T> The type of the vertex ID, must be Comparable.
  */
@@ -21,6 +22,16 @@ public interface Neighborhood<T extends Comparable<T>> {
      */
     void addNeighbor(T id);
 
+    /**
+     * Adds a neighbor to this neighborhood with the given edge weight.
+     * If the neighbor already exists, only its weight is replaced.
+     *
+     * @param id     The ID of the neighbor to add.
+     * @param weight The weight of the edge to the neighbor.
+     * @throws IllegalArgumentException if id is null.
+     */
+    void addNeighbor(T id, double weight);
+
     /**
      * Removes a neighbor from this neighborhood.
      *
@@ -36,6 +47,13 @@ public interface Neighborhood<T extends Comparable<T>> {
      */
     List<T> getNeighbors();
 
+    /**
+     * Counts the neighbors in this neighborhood without copying them.
+     *
+     * @return The number of neighbors.
+     */
+    int size();
+
     /**
      * Finds the intersection of this neighborhood with another neighborhood.
      *
@@ -53,4 +71,47 @@ public interface Neighborhood<T extends Comparable<T>> {
      * @throws IllegalArgumentException if id is null.
      */
      boolean contains(T id);
+
+    /**
+     * Gets the weight of the edge to a neighbor.
+     *
+     * @param id The ID of the neighbor.
+     * @return the edge weight, 1.0 if the edge was added without one,
+     *         or NaN if id is not a neighbor.
+     */
+    double getWeight(T id);
+
+    /**
+     * Sets a property of the edge to a neighbor.
+     *
+     * @param id       The ID of the neighbor.
+     * @param property The property to set.
+     * @param bits     The stored bits of the value, see {@link EdgeProperty#encode(long)}.
+     * @return true if id is a neighbor, false if nothing was set.
+     */
+    boolean setProperty(T id, EdgeProperty property, long bits);
+
+    /**
+     * Gets a property of the edge to a neighbor.
+     *
+     * @param id       The ID of the neighbor.
+     * @param property The property to read.
+     * @return the stored bits, or 0 if id is not a neighbor or the property was never set.
+     */
+    long getProperty(T id, EdgeProperty property);
+
+    /**
+     * Checks if this neighborhood stores edge weights.
+     *
+     * @return true once any neighbor has been added with a weight.
+     */
+    boolean isWeighted();
+
+    /**
+     * Creates a cursor over the neighbors, in sorted order, that reads
+     * them and their edge weights and properties in place.
+     *
+     * @return a cursor positioned before the first neighbor.
+     */
+    NeighborCursor<T> cursor();
 }
@@ -0,0 +1,454 @@
+package edu.uwm.cs351;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * NeighborhoodBenchmark measures the cost of single operations on the {@link Neighborhood}
+ * implementations, {@link PowerofTwo}, {@link UnrolledSkipList} and {@link HashedUnrolledSkipList},
+ * at a given degree and insert order, so block sizes and conversion thresholds can be tuned
+ * from real numbers.
+ *
+ * A benchmark case fills a neighborhood with the even numbers below twice the degree, in
+ * ascending (sequential) or shuffled (random) order, and then times one operation:
+ * <ul>
+ *     <li>add: adds a batch of absent neighbors, which are removed again outside the timing.
+ *     In sequential order they go past the end, as appends do; otherwise they are random odd
+ *     numbers inside the range.</li>
+ *     <li>remove: removes a batch of random neighbors, which are added back outside the timing.</li>
+ *     <li>contains: looks up a random neighbor.</li>
+ *     <li>scan: walks every neighbor with a cursor.</li>
+ *     <li>neighbors: copies every neighbor with getNeighbors().</li>
+ *     <li>intersect: intersects with a neighborhood of the same kind holding the multiples of
+ *     three below three times the degree.</li>
+ * </ul>
+ *
+ * Every case first runs warmup iterations so the JIT compiles the operation, then timed
+ * iterations of a fixed length. Each iteration reports the time per operation, and also the
+ * bytes the thread allocated and the collections that ran, read from the management beans.
+ * Results go into a sink field so the JIT cannot drop the work. By default each case runs in
+ * its own freshly started JVM (a fork), so profile pollution from earlier cases and the heap
+ * they left behind do not bias later ones. Assertions must be off, since the well-formedness
+ * checks of the neighborhoods are linear.
+ *
+ * Results are printed as one JSON object per line and iteration summary.
+ *
+ * <p>Usage: {@code java edu.uwm.cs351.NeighborhoodBenchmark [--implementations powerOfTwo,unrolledSkipList,hashedUnrolledSkipList]
+ * [--degrees 1,10,...] [--orders sequential,random] [--operations add,remove,...] [--warmup N]
+ * [--iterations N] [--iteration-ms MS] [--forks N] [--jvm-args "-Xmx8g ..."]
+ * [--max-power-of-two-degree D]}</p>
+ */
+public final class NeighborhoodBenchmark {
+    /** The implementations that can be benchmarked. */
+    public static final List<String> IMPLEMENTATIONS = Arrays.asList("powerOfTwo", "unrolledSkipList", "hashedUnrolledSkipList");
+
+    /** The operations that can be benchmarked. */
+    public static final List<String> OPERATIONS = Arrays.asList("add", "remove", "contains", "scan", "neighbors", "intersect");
+
+    /** The insert orders that can be benchmarked. */
+    public static final List<String> ORDERS = Arrays.asList("sequential", "random");
+
+    /** Neighbors added or removed per timed batch. */
+    private static final int BATCH = 64;
+
+    /** The seed of every random choice, so runs are repeatable. */
+    private static final long SEED = 42;
+
+    private final String implementation;
+    private final String order;
+    private final String operation;
+    private final int degree;
+
+    private Neighborhood<Integer> neighborhood;
+    private Neighborhood<Integer> other;
+    private Integer[] present;  // The neighbors, shuffled, for lookups and removals
+    private Integer[] absent;   // Keys that are not neighbors, for additions
+    private int nextProbe;
+    private int nextAbsent;
+
+    /** Keeps results alive so the JIT cannot eliminate the measured work. */
+    private long sink;
+
+    /**
+     * The measurements of one timed iteration.
+     */
+    public static final class Result {
+        private final double nanosPerOperation;
+        private final double bytesPerOperation;
+        private final long operations;
+        private final long gcCount;
+        private final long gcMillis;
+
+        Result(double nanosPerOperation, double bytesPerOperation, long operations, long gcCount, long gcMillis) {
+            this.nanosPerOperation = nanosPerOperation;
+            this.bytesPerOperation = bytesPerOperation;
+            this.operations = operations;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        /** @return the average time of an operation in nanoseconds. */
+        public double getNanosPerOperation() {
+            return nanosPerOperation;
+        }
+
+        /** @return the average bytes allocated by an operation, or NaN if the JVM cannot tell. */
+        public double getBytesPerOperation() {
+            return bytesPerOperation;
+        }
+
+        /** @return the number of operations timed. */
+        public long getOperations() {
+            return operations;
+        }
+
+        /** @return the number of garbage collections during the iteration. */
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        /** @return the time spent in garbage collection during the iteration. */
+        public long getGcMillis() {
+            return gcMillis;
+        }
+    }
+
+    /**
+     * Creates a benchmark case and fills its neighborhoods.
+     *
+     * @param implementation One of IMPLEMENTATIONS.
+     * @param order          One of ORDERS, the order the neighbors are added in.
+     * @param operation      One of OPERATIONS.
+     * @param degree         The number of neighbors, at least 1.
+     * @throws IllegalArgumentException if a parameter is not one of the allowed values.
+     */
+    public NeighborhoodBenchmark(String implementation, String order, String operation, int degree) {
+        if (!IMPLEMENTATIONS.contains(implementation) || !ORDERS.contains(order)
+                || !OPERATIONS.contains(operation) || degree < 1) {
+            throw new IllegalArgumentException("@NeighborhoodBenchmark, unknown case: "
+                                               + implementation + " " + order + " " + operation + " " + degree);
+        }
+        this.implementation = implementation;
+        this.order = order;
+        this.operation = operation;
+        this.degree = degree;
+        setUp();
+    }
+
+    private Neighborhood<Integer> create() {
+        if (implementation.equals("powerOfTwo")) return new PowerofTwo<Integer>();
+        if (implementation.equals("hashedUnrolledSkipList")) return new HashedUnrolledSkipList<Integer>();
+        return new UnrolledSkipList<Integer>();
+    }
+
+    private void setUp() {
+        Random random = new Random(SEED);
+        boolean sequential = order.equals("sequential");
+
+        Integer[] keys = new Integer[degree];
+        for (int i = 0; i < degree; i++) {
+            keys[i] = 2 * i;
+        }
+        if (!sequential) shuffle(keys, random);
+        neighborhood = create();
+        for (Integer key : keys) {
+            neighborhood.addNeighbor(key);
+        }
+
+        present = Arrays.copyOf(keys, degree);
+        shuffle(present, random);
+        absent = new Integer[Math.max(BATCH, Math.min(degree, 1 << 16))];
+        for (int i = 0; i < absent.length; i++) {
+            // Odd numbers spread evenly over the range, so no two are the same
+            long spread = (long) i * Math.max(degree, absent.length) / absent.length;
+            absent[i] = sequential ? 2 * degree + i : (int) (2 * spread + 1);
+        }
+        if (!sequential) shuffle(absent, random);
+
+        if (operation.equals("intersect")) {
+            other = create();
+            for (int i = 0; i < degree; i++) {
+                other.addNeighbor(3 * (keys[i] / 2));
+            }
+        }
+    }
+
+    private static void shuffle(Integer[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+
+    /**
+     * Runs the operation until the given time has passed.
+     *
+     * @param nanos The time to run for.
+     * @return the number of operations run and the nanoseconds they took, outside any untimed
+     *         restoring of the neighborhood.
+     */
+    private long[] runFor(long nanos) {
+        long operations = 0;
+        long timed = 0;
+        long end = System.nanoTime() + nanos;
+        do {
+            switch (operation) {
+                case "add": {
+                    int batch = nextBatch(absent.length);
+                    int from = nextAbsent;
+                    long start = System.nanoTime();
+                    for (int i = 0; i < batch; i++) {
+                        neighborhood.addNeighbor(absent[(from + i) % absent.length]);
+                    }
+                    timed += System.nanoTime() - start;
+                    for (int i = 0; i < batch; i++) {
+                        neighborhood.removeNeighbor(absent[(from + i) % absent.length]);
+                    }
+                    nextAbsent = (from + batch) % absent.length;
+                    operations += batch;
+                    break;
+                }
+                case "remove": {
+                    int batch = nextBatch(degree);
+                    int from = nextProbe;
+                    long start = System.nanoTime();
+                    for (int i = 0; i < batch; i++) {
+                        neighborhood.removeNeighbor(present[(from + i) % degree]);
+                    }
+                    timed += System.nanoTime() - start;
+                    for (int i = 0; i < batch; i++) {
+                        neighborhood.addNeighbor(present[(from + i) % degree]);
+                    }
+                    nextProbe = (from + batch) % degree;
+                    operations += batch;
+                    break;
+                }
+                default: {
+                    // Read-only operations are timed in batches, so the clock is read rarely
+                    int batch = Math.max(1, Math.min(BATCH, BATCH * 1024 / degree));
+                    long start = System.nanoTime();
+                    for (int i = 0; i < batch; i++) {
+                        sink += readOnce();
+                    }
+                    timed += System.nanoTime() - start;
+                    operations += batch;
+                }
+            }
+        } while (System.nanoTime() < end);
+        return new long[] { operations, timed };
+    }
+
+    private int nextBatch(int limit) {
+        return Math.min(BATCH, limit);
+    }
+
+    /**
+     * Runs one read-only operation.
+     *
+     * @return a value derived from its result.
+     */
+    private long readOnce() {
+        switch (operation) {
+            case "contains": {
+                Integer key = present[nextProbe];
+                nextProbe = nextProbe + 1 == degree ? 0 : nextProbe + 1;
+                return neighborhood.contains(key) ? 1 : 0;
+            }
+            case "scan": {
+                long sum = 0;
+                NeighborCursor<Integer> cursor = neighborhood.cursor();
+                while (cursor.next()) {
+                    sum += cursor.id();
+                }
+                return sum;
+            }
+            case "neighbors":
+                return neighborhood.getNeighbors().size();
+            default: // intersect
+                return neighborhood.intersect(other).size();
+        }
+    }
+
+    /**
+     * Runs the warmup iterations and then the timed ones.
+     *
+     * @param warmup         The number of iterations whose results are thrown away.
+     * @param iterations     The number of timed iterations.
+     * @param iterationNanos The length of every iteration.
+     * @return the results of the timed iterations.
+     */
+    public List<Result> measure(int warmup, int iterations, long iterationNanos) {
+        for (int i = 0; i < warmup; i++) {
+            runFor(iterationNanos);
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+                                                      ? (com.sun.management.ThreadMXBean) threads : null;
+        long thread = Thread.currentThread().getId();
+
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < iterations; i++) {
+            long gcCountBefore = gcCount();
+            long gcMillisBefore = gcMillis();
+            long bytesBefore = allocations == null ? -1 : allocations.getThreadAllocatedBytes(thread);
+            long[] run = runFor(iterationNanos);
+            long bytesAfter = allocations == null ? -1 : allocations.getThreadAllocatedBytes(thread);
+            double bytes = bytesBefore < 0 || bytesAfter < 0 ? Double.NaN : (double) (bytesAfter - bytesBefore) / run[0];
+            results.add(new Result((double) run[1] / run[0], bytes, run[0],
+                                   gcCount() - gcCountBefore, gcMillis() - gcMillisBefore));
+        }
+        return results;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Formats the results of a case as a JSON object with their mean, minimum and maximum.
+     *
+     * @param fork    The number of the fork that ran them, 0 if run in this JVM.
+     * @param results The results of the timed iterations, not empty.
+     * @return one line of JSON.
+     */
+    public String toJson(int fork, List<Result> results) {
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = 0;
+        double bytes = 0;
+        long operations = 0;
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (Result result : results) {
+            sum += result.getNanosPerOperation();
+            min = Math.min(min, result.getNanosPerOperation());
+            max = Math.max(max, result.getNanosPerOperation());
+            bytes += result.getBytesPerOperation();
+            operations += result.getOperations();
+            gcCount += result.getGcCount();
+            gcMillis += result.getGcMillis();
+        }
+        int n = results.size();
+        return String.format(Locale.ROOT,
+            "{\"implementation\":\"%s\",\"order\":\"%s\",\"operation\":\"%s\",\"degree\":%d,\"fork\":%d,"
+            + "\"iterations\":%d,\"operations\":%d,\"ns_per_op\":%.2f,\"ns_per_op_min\":%.2f,\"ns_per_op_max\":%.2f,"
+            + "\"bytes_per_op\":%.2f,\"gc_count\":%d,\"gc_ms\":%d,\"sink\":%d}",
+            implementation, order, operation, degree, fork, n, operations, sum / n, min, max,
+            bytes / n, gcCount, gcMillis, sink & 1);
+    }
+
+    /**
+     * Runs every requested case, printing one JSON line per case and fork.
+     *
+     * @param args the options described in the class comment.
+     * @throws IOException          if a fork cannot be started or read.
+     * @throws InterruptedException if interrupted while waiting for a fork.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> implementations = IMPLEMENTATIONS;
+        List<String> orders = ORDERS;
+        List<String> operations = OPERATIONS;
+        int[] degrees = { 1, 10, 100, 1000, 10_000, 100_000, 1_000_000, 10_000_000 };
+        int warmup = 5;
+        int iterations = 10;
+        long iterationMillis = 200;
+        int forks = 1;
+        int forkNumber = 0;
+        int maxPowerOfTwoDegree = 100_000;
+        String jvmArgs = "";
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--implementations":         implementations = Arrays.asList(value.split(",")); break;
+                case "--orders":                  orders = Arrays.asList(value.split(",")); break;
+                case "--operations":              operations = Arrays.asList(value.split(",")); break;
+                case "--degrees":                 degrees = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray(); break;
+                case "--warmup":                  warmup = Integer.parseInt(value); break;
+                case "--iterations":              iterations = Integer.parseInt(value); break;
+                case "--iteration-ms":            iterationMillis = Long.parseLong(value); break;
+                case "--forks":                   forks = Integer.parseInt(value); break;
+                case "--fork-number":             forkNumber = Integer.parseInt(value); break;
+                case "--max-power-of-two-degree": maxPowerOfTwoDegree = Integer.parseInt(value); break;
+                case "--jvm-args":                jvmArgs = value; break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        for (String implementation : implementations) {
+            for (int degree : degrees) {
+                // Filling a sorted array list costs O(d) per add, so very large ones take too long to build
+                if (implementation.equals("powerOfTwo") && degree > maxPowerOfTwoDegree) continue;
+                for (String order : orders) {
+                    for (String operation : operations) {
+                        if (forks == 0) {
+                            NeighborhoodBenchmark benchmark = new NeighborhoodBenchmark(implementation, order, operation, degree);
+                            List<Result> results = benchmark.measure(warmup, iterations, iterationMillis * 1_000_000);
+                            System.out.println(benchmark.toJson(forkNumber, results));
+                        } else {
+                            for (int fork = 1; fork <= forks; fork++) {
+                                runFork(jvmArgs, implementation, order, operation, degree, warmup, iterations, iterationMillis, fork);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one case in a new JVM with the same class path and passes its output on.
+     */
+    private static void runFork(String jvmArgs, String implementation, String order, String operation, int degree,
+                                int warmup, int iterations, long iterationMillis, int fork)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        for (String arg : jvmArgs.trim().split("\\s+")) {
+            if (!arg.isEmpty()) command.add(arg);
+        }
+        command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), NeighborhoodBenchmark.class.getName(),
+                                     "--implementations", implementation, "--orders", order, "--operations", operation,
+                                     "--degrees", Integer.toString(degree), "--warmup", Integer.toString(warmup),
+                                     "--iterations", Integer.toString(iterations), "--iteration-ms", Long.toString(iterationMillis),
+                                     "--max-power-of-two-degree", Integer.toString(Integer.MAX_VALUE),
+                                     "--forks", "0", "--fork-number", Integer.toString(fork)));
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                System.out.println(line);
+            }
+        }
+        if (process.waitFor() != 0) {
+            System.err.println("Fork failed: " + implementation + " " + order + " " + operation + " " + degree);
+        }
+    }
+}
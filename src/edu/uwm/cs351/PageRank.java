@@ -0,0 +1,153 @@
+package edu.uwm.cs351;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+/**
+ * PageRank computes the PageRank of every vertex by power iteration, pulling along in-edges.
+ *
+ * Each iteration first turns the rank of every vertex into the contribution it sends along each
+ * of its out-edges, then lets every vertex sum the contributions of its in-neighbors, scanning
+ * its neighborhood in place. Ranks and contributions are double[] arrays indexed by physical ID,
+ * and both passes are split into ranges of vertices across a ForkJoinPool. Since every vertex
+ * only writes its own slot, no synchronization is needed beyond the end of each pass.
+ *
+ * Vertices without out-edges spread their rank evenly over all vertices, as in the Graphalytics
+ * specification. Iteration stops after a given number of iterations or once the L1 distance
+ * between two successive rank vectors drops below a tolerance, whichever comes first.
+ *
+ * Pulling needs in-neighborhoods, so a directed graph must store in-edges.
+ *
+ * @param <T> The type of the vertex ID
+ */
+public class PageRank<T extends Comparable<T>> extends GraphKernel<T> {
+    /** The damping factor used when none is given. */
+    public static final double DEFAULT_DAMPING_FACTOR = 0.85;
+
+    private int iterations;
+
+    /**
+     * Creates a PageRank computation over the given graph that runs on the common ForkJoinPool.
+     *
+     * @param graph The graph to rank.
+     * @throws IllegalArgumentException if graph is null.
+     */
+    public PageRank(SortledtonGraph<T> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a PageRank computation over the given graph that runs on the given ForkJoinPool.
+     *
+     * @param graph The graph to rank.
+     * @param pool  The pool that runs the iterations.
+     * @throws IllegalArgumentException if graph or pool is null.
+     */
+    public PageRank(SortledtonGraph<T> graph, ForkJoinPool pool) {
+        super(graph, pool);
+    }
+
+    /**
+     * Computes the ranks with the default damping factor.
+     *
+     * @param maxIterations The most iterations to run.
+     * @param tolerance     The L1 distance between successive rank vectors below which to stop early.
+     * @return the rank of every vertex indexed by physical ID; the ranks sum to 1.
+     * @throws IllegalArgumentException if maxIterations or tolerance is negative.
+     * @throws IllegalStateException    if the graph is directed and does not store in-edges.
+     */
+    public double[] run(int maxIterations, double tolerance) {
+        return run(DEFAULT_DAMPING_FACTOR, maxIterations, tolerance);
+    }
+
+    /**
+     * Computes the ranks. The graph must not be modified while this runs.
+     *
+     * @param dampingFactor The probability of following an edge rather than jumping, in [0, 1].
+     * @param maxIterations The most iterations to run.
+     * @param tolerance     The L1 distance between successive rank vectors below which to stop early;
+     *                      0 always runs maxIterations iterations.
+     * @return the rank of every vertex indexed by physical ID; the ranks sum to 1.
+     * @throws IllegalArgumentException if dampingFactor is outside [0, 1], or maxIterations or tolerance is negative.
+     * @throws IllegalStateException    if the graph is directed and does not store in-edges.
+     */
+    public double[] run(double dampingFactor, int maxIterations, double tolerance) {
+        if (!(dampingFactor >= 0 && dampingFactor <= 1) || maxIterations < 0 || !(tolerance >= 0)) {
+            throw new IllegalArgumentException("@run, the parameters, dampingFactor must be in [0, 1], and maxIterations and tolerance may not be negative.");
+        }
+        if (!canPull()) {
+            throw new IllegalStateException("PageRank pulls along in-edges, which this graph does not store.");
+        }
+        snapshot();
+        int n = vertexCount;
+        iterations = 0;
+        if (n == 0) return new double[0];
+
+        int[] outDegree = new int[n];
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            for (int v = low; v < high; v++) {
+                outDegree[v] = degree(v, Direction.OUT);
+            }
+        });
+
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        double[] contribution = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+
+        while (iterations < maxIterations) {
+            double[] current = rank;
+
+            // Pass 1: what each vertex sends along each out-edge, and the rank of dangling vertices
+            DoubleAdder dangling = new DoubleAdder();
+            parallelFor(0, n, GRAIN, (low, high) -> {
+                double danglingRank = 0;
+                for (int v = low; v < high; v++) {
+                    if (outDegree[v] == 0) {
+                        danglingRank += current[v];
+                        contribution[v] = 0;
+                    } else {
+                        contribution[v] = current[v] / outDegree[v];
+                    }
+                }
+                dangling.add(danglingRank);
+            });
+
+            // Pass 2: every vertex pulls from its in-neighbors
+            double base = (1 - dampingFactor) / n + dampingFactor * dangling.sum() / n;
+            double[] updated = next;
+            DoubleAdder change = new DoubleAdder();
+            parallelFor(0, n, GRAIN, (low, high) -> {
+                double delta = 0;
+                for (int v = low; v < high; v++) {
+                    double sum = 0;
+                    NeighborCursor<T> cursor = cursor(v, Direction.IN);
+                    while (cursor.next()) {
+                        sum += contribution[physicalIndex(cursor.id())];
+                    }
+                    updated[v] = base + dampingFactor * sum;
+                    delta += Math.abs(updated[v] - current[v]);
+                }
+                change.add(delta);
+            });
+
+            next = rank;
+            rank = updated;
+            iterations++;
+            if (change.sum() < tolerance) break;
+        }
+        return rank;
+    }
+
+    /**
+     * Gets the number of iterations the last run took.
+     *
+     * @return the iteration count.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+}
@@ -12,6 +12,9 @@ import java.util.List;
  * The structure maintains a sorted list of neighbors for efficient 
  * intersection and lookups. Duplicates are not added.
  *
+ * Edge weights and properties, once used, live in an {@link EdgeColumns} parallel
+ * to the list, whose capacity grows in powers of two.
+ *
  * @param <T> The type of the vertex ID, must be Comparable.
  */
 public class PowerofTwo<T extends Comparable<T>> implements Neighborhood<T> {
@@ -19,6 +22,9 @@ public class PowerofTwo<T extends Comparable<T>> implements Neighborhood<T> {
     /** The list to store neighbors, kept sorted. */
     private final List<T> neighbors;
 
+    /** Edge weights and properties parallel to neighbors, or null until one is first set. */
+    private EdgeColumns columns;
+
     /**
      * Constructs a new PowerofTwo with an empty list of neighbors.
      * After construction, we assert the invariants.
@@ -33,6 +39,8 @@ public class PowerofTwo<T extends Comparable<T>> implements Neighborhood<T> {
      *  - neighbors is not null.
      *  - neighbors contains no null elements.
      *  - neighbors is strictly sorted in ascending order (implies no duplicates).
+     * Only the methods that change the list check it; in a graph the list stays under
+     * BLOCK_SIZE, so the scan is bounded.
      */
     private boolean wellformed() {
         if (neighbors == null) return false;
@@ -49,17 +57,36 @@ public class PowerofTwo<T extends Comparable<T>> implements Neighborhood<T> {
         return true;
     }
 
+    /**
+     * Checks the invariant on behalf of other classes in this package.
+     *
+     * @return true when in compliance with all listed invariants
+     */
+    boolean checkInvariant() {
+        return wellformed();
+    }
+
+    /**
+     * Estimates the heap bytes of this neighborhood, for {@link StructureReport}: this object,
+     * its list counted at its size, and its columns, but not the neighbor IDs themselves.
+     *
+     * @return the estimated bytes.
+     */
+    long estimateBytes() {
+        long bytes = StructureReport.objectBytes(2 * StructureReport.REFERENCE_BYTES)
+                + StructureReport.listBytes(neighbors.size());
+        if (columns != null) bytes += columns.estimateBytes();
+        return bytes;
+    }
+
     /**
      * Returns the number of neighbors in the neighborhood.
-     * We assert wellformed at start and end to ensure invariants hold continuously.
      *
      * @return The size of the neighborhood.
      */
+    @Override
     public int size() {
-        assert wellformed();
-        int s = neighbors.size();
-        assert wellformed();
-        return s;
+        return neighbors.size();
     }
 
     /**
@@ -78,11 +105,46 @@ public class PowerofTwo<T extends Comparable<T>> implements Neighborhood<T> {
         int index = Collections.binarySearch(neighbors, id);
         if (index < 0) {
             // Insert while maintaining sorted order
+            if (columns != null) columns.insert(-index - 1, neighbors.size());
             neighbors.add(-index - 1, id);
         }
         assert wellformed();
     }
 
+    /**
+     * Adds a neighbor with the given edge weight, keeping the list sorted.
+     * If the element already exists, only its weight is replaced.
+     *
+     * @param id     The ID of the neighbor to add.
+     * @param weight The weight of the edge to the neighbor.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    @Override
+    public void addNeighbor(T id, double weight) {
+        assert wellformed();
+        if (id == null) {
+            throw new IllegalArgumentException("Element cannot be null");
+        }
+        ensureColumns();
+        int index = Collections.binarySearch(neighbors, id);
+        if (index < 0) {
+            index = -index - 1;
+            columns.insert(index, neighbors.size());
+            neighbors.add(index, id);
+        }
+        columns.setWeight(index, neighbors.size(), weight);
+        assert wellformed();
+    }
+
+    /**
+     * Allocates the edge columns, with a power-of-two capacity that fits the list.
+     */
+    private void ensureColumns() {
+        if (columns == null) {
+            columns = new EdgeColumns(Integer.highestOneBit(neighbors.size()) * 2);
+        }
+    }
+
     /**
      * Removes a neighbor from the neighborhood if it exists.
      *
@@ -93,6 +155,7 @@ public class PowerofTwo<T extends Comparable<T>> implements Neighborhood<T> {
         assert wellformed();
         int index = Collections.binarySearch(neighbors, id);
         if (index >= 0) {
+            if (columns != null) columns.remove(index, neighbors.size());
             neighbors.remove(index);
         }
         assert wellformed();
@@ -106,10 +169,7 @@ public class PowerofTwo<T extends Comparable<T>> implements Neighborhood<T> {
      */
     @Override
     public List<T> getNeighbors() {
-        assert wellformed();
-        List<T> result = new ArrayList<>(neighbors);
-        assert wellformed();
-        return result;
+        return new ArrayList<>(neighbors);
     }
 
     /**
@@ -121,7 +181,6 @@ public class PowerofTwo<T extends Comparable<T>> implements Neighborhood<T> {
      */
     @Override
     public List<T> intersect(Neighborhood<T> other) {
-        assert wellformed();
         List<T> intersection = new ArrayList<>();
         List<T> otherNeighbors = other.getNeighbors();
         int i = 0, j = 0;
@@ -139,7 +198,6 @@ public class PowerofTwo<T extends Comparable<T>> implements Neighborhood<T> {
                 j++;
             }
         }
-        assert wellformed();
         return intersection;
     }
     
@@ -154,4 +212,92 @@ public class PowerofTwo<T extends Comparable<T>> implements Neighborhood<T> {
         if (id == null) return false;
         return Collections.binarySearch(neighbors, id) >= 0;
     }
+
+    /**
+     * Gets the weight of the edge to a neighbor using binary search.
+     *
+     * @param id The ID of the neighbor.
+     * @return the edge weight, 1.0 if it was added without one, or NaN if id is not a neighbor.
+     */
+    @Override
+    public double getWeight(T id) {
+        if (id == null) return Double.NaN;
+        int index = Collections.binarySearch(neighbors, id);
+        if (index < 0) return Double.NaN;
+        return columns == null ? EdgeColumns.DEFAULT_WEIGHT : columns.weight(index);
+    }
+
+    /**
+     * Sets a property of the edge to a neighbor, found using binary search.
+     *
+     * @param id       The ID of the neighbor.
+     * @param property The property to set.
+     * @param bits     The stored bits of the value.
+     * @return true if id is a neighbor, false if nothing was set.
+     */
+    @Override
+    public boolean setProperty(T id, EdgeProperty property, long bits) {
+        if (id == null) return false;
+        int index = Collections.binarySearch(neighbors, id);
+        if (index < 0) return false;
+        ensureColumns();
+        columns.setProperty(property, index, bits);
+        return true;
+    }
+
+    /**
+     * Gets a property of the edge to a neighbor, found using binary search.
+     *
+     * @param id       The ID of the neighbor.
+     * @param property The property to read.
+     * @return the stored bits, or 0 if id is not a neighbor or the property was never set.
+     */
+    @Override
+    public long getProperty(T id, EdgeProperty property) {
+        if (id == null || columns == null) return 0;
+        int index = Collections.binarySearch(neighbors, id);
+        return index < 0 ? 0 : columns.property(property, index);
+    }
+
+    /**
+     * Checks if this neighborhood stores edge weights.
+     *
+     * @return true once any neighbor has been added with a weight.
+     */
+    @Override
+    public boolean isWeighted() {
+        return columns != null && columns.hasWeights();
+    }
+
+    /**
+     * Creates a cursor that walks the sorted list, its weights and properties in place.
+     *
+     * @return a cursor positioned before the first neighbor.
+     */
+    @Override
+    public NeighborCursor<T> cursor() {
+        return new NeighborCursor<T>() {
+            private int index = -1;
+
+            @Override
+            public boolean next() {
+                return ++index < neighbors.size();
+            }
+
+            @Override
+            public T id() {
+                return neighbors.get(index);
+            }
+
+            @Override
+            public double weight() {
+                return columns == null ? EdgeColumns.DEFAULT_WEIGHT : columns.weight(index);
+            }
+
+            @Override
+            public long propertyBits(EdgeProperty property) {
+                return columns == null ? 0 : columns.property(property, index);
+            }
+        };
+    }
 }
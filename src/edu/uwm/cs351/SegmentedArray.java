@@ -0,0 +1,154 @@
+package edu.uwm.cs351;
+
+/**
+ * SegmentedArray is an index-addressed array made of fixed-size segments.
+ *
+ * Growing appends segments to a small directory instead of copying the elements, so the
+ * cost of growth does not depend on how many elements are already stored. Segments are
+ * allocated the first time one of their slots is written, which keeps small instances small.
+ *
+ * Existing segments never move. Growth only replaces the directory, which is published through
+ * a volatile field, so readers never see a half-grown array and growth can run alongside reads.
+ * Writes to the same slot still need external synchronization.
+ *
+ * @param <E> The type of the elements.
+ */
+public class SegmentedArray<E> {
+    /** log2 of the number of slots per segment. */
+    static final int SEGMENT_SHIFT = 12;
+    /** The number of slots per segment. */
+    public static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    /** The number of segments needed to address every non-negative int index. */
+    private static final int MAX_SEGMENTS = 1 << (31 - SEGMENT_SHIFT);
+
+    private static final Object[][] EMPTY_DIRECTORY = new Object[0][];
+
+    /** The directory of segments; an entry is null until its segment is first written. */
+    private volatile Object[][] segments = EMPTY_DIRECTORY;
+
+    /**
+     * Checks that the SegmentedArray invariant is correctly adhered to.
+     *
+     * @return true when every allocated segment has exactly SEGMENT_SIZE slots.
+     */
+    private boolean wellFormed() {
+        Object[][] directory = segments;
+        if (directory == null) return false;
+        for (Object[] segment : directory) {
+            if (segment != null && segment.length != SEGMENT_SIZE) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Constructs an empty SegmentedArray. No segment is allocated until the first write.
+     */
+    public SegmentedArray() {
+        assert wellFormed() : "Invariant failed at end of SegmentedArray constructor.";
+    }
+
+    /**
+     * Gets the number of slots the array can address without growing.
+     *
+     * @return the current capacity.
+     */
+    public int capacity() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) segments.length << SEGMENT_SHIFT);
+    }
+
+    /**
+     * Gets the element at the given index.
+     *
+     * @param index The index to read.
+     * @return the element, or null if it was never written or is beyond the capacity.
+     * @throws IllegalArgumentException if index is negative.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Index cannot be negative: " + index);
+        }
+        Object[][] directory = segments;
+        int s = index >>> SEGMENT_SHIFT;
+        if (s >= directory.length) return null;
+        Object[] segment = directory[s];
+        return segment == null ? null : (E) segment[index & SEGMENT_MASK];
+    }
+
+    /**
+     * Sets the element at the given index, growing the array if needed.
+     *
+     * @param index The index to write.
+     * @param value The new element, may be null.
+     * @throws IllegalArgumentException if index is negative.
+     */
+    public void set(int index, E value) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Index cannot be negative: " + index);
+        }
+        Object[][] directory = segments;
+        int s = index >>> SEGMENT_SHIFT;
+        Object[] segment = s < directory.length ? directory[s] : null;
+        if (segment == null) {
+            if (value == null) return; // Unallocated slots already read as null
+            segment = allocateSegment(s);
+        }
+        segment[index & SEGMENT_MASK] = value;
+    }
+
+    /**
+     * Makes sure the array can address at least minimumCapacity slots.
+     * Only the directory is grown here; segments are still allocated on first write.
+     *
+     * @param minimumCapacity the required capacity.
+     */
+    public void ensureCapacity(int minimumCapacity) {
+        growDirectory((int) (((long) minimumCapacity + SEGMENT_MASK) >>> SEGMENT_SHIFT));
+    }
+
+    /**
+     * Makes sure the directory has room for at least segmentCount segments.
+     *
+     * @param segmentCount the required number of segments.
+     */
+    private synchronized void growDirectory(int segmentCount) {
+        Object[][] directory = segments;
+        if (directory.length >= segmentCount) return;
+
+        // The directory holds one reference per segment, so copying it is cheap
+        int newLength = Math.min(MAX_SEGMENTS, Math.max(segmentCount, directory.length * 2));
+        Object[][] newDirectory = new Object[newLength][];
+        System.arraycopy(directory, 0, newDirectory, 0, directory.length);
+        segments = newDirectory;
+        assert wellFormed() : "Invariant failed at end of growDirectory.";
+    }
+
+    /**
+     * Allocates the segment with the given number, growing the directory first if needed.
+     *
+     * @param s the segment number.
+     * @return the segment, which may have been allocated by another thread.
+     */
+    private synchronized Object[] allocateSegment(int s) {
+        growDirectory(s + 1);
+        Object[][] directory = segments;
+        if (directory[s] == null) {
+            directory[s] = new Object[SEGMENT_SIZE];
+        }
+        return directory[s];
+    }
+
+    /**
+     * Gets the number of segments that have been allocated.
+     *
+     * @return the allocated segment count.
+     */
+    public int allocatedSegments() {
+        int count = 0;
+        for (Object[] segment : segments) {
+            if (segment != null) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,242 @@
+package edu.uwm.cs351;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+/**
+ * ShortestPaths computes the distance from a source vertex to every other vertex along
+ * out-edges, using the delta-stepping algorithm of Meyer and Sanders.
+ *
+ * Vertices waiting to be settled are kept in buckets of width delta by tentative distance.
+ * The lowest non-empty bucket is taken as the frontier, and the out-edges of its vertices are
+ * relaxed in parallel on a ForkJoinPool, reading each edge's weight in the same pass as its
+ * neighbor ID. A relaxation lowers a distance with a compare-and-set, and the improved vertex
+ * goes into the bucket of its new distance. A bucket may be refilled while it is processed,
+ * in which case it is taken again. Distances live in a primitive array indexed by physical ID.
+ *
+ * Edges added without a weight count as 1.0. Weights must not be negative.
+ *
+ * <p>Sources:</p>
+ * <ul>
+ *     <li>U. Meyer, P. Sanders, "Delta-stepping: a parallelizable shortest path algorithm",
+ *     Journal of Algorithms 49(1), 2003.</li>
+ * </ul>
+ *
+ * @param <T> The type of the vertex ID
+ */
+public class ShortestPaths<T extends Comparable<T>> extends GraphKernel<T> {
+    /** The distance given to vertices that cannot be reached from the source. */
+    public static final double UNREACHABLE = Double.POSITIVE_INFINITY;
+
+    /** Frontier entries per leaf task. */
+    private static final int FRONTIER_GRAIN = 64;
+
+    private static final long INFINITE_BITS = Double.doubleToRawLongBits(UNREACHABLE);
+
+    private int bucketsProcessed;
+
+    /**
+     * Creates a shortest path computation over the given graph that runs on the common ForkJoinPool.
+     *
+     * @param graph The graph to search.
+     * @throws IllegalArgumentException if graph is null.
+     */
+    public ShortestPaths(SortledtonGraph<T> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a shortest path computation over the given graph that runs on the given ForkJoinPool.
+     *
+     * @param graph The graph to search.
+     * @param pool  The pool that relaxes the edges.
+     * @throws IllegalArgumentException if graph or pool is null.
+     */
+    public ShortestPaths(SortledtonGraph<T> graph, ForkJoinPool pool) {
+        super(graph, pool);
+    }
+
+    /**
+     * Computes the distances from the given source with delta set to the mean edge weight.
+     *
+     * @param source The ID of the vertex to start from.
+     * @return the distance of every vertex indexed by physical ID, UNREACHABLE for vertices not reached.
+     * @throws IllegalArgumentException if source is null or not in the graph.
+     * @throws IllegalStateException    if an edge has a negative weight.
+     */
+    public double[] run(T source) {
+        snapshot();
+        requireVertex(source, "run");
+        DoubleAdder weights = new DoubleAdder();
+        LongAdder edges = new LongAdder();
+        parallelFor(0, vertexCount, GRAIN, (low, high) -> {
+            double sum = 0;
+            long count = 0;
+            for (int v = low; v < high; v++) {
+                NeighborCursor<T> cursor = cursor(v, Direction.OUT);
+                while (cursor.next()) {
+                    sum += cursor.weight();
+                    count++;
+                }
+            }
+            weights.add(sum);
+            edges.add(count);
+        });
+        double mean = edges.sum() == 0 ? 1.0 : weights.sum() / edges.sum();
+        return run(source, mean > 0 && mean < Double.POSITIVE_INFINITY ? mean : 1.0);
+    }
+
+    /**
+     * Computes the distances from the given source. The graph must not be modified while this runs.
+     *
+     * @param source The ID of the vertex to start from.
+     * @param delta  The width of a bucket. Small values settle vertices in order, like Dijkstra's
+     *               algorithm, while large values relax more edges in parallel, like Bellman-Ford.
+     * @return the distance of every vertex indexed by physical ID, UNREACHABLE for vertices not reached.
+     * @throws IllegalArgumentException if source is null or not in the graph, or delta is not positive and finite.
+     * @throws IllegalStateException    if an edge has a negative weight.
+     */
+    public double[] run(T source, double delta) {
+        if (!(delta > 0 && delta < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException("@run, the parameter, delta, must be positive and finite.");
+        }
+        snapshot();
+        int root = requireVertex(source, "run");
+        int n = vertexCount;
+
+        // Non-negative doubles order the same way as their bits, so the distances are CAS'd as longs
+        AtomicLongArray dist = new AtomicLongArray(n);
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            for (int v = low; v < high; v++) {
+                dist.lazySet(v, INFINITE_BITS);
+            }
+        });
+        dist.set(root, Double.doubleToRawLongBits(0.0));
+
+        Buckets buckets = new Buckets();
+        buckets.add(new long[] { root }, 1);
+        bucketsProcessed = 0;
+
+        while (!buckets.isEmpty()) {
+            Map.Entry<Integer, Bucket> lowest = buckets.pollLowest();
+            int index = lowest.getKey();
+            Bucket frontier = lowest.getValue();
+            double floor = index * delta;
+            bucketsProcessed++;
+
+            parallelFor(0, frontier.size, FRONTIER_GRAIN, (low, high) -> {
+                long[] found = new long[FRONTIER_GRAIN];
+                int count = 0;
+                for (int i = low; i < high; i++) {
+                    int v = frontier.vertices[i];
+                    double dv = Double.longBitsToDouble(dist.get(v));
+                    if (dv < floor) continue; // Settled in an earlier bucket since it was added here
+                    NeighborCursor<T> cursor = cursor(v, Direction.OUT);
+                    while (cursor.next()) {
+                        double weight = cursor.weight();
+                        if (weight < 0) {
+                            throw new IllegalStateException("Delta-stepping needs non-negative weights, found " + weight);
+                        }
+                        int u = physicalIndex(cursor.id());
+                        double du = dv + weight;
+                        if (lowerDistance(dist, u, du)) {
+                            long bucket = (long) Math.min(du / delta, Integer.MAX_VALUE);
+                            if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                            found[count++] = bucket << 32 | u;
+                        }
+                    }
+                }
+                if (count > 0) buckets.add(found, count);
+            });
+        }
+
+        double[] result = new double[n];
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            for (int v = low; v < high; v++) {
+                result[v] = Double.longBitsToDouble(dist.get(v));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Gets the number of buckets the last run processed, counting a bucket again each time
+     * it was refilled.
+     *
+     * @return the number of relaxation steps.
+     */
+    public int getBucketsProcessed() {
+        return bucketsProcessed;
+    }
+
+    /**
+     * Lowers the distance of a vertex if the new one is shorter.
+     *
+     * @return true if this call lowered it.
+     */
+    private static boolean lowerDistance(AtomicLongArray dist, int v, double distance) {
+        long bits = Double.doubleToRawLongBits(distance);
+        long old;
+        do {
+            old = dist.get(v);
+            if (old <= bits) return false;
+        } while (!dist.compareAndSet(v, old, bits));
+        return true;
+    }
+
+    /**
+     * The vertices added to one bucket.
+     */
+    private static final class Bucket {
+        int[] vertices = new int[16];
+        int size;
+
+        void add(int v) {
+            if (size == vertices.length) vertices = Arrays.copyOf(vertices, size * 2);
+            vertices[size++] = v;
+        }
+    }
+
+    /**
+     * The non-empty buckets by index. Tasks hand over their relaxed vertices in one batch,
+     * so the lock is taken once per task rather than once per edge.
+     */
+    private static final class Buckets {
+        private final TreeMap<Integer, Bucket> buckets = new TreeMap<>();
+
+        /**
+         * Adds a batch of vertices, each packed as bucket index << 32 | physical index.
+         * Sorting the batch first means each bucket is looked up once.
+         */
+        synchronized void add(long[] entries, int count) {
+            Arrays.sort(entries, 0, count);
+            int i = 0;
+            while (i < count) {
+                int index = (int) (entries[i] >>> 32);
+                Bucket bucket = buckets.get(index);
+                if (bucket == null) {
+                    bucket = new Bucket();
+                    buckets.put(index, bucket);
+                }
+                for (; i < count && (int) (entries[i] >>> 32) == index; i++) {
+                    bucket.add((int) entries[i]);
+                }
+            }
+        }
+
+        synchronized boolean isEmpty() {
+            return buckets.isEmpty();
+        }
+
+        synchronized Map.Entry<Integer, Bucket> pollLowest() {
+            return buckets.pollFirstEntry();
+        }
+    }
+}
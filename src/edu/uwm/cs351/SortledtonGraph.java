@@ -2,7 +2,8 @@ package edu.uwm.cs351;
 
 import java.util.*;
 import java.util.function.Consumer;
-import java.lang.reflect.Array;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Predicate;
 
 /**
  * SortledtonGraph is the main class for managing the Sortledton graph data structure.
@@ -12,6 +13,19 @@ import java.lang.reflect.Array;
  * This class provides operations for adding and removing vertices and edges, retrieving
  * neighborhoods, and finding intersections between neighborhoods.
  * 
+ * A graph is undirected by default. A directed graph keeps the out-neighbors of each vertex
+ * and, optionally, its in-neighbors; traversals choose between them with {@link Direction}.
+ * 
+ * Edges may carry a weight and values for any registered {@link EdgeProperty}. Both are
+ * stored in primitive columns beside the neighbor IDs and are read by the same scan.
+ * 
+ * A graph has no locks of its own. The read operations (findEdge, getNeighbors, the scans,
+ * intersectNeighbors and the queries built on them) change nothing, so any number of threads
+ * may run them at once; every other method needs the graph to itself. Threads that share a
+ * graph guard it with a {@link java.util.concurrent.locks.ReadWriteLock}, reading under its
+ * read lock and changing the graph under its write lock. The helpers that work on a graph
+ * from another thread take the lock to use from the caller.
+ * 
  * <p>Sources:</p>
  * <ul>
  *     <li>Sortledton C++ implementation by Per Fuchs et al: 
@@ -22,20 +36,209 @@ import java.lang.reflect.Array;
  */
 public class SortledtonGraph<T extends Comparable<T>> {
     // Constants
-    private static final int INITIAL_VECTOR_SIZE = 131072; // Based on authors' implementation
     private static final int BLOCK_SIZE = 128;              // Threshold to switch between Neighborhood types
 
+    /** The default degree at which a neighborhood gains a hash set, see setHashThreshold. */
+    public static final int DEFAULT_HASH_THRESHOLD = 1 << 16;
+
+    /**
+     * The direction of the edges a traversal follows. Both are the same in an undirected graph.
+     */
+    public enum Direction {
+        /** Edges leaving the vertex. */
+        OUT,
+        /** Edges entering the vertex; only available when in-edges are stored. */
+        IN
+    }
+
     // Fields
+    private final boolean directed;                        // Whether insertEdge adds only srcId -> destId
+    private final boolean storeInEdges;                    // Whether directed edges are also kept at destId
     private int vertexCount = 0;
     private HashMap<Integer, Integer> logicalToPhysical;   // Maps logical IDs to physical indices
-    private Integer[] physicalToLogical;                    // Maps physical indices to logical IDs
-    private VertexRecord<T>[] adjacencyIndex;               // Adjacency Index, mapping physical indices to VertexRecords
+    private SegmentedArray<Integer> physicalToLogical;      // Maps physical indices to logical IDs
+    private SegmentedArray<VertexRecord<T>> adjacencyIndex; // Adjacency Index, mapping physical indices to VertexRecords
+    private final List<EdgeProperty> edgeProperties = new ArrayList<>(); // Registered edge property columns
 
     private static Consumer<String> reporter = (s) -> System.out.println("Invariant error: " + s);
     private boolean debug = true; // Set to false to disable invariant checks
+    private GraphMetrics metrics;  // Null unless operations are measured, see setMetrics
+    private FlightRecorderEvents flightRecorderEvents; // Null unless events are emitted, see setFlightRecorderEvents
+    private boolean bloomFilters; // Whether UnrolledSkipLists keep Bloom filters, see setBloomFilters
+    private int hashThreshold = DEFAULT_HASH_THRESHOLD; // See setHashThreshold
+
+    /**
+     * Starts or stops measuring the operations of this graph. While metrics are attached,
+     * insertEdge, deleteEdge, findEdge, the scans and intersectNeighbors record their latency,
+     * and neighborhood conversions, block splits and merges, and index growth are counted.
+     * Without metrics, an operation only tests that they are absent.
+     * Must not be called while other threads use the graph.
+     *
+     * @param metrics Where to record, or null to stop measuring.
+     */
+    public void setMetrics(GraphMetrics metrics) {
+        this.metrics = metrics;
+        attachToNeighborhoods();
+    }
+
+    /**
+     * Gets the metrics operations are recorded in.
+     *
+     * @return the metrics, or null if operations are not measured.
+     */
+    public GraphMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Starts or stops emitting Flight Recorder events for this graph. While events are attached,
+     * operations at or over their threshold, neighborhood conversions, block splits and merges,
+     * and index growth each emit an event with the vertex ID, degree and duration.
+     * Must not be called while other threads use the graph.
+     *
+     * @param events Where to emit, or null to stop emitting.
+     */
+    public void setFlightRecorderEvents(FlightRecorderEvents events) {
+        this.flightRecorderEvents = events;
+        attachToNeighborhoods();
+    }
+
+    /**
+     * Gets the Flight Recorder events this graph emits.
+     *
+     * @return the events, or null if none are emitted.
+     */
+    public FlightRecorderEvents getFlightRecorderEvents() {
+        return flightRecorderEvents;
+    }
+
+    /**
+     * Gives every UnrolledSkipList neighborhood a Bloom filter of its neighbors, or takes them
+     * away. findEdge mostly answers for an absent edge from the filter alone, without searching
+     * the blocks, at a cost of about 10 bits per neighbor in the large neighborhoods; small
+     * ones, kept in a PowerofTwo, are not filtered. Off by default.
+     * Must not be called while other threads use the graph.
+     *
+     * @param enabled Whether to keep filters.
+     */
+    public void setBloomFilters(boolean enabled) {
+        this.bloomFilters = enabled;
+        attachToNeighborhoods();
+    }
+
+    /**
+     * Checks whether large neighborhoods keep Bloom filters.
+     *
+     * @return true if they do.
+     */
+    public boolean hasBloomFilters() {
+        return bloomFilters;
+    }
+
+    /**
+     * Sets the degree at which a neighborhood becomes a {@link HashedUnrolledSkipList}, so that
+     * findEdge on it probes a hash set instead of searching its blocks. It changes back once
+     * the degree falls under half the threshold, so a degree near it does not flip back and forth.
+     * The neighborhoods already in the graph are refitted at once.
+     * Must not be called while other threads use the graph.
+     *
+     * @param threshold The degree, at least twice BLOCK_SIZE; Integer.MAX_VALUE turns hashing off.
+     * @throws IllegalArgumentException if threshold is under 2 * BLOCK_SIZE.
+     */
+    public void setHashThreshold(int threshold) {
+        if (threshold < 2 * BLOCK_SIZE) {
+            throw new IllegalArgumentException("@setHashThreshold, the parameter, threshold, must be at least " + 2 * BLOCK_SIZE + ".");
+        }
+        this.hashThreshold = threshold;
+        for (int i = 0; i < vertexCount; i++) {
+            fitNeighborhoods(adjacencyIndex.get(i));
+        }
+        assert wellFormed() : "Invariant failed at end of setHashThreshold.";
+    }
+
+    /**
+     * Gets the degree at which a neighborhood becomes a HashedUnrolledSkipList.
+     *
+     * @return the threshold.
+     */
+    public int getHashThreshold() {
+        return hashThreshold;
+    }
+
+    /**
+     * Lets every UnrolledSkipList report its block splits and merges to this graph's
+     * metrics and events, and keep a filter if this graph asks for them.
+     */
+    private void attachToNeighborhoods() {
+        for (int i = 0; i < vertexCount; i++) {
+            VertexRecord<T> vertexRecord = adjacencyIndex.get(i);
+            attach(vertexRecord.adjacencySet, vertexRecord.logicalId);
+            if (vertexRecord.inAdjacencySet != null) attach(vertexRecord.inAdjacencySet, vertexRecord.logicalId);
+        }
+    }
+
+    /**
+     * Lets an UnrolledSkipList report its block splits and merges to this graph's metrics and events,
+     * and gives it a filter if this graph asks for them.
+     *
+     * @param neighborhood The neighborhood, of any type.
+     * @param owner        The logical ID of the vertex it belongs to.
+     */
+    private void attach(Neighborhood<T> neighborhood, int owner) {
+        if (neighborhood instanceof UnrolledSkipList) {
+            UnrolledSkipList<T> list = (UnrolledSkipList<T>) neighborhood;
+            list.metrics = metrics;
+            list.events = flightRecorderEvents;
+            list.owner = owner;
+            list.setFiltered(bloomFilters);
+        }
+    }
+
+    /**
+     * Reads the clock if operations are measured or emit events.
+     *
+     * @return the start time of an operation, or 0 if it is not measured.
+     */
+    private long startTimer() {
+        return metrics == null && flightRecorderEvents == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Records the latency of an operation if operations are measured, and emits an event
+     * if it was slow.
+     *
+     * @param operation The operation that completed.
+     * @param start     Its start time, from startTimer.
+     * @param vertexId  The logical ID of the first vertex it worked on.
+     * @param degree    That vertex's degree.
+     */
+    private void stopTimer(GraphMetrics.Operation operation, long start, int vertexId, int degree) {
+        GraphMetrics m = metrics;
+        FlightRecorderEvents e = flightRecorderEvents;
+        if (m == null && e == null) return;
+        long nanos = System.nanoTime() - start;
+        if (m != null) m.record(operation, nanos);
+        if (e != null) e.operation(operation, vertexId, degree, nanos);
+    }
+
+    /**
+     * Records the latency of a scan like {@link #stopTimer}, but only looks up the vertex's
+     * logical ID and degree if operations are measured or events are emitted.
+     *
+     * @param start      Its start time, from startTimer.
+     * @param vertexId   The vertex whose neighbors were scanned.
+     * @param physicalId Its physical index.
+     * @param direction  The direction of the scan.
+     */
+    private void stopScanTimer(long start, T vertexId, int physicalId, Direction direction) {
+        if (metrics == null && flightRecorderEvents == null) return;
+        stopTimer(GraphMetrics.Operation.SCAN_NEIGHBORS, start, vertexId.hashCode(), degree(physicalId, direction));
+    }
 
     /**
-     * Sets the debug mode.
+     * Sets the debug mode. With assertions enabled, each operation then checks the invariant
+     * for the vertices and blocks it touches, in time independent of the size of the graph.
+     * An {@link InvariantSampler} audits the rest regardless of this mode.
      * @param debug true to enable invariant checks, false to disable.
      */
     public void setDebug(boolean debug) {
@@ -49,6 +252,10 @@ public class SortledtonGraph<T extends Comparable<T>> {
 
     /**
      * Checks that the SortledtonGraph invariant is correctly adhered to.
+     * This visits every vertex, so operations only check the vertices they touch with
+     * {@link #wellFormed(Comparable, Comparable)}; the whole graph is checked on construction,
+     * through {@link Spy} and {@link #checkInvariant()}, and a vertex at a time by an
+     * {@link InvariantSampler}.
      * 
      * @return true when in compliance with all listed invariants
      */
@@ -56,9 +263,7 @@ public class SortledtonGraph<T extends Comparable<T>> {
         if (!debug) return true; // Skip invariant checks if debug is disabled
 
         // 1. Check for null data structures
-        if (logicalToPhysical == null || physicalToLogical == null || adjacencyIndex == null) {
-            return report("Data structures for graph must not be null.");
-        }
+        if (!wellFormedShape()) return false;
 
         // 2. Verify logicalToPhysical and physicalToLogical mappings
         for (Map.Entry<Integer, Integer> entry : logicalToPhysical.entrySet()) {
@@ -73,60 +278,227 @@ public class SortledtonGraph<T extends Comparable<T>> {
                 return report("Logical ID " + logicalID + " in logicalToPhysical is not mapped correctly.");
             }
 
-            if (physicalToLogical[physicalIndex] == null || !physicalToLogical[physicalIndex].equals(logicalID)) {
+            if (physicalToLogical.get(physicalIndex) == null || !physicalToLogical.get(physicalIndex).equals(logicalID)) {
                 return report("Mismatch between logicalToPhysical and physicalToLogical for logical ID: " + logicalID);
             }
         }
 
         // 3. Check all entries in adjacencyIndex
         for (int i = 0; i < vertexCount; i++) {
-            VertexRecord<T> ve = adjacencyIndex[i];
-            if (ve != null) {
-                // a. Adjacency set must not be null
-                if (ve.adjacencySet == null) {
-                    return report("Adjacency set is null for vertex at physical index: " + i);
-                }
+            if (adjacencyIndex.get(i) != null && !wellFormedRecord(i)) return false;
+        }
 
-                // b. Adjacency set size must be non-negative
-                if (ve.adjacencySetSize < 0) {
-                    return report("Negative adjacency set size at index " + i);
-                }
+        // 4. Vertex count must match the size of logicalToPhysical
+        if (vertexCount != logicalToPhysical.size()) {
+            return report("Vertex count does not match the number of entries in logicalToPhysical.");
+        }
 
-                // c. Logical ID in VertexRecord must match mapping
-                if (!logicalToPhysical.containsKey(ve.logicalId)) {
-                    return report("Logical ID " + ve.logicalId + " in VertexRecord is not in logicalToPhysical.");
-                }
+        return true;
+    }
 
-                if (!logicalToPhysical.get(ve.logicalId).equals(i)) {
-                    return report("Physical index mismatch for logical ID: " + ve.logicalId);
-                }
+    /**
+     * Checks the invariant where an operation on one vertex may have broken it:
+     * the parts of the graph that are checked in constant time, and that vertex.
+     *
+     * @param id The vertex, which need not exist.
+     * @return true when in compliance with the invariant as far as it was checked
+     */
+    private boolean wellFormed(T id) {
+        return wellFormed(id, null);
+    }
 
-                // d. Adjacency set size must match actual number of neighbors
-                if (ve.adjacencySetSize != ve.adjacencySet.getNeighbors().size()) {
-                    return report("Adjacency set size mismatch for vertex at physical index: " + i);
-                }
-            }
-        }
+    /**
+     * Checks the invariant where an operation on two vertices may have broken it:
+     * the parts of the graph that are checked in constant time, and those vertices.
+     * Takes time proportional to the blocks of their neighborhoods, not to the graph.
+     *
+     * @param id1 The first vertex, which need not exist.
+     * @param id2 The second vertex, which need not exist, or null.
+     * @return true when in compliance with the invariant as far as it was checked
+     */
+    private boolean wellFormed(T id1, T id2) {
+        return wellFormedAt(id1 == null ? null : id1.hashCode(), id2 == null ? null : id2.hashCode());
+    }
 
-        // 4. Vertex count must match the size of logicalToPhysical
+    /**
+     * Checks the invariant where an operation may have broken it, given logical IDs.
+     *
+     * @param logicalID1 The logical ID of the first vertex, which need not exist, or null.
+     * @param logicalID2 The logical ID of the second vertex, which need not exist, or null.
+     * @return true when in compliance with the invariant as far as it was checked
+     */
+    private boolean wellFormedAt(Integer logicalID1, Integer logicalID2) {
+        if (!debug) return true; // Skip invariant checks if debug is disabled
+        if (!wellFormedShape()) return false;
         if (vertexCount != logicalToPhysical.size()) {
             return report("Vertex count does not match the number of entries in logicalToPhysical.");
         }
+        return (logicalID1 == null || wellFormedVertex(logicalID1))
+                && (logicalID2 == null || wellFormedVertex(logicalID2));
+    }
 
+    /**
+     * Checks that the data structures of the graph exist.
+     */
+    private boolean wellFormedShape() {
+        if (logicalToPhysical == null || physicalToLogical == null || adjacencyIndex == null) {
+            return report("Data structures for graph must not be null.");
+        }
         return true;
     }
 
     /**
-     * Constructs a new SortledtonGraph with an empty adjacency index.
+     * Checks one vertex, if it exists: its mappings both ways and its record.
+     *
+     * @param logicalID The logical ID of the vertex.
+     * @return true when in compliance with the invariant for that vertex
+     */
+    private boolean wellFormedVertex(int logicalID) {
+        Integer physicalIndex = logicalToPhysical.get(logicalID);
+        if (physicalIndex == null) return true; // Not in the graph, so nothing to check
+        if (physicalIndex < 0 || physicalIndex >= vertexCount) {
+            return report("Invalid physical index for logical ID: " + logicalID);
+        }
+        if (!Integer.valueOf(logicalID).equals(physicalToLogical.get(physicalIndex))) {
+            return report("Mismatch between logicalToPhysical and physicalToLogical for logical ID: " + logicalID);
+        }
+        if (adjacencyIndex.get(physicalIndex) == null) {
+            return report("Missing vertex record for logical ID: " + logicalID);
+        }
+        return wellFormedRecord(physicalIndex);
+    }
+
+    /**
+     * Audits one vertex in full, regardless of the debug mode: its mappings, its record, and
+     * the internal invariant of each of its neighborhoods, which operations only check near
+     * the blocks they change. Takes time proportional to the degree of the vertex.
+     * Used by {@link InvariantSampler}.
+     *
+     * @param physicalIndex The physical index of the vertex, in [0, getVertexCount()).
+     * @return true when in compliance with the invariant for that vertex
+     */
+    boolean auditVertex(int physicalIndex) {
+        if (!wellFormedShape()) return false;
+        if (physicalIndex < 0 || physicalIndex >= vertexCount) {
+            return report("Audited physical index is out of range: " + physicalIndex);
+        }
+        Integer logicalID = physicalToLogical.get(physicalIndex);
+        if (logicalID == null) {
+            return report("Missing logical ID at physical index: " + physicalIndex);
+        }
+        if (!wellFormedVertex(logicalID)) return false;
+
+        VertexRecord<T> vertexRecord = adjacencyIndex.get(physicalIndex);
+        if (!neighborhoodWellFormed(vertexRecord.adjacencySet)) {
+            return report("Adjacency set is not well formed for vertex at physical index: " + physicalIndex);
+        }
+        if (vertexRecord.inAdjacencySet != null && !neighborhoodWellFormed(vertexRecord.inAdjacencySet)) {
+            return report("In-adjacency set is not well formed for vertex at physical index: " + physicalIndex);
+        }
+        return true;
+    }
+
+    /**
+     * Checks the internal invariant of a neighborhood in full.
+     */
+    private static boolean neighborhoodWellFormed(Neighborhood<?> neighborhood) {
+        if (neighborhood instanceof PowerofTwo) return ((PowerofTwo<?>) neighborhood).checkInvariant();
+        if (neighborhood instanceof UnrolledSkipList) return ((UnrolledSkipList<?>) neighborhood).checkInvariant();
+        return true;
+    }
+
+    /**
+     * Checks the vertex record at a physical index, which must exist.
+     * Neighborhood sizes are counted, not copied, so this takes constant time.
+     *
+     * @param i The physical index.
+     * @return true when in compliance with the invariant for that record
+     */
+    private boolean wellFormedRecord(int i) {
+        VertexRecord<T> ve = adjacencyIndex.get(i);
+
+        // a. Adjacency set must not be null
+        if (ve.adjacencySet == null) {
+            return report("Adjacency set is null for vertex at physical index: " + i);
+        }
+
+        // b. Adjacency set size must be non-negative
+        if (ve.adjacencySetSize < 0) {
+            return report("Negative adjacency set size at index " + i);
+        }
+
+        // c. Logical ID in VertexRecord must match mapping
+        Integer mapped = logicalToPhysical.get(ve.logicalId);
+        if (mapped == null) {
+            return report("Logical ID " + ve.logicalId + " in VertexRecord is not in logicalToPhysical.");
+        }
+
+        if (mapped != i) {
+            return report("Physical index mismatch for logical ID: " + ve.logicalId);
+        }
+
+        // d. Adjacency set size must match actual number of neighbors
+        if (ve.adjacencySetSize != ve.adjacencySet.size()) {
+            return report("Adjacency set size mismatch for vertex at physical index: " + i);
+        }
+
+        // e. In-adjacency set is present exactly when in-edges are stored, and its size must match
+        if ((ve.inAdjacencySet != null) != storeInEdges) {
+            return report("In-adjacency set presence does not match graph mode at physical index: " + i);
+        }
+        if (ve.inAdjacencySet != null && ve.inAdjacencySetSize != ve.inAdjacencySet.size()) {
+            return report("In-adjacency set size mismatch for vertex at physical index: " + i);
+        }
+        return true;
+    }
+
+    /**
+     * Constructs a new undirected SortledtonGraph with an empty adjacency index.
+     * The indices are segmented and allocate their segments on first use.
      */
-    @SuppressWarnings("unchecked")
     public SortledtonGraph() {
-        adjacencyIndex = (VertexRecord<T>[]) new VertexRecord[INITIAL_VECTOR_SIZE];
-        physicalToLogical = new Integer[INITIAL_VECTOR_SIZE];
-        logicalToPhysical = new HashMap<>(INITIAL_VECTOR_SIZE * 2); // Prevent rehashing
+        this(false, false);
+    }
+
+    /**
+     * Constructs a new SortledtonGraph with an empty adjacency index.
+     *
+     * @param directed     true for a directed graph, false for an undirected one.
+     * @param storeInEdges true to also keep the in-neighbors of each vertex of a directed graph.
+     *                     Leaving them out halves the memory, but traversals can then only use
+     *                     {@link Direction#OUT} and deleteVertex must scan every vertex.
+     * @throws IllegalArgumentException if in-edges are requested for an undirected graph.
+     */
+    public SortledtonGraph(boolean directed, boolean storeInEdges) {
+        if (storeInEdges && !directed) {
+            throw new IllegalArgumentException("In-edges can only be stored separately in a directed graph.");
+        }
+        this.directed = directed;
+        this.storeInEdges = storeInEdges;
+        adjacencyIndex = new SegmentedArray<>();
+        physicalToLogical = new SegmentedArray<>();
+        logicalToPhysical = new HashMap<>();
         assert wellFormed() : "Invariant failed at end of SortledtonGraph constructor.";
     }
 
+    /**
+     * Checks whether this graph is directed.
+     *
+     * @return true if edges have a direction, false if the graph is undirected.
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * Checks whether traversals may follow {@link Direction#IN}.
+     *
+     * @return true if the graph is undirected or stores in-edges.
+     */
+    public boolean hasInEdges() {
+        return !directed || storeInEdges;
+    }
+
     /**
      * Getter for vertex count
      * 
@@ -145,6 +517,20 @@ public class SortledtonGraph<T extends Comparable<T>> {
      * @throws IllegalArgumentException if the vertex ID is null or does not exist.
      */
     public List<T> getNeighbors(T vertexId) {
+        return getNeighbors(vertexId, Direction.OUT);
+    }
+
+    /**
+     * Retrieves the neighbors of the given vertex in the given direction.
+     *
+     * @param vertexId  The vertex ID for which to retrieve neighbors.
+     * @param direction Whether to follow out-edges or in-edges.
+     * @return A list of IDs representing the neighbors of the specified vertex,
+     *         or an empty list if the vertex has no neighbors.
+     * @throws IllegalArgumentException if the vertex ID or direction is null, or the vertex does not exist.
+     * @throws IllegalStateException    if in-edges are requested but not stored.
+     */
+    public List<T> getNeighbors(T vertexId, Direction direction) {
         if (vertexId == null) {
             throw new IllegalArgumentException("Vertex ID cannot be null.");
         }
@@ -155,12 +541,12 @@ public class SortledtonGraph<T extends Comparable<T>> {
             throw new IllegalArgumentException("Vertex does not exist: " + vertexId);
         }
 
-        VertexRecord<T> assocVR = adjacencyIndex[physicalID];
+        VertexRecord<T> assocVR = adjacencyIndex.get(physicalID);
         if (assocVR == null || assocVR.adjacencySet == null) {
             throw new IllegalArgumentException("Adjacency set is not initialized for vertex: " + vertexId);
         }
 
-        return assocVR.adjacencySet.getNeighbors();
+        return neighborhood(assocVR, direction).getNeighbors();
     }
 
     /**
@@ -174,8 +560,40 @@ public class SortledtonGraph<T extends Comparable<T>> {
         if (srcId == null || destId == null) {
             throw new IllegalArgumentException("@insertEdge, the parameters, srcID and destID may not be null.");
         }
-        assert wellFormed() : "Invariant failed at start of insertEdge.";
+        assert wellFormed(srcId, destId) : "Invariant failed at start of insertEdge.";
+        insertEdge(srcId, destId, 0.0, false);
+        assert wellFormed(srcId, destId) : "Invariant failed at end of insertEdge.";
+    }
+
+    /**
+     * Inserts a weighted edge between two vertices. Creates vertices automatically if they don't
+     * already exist. If the edge already exists, its weight is replaced.
+     * Edges inserted without a weight have weight 1.0.
+     *
+     * @param srcId  The source vertex ID.
+     * @param destId The destination vertex ID.
+     * @param weight The weight of the edge.
+     * @throws IllegalArgumentException if either ID is null
+     */
+    public void insertEdge(T srcId, T destId, double weight) { 
+        if (srcId == null || destId == null) {
+            throw new IllegalArgumentException("@insertEdge, the parameters, srcID and destID may not be null.");
+        }
+        assert wellFormed(srcId, destId) : "Invariant failed at start of insertEdge.";
+        insertEdge(srcId, destId, weight, true);
+        assert wellFormed(srcId, destId) : "Invariant failed at end of insertEdge.";
+    }
 
+    /**
+     * Inserts an edge, optionally with a weight, in every neighborhood that stores it.
+     *
+     * @param srcId    The source vertex ID, not null.
+     * @param destId   The destination vertex ID, not null.
+     * @param weight   The weight of the edge.
+     * @param weighted Whether to store the weight; if false, weight is ignored.
+     */
+    private void insertEdge(T srcId, T destId, double weight, boolean weighted) {
+        long start = startTimer();
         // Ensure both vertices exist
         int srcLogicalId = srcId.hashCode();
         int destLogicalId = destId.hashCode();
@@ -187,24 +605,46 @@ public class SortledtonGraph<T extends Comparable<T>> {
         int destPhysicalId = logicalToPhysical.get(destLogicalId);
 
         // Update adjacencyIndex for srcId
-        VertexRecord<T> srcRecord = adjacencyIndex[srcPhysicalId];
-        if (!srcRecord.adjacencySet.contains(destId)) { 	// Efficient check
-            srcRecord.adjacencySet.addNeighbor(destId);
+        VertexRecord<T> srcRecord = adjacencyIndex.get(srcPhysicalId);
+        if (addNeighbor(srcRecord.adjacencySet, destId, weight, weighted)) {
             srcRecord.adjacencySetSize++;
         }
 
         // Update adjacencyIndex for destId
-        VertexRecord<T> destRecord = adjacencyIndex[destPhysicalId];
-        if (!destRecord.adjacencySet.contains(srcId)) {	// Efficient check
-            destRecord.adjacencySet.addNeighbor(srcId);
-            destRecord.adjacencySetSize++;
+        VertexRecord<T> destRecord = adjacencyIndex.get(destPhysicalId);
+        if (!directed) {
+            if (addNeighbor(destRecord.adjacencySet, srcId, weight, weighted)) {
+                destRecord.adjacencySetSize++;
+            }
+        } else if (storeInEdges) {
+            if (addNeighbor(destRecord.inAdjacencySet, srcId, weight, weighted)) {
+                destRecord.inAdjacencySetSize++;
+            }
         }
 
         // Check for conversion to UnrolledSkipList
-        if (srcRecord.adjacencySetSize >= BLOCK_SIZE) convertToUnrolledSkipList(srcPhysicalId);
-        if (destRecord.adjacencySetSize >= BLOCK_SIZE) convertToUnrolledSkipList(destPhysicalId);
+        fitNeighborhoods(srcRecord);
+        fitNeighborhoods(destRecord);
+        stopTimer(GraphMetrics.Operation.INSERT_EDGE, start, srcRecord.logicalId, srcRecord.adjacencySetSize);
+    }
 
-        assert wellFormed() : "Invariant failed at end of insertEdge.";
+    /**
+     * Adds a neighbor to a neighborhood, or replaces its weight if it is already there.
+     *
+     * @param neighborhood The neighborhood to add to.
+     * @param id           The neighbor ID.
+     * @param weight       The weight of the edge.
+     * @param weighted     Whether to store the weight; if false, an existing neighbor is left alone.
+     * @return true if the neighbor is new, false if it was already in the neighborhood.
+     */
+    private boolean addNeighbor(Neighborhood<T> neighborhood, T id, double weight, boolean weighted) {
+        boolean isNew = !neighborhood.contains(id); 	// Efficient check
+        if (weighted) {
+            neighborhood.addNeighbor(id, weight);
+        } else if (isNew) {
+            neighborhood.addNeighbor(id);
+        }
+        return isNew;
     }
 
     /**
@@ -219,7 +659,8 @@ public class SortledtonGraph<T extends Comparable<T>> {
     		throw new IllegalArgumentException("@deleteEdge, the parameters, srcID and destID may not be null.");
     	}
 
-    	assert wellFormed() : "Invariant failed at start of deleteEdge.";
+    	assert wellFormed(srcId, destId) : "Invariant failed at start of deleteEdge.";
+    	long start = startTimer();
 
     	// Ensure both vertices exist
     	int srcLogicalId = srcId.hashCode();
@@ -235,12 +676,29 @@ public class SortledtonGraph<T extends Comparable<T>> {
     	int destPhysicalId = destPhysicalIdObj;
 
     	// Retrieve the vertex records
-    	VertexRecord<T> srcRecord = adjacencyIndex[srcPhysicalId];
-    	VertexRecord<T> destRecord = adjacencyIndex[destPhysicalId];
+    	VertexRecord<T> srcRecord = adjacencyIndex.get(srcPhysicalId);
+    	VertexRecord<T> destRecord = adjacencyIndex.get(destPhysicalId);
 
     	Neighborhood<T> srcNeighborhood = srcRecord.adjacencySet;
     	Neighborhood<T> destNeighborhood = destRecord.adjacencySet;
 
+    	if (directed) {
+    		if (!srcNeighborhood.contains(destId)) {
+    			throw new IllegalArgumentException("Attempted to delete a non-existent edge from " + srcId + " to " + destId);
+    		}
+    		srcNeighborhood.removeNeighbor(destId);
+    		srcRecord.adjacencySetSize--;
+    		if (storeInEdges) {
+    			destRecord.inAdjacencySet.removeNeighbor(srcId);
+    			destRecord.inAdjacencySetSize--;
+    		}
+    		fitNeighborhoods(srcRecord);
+    		fitNeighborhoods(destRecord);
+    		stopTimer(GraphMetrics.Operation.DELETE_EDGE, start, srcRecord.logicalId, srcRecord.adjacencySetSize);
+    		assert wellFormed(srcId, destId) : "Invariant failed at end of deleteEdge.";
+    		return;
+    	}
+
     	// Check if the edge actually exists in either neighborhood
     	boolean srcHasDest = srcNeighborhood.contains(destId);
     	boolean destHasSrc = destNeighborhood.contains(srcId);
@@ -272,14 +730,11 @@ public class SortledtonGraph<T extends Comparable<T>> {
         }
 
     	// Check for conversion to PowerOfTwo
-    	if (srcRecord.adjacencySetSize < BLOCK_SIZE) {
-    		convertToPowerofTwo(srcRecord);
-    	}
-    	if (destRecord.adjacencySetSize < BLOCK_SIZE) {
-    		convertToPowerofTwo(destRecord);
-    	}
+    	fitNeighborhoods(srcRecord);
+    	fitNeighborhoods(destRecord);
+    	stopTimer(GraphMetrics.Operation.DELETE_EDGE, start, srcRecord.logicalId, srcRecord.adjacencySetSize);
 
-    	assert wellFormed() : "Invariant failed at end of deleteEdge.";
+    	assert wellFormed(srcId, destId) : "Invariant failed at end of deleteEdge.";
     }
 
     /**
@@ -309,24 +764,24 @@ public class SortledtonGraph<T extends Comparable<T>> {
             throw new IllegalStateException("Vertex already exists: " + id);
         }
 
-        assert wellFormed() : "Invariant failed at start of insertVertex.";
+        assert wellFormed(id) : "Invariant failed at start of insertVertex.";
 
         int physicalIndex = vertexCount;
 
-        ensureCapacity(physicalIndex + 1);
+        ensureCapacity(physicalIndex + 1, logicalID);
 
         // Place the new Vertex in the lp-index and pl-index
         logicalToPhysical.put(logicalID, physicalIndex);
-        physicalToLogical[physicalIndex] = logicalID;
+        physicalToLogical.set(physicalIndex, logicalID);
 
         // Create the vertex record in the adjacency index
         Neighborhood<T> neighborhood = new PowerofTwo<>();
-        VertexRecord<T> entry = new VertexRecord<>(logicalID, neighborhood);
-        adjacencyIndex[physicalIndex] = entry; 
+        VertexRecord<T> entry = new VertexRecord<>(logicalID, neighborhood, storeInEdges ? new PowerofTwo<>() : null);
+        adjacencyIndex.set(physicalIndex, entry); 
 
         vertexCount++;
 
-        assert wellFormed() : "Invariant failed at end of insertVertex.";
+        assert wellFormed(id) : "Invariant failed at end of insertVertex.";
     }
 
     /**
@@ -339,7 +794,7 @@ public class SortledtonGraph<T extends Comparable<T>> {
         if (id == null) {
             throw new IllegalArgumentException("@deleteVertex, the parameter, id, may not be null.");
         }
-        assert wellFormed() : "Invariant failed at start of deleteVertex.";
+        assert wellFormed(id) : "Invariant failed at start of deleteVertex.";
 
         // Retrieve the logical and physical index for the vertex
         int logicalID = id.hashCode();
@@ -350,44 +805,62 @@ public class SortledtonGraph<T extends Comparable<T>> {
         int physicalIndex = physicalIndexObj;
 
         // Retrieve the vertex record
-        VertexRecord<T> vertexRecord = adjacencyIndex[physicalIndex];
+        VertexRecord<T> vertexRecord = adjacencyIndex.get(physicalIndex);
 
         // Remove all edges associated with the vertex
         List<T> neighbors = new ArrayList<>(vertexRecord.adjacencySet.getNeighbors()); // To avoid ConcurrentModificationException
         for (T neighbor : neighbors) {
             deleteEdge(id, neighbor); // Handles adjacency set updates
         }
+        if (storeInEdges) {
+            for (T neighbor : vertexRecord.inAdjacencySet.getNeighbors()) {
+                deleteEdge(neighbor, id);
+            }
+        } else if (directed) {
+            // Without in-edges, the only way to find edges into this vertex is to check every vertex
+            for (int i = 0; i < vertexCount; i++) {
+                VertexRecord<T> other = adjacencyIndex.get(i);
+                if (other.adjacencySet.contains(id)) {
+                    other.adjacencySet.removeNeighbor(id);
+                    other.adjacencySetSize--;
+                    fitNeighborhoods(other);
+                    assert wellFormedAt(other.logicalId, null) : "Invariant failed while deleting in-edges in deleteVertex.";
+                }
+            }
+        }
 
         // Remove the vertex from mappings
         logicalToPhysical.remove(logicalID);
-        adjacencyIndex[physicalIndex] = null;
-        physicalToLogical[physicalIndex] = null;
+        adjacencyIndex.set(physicalIndex, null);
+        physicalToLogical.set(physicalIndex, null);
 
         // Swap the last vertex into the deleted slot if it's not the last one
         int lastPhysicalIndex = vertexCount - 1;
+        Integer movedLogicalID = null;
         if (physicalIndex != lastPhysicalIndex) {
             // Retrieve the logical ID of the last vertex
-            Integer lastLogicalID = physicalToLogical[lastPhysicalIndex];
+            Integer lastLogicalID = physicalToLogical.get(lastPhysicalIndex);
             if (lastLogicalID == null) {
                 throw new IllegalStateException("Last physical index does not have a logical ID.");
             }
 
             // Swap in the adjacency index
-            adjacencyIndex[physicalIndex] = adjacencyIndex[lastPhysicalIndex];
-            adjacencyIndex[lastPhysicalIndex] = null;
+            adjacencyIndex.set(physicalIndex, adjacencyIndex.get(lastPhysicalIndex));
+            adjacencyIndex.set(lastPhysicalIndex, null);
 
             // Update the physicalToLogical mapping
-            physicalToLogical[physicalIndex] = lastLogicalID;
-            physicalToLogical[lastPhysicalIndex] = null;
+            physicalToLogical.set(physicalIndex, lastLogicalID);
+            physicalToLogical.set(lastPhysicalIndex, null);
 
             // Update the logicalToPhysical mapping for the moved vertex
             logicalToPhysical.put(lastLogicalID, physicalIndex);
+            movedLogicalID = lastLogicalID;
         }
 
         // Decrement the vertex count
         vertexCount--;
 
-        assert wellFormed() : "Invariant failed at end of deleteVertex.";
+        assert wellFormedAt(logicalID, movedLogicalID) : "Invariant failed at end of deleteVertex.";
     }
 
     /**
@@ -402,25 +875,47 @@ public class SortledtonGraph<T extends Comparable<T>> {
         if (srcId == null) {
             throw new IllegalArgumentException("@findEdge, the parameter, srcId, may not be null.");
         }
-        assert wellFormed() : "Invariant failed at start of findEdge.";
+        assert wellFormed(srcId) : "Invariant failed at start of findEdge.";
+        long start = startTimer();
 
         // Check if the source vertex exists
         Integer srcPhysicalId = logicalToPhysical.get(srcId.hashCode());
         if (srcPhysicalId == null) {
+            stopTimer(GraphMetrics.Operation.FIND_EDGE, start, srcId.hashCode(), 0);
             return false; // Source vertex does not exist
         }
 
         // Retrieve the source vertex's record
-        VertexRecord<T> srcRecord = adjacencyIndex[srcPhysicalId];
+        VertexRecord<T> srcRecord = adjacencyIndex.get(srcPhysicalId);
 
         // Check if the destination vertex exists in the source's neighborhood
         boolean edgeExists = srcRecord.adjacencySet.contains(destId); // Efficient check
+        stopTimer(GraphMetrics.Operation.FIND_EDGE, start, srcRecord.logicalId, srcRecord.adjacencySetSize);
 
-        assert wellFormed() : "Invariant failed at end of findEdge.";
+        assert wellFormed(srcId) : "Invariant failed at end of findEdge.";
 
         return edgeExists;
     }
 
+    /**
+     * Gets the weight of an edge.
+     *
+     * @param srcId  The source vertex ID.
+     * @param destId The destination vertex ID.
+     * @return the weight of the edge, or 1.0 if it was inserted without one.
+     * @throws IllegalArgumentException if either ID is null or the edge does not exist.
+     */
+    public double getEdgeWeight(T srcId, T destId) {
+        if (srcId == null || destId == null) {
+            throw new IllegalArgumentException("@getEdgeWeight, the parameters, srcID and destID may not be null.");
+        }
+        Integer srcPhysicalId = logicalToPhysical.get(srcId.hashCode());
+        if (srcPhysicalId == null || !adjacencyIndex.get(srcPhysicalId).adjacencySet.contains(destId)) {
+            throw new IllegalArgumentException("No edge from " + srcId + " to " + destId);
+        }
+        return adjacencyIndex.get(srcPhysicalId).adjacencySet.getWeight(destId);
+    }
+
     /**
      * Processes all neighbors of a given vertex using the provided action.
      *
@@ -429,10 +924,24 @@ public class SortledtonGraph<T extends Comparable<T>> {
      * @throws IllegalArgumentException if the vertex does not exist.
      */
     public void scanNeighbors(T vertexId, Consumer<T> action) {
+        scanNeighbors(vertexId, Direction.OUT, action);
+    }
+
+    /**
+     * Processes all neighbors of a given vertex in the given direction using the provided action.
+     *
+     * @param vertexId  The ID of the vertex whose neighbors are to be scanned.
+     * @param direction Whether to follow out-edges or in-edges.
+     * @param action    The action to perform on each neighbor.
+     * @throws IllegalArgumentException if the vertex does not exist.
+     * @throws IllegalStateException    if in-edges are requested but not stored.
+     */
+    public void scanNeighbors(T vertexId, Direction direction, Consumer<T> action) {
         if (vertexId == null) {
             throw new IllegalArgumentException("vertexId cannot be null.");
         }
-        assert wellFormed() : "Invariant failed at start of scanNeighbors.";
+        assert wellFormed(vertexId) : "Invariant failed at start of scanNeighbors.";
+        long start = startTimer();
 
         // Retrieve the physical ID for the vertex
         Integer physicalId = logicalToPhysical.get(vertexId.hashCode());
@@ -440,17 +949,220 @@ public class SortledtonGraph<T extends Comparable<T>> {
             throw new IllegalArgumentException("Vertex does not exist: " + vertexId);
         }
 
-        // Retrieve the adjacency set
-        VertexRecord<T> vertexRecord = adjacencyIndex[physicalId];
+        // Process each neighbor in place, without copying the neighborhood
+        NeighborCursor<T> cursor = neighborhood(adjacencyIndex.get(physicalId), direction).cursor();
+        while (cursor.next()) {
+            action.accept(cursor.id());
+        }
+        stopScanTimer(start, vertexId, physicalId, direction);
+
+        assert wellFormed(vertexId) : "Invariant failed at end of scanNeighbors.";
+    }
+
+
+    /**
+     * Processes all neighbors of a given vertex in the given direction together with the
+     * weights of the edges to them. Weights are read in the same pass as the neighbors.
+     *
+     * @param vertexId  The ID of the vertex whose neighbors are to be scanned.
+     * @param direction Whether to follow out-edges or in-edges.
+     * @param action    The action to perform on each neighbor and edge weight.
+     * @throws IllegalArgumentException if the vertex does not exist.
+     * @throws IllegalStateException    if in-edges are requested but not stored.
+     */
+    public void scanWeightedNeighbors(T vertexId, Direction direction, ObjDoubleConsumer<T> action) {
+        if (vertexId == null) {
+            throw new IllegalArgumentException("vertexId cannot be null.");
+        }
+        assert wellFormed(vertexId) : "Invariant failed at start of scanWeightedNeighbors.";
+        long start = startTimer();
+
+        Integer physicalId = logicalToPhysical.get(vertexId.hashCode());
+        if (physicalId == null) {
+            throw new IllegalArgumentException("Vertex does not exist: " + vertexId);
+        }
+
+        NeighborCursor<T> cursor = neighborhood(adjacencyIndex.get(physicalId), direction).cursor();
+        while (cursor.next()) {
+            action.accept(cursor.id(), cursor.weight());
+        }
+        stopScanTimer(start, vertexId, physicalId, direction);
+
+        assert wellFormed(vertexId) : "Invariant failed at end of scanWeightedNeighbors.";
+    }
+
+    /**
+     * Processes the neighbors of a given vertex in the given direction whose edges pass a filter.
+     * The filter sees the edge through the scan's cursor, so it can test the edge's weight and
+     * property values in place, e.g. {@code c -> c.longProperty(label) == FOLLOWS}.
+     *
+     * @param vertexId  The ID of the vertex whose neighbors are to be scanned.
+     * @param direction Whether to follow out-edges or in-edges.
+     * @param filter    Which edges to keep, tested at the cursor's current position.
+     * @param action    The action to perform on each neighbor that is kept.
+     * @throws IllegalArgumentException if the vertex does not exist.
+     * @throws IllegalStateException    if in-edges are requested but not stored.
+     */
+    public void scanNeighbors(T vertexId, Direction direction, Predicate<NeighborCursor<T>> filter, Consumer<T> action) {
+        if (vertexId == null) {
+            throw new IllegalArgumentException("vertexId cannot be null.");
+        }
+        assert wellFormed(vertexId) : "Invariant failed at start of scanNeighbors.";
+        long start = startTimer();
+
+        Integer physicalId = logicalToPhysical.get(vertexId.hashCode());
+        if (physicalId == null) {
+            throw new IllegalArgumentException("Vertex does not exist: " + vertexId);
+        }
+
+        NeighborCursor<T> cursor = neighborhood(adjacencyIndex.get(physicalId), direction).cursor();
+        while (cursor.next()) {
+            if (filter.test(cursor)) action.accept(cursor.id());
+        }
+        stopScanTimer(start, vertexId, physicalId, direction);
+
+        assert wellFormed(vertexId) : "Invariant failed at end of scanNeighbors.";
+    }
+
+    /**
+     * Registers a new edge property column. Every existing and future edge reads
+     * as 0 for it until a value is set.
+     *
+     * @param name The name of the property.
+     * @param type The primitive type of its values.
+     * @return the handle used to set, read and filter on the property.
+     * @throws IllegalArgumentException if name or type is null, or name is already registered.
+     */
+    public EdgeProperty registerEdgeProperty(String name, EdgeProperty.Type type) {
+        if (name == null || type == null) {
+            throw new IllegalArgumentException("@registerEdgeProperty, the parameters, name and type, may not be null.");
+        }
+        if (getEdgeProperty(name) != null) {
+            throw new IllegalArgumentException("Edge property already registered: " + name);
+        }
+        EdgeProperty property = new EdgeProperty(name, type, edgeProperties.size());
+        edgeProperties.add(property);
+        return property;
+    }
+
+    /**
+     * Looks up a registered edge property by name.
+     *
+     * @param name The name of the property.
+     * @return the property, or null if no property has that name.
+     */
+    public EdgeProperty getEdgeProperty(String name) {
+        for (EdgeProperty property : edgeProperties) {
+            if (property.getName().equals(name)) return property;
+        }
+        return null;
+    }
+
+    /**
+     * Sets an INT or LONG property of an edge, in every neighborhood that stores the edge.
+     *
+     * @param srcId    The source vertex ID.
+     * @param destId   The destination vertex ID.
+     * @param property A property registered on this graph.
+     * @param value    The new value.
+     * @throws IllegalArgumentException if an argument is null, the property is not registered
+     *                                  on this graph, or the edge does not exist.
+     */
+    public void setEdgeProperty(T srcId, T destId, EdgeProperty property, long value) {
+        writeEdgeProperty(srcId, destId, property, checkProperty(property).encode(value));
+    }
+
+    /**
+     * Sets a DOUBLE property of an edge, in every neighborhood that stores the edge.
+     *
+     * @param srcId    The source vertex ID.
+     * @param destId   The destination vertex ID.
+     * @param property A property registered on this graph.
+     * @param value    The new value.
+     * @throws IllegalArgumentException if an argument is null, the property is not registered
+     *                                  on this graph, or the edge does not exist.
+     */
+    public void setEdgeProperty(T srcId, T destId, EdgeProperty property, double value) {
+        writeEdgeProperty(srcId, destId, property, checkProperty(property).encode(value));
+    }
 
-        // Process each neighbor
-        for (T neighbor : vertexRecord.adjacencySet.getNeighbors()) {
-            action.accept(neighbor);
+    /**
+     * Writes the stored bits of a property in every neighborhood that stores the edge.
+     */
+    private void writeEdgeProperty(T srcId, T destId, EdgeProperty property, long bits) {
+        if (srcId == null || destId == null) {
+            throw new IllegalArgumentException("@setEdgeProperty, the parameters, srcID and destID may not be null.");
+        }
+        Integer srcPhysicalId = logicalToPhysical.get(srcId.hashCode());
+        Integer destPhysicalId = logicalToPhysical.get(destId.hashCode());
+        if (srcPhysicalId == null || destPhysicalId == null
+                || !adjacencyIndex.get(srcPhysicalId).adjacencySet.setProperty(destId, property, bits)) {
+            throw new IllegalArgumentException("No edge from " + srcId + " to " + destId);
+        }
+        VertexRecord<T> destRecord = adjacencyIndex.get(destPhysicalId);
+        if (!directed) {
+            destRecord.adjacencySet.setProperty(srcId, property, bits);
+        } else if (storeInEdges) {
+            destRecord.inAdjacencySet.setProperty(srcId, property, bits);
         }
+    }
 
-        assert wellFormed() : "Invariant failed at end of scanNeighbors.";
+    /**
+     * Gets an INT or LONG property of an edge.
+     *
+     * @param srcId    The source vertex ID.
+     * @param destId   The destination vertex ID.
+     * @param property A property registered on this graph.
+     * @return the value, or 0 if it was never set.
+     * @throws IllegalArgumentException if an argument is null, the property is not registered
+     *                                  on this graph, or the edge does not exist.
+     */
+    public long getEdgeProperty(T srcId, T destId, EdgeProperty property) {
+        return checkProperty(property).asLong(getEdgePropertyBits(srcId, destId, property));
     }
 
+    /**
+     * Gets a DOUBLE property of an edge.
+     *
+     * @param srcId    The source vertex ID.
+     * @param destId   The destination vertex ID.
+     * @param property A property registered on this graph.
+     * @return the value, or 0.0 if it was never set.
+     * @throws IllegalArgumentException if an argument is null, the property is not registered
+     *                                  on this graph, or the edge does not exist.
+     */
+    public double getDoubleEdgeProperty(T srcId, T destId, EdgeProperty property) {
+        return checkProperty(property).asDouble(getEdgePropertyBits(srcId, destId, property));
+    }
+
+    /**
+     * Reads the stored bits of a property from the source's neighborhood.
+     */
+    private long getEdgePropertyBits(T srcId, T destId, EdgeProperty property) {
+        if (srcId == null || destId == null) {
+            throw new IllegalArgumentException("@getEdgeProperty, the parameters, srcID and destID may not be null.");
+        }
+        Integer srcPhysicalId = logicalToPhysical.get(srcId.hashCode());
+        if (srcPhysicalId == null || !adjacencyIndex.get(srcPhysicalId).adjacencySet.contains(destId)) {
+            throw new IllegalArgumentException("No edge from " + srcId + " to " + destId);
+        }
+        return adjacencyIndex.get(srcPhysicalId).adjacencySet.getProperty(destId, property);
+    }
+
+    /**
+     * Makes sure a property was registered on this graph.
+     *
+     * @param property The property to check.
+     * @return the property.
+     * @throws IllegalArgumentException if the property is null or belongs to another graph.
+     */
+    private EdgeProperty checkProperty(EdgeProperty property) {
+        if (property == null || property.column() >= edgeProperties.size()
+                || edgeProperties.get(property.column()) != property) {
+            throw new IllegalArgumentException("Edge property is not registered on this graph: " + property);
+        }
+        return property;
+    }
 
     /**
      * Finds the intersection of neighbors between two vertices.
@@ -464,6 +1176,7 @@ public class SortledtonGraph<T extends Comparable<T>> {
         if (v1Id == null || v2Id == null) {
             throw new IllegalArgumentException("Vertex IDs cannot be null.");
         }
+        long start = startTimer();
 
         // Retrieve physical IDs for both vertices
         Integer v1PhysicalId = logicalToPhysical.get(v1Id.hashCode());
@@ -474,10 +1187,13 @@ public class SortledtonGraph<T extends Comparable<T>> {
         }
 
         // Retrieve the neighborhoods of both vertices
-        Neighborhood<T> v1Neighborhood = adjacencyIndex[v1PhysicalId].adjacencySet;
-        Neighborhood<T> v2Neighborhood = adjacencyIndex[v2PhysicalId].adjacencySet;
+        VertexRecord<T> v1Record = adjacencyIndex.get(v1PhysicalId);
+        Neighborhood<T> v1Neighborhood = v1Record.adjacencySet;
+        Neighborhood<T> v2Neighborhood = adjacencyIndex.get(v2PhysicalId).adjacencySet;
 
-        return v1Neighborhood.intersect(v2Neighborhood);
+        List<T> intersection = v1Neighborhood.intersect(v2Neighborhood);
+        stopTimer(GraphMetrics.Operation.INTERSECT_NEIGHBORS, start, v1Record.logicalId, v1Record.adjacencySetSize);
+        return intersection;
     }
 
     /**
@@ -507,85 +1223,313 @@ public class SortledtonGraph<T extends Comparable<T>> {
         if (physicalID < 0 || physicalID >= vertexCount) {
             throw new IllegalArgumentException("Physical ID out of bounds: " + physicalID);
         }
-        return physicalToLogical[physicalID];
+        return physicalToLogical.get(physicalID);
+    }
+
+    /**
+     * Returns the physical index of a vertex, inserting the vertex first if it does not exist.
+     * Used by {@link BulkLoader} to assign physical IDs in the order insertEdge would.
+     *
+     * @param id The vertex ID, must not be null.
+     * @return the physical index of the vertex.
+     */
+    int physicalIndexFor(T id) {
+        Integer physicalIndex = logicalToPhysical.get(id.hashCode());
+        if (physicalIndex == null) {
+            insertVertex(id);
+            return vertexCount - 1;
+        }
+        return physicalIndex;
+    }
+
+    /**
+     * Adds a run of neighbors to the vertex at the given physical index, then picks the
+     * Neighborhood type for its new size. Only that vertex's neighborhood for the given
+     * direction is touched, so {@link BulkLoader} may load distinct ones concurrently.
+     *
+     * @param physicalIndex The physical index of the vertex.
+     * @param direction     Whether the run holds out-neighbors or in-neighbors.
+     * @param sorted        Neighbor IDs in natural order; duplicates keep their first occurrence.
+     * @param from          The first index of the run (inclusive).
+     * @param to            The last index of the run (exclusive).
+     */
+    @SuppressWarnings("unchecked")
+    void loadNeighbors(int physicalIndex, Direction direction, Object[] sorted, int from, int to) {
+        VertexRecord<T> vertexRecord = adjacencyIndex.get(physicalIndex);
+        boolean in = directed && direction == Direction.IN;
+        Neighborhood<T> neighborhood = neighborhood(vertexRecord, direction);
+        int size = in ? vertexRecord.inAdjacencySetSize : vertexRecord.adjacencySetSize;
+
+        // A fresh hub goes straight into an UnrolledSkipList instead of being converted later
+        if (size == 0 && to - from >= BLOCK_SIZE) {
+            neighborhood = convertToUnrolledSkipList(neighborhood, vertexRecord.logicalId, 0);
+        }
+
+        T previous = null;
+        for (int i = from; i < to; i++) {
+            T neighbor = (T) sorted[i];
+            if (previous != null && previous.compareTo(neighbor) == 0) continue; // Duplicate edge
+            previous = neighbor;
+            if (!neighborhood.contains(neighbor)) {
+                neighborhood.addNeighbor(neighbor);
+                size++;
+            }
+        }
+
+        // Only this direction is refitted, so the other one may be loaded at the same time
+        neighborhood = fit(neighborhood, vertexRecord.logicalId, size);
+        if (in) {
+            vertexRecord.inAdjacencySet = neighborhood;
+            vertexRecord.inAdjacencySetSize = size;
+        } else {
+            vertexRecord.adjacencySet = neighborhood;
+            vertexRecord.adjacencySetSize = size;
+        }
+    }
+
+    /**
+     * Opens an in-place cursor over a neighborhood of the vertex at the given physical index.
+     * Used by the analytics kernels, which work on physical IDs.
+     *
+     * @param physicalIndex The physical index of the vertex, in [0, getVertexCount()).
+     * @param direction     Whether to follow out-edges or in-edges.
+     * @return a cursor positioned before the first neighbor.
+     * @throws IllegalStateException if in-edges are requested but not stored.
+     */
+    NeighborCursor<T> cursor(int physicalIndex, Direction direction) {
+        return neighborhood(adjacencyIndex.get(physicalIndex), direction).cursor();
+    }
+
+    /**
+     * Gets a neighborhood of the vertex at the given physical index, for {@link StructureReport}
+     * and {@link BlockCompactor}.
+     *
+     * @param physicalIndex The physical index of the vertex, in [0, getVertexCount()).
+     * @param direction     Whether to follow out-edges or in-edges.
+     * @return the neighborhood.
+     * @throws IllegalStateException if in-edges are requested but not stored.
+     */
+    Neighborhood<T> neighborhood(int physicalIndex, Direction direction) {
+        return neighborhood(adjacencyIndex.get(physicalIndex), direction);
+    }
+
+    /**
+     * Checks if in-edges are kept in a neighborhood of their own.
+     *
+     * @return true if the graph is directed and stores in-edges.
+     */
+    boolean storesInEdges() {
+        return storeInEdges;
+    }
+
+    /**
+     * Gets the size of a neighborhood of the vertex at the given physical index.
+     *
+     * @param physicalIndex The physical index of the vertex, in [0, getVertexCount()).
+     * @param direction     Whether to count out-edges or in-edges.
+     * @return the number of neighbors in that direction.
+     */
+    int degree(int physicalIndex, Direction direction) {
+        VertexRecord<T> vertexRecord = adjacencyIndex.get(physicalIndex);
+        return directed && direction == Direction.IN ? vertexRecord.inAdjacencySetSize : vertexRecord.adjacencySetSize;
+    }
+
+    /**
+     * Checks the invariant on behalf of other classes in this package.
+     *
+     * @return true when in compliance with all listed invariants
+     */
+    boolean checkInvariant() {
+        return wellFormed();
     }
 
     /**
      * Changes the current capacity of the pl-index and adjacency index, if needed.
      *
      * @param minimumCapacity the new capacity for these fields
+     * @param vertexId        the logical ID of the vertex that needs the room, for reporting
      * @postcondition The capacities have been changed to at least minimumCapacity.
-     *                If the capacity was already at or greater than minimumCapacity,
-     *                then the capacity is left unchanged.
-     *                If the capacity is changed, it must be at least twice as big as before.
-     * @exception OutOfMemoryError Indicates insufficient memory for: new array of minimumCapacity elements.
+     *                Growing appends segments, so existing entries are never copied.
      **/
-    @SuppressWarnings("unchecked")
-    private void ensureCapacity(int minimumCapacity) {
-        if (adjacencyIndex.length < minimumCapacity) {
-            // Determine the new length (at least twice as big as before)
-            int newLength = adjacencyIndex.length * 2;
-            if (minimumCapacity > newLength) {
-                newLength = minimumCapacity;
-            }
+    private void ensureCapacity(int minimumCapacity, int vertexId) {
+        int capacity = adjacencyIndex.capacity();
+        long start = startTimer();
+        adjacencyIndex.ensureCapacity(minimumCapacity);
+        physicalToLogical.ensureCapacity(minimumCapacity);
+        int newCapacity = adjacencyIndex.capacity();
+        if (newCapacity == capacity) return;
+        GraphMetrics m = metrics;
+        if (m != null) m.count(GraphMetrics.Event.INDEX_GROWTH);
+        FlightRecorderEvents e = flightRecorderEvents;
+        if (e != null) e.indexGrowth(vertexId, newCapacity, System.nanoTime() - start);
+    }
 
-            // Resize the adjacencyIndex array
-            VertexRecord<T>[] newAdjacencyIndex = (VertexRecord<T>[]) new VertexRecord[newLength];
-            System.arraycopy(adjacencyIndex, 0, newAdjacencyIndex, 0, adjacencyIndex.length);
-            adjacencyIndex = newAdjacencyIndex;
+    /**
+     * Selects the neighborhood of a vertex record that follows the given direction.
+     *
+     * @param vertexRecord The record of the vertex.
+     * @param direction    Whether to follow out-edges or in-edges.
+     * @return the neighborhood for that direction.
+     * @throws IllegalArgumentException if direction is null.
+     * @throws IllegalStateException    if in-edges are requested but not stored.
+     */
+    private Neighborhood<T> neighborhood(VertexRecord<T> vertexRecord, Direction direction) {
+        if (direction == null) {
+            throw new IllegalArgumentException("Direction cannot be null.");
+        }
+        if (direction == Direction.OUT || !directed) return vertexRecord.adjacencySet;
+        if (!storeInEdges) {
+            throw new IllegalStateException("This graph does not store in-edges.");
+        }
+        return vertexRecord.inAdjacencySet;
+    }
 
-            // Resize the physicalToLogical array
-            Integer[] newPhysicalToLogical = new Integer[newLength];
-            System.arraycopy(physicalToLogical, 0, newPhysicalToLogical, 0, physicalToLogical.length);
-            physicalToLogical = newPhysicalToLogical;
+    /**
+     * Picks the Neighborhood type of each of a vertex's neighborhoods for its current size.
+     *
+     * @param vertexRecord The VertexRecord of the vertex in the adjacency index.
+     */
+    private void fitNeighborhoods(VertexRecord<T> vertexRecord) {
+        int owner = vertexRecord.logicalId;
+        vertexRecord.adjacencySet = fit(vertexRecord.adjacencySet, owner, vertexRecord.adjacencySetSize);
+        if (vertexRecord.inAdjacencySet == null) return;
+        vertexRecord.inAdjacencySet = fit(vertexRecord.inAdjacencySet, owner, vertexRecord.inAdjacencySetSize);
+    }
+
+    /**
+     * Picks the Neighborhood type for a size: a HashedUnrolledSkipList at or above the hash
+     * threshold (and down to half of it once hashed), an UnrolledSkipList at or above
+     * BLOCK_SIZE, a PowerofTwo below it.
+     *
+     * @param neighborhood The neighborhood.
+     * @param owner        The logical ID of the vertex it belongs to.
+     * @param size         The number of neighbors in it.
+     * @return the neighborhood, converted if its type does not fit.
+     */
+    private Neighborhood<T> fit(Neighborhood<T> neighborhood, int owner, int size) {
+        boolean hashed = neighborhood instanceof HashedUnrolledSkipList;
+        if (size >= hashThreshold || (hashed && size >= hashThreshold / 2)) {
+            return convertToHashedUnrolledSkipList(neighborhood, owner, size);
         }
+        if (size >= BLOCK_SIZE) return convertToUnrolledSkipList(neighborhood, owner, size);
+        return convertToPowerofTwo(neighborhood, owner, size);
     }
 
     /**
-     * Converts the Neighborhood of a given vertex from PowerOfTwo to an UnrolledSkipList if 
+     * Converts a Neighborhood from PowerOfTwo to an UnrolledSkipList if 
      * its size exceeds the threshold, BLOCK_SIZE (as checked and called elsewhere).
      *
-     * @param physicalIndex The physical index of the vertex in the adjacency index.
+     * @param currentNeighborhood The neighborhood to convert.
+     * @param owner               The logical ID of the vertex it belongs to.
+     * @param size                The number of neighbors in it.
+     * @return the converted neighborhood, or currentNeighborhood if it already is an UnrolledSkipList.
      */
-    private void convertToUnrolledSkipList(int physicalIndex) {
-        VertexRecord<T> vertexRecord = adjacencyIndex[physicalIndex];
-        Neighborhood<T> currentNeighborhood = vertexRecord.adjacencySet;
-
-        // If already an UnrolledSkipList, no conversion needed
-        if (currentNeighborhood instanceof UnrolledSkipList) {
-            return;
+    private Neighborhood<T> convertToUnrolledSkipList(Neighborhood<T> currentNeighborhood, int owner, int size) {
+        // If already a plain UnrolledSkipList, no conversion needed
+        if (currentNeighborhood instanceof UnrolledSkipList && !(currentNeighborhood instanceof HashedUnrolledSkipList)) {
+            return currentNeighborhood;
         }
 
-        // Create a new UnrolledSkipList and transfer neighbors
-        UnrolledSkipList<T> newNeighborhood = new UnrolledSkipList<>();
-        for (T neighbor : currentNeighborhood.getNeighbors()) {
-            newNeighborhood.addNeighbor(neighbor);
+        // Create a new UnrolledSkipList and transfer neighbors; a hashed one hands over its blocks
+        long start = startTimer();
+        UnrolledSkipList<T> newNeighborhood;
+        if (currentNeighborhood instanceof HashedUnrolledSkipList) {
+            newNeighborhood = new UnrolledSkipList<>((UnrolledSkipList<T>) currentNeighborhood);
+        } else {
+            newNeighborhood = new UnrolledSkipList<>();
+            copyNeighbors(currentNeighborhood, newNeighborhood, edgeProperties);
         }
+        attach(newNeighborhood, owner);
+        GraphMetrics m = metrics;
+        if (m != null) m.count(GraphMetrics.Event.CONVERSION_TO_UNROLLED_SKIP_LIST);
+        FlightRecorderEvents e = flightRecorderEvents;
+        if (e != null) e.conversion(owner, size, System.nanoTime() - start, "UnrolledSkipList");
 
-        vertexRecord.adjacencySet = newNeighborhood;
+        return newNeighborhood;
     }
 
     /**
-     * Converts the Neighborhood of a given vertex to a PowerOfTwo if its size falls below 
-     * the threshold, BLOCK_SIZE (as checked and called in deleteEdge)
+     * Converts a Neighborhood to a HashedUnrolledSkipList if its size reaches the hash threshold
+     * (as checked and called elsewhere). An UnrolledSkipList hands over its blocks, so only
+     * the hash set is built.
      *
-     * @param vertexRecord The VertexRecord of the vertex in the adjacency index.
+     * @param currentNeighborhood The neighborhood to convert.
+     * @param owner               The logical ID of the vertex it belongs to.
+     * @param size                The number of neighbors in it.
+     * @return the converted neighborhood, or currentNeighborhood if it already is a HashedUnrolledSkipList.
      */
-    private void convertToPowerofTwo(VertexRecord<T> vertexRecord) {
-        Neighborhood<T> currentNeighborhood = vertexRecord.adjacencySet;
+    private Neighborhood<T> convertToHashedUnrolledSkipList(Neighborhood<T> currentNeighborhood, int owner, int size) {
+        if (currentNeighborhood instanceof HashedUnrolledSkipList) {
+            return currentNeighborhood;
+        }
+
+        long start = startTimer();
+        HashedUnrolledSkipList<T> newNeighborhood;
+        if (currentNeighborhood instanceof UnrolledSkipList) {
+            newNeighborhood = new HashedUnrolledSkipList<>((UnrolledSkipList<T>) currentNeighborhood);
+        } else {
+            newNeighborhood = new HashedUnrolledSkipList<>();
+            copyNeighbors(currentNeighborhood, newNeighborhood, edgeProperties);
+        }
+        attach(newNeighborhood, owner);
+        GraphMetrics m = metrics;
+        if (m != null) m.count(GraphMetrics.Event.CONVERSION_TO_HASHED_UNROLLED_SKIP_LIST);
+        FlightRecorderEvents e = flightRecorderEvents;
+        if (e != null) e.conversion(owner, size, System.nanoTime() - start, "HashedUnrolledSkipList");
 
+        return newNeighborhood;
+    }
+
+    /**
+     * Converts a Neighborhood to a PowerOfTwo if its size falls below 
+     * the threshold, BLOCK_SIZE (as checked and called elsewhere)
+     *
+     * @param currentNeighborhood The neighborhood to convert.
+     * @param owner               The logical ID of the vertex it belongs to.
+     * @param size                The number of neighbors in it.
+     * @return the converted neighborhood, or currentNeighborhood if it already is a PowerofTwo.
+     */
+    private Neighborhood<T> convertToPowerofTwo(Neighborhood<T> currentNeighborhood, int owner, int size) {
         // If already a PowerOfTwo, no conversion needed
         if (currentNeighborhood instanceof PowerofTwo) {
-            return;
+            return currentNeighborhood;
         }
 
         // Create a new PowerofTwo adjacency set and transfer neighbors
+        long start = startTimer();
         PowerofTwo<T> newNeighborhood = new PowerofTwo<>();
-        for (T neighbor : currentNeighborhood.getNeighbors()) {
-            newNeighborhood.addNeighbor(neighbor);
-        }
+        copyNeighbors(currentNeighborhood, newNeighborhood, edgeProperties);
+        GraphMetrics m = metrics;
+        if (m != null) m.count(GraphMetrics.Event.CONVERSION_TO_POWER_OF_TWO);
+        FlightRecorderEvents e = flightRecorderEvents;
+        if (e != null) e.conversion(owner, size, System.nanoTime() - start, "PowerofTwo");
 
-        vertexRecord.adjacencySet = newNeighborhood;
+        return newNeighborhood;
+    }
+
+    /**
+     * Copies every neighbor of one neighborhood into another, together with
+     * its edge weight when the source stores weights, and its property values.
+     *
+     * @param from       The neighborhood to copy from.
+     * @param to         The neighborhood to copy into.
+     * @param properties The properties to copy.
+     */
+    private static <U extends Comparable<U>> void copyNeighbors(Neighborhood<U> from, Neighborhood<U> to,
+            List<EdgeProperty> properties) {
+        boolean weighted = from.isWeighted();
+        NeighborCursor<U> cursor = from.cursor();
+        while (cursor.next()) {
+            if (weighted) {
+                to.addNeighbor(cursor.id(), cursor.weight());
+            } else {
+                to.addNeighbor(cursor.id());
+            }
+            for (EdgeProperty property : properties) {
+                long bits = cursor.propertyBits(property);
+                if (bits != 0) to.setProperty(cursor.id(), property, bits);
+            }
+        }
     }
 
     /**
@@ -618,51 +1562,119 @@ public class SortledtonGraph<T extends Comparable<T>> {
          * @param adjacencyIndex    the adjacency index array.
          * @return a new instance of a SortledtonGraph with the given data structure.
          */
-        @SuppressWarnings("unchecked")
         public static <U extends Comparable<U>> SortledtonGraph<U> newInstance(int vertexCount,
                 Map<Integer, Integer> logicalToPhysical, VertexRecord<U>[] adjacencyIndex) {
-            SortledtonGraph<U> result = new SortledtonGraph<>();
+            return newInstance(vertexCount, logicalToPhysical, adjacencyIndex, Collections.<EdgeProperty>emptyList());
+        }
+
+        /**
+         * Create a debugging instance of the SortledtonGraph with a particular data structure
+         * and edge property columns. The instance registers the given properties themselves,
+         * so values set through them in the neighborhoods are copied and stay readable.
+         * 
+         * @param vertexCount       the vertex count.
+         * @param logicalToPhysical the logicalToPhysical map.
+         * @param adjacencyIndex    the adjacency index array.
+         * @param edgeProperties    the registered properties of the graph the index came from,
+         *                          in the order they were registered.
+         * @return a new instance of a SortledtonGraph with the given data structure.
+         * @throws IllegalArgumentException if the properties are not in column order.
+         */
+        public static <U extends Comparable<U>> SortledtonGraph<U> newInstance(int vertexCount,
+                Map<Integer, Integer> logicalToPhysical, VertexRecord<U>[] adjacencyIndex,
+                List<EdgeProperty> edgeProperties) {
+            return newInstance(false, false, vertexCount, logicalToPhysical, adjacencyIndex, edgeProperties);
+        }
+
+        /**
+         * Create a debugging instance of the SortledtonGraph with a particular data structure,
+         * edge property columns and mode. A graph that stores in-edges needs records with an
+         * in-adjacency set, and every other graph records without one.
+         * 
+         * @param directed          whether the instance is directed.
+         * @param storeInEdges      whether the instance stores in-edges; only if directed.
+         * @param vertexCount       the vertex count.
+         * @param logicalToPhysical the logicalToPhysical map.
+         * @param adjacencyIndex    the adjacency index array.
+         * @param edgeProperties    the registered properties of the graph the index came from,
+         *                          in the order they were registered.
+         * @return a new instance of a SortledtonGraph with the given data structure.
+         * @throws IllegalArgumentException if in-edges are stored in an undirected graph, or the
+         *                                  properties are not in column order.
+         */
+        public static <U extends Comparable<U>> SortledtonGraph<U> newInstance(boolean directed, boolean storeInEdges,
+                int vertexCount, Map<Integer, Integer> logicalToPhysical, VertexRecord<U>[] adjacencyIndex,
+                List<EdgeProperty> edgeProperties) {
+            SortledtonGraph<U> result = new SortledtonGraph<>(directed, storeInEdges);
+            for (EdgeProperty property : edgeProperties) {
+                if (property.column() != result.edgeProperties.size()) {
+                    throw new IllegalArgumentException("@newInstance, the parameter, edgeProperties, must be in column order.");
+                }
+                result.edgeProperties.add(property);
+            }
             result.vertexCount = vertexCount;
             result.logicalToPhysical = new HashMap<>(logicalToPhysical);
 
             // Clone the adjacencyIndex array
-            VertexRecord<U>[] newIndex = (VertexRecord<U>[]) Array.newInstance(VertexRecord.class, adjacencyIndex.length);
+            SegmentedArray<VertexRecord<U>> newIndex = new SegmentedArray<>();
             for (int i = 0; i < adjacencyIndex.length; i++) {
                 if (adjacencyIndex[i] != null) {
-                    // Deep copy if necessary
-                    // Assuming VertexRecord has a proper copy constructor or clone method
-                    Neighborhood<U> clonedNeighborhood;
-                    if (adjacencyIndex[i].adjacencySet instanceof PowerofTwo) {
-                        clonedNeighborhood = new PowerofTwo<>();
-                        for (U neighbor : adjacencyIndex[i].adjacencySet.getNeighbors()) {
-                            clonedNeighborhood.addNeighbor(neighbor);
-                        }
-                    } else if (adjacencyIndex[i].adjacencySet instanceof UnrolledSkipList) {
-                        clonedNeighborhood = new UnrolledSkipList<>();
-                        for (U neighbor : adjacencyIndex[i].adjacencySet.getNeighbors()) {
-                            clonedNeighborhood.addNeighbor(neighbor);
-                        }
-                    } else {
-                        throw new IllegalStateException("Unknown Neighborhood implementation.");
-                    }
-                    newIndex[i] = new VertexRecord<>(adjacencyIndex[i].logicalId, clonedNeighborhood);
-                    newIndex[i].adjacencySetSize = adjacencyIndex[i].adjacencySetSize;
+                    Neighborhood<U> inAdjacencySet = adjacencyIndex[i].inAdjacencySet;
+                    VertexRecord<U> clonedRecord = new VertexRecord<>(adjacencyIndex[i].logicalId,
+                            cloneNeighborhood(adjacencyIndex[i].adjacencySet, edgeProperties),
+                            inAdjacencySet == null ? null : cloneNeighborhood(inAdjacencySet, edgeProperties));
+                    clonedRecord.adjacencySetSize = adjacencyIndex[i].adjacencySetSize;
+                    clonedRecord.inAdjacencySetSize = adjacencyIndex[i].inAdjacencySetSize;
+                    newIndex.set(i, clonedRecord);
                 }
             }
             result.adjacencyIndex = newIndex;
 
             // Reconstruct the physicalToLogical array
-            Integer[] newPhysicalToLogical = new Integer[newIndex.length];
+            SegmentedArray<Integer> newPhysicalToLogical = new SegmentedArray<>();
             for (Map.Entry<Integer, Integer> entry : logicalToPhysical.entrySet()) {
                 int logicalId = entry.getKey();
                 int physicalIndex = entry.getValue();
-                newPhysicalToLogical[physicalIndex] = logicalId;
+                newPhysicalToLogical.set(physicalIndex, logicalId);
             }
             result.physicalToLogical = newPhysicalToLogical;
 
             return result;
         }
 
+        /**
+         * Deep copies a neighborhood, keeping its implementation.
+         * 
+         * @param neighborhood the neighborhood to copy.
+         * @param properties   the property columns to copy with the neighbors.
+         * @return a new neighborhood with the same neighbors.
+         */
+        private static <U extends Comparable<U>> Neighborhood<U> cloneNeighborhood(Neighborhood<U> neighborhood,
+                List<EdgeProperty> properties) {
+            Neighborhood<U> clonedNeighborhood;
+            if (neighborhood instanceof PowerofTwo) {
+                clonedNeighborhood = new PowerofTwo<>();
+            } else if (neighborhood instanceof HashedUnrolledSkipList) {
+                clonedNeighborhood = new HashedUnrolledSkipList<>();
+            } else if (neighborhood instanceof UnrolledSkipList) {
+                clonedNeighborhood = new UnrolledSkipList<>();
+            } else {
+                throw new IllegalStateException("Unknown Neighborhood implementation.");
+            }
+            copyNeighbors(neighborhood, clonedNeighborhood, properties);
+            return clonedNeighborhood;
+        }
+
+        /**
+         * Return the edge properties registered on a graph, in column order.
+         * 
+         * @param sg instance of SortledtonGraph to use, must not be null.
+         * @return an unmodifiable view of its registered properties.
+         */
+        public static List<EdgeProperty> getEdgeProperties(SortledtonGraph<?> sg) {
+            return Collections.unmodifiableList(sg.edgeProperties);
+        }
+
         /**
          * Return whether the debugging instance meets the requirements on the invariant.
          * 
@@ -0,0 +1,294 @@
+package edu.uwm.cs351;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+/**
+ * StructureReport describes how a SortledtonGraph is laid out: its degree distribution, how
+ * many neighborhoods use each representation, how full the UnrolledSkipList blocks are, and
+ * an estimate of the bytes each representation spends per stored edge.
+ *
+ * Building a report visits every vertex and every block, but no neighbor, so it takes time
+ * proportional to the vertices plus the blocks and is cheap enough to take periodically.
+ * It only reads the graph, so on a shared graph take it under the read lock.
+ *
+ * Byte counts are estimates for a 64-bit JVM with compressed references: the structures that
+ * hold the neighbors, with every ArrayList counted at its size, but not the neighbor ID objects,
+ * which both representations share. They are meant for comparing representations and block
+ * fill, not for sizing a heap.
+ */
+public final class StructureReport {
+    /** The representations a neighborhood can have. */
+    public enum Representation {
+        POWER_OF_TWO("PowerofTwo"),
+        UNROLLED_SKIP_LIST("UnrolledSkipList"),
+        HASHED_UNROLLED_SKIP_LIST("HashedUnrolledSkipList");
+
+        private final String label;
+
+        Representation(String label) { this.label = label; }
+
+        /** @return the name of the class, such as "PowerofTwo". */
+        public String label() { return label; }
+    }
+
+    /** The number of buckets of the block fill histogram, each a tenth of a block. */
+    public static final int FILL_BUCKETS = 10;
+
+    /** The bytes of a reference. */
+    static final int REFERENCE_BYTES = 4;
+    private static final int OBJECT_HEADER_BYTES = 12;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int ALIGNMENT = 8;
+
+    private static final Representation[] REPRESENTATIONS = Representation.values();
+
+    private final int vertexCount;
+    private final long[] degrees = new long[Integer.SIZE + 1];
+    private int maxDegree;
+    private long outEntries;
+    private final int[] neighborhoods = new int[REPRESENTATIONS.length];
+    private final long[] entries = new long[REPRESENTATIONS.length];
+    private final long[] bytes = new long[REPRESENTATIONS.length];
+    private final long[] fill = new long[FILL_BUCKETS];
+    private long blocks;
+    private long blockEntries;
+    private long underfilledBlocks;
+
+    /**
+     * Scans a graph.
+     *
+     * @param graph The graph to describe.
+     * @return a report of its current structure.
+     * @throws IllegalArgumentException if graph is null.
+     */
+    public static StructureReport of(SortledtonGraph<?> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("@of, the parameter, graph, may not be null.");
+        }
+        return new StructureReport(graph);
+    }
+
+    private StructureReport(SortledtonGraph<?> graph) {
+        vertexCount = graph.getVertexCount();
+        boolean in = graph.storesInEdges();
+        for (int v = 0; v < vertexCount; v++) {
+            int degree = graph.degree(v, Direction.OUT);
+            degrees[degreeBucket(degree)]++;
+            maxDegree = Math.max(maxDegree, degree);
+            outEntries += degree;
+            add(graph.neighborhood(v, Direction.OUT), degree);
+            if (in) add(graph.neighborhood(v, Direction.IN), graph.degree(v, Direction.IN));
+        }
+    }
+
+    /**
+     * Counts one neighborhood.
+     */
+    private void add(Neighborhood<?> neighborhood, int size) {
+        Representation representation;
+        long estimate;
+        if (neighborhood instanceof UnrolledSkipList) {
+            UnrolledSkipList<?> list = (UnrolledSkipList<?>) neighborhood;
+            representation = list instanceof HashedUnrolledSkipList ? Representation.HASHED_UNROLLED_SKIP_LIST
+                                                                    : Representation.UNROLLED_SKIP_LIST;
+            estimate = list.estimateBytes();
+            int count = list.blockCount();
+            for (int b = 0; b < count; b++) {
+                int blockSize = list.blockSize(b);
+                fill[Math.min(FILL_BUCKETS - 1, blockSize * FILL_BUCKETS / UnrolledSkipList.BLOCK_SIZE)]++;
+                // A lone block has nothing to merge with, so only a shortfall next to another counts
+                if (count > 1 && blockSize < UnrolledSkipList.BLOCK_SIZE / 2) underfilledBlocks++;
+            }
+            blocks += count;
+            blockEntries += size;
+        } else {
+            representation = Representation.POWER_OF_TWO;
+            estimate = ((PowerofTwo<?>) neighborhood).estimateBytes();
+        }
+        int r = representation.ordinal();
+        neighborhoods[r]++;
+        entries[r] += size;
+        bytes[r] += estimate;
+    }
+
+    /**
+     * Finds the degree histogram bucket of a degree: 0 for degree 0, and k for degrees
+     * in [2^(k-1), 2^k).
+     */
+    private static int degreeBucket(int degree) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(degree);
+    }
+
+    /**
+     * Estimates the bytes of an object with the given fields.
+     */
+    static long objectBytes(int fieldBytes) {
+        return align(OBJECT_HEADER_BYTES + fieldBytes);
+    }
+
+    /**
+     * Estimates the bytes of an array.
+     */
+    static long arrayBytes(long length, int elementBytes) {
+        return align(ARRAY_HEADER_BYTES + length * elementBytes);
+    }
+
+    /**
+     * Estimates the bytes of an ArrayList holding the given number of references.
+     */
+    static long listBytes(int size) {
+        return objectBytes(2 * Integer.BYTES + REFERENCE_BYTES) + arrayBytes(size, REFERENCE_BYTES);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Gets the number of vertices.
+     *
+     * @return the vertex count.
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Gets the out-degree histogram. Bucket 0 counts the vertices of degree 0, and bucket k
+     * the vertices of degree in [2^(k-1), 2^k). In an undirected graph the out-degree is the degree.
+     *
+     * @return a copy of the buckets, up to the last one that is not empty.
+     */
+    public long[] getDegreeHistogram() {
+        return Arrays.copyOf(degrees, degreeBucket(maxDegree) + 1);
+    }
+
+    /**
+     * Gets the largest out-degree.
+     *
+     * @return the maximum, or 0 if there are no vertices.
+     */
+    public int getMaxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Gets the mean out-degree.
+     *
+     * @return the mean, or 0 if there are no vertices.
+     */
+    public double getMeanDegree() {
+        return vertexCount == 0 ? 0 : (double) outEntries / vertexCount;
+    }
+
+    /**
+     * Gets the number of neighborhoods with a representation, in-neighborhoods included.
+     *
+     * @param representation The representation.
+     * @return the count.
+     */
+    public int getNeighborhoods(Representation representation) {
+        return neighborhoods[representation.ordinal()];
+    }
+
+    /**
+     * Gets the number of neighbors stored in neighborhoods with a representation. An undirected
+     * edge, or a directed one whose in-edge is stored, is stored twice.
+     *
+     * @param representation The representation.
+     * @return the count.
+     */
+    public long getEntries(Representation representation) {
+        return entries[representation.ordinal()];
+    }
+
+    /**
+     * Gets the estimated bytes of the neighborhoods with a representation.
+     *
+     * @param representation The representation.
+     * @return the estimate.
+     */
+    public long getEstimatedBytes(Representation representation) {
+        return bytes[representation.ordinal()];
+    }
+
+    /**
+     * Gets the estimated bytes per stored neighbor of the neighborhoods with a representation.
+     *
+     * @param representation The representation.
+     * @return the estimate, or NaN if no neighbor is stored that way.
+     */
+    public double getBytesPerEntry(Representation representation) {
+        int r = representation.ordinal();
+        return entries[r] == 0 ? Double.NaN : (double) bytes[r] / entries[r];
+    }
+
+    /**
+     * Gets the number of UnrolledSkipList blocks, those of HashedUnrolledSkipLists included.
+     *
+     * @return the count.
+     */
+    public long getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Gets the block fill histogram. Bucket i counts the blocks holding from i to i + 1
+     * tenths of BLOCK_SIZE neighbors; the last bucket includes full blocks.
+     *
+     * @return a copy of the FILL_BUCKETS buckets.
+     */
+    public long[] getBlockFillHistogram() {
+        return fill.clone();
+    }
+
+    /**
+     * Gets the number of blocks under half full that share their list with another block.
+     * Removals only merge a block into one neighbor, and only when they fit together, so
+     * such blocks can stay behind until a {@link BlockCompactor} repacks them.
+     *
+     * @return the count.
+     */
+    public long getUnderfilledBlocks() {
+        return underfilledBlocks;
+    }
+
+    /**
+     * Gets the mean fraction of BLOCK_SIZE the blocks hold.
+     *
+     * @return the mean fill in [0, 1], or 0 if there are no blocks.
+     */
+    public double getMeanBlockFill() {
+        return blocks == 0 ? 0 : (double) blockEntries / blocks / UnrolledSkipList.BLOCK_SIZE;
+    }
+
+    /**
+     * Formats the report as one line of JSON.
+     *
+     * @return the JSON object.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append(String.format(Locale.ROOT, "{\"vertices\":%d,\"max_degree\":%d,\"mean_degree\":%.3f,\"degree_histogram\":%s",
+                                  vertexCount, maxDegree, getMeanDegree(), Arrays.toString(getDegreeHistogram()).replace(" ", "")));
+        json.append(",\"representations\":{");
+        for (Representation representation : REPRESENTATIONS) {
+            int r = representation.ordinal();
+            if (r > 0) json.append(',');
+            json.append(String.format(Locale.ROOT, "\"%s\":{\"neighborhoods\":%d,\"entries\":%d,\"bytes\":%d,\"bytes_per_entry\":%s}",
+                                      representation.label(), neighborhoods[r], entries[r], bytes[r],
+                                      entries[r] == 0 ? "null" : String.format(Locale.ROOT, "%.2f", getBytesPerEntry(representation))));
+        }
+        json.append(String.format(Locale.ROOT, "},\"blocks\":%d,\"mean_block_fill\":%.3f,\"underfilled_blocks\":%d,\"block_fill_histogram\":%s}",
+                                  blocks, getMeanBlockFill(), underfilledBlocks, Arrays.toString(fill).replace(" ", "")));
+        return json.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
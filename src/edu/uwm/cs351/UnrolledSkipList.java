@@ -1,6 +1,7 @@
 package edu.uwm.cs351;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -9,19 +10,68 @@ import java.util.List;
  * UnrolledSkipList is an implementation of the Neighborhood interface, optimized
  * for handling large neighborhoods by maintaining a list of sorted blocks.
  * Each block contains a subset of neighbors, facilitating efficient scans and intersections.
+ * A full block splits in the middle, or near its end when neighbors arrive in ascending
+ * order (near its start when descending), so that time-ordered IDs fill their blocks.
+ * Edge weights and properties, once used, are kept per block in an {@link EdgeColumns},
+ * so they travel with their neighbors when blocks split or merge.
  *
  * @param <T> The type of the vertex ID, must be Comparable.
  */
 public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T> {
     /** The maximum number of elements per block. */
-    private static final int BLOCK_SIZE = 128;
+    static final int BLOCK_SIZE = 128;
+
+    /**
+     * The number of elements a block keeps when it splits during a run of appends (or,
+     * mirrored, of prepends), instead of half: the run will not come back to fill it.
+     */
+    static final int SEQUENTIAL_FILL = BLOCK_SIZE - BLOCK_SIZE / 8;
+
+    /** The number of inserts in a row at one end of the list that make a run. */
+    static final int SEQUENTIAL_RUN = 8;
+
+    /** The number of elements compaction fills an under-filled block up to. */
+    static final int COMPACT_FILL = BLOCK_SIZE * 3 / 4;
 
     /** List of sorted blocks, each block is a sorted list of neighbors. */
     private final List<List<T>> blocks;
 
+    /**
+     * The first neighbor of each block, parallel to blocks and possibly longer. findBlock
+     * searches this one array instead of reaching through each block list and its backing array.
+     */
+    private Object[] fences = new Object[8];
+
+    /** Edge weights and properties of each block, parallel to blocks, or null until one is first set. */
+    private List<EdgeColumns> columns;
+
+    /** The number of neighbors in all blocks. */
+    private int size;
+
+    /** The inserts in a row after the last neighbor, and before the first, capped at SEQUENTIAL_RUN. */
+    private int appendRun, prependRun;
+
+    /** One more than the block a compaction pass resumes from, or 0 if no pass is under way. */
+    private int compactFrom;
+
     /** Comparator for sorting elements */
     private final Comparator<T> comparator;
 
+    /** A filter of the neighbors that contains consults first, or null if there is none. */
+    private BloomFilter filter;
+
+    /** The neighbors removed since the filter was built, which it still reports. */
+    private int staleKeys;
+
+    /** Where block splits and merges are counted, or null if they are not. */
+    GraphMetrics metrics;
+
+    /** Where block splits and merges are reported as events, or null if they are not. */
+    FlightRecorderEvents events;
+
+    /** The logical ID of the vertex this neighborhood belongs to, for events. */
+    int owner;
+
     /**
      * Constructs an UnrolledSkipList with an empty set of blocks.
      */
@@ -61,59 +111,161 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
                     return a.compareTo(b);
                 }
             }
-
-            /**
-             * Extracts the prefix from a string (non-numeric part).
-             *
-             * @param s The input string.
-             * @return The prefix part of the string.
-             */
-            private String extractPrefix(String s) {
-                int i = 0;
-                while (i < s.length() && !Character.isDigit(s.charAt(i))) {
-                    i++;
-                }
-                return s.substring(0, i);
-            }
-
-            /**
-             * Extracts the numeric suffix from a string.
-             *
-             * @param s The input string.
-             * @return The numeric suffix as an Integer, or null if not present.
-             */
-            private Integer extractNumericSuffix(String s) {
-                int i = 0;
-                while (i < s.length() && !Character.isDigit(s.charAt(i))) {
-                    i++;
-                }
-                if (i == s.length()) {
-                    return null; // No numeric suffix
-                }
-                try {
-                    return Integer.parseInt(s.substring(i));
-                } catch (NumberFormatException e) {
-                    return null; // Invalid numeric suffix
-                }
-            }
         };
         assert wellFormed() : "Invariant failed at end of constructor.";
     }
 
+    /**
+     * Constructs an UnrolledSkipList that takes over the blocks, columns and counts of another,
+     * without copying a neighbor, so a neighborhood can change between UnrolledSkipList and
+     * {@link HashedUnrolledSkipList} in time proportional to its blocks. The source must not
+     * be used afterwards; it has no filter, metrics or events attached.
+     *
+     * @param source The list to take over.
+     */
+    UnrolledSkipList(UnrolledSkipList<T> source) {
+        this.blocks = source.blocks;
+        this.columns = source.columns;
+        this.fences = source.fences;
+        this.size = source.size;
+        this.appendRun = source.appendRun;
+        this.prependRun = source.prependRun;
+        this.comparator = source.comparator;
+        assert wellFormed() : "Invariant failed at end of constructor.";
+    }
+
+    /**
+     * Extracts the prefix from a string (non-numeric part).
+     *
+     * @param s The input string.
+     * @return The prefix part of the string.
+     */
+    private static String extractPrefix(String s) {
+        int i = 0;
+        while (i < s.length() && !Character.isDigit(s.charAt(i))) {
+            i++;
+        }
+        return s.substring(0, i);
+    }
+
+    /**
+     * Extracts the numeric suffix from a string.
+     *
+     * @param s The input string.
+     * @return The numeric suffix as an Integer, or null if not present.
+     */
+    private static Integer extractNumericSuffix(String s) {
+        int i = 0;
+        while (i < s.length() && !Character.isDigit(s.charAt(i))) {
+            i++;
+        }
+        if (i == s.length()) {
+            return null; // No numeric suffix
+        }
+        try {
+            return Integer.parseInt(s.substring(i));
+        } catch (NumberFormatException e) {
+            return null; // Invalid numeric suffix
+        }
+    }
+
+    /**
+     * Hashes a neighbor consistently with the comparator: IDs it finds equal hash alike.
+     * Strings compare by their prefix and numeric suffix, so "v7" and "v007" are the same neighbor.
+     *
+     * @param id The ID, not null.
+     * @return the hash.
+     */
+    static int hash(Object id) {
+        if (id instanceof String) {
+            String s = (String) id;
+            Integer suffix = extractNumericSuffix(s);
+            return 31 * extractPrefix(s).hashCode() + (suffix == null ? 0 : suffix);
+        }
+        return id.hashCode();
+    }
+
+    /**
+     * Compares two neighbors the way the blocks are ordered.
+     *
+     * @param a A neighbor ID, not null.
+     * @param b Another neighbor ID, not null.
+     * @return negative, zero or positive as a comes before, with or after b.
+     */
+    final int compare(T a, T b) {
+        return comparator.compare(a, b);
+    }
+
     /**
      * Ensures the internal invariants hold:
      * - Blocks list is not null.
      * - No block is null or empty.
      * - Each block is sorted in ascending order based on the comparator.
      * - No duplicates across all blocks.
+     * - size is the number of neighbors in all blocks.
+     * - fences holds the first neighbor of each block.
+     * - The filter, if any, reports every neighbor.
+     *
+     * This scans every block, so the operations only check the blocks they changed,
+     * with {@link #wellFormedNear(int)}; the whole list is checked on construction and
+     * through {@link #checkInvariant()}.
      *
      * @return true if well-formed, false otherwise.
      */
     private boolean wellFormed() {
         if (blocks == null) return false;
-        T previous = null;
+        if (columns != null && columns.size() != blocks.size()) return false; // One set of columns per block
+        if (fences == null || fences.length < blocks.size()) return false;
+        if (!wellFormedBlocks(0, blocks.size())) return false;
+        int total = 0;
         for (List<T> block : blocks) {
+            total += block.size();
+            if (filter != null) {
+                for (T elem : block) {
+                    if (!filter.mightContain(hash(elem))) return false; // A filter never misses a neighbor
+                }
+            }
+        }
+        return total == size;
+    }
+
+    /**
+     * Ensures the internal invariants hold around one block: that block and the blocks next
+     * to it are well formed and in order, and the counts agree as far as can be told
+     * without visiting every block. Takes time proportional to BLOCK_SIZE.
+     *
+     * @param blockIndex The index of a block an operation changed; clipped to the blocks there are.
+     * @return true if well-formed around the block, false otherwise.
+     */
+    private boolean wellFormedNear(int blockIndex) {
+        if (blocks == null) return false;
+        if (columns != null && columns.size() != blocks.size()) return false;
+        if (fences == null || fences.length < blocks.size()) return false;
+        if (blocks.isEmpty()) return size == 0;
+        if (size < blocks.size()) return false; // Every block holds at least one neighbor
+        return wellFormedBlocks(Math.max(0, blockIndex - 1), Math.min(blocks.size(), blockIndex + 2));
+    }
+
+    /**
+     * Checks a run of blocks: none is null, empty or over BLOCK_SIZE, each has its first element
+     * as its fence, and their elements are strictly ascending, also against the blocks on either
+     * side of the run.
+     *
+     * @param from The index of the first block to check.
+     * @param to   The index after the last block to check.
+     * @return true if the run is well formed.
+     */
+    private boolean wellFormedBlocks(int from, int to) {
+        T previous = null;
+        if (from > 0) {
+            List<T> before = blocks.get(from - 1);
+            if (before == null || before.isEmpty()) return false;
+            previous = before.get(before.size() - 1);
+        }
+        for (int b = from; b < to; b++) {
+            List<T> block = blocks.get(b);
             if (block == null || block.isEmpty()) return false; // Blocks should not be empty
+            if (fences[b] != block.get(0)) return false; // The fence is the first neighbor itself
             for (T elem : block) {
                 if (elem == null) return false;
                 if (previous != null && comparator.compare(previous, elem) >= 0) {
@@ -125,9 +277,23 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
                 return false; // Blocks should not exceed BLOCK_SIZE
             }
         }
+        if (to < blocks.size() && previous != null) {
+            List<T> after = blocks.get(to);
+            if (after == null || after.isEmpty()) return false;
+            if (comparator.compare(previous, after.get(0)) >= 0) return false;
+        }
         return true;
     }
 
+    /**
+     * Checks the whole invariant on behalf of other classes in this package.
+     *
+     * @return true when in compliance with all listed invariants
+     */
+    boolean checkInvariant() {
+        return wellFormed();
+    }
+
     /**
      * Adds a neighbor to the neighborhood, maintaining sorted order and block sizes.
      * If the neighbor already exists, it is not added again.
@@ -140,14 +306,62 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
         if (id == null) {
             throw new IllegalArgumentException("Neighbor ID cannot be null");
         }
-        assert wellFormed() : "Invariant failed at start of addNeighbor.";
+        int blockIndex = add(id, EdgeColumns.DEFAULT_WEIGHT, false);
+        assert wellFormedNear(blockIndex) : "Invariant failed at end of addNeighbor.";
+    }
+
+    /**
+     * Adds a neighbor with the given edge weight, maintaining sorted order and block sizes.
+     * If the neighbor already exists, only its weight is replaced.
+     *
+     * @param id     The ID of the neighbor to add.
+     * @param weight The weight of the edge to the neighbor.
+     * @throws IllegalArgumentException if the neighbor ID is null.
+     */
+    @Override
+    public void addNeighbor(T id, double weight) {
+        if (id == null) {
+            throw new IllegalArgumentException("Neighbor ID cannot be null");
+        }
+        ensureColumns();
+        int blockIndex = add(id, weight, true);
+        assert wellFormedNear(blockIndex) : "Invariant failed at end of addNeighbor.";
+    }
+
+    /**
+     * Allocates the edge columns of every block.
+     */
+    private void ensureColumns() {
+        if (columns == null) {
+            columns = new ArrayList<>(blocks.size());
+            for (int i = 0; i < blocks.size(); i++) {
+                columns.add(new EdgeColumns(BLOCK_SIZE + 1));
+            }
+        }
+    }
 
+    /**
+     * Inserts a neighbor, splitting the block if it overflows.
+     *
+     * @param id       The ID of the neighbor to add, not null.
+     * @param weight   The weight of the edge, used only if weighted.
+     * @param weighted Whether to set the weight, also for an existing neighbor; columns must exist.
+     * @return the index of the block the neighbor is in, or was added to before a split.
+     */
+    private int add(T id, double weight, boolean weighted) {
         if (blocks.isEmpty()) {
             List<T> newBlock = new ArrayList<>();
             newBlock.add(id);
             blocks.add(newBlock);
-            assert wellFormed() : "Invariant failed at end of addNeighbor.";
-            return;
+            insertFence(0);
+            if (filter != null) addToFilter(id);
+            if (columns != null) {
+                EdgeColumns newColumns = new EdgeColumns(BLOCK_SIZE + 1);
+                if (weighted) newColumns.setWeight(0, 1, weight);
+                columns.add(newColumns);
+            }
+            size++;
+            return 0;
         }
 
         // Binary search to find the correct block
@@ -161,25 +375,48 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
         List<T> targetBlock = blocks.get(blockIndex);
 
         // Binary search within the block using the custom comparator
+        EdgeColumns targetColumns = columns == null ? null : columns.get(blockIndex);
         int insertPos = Collections.binarySearch(targetBlock, id, comparator);
         if (insertPos >= 0) {
             // Element already exists; do not add duplicate
-            assert wellFormed() : "Invariant failed at end of addNeighbor.";
-            return;
+            if (weighted) targetColumns.setWeight(insertPos, targetBlock.size(), weight);
+            return blockIndex;
         } else {
             insertPos = -insertPos - 1;
+            boolean atTail = blockIndex == blocks.size() - 1 && insertPos == targetBlock.size();
+            boolean atHead = blockIndex == 0 && insertPos == 0;
+            appendRun = atTail ? Math.min(appendRun + 1, SEQUENTIAL_RUN) : 0;
+            prependRun = atHead ? Math.min(prependRun + 1, SEQUENTIAL_RUN) : 0;
+            if (targetColumns != null) targetColumns.insert(insertPos, targetBlock.size());
             targetBlock.add(insertPos, id);
+            if (insertPos == 0) fences[blockIndex] = id;
+            size++;
+            if (filter != null) addToFilter(id);
+            if (weighted) targetColumns.setWeight(insertPos, targetBlock.size(), weight);
         }
 
-        // If the block exceeds BLOCK_SIZE, split it
+        // If the block exceeds BLOCK_SIZE, split it: in the middle, unless a run of ascending
+        // (descending) inserts overflowed it, which leaves the first (second) half empty for good
         if (targetBlock.size() > BLOCK_SIZE) {
-            List<T> newBlock = new ArrayList<>(targetBlock.subList(BLOCK_SIZE / 2, targetBlock.size()));
+            long start = events == null ? 0 : System.nanoTime();
+            int from = BLOCK_SIZE / 2;
+            if (appendRun == SEQUENTIAL_RUN) {
+                from = SEQUENTIAL_FILL;
+            } else if (prependRun == SEQUENTIAL_RUN) {
+                from = targetBlock.size() - SEQUENTIAL_FILL;
+            }
+            List<T> newBlock = new ArrayList<>(targetBlock.subList(from, targetBlock.size()));
+            if (targetColumns != null) {
+                columns.add(blockIndex + 1, targetColumns.split(from, targetBlock.size(), BLOCK_SIZE + 1));
+            }
             // Remove the elements that have been moved to the new block
-            targetBlock.subList(BLOCK_SIZE / 2, targetBlock.size()).clear();
+            targetBlock.subList(from, targetBlock.size()).clear();
             blocks.add(blockIndex + 1, newBlock);
+            insertFence(blockIndex + 1);
+            if (metrics != null) metrics.count(GraphMetrics.Event.BLOCK_SPLIT);
+            if (events != null) events.blockSplit(owner, size, System.nanoTime() - start);
         }
-
-        assert wellFormed() : "Invariant failed at end of addNeighbor.";
+        return blockIndex;
     }
 
     /**
@@ -193,10 +430,7 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
         if (id == null) {
             throw new IllegalArgumentException("Neighbor ID cannot be null");
         }
-        assert wellFormed() : "Invariant failed at start of removeNeighbor.";
-
         if (blocks.isEmpty()) {
-            assert wellFormed() : "Invariant failed at end of removeNeighbor.";
             return;
         }
 
@@ -204,7 +438,6 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
         int blockIndex = findBlock(id);
         if (blockIndex == blocks.size()) {
             // Element does not exist
-            assert wellFormed() : "Invariant failed at end of removeNeighbor.";
             return;
         }
 
@@ -212,10 +445,15 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
         // Binary search within the block using the custom comparator
         int pos = Collections.binarySearch(targetBlock, id, comparator);
         if (pos >= 0) {
+            if (columns != null) columns.get(blockIndex).remove(pos, targetBlock.size());
             targetBlock.remove(pos);
+            if (pos == 0 && !targetBlock.isEmpty()) fences[blockIndex] = targetBlock.get(0);
+            size--;
+            // The filter keeps reporting removed neighbors; rebuild once they are a quarter of it
+            if (filter != null && ++staleKeys > Math.max(size, BLOCK_SIZE) / 4) rebuildFilter();
             // If the block becomes too small, consider merging with adjacent blocks
             if (targetBlock.isEmpty()) {
-                blocks.remove(blockIndex);
+                removeBlock(blockIndex);
             } else if (targetBlock.size() < BLOCK_SIZE / 2 && blocks.size() > 1) {
                 // Try to merge with previous or next block
                 if (blockIndex > 0) {
@@ -223,22 +461,75 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
                     // Ensure that the last element of prevBlock is less than the first of targetBlock
                     if (comparator.compare(prevBlock.get(prevBlock.size() - 1), targetBlock.get(0)) < 0
                             && (prevBlock.size() + targetBlock.size()) <= BLOCK_SIZE) {
+                        long start = events == null ? 0 : System.nanoTime();
+                        if (columns != null) {
+                            columns.get(blockIndex - 1).append(prevBlock.size(), columns.get(blockIndex), targetBlock.size());
+                        }
                         prevBlock.addAll(targetBlock);
-                        blocks.remove(blockIndex);
+                        removeBlock(blockIndex);
+                        if (metrics != null) metrics.count(GraphMetrics.Event.BLOCK_MERGE);
+                        if (events != null) events.blockMerge(owner, size, System.nanoTime() - start);
                     }
                 } else if (blockIndex < blocks.size() - 1) {
                     List<T> nextBlock = blocks.get(blockIndex + 1);
                     // Ensure that the last element of targetBlock is less than the first of nextBlock
                     if (comparator.compare(targetBlock.get(targetBlock.size() - 1), nextBlock.get(0)) < 0
                             && (nextBlock.size() + targetBlock.size()) <= BLOCK_SIZE) {
+                        long start = events == null ? 0 : System.nanoTime();
+                        if (columns != null) {
+                            columns.get(blockIndex).append(targetBlock.size(), columns.get(blockIndex + 1), nextBlock.size());
+                        }
                         targetBlock.addAll(nextBlock);
-                        blocks.remove(blockIndex + 1);
+                        removeBlock(blockIndex + 1);
+                        if (metrics != null) metrics.count(GraphMetrics.Event.BLOCK_MERGE);
+                        if (events != null) events.blockMerge(owner, size, System.nanoTime() - start);
                     }
                 }
             }
         }
 
-        assert wellFormed() : "Invariant failed at end of removeNeighbor.";
+        assert wellFormedNear(blockIndex) : "Invariant failed at end of removeNeighbor.";
+    }
+
+    /**
+     * Adds a new neighbor to the filter, rebuilding it larger once it holds more than it was sized for.
+     */
+    private void addToFilter(T id) {
+        if (size + staleKeys > filter.capacity()) {
+            rebuildFilter();
+        } else {
+            filter.add(hash(id));
+        }
+    }
+
+    /**
+     * Builds the filter from the neighbors, with room for as many again.
+     */
+    private void rebuildFilter() {
+        filter = new BloomFilter(2 * Math.max(size, BLOCK_SIZE));
+        for (List<T> block : blocks) {
+            for (T elem : block) {
+                filter.add(hash(elem));
+            }
+        }
+        staleKeys = 0;
+    }
+
+    /**
+     * Keeps a Bloom filter of the neighbors, or drops it. With a filter, contains answers
+     * most lookups of absent neighbors from one cache line, without searching the blocks;
+     * it costs about BITS_PER_KEY bits per neighbor, and adds and removes keep it current,
+     * rebuilding it now and then. Used by {@link SortledtonGraph#setBloomFilters(boolean)}.
+     *
+     * @param filtered Whether to keep a filter.
+     */
+    void setFiltered(boolean filtered) {
+        if (!filtered) {
+            filter = null;
+        } else if (filter == null) {
+            rebuildFilter();
+        }
+        assert wellFormed() : "Invariant failed at end of setFiltered.";
     }
 
     /**
@@ -248,13 +539,11 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
      */
     @Override
     public List<T> getNeighbors() {
-        assert wellFormed() : "Invariant failed at start of getNeighbors.";
-        List<T> result = new ArrayList<>(size());
+        List<T> result = new ArrayList<>(size);
         for (List<T> block : blocks) {
             result.addAll(block);
         }
         // Assuming blocks are globally sorted, no need to sort
-        assert wellFormed() : "Invariant failed at end of getNeighbors.";
         return result;
     }
 
@@ -271,8 +560,6 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
         if (other == null) {
             throw new IllegalArgumentException("Other neighborhood cannot be null");
         }
-        assert wellFormed() : "Invariant failed at start of intersect.";
-
         List<T> result = new ArrayList<>();
         List<T> otherNeighbors = other.getNeighbors();
         int i = 0, j = 0;
@@ -293,7 +580,6 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
             }
         }
 
-        assert wellFormed() : "Invariant failed at end of intersect.";
         return result;
     }
 
@@ -302,39 +588,181 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
      *
      * @return The size of the neighborhood.
      */
+    @Override
     public int size() {
-        int total = 0;
+        return size;
+    }
+
+    /**
+     * Counts the blocks, for {@link StructureReport}.
+     *
+     * @return the number of blocks.
+     */
+    int blockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Counts the neighbors in a block, for {@link StructureReport}.
+     *
+     * @param blockIndex The index of the block, in [0, blockCount()).
+     * @return the number of neighbors in it.
+     */
+    int blockSize(int blockIndex) {
+        return blocks.get(blockIndex).size();
+    }
+
+    /**
+     * Estimates the heap bytes of this neighborhood, for {@link StructureReport}: this object
+     * and its comparator, the list of blocks and the fences, every block counted at its size,
+     * the filter and the columns, but not the neighbor IDs themselves.
+     *
+     * @return the estimated bytes.
+     */
+    long estimateBytes() {
+        int references = StructureReport.REFERENCE_BYTES;
+        long bytes = StructureReport.objectBytes(7 * references + 6 * Integer.BYTES)
+                + StructureReport.objectBytes(0)
+                + StructureReport.listBytes(blocks.size())
+                + StructureReport.arrayBytes(fences.length, references);
         for (List<T> block : blocks) {
-            total += block.size();
+            bytes += StructureReport.listBytes(block.size());
+        }
+        if (filter != null) bytes += filter.estimateBytes();
+        if (columns != null) {
+            bytes += StructureReport.listBytes(columns.size());
+            for (EdgeColumns blockColumns : columns) {
+                bytes += blockColumns.estimateBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Repacks under-filled blocks for a bounded number of steps, for {@link BlockCompactor}.
+     * A block under half of BLOCK_SIZE absorbs the block after it when the two fit together,
+     * and otherwise takes neighbors from its front, up to COMPACT_FILL but leaving that block
+     * at least half full; an under-filled last block takes the tail of the block before it.
+     * The neighbors keep their order, and afterwards only a lone block is under half full.
+     *
+     * A pass over the list may take several calls; each resumes where the last one stopped.
+     * Each step moves at most two blocks of neighbors, so a call takes time proportional to
+     * budget times BLOCK_SIZE.
+     *
+     * @param budget The most blocks to visit.
+     * @return the number of blocks changed.
+     */
+    int compact(int budget) {
+        int changed = 0;
+        int b = compactFrom == 0 ? 0 : Math.min(compactFrom - 1, blocks.size());
+        for (int step = 0; step < budget && b < blocks.size() - 1; step++) {
+            List<T> block = blocks.get(b);
+            List<T> next = blocks.get(b + 1);
+            boolean last = b + 2 == blocks.size();
+            if (block.size() >= BLOCK_SIZE / 2 && !(last && next.size() < BLOCK_SIZE / 2)) {
+                b++;
+                continue;
+            }
+            long start = events == null ? 0 : System.nanoTime();
+            int total = block.size() + next.size();
+            if (total <= BLOCK_SIZE) {
+                moveFront(b, next.size());
+                removeBlock(b + 1);
+                if (metrics != null) metrics.count(GraphMetrics.Event.BLOCK_MERGE);
+                if (events != null) events.blockMerge(owner, size, System.nanoTime() - start);
+            } else if (block.size() < BLOCK_SIZE / 2) {
+                moveFront(b, Math.min(COMPACT_FILL - block.size(), next.size() - BLOCK_SIZE / 2));
+            } else {
+                // Refill the last block from the tail of this one: merge the two and split again
+                moveFront(b, next.size());
+                int from = total - BLOCK_SIZE / 2;
+                if (columns != null) columns.set(b + 1, columns.get(b).split(from, total, BLOCK_SIZE + 1));
+                next.addAll(block.subList(from, total));
+                block.subList(from, total).clear();
+                fences[b + 1] = next.get(0);
+            }
+            changed++;
+            assert wellFormedNear(b) : "Invariant failed in compact.";
+            if (block.size() >= BLOCK_SIZE / 2) b++;
+        }
+        compactFrom = b < blocks.size() - 1 ? b + 1 : 0;
+        return changed;
+    }
+
+    /**
+     * Moves neighbors from the front of a block to the end of the block before it.
+     * The block they leave may be left empty.
+     *
+     * @param blockIndex The index of the block that receives them.
+     * @param count      How many to move.
+     */
+    private void moveFront(int blockIndex, int count) {
+        List<T> block = blocks.get(blockIndex);
+        List<T> next = blocks.get(blockIndex + 1);
+        if (columns != null) {
+            columns.get(blockIndex).append(block.size(), columns.get(blockIndex + 1), count);
+            columns.get(blockIndex + 1).removeFirst(count, next.size());
         }
-        return total;
+        List<T> front = next.subList(0, count);
+        block.addAll(front);
+        front.clear();
+        if (!next.isEmpty()) fences[blockIndex + 1] = next.get(0);
+    }
+
+    /**
+     * Tells whether a compaction pass stopped part way, for {@link BlockCompactor}.
+     *
+     * @return true if the next call to {@link #compact(int)} resumes a pass.
+     */
+    boolean isCompacting() {
+        return compactFrom > 0;
     }
 
     /**
-     * Finds the appropriate block index for a given element using binary search.
+     * Removes a block together with its columns.
+     *
+     * @param blockIndex The index of the block to remove.
+     */
+    private void removeBlock(int blockIndex) {
+        blocks.remove(blockIndex);
+        if (columns != null) columns.remove(blockIndex);
+        System.arraycopy(fences, blockIndex + 1, fences, blockIndex, blocks.size() - blockIndex);
+        fences[blocks.size()] = null;
+    }
+
+    /**
+     * Makes room in fences for a block just inserted into blocks, and sets its fence.
+     *
+     * @param blockIndex The index of the new block.
+     */
+    private void insertFence(int blockIndex) {
+        int count = blocks.size();
+        if (count > fences.length) fences = Arrays.copyOf(fences, fences.length * 2);
+        System.arraycopy(fences, blockIndex, fences, blockIndex + 1, count - 1 - blockIndex);
+        fences[blockIndex] = blocks.get(blockIndex).get(0);
+    }
+
+    /**
+     * Finds the appropriate block index for a given element using binary search over the fences.
      *
      * @param id The element to locate.
-     * @return The index of the block where the element should reside.
+     * @return The index of the block where the element resides or should be inserted: the last
+     *         block whose first element is not after id, or 0 if there is none.
      */
+    @SuppressWarnings("unchecked")
     private int findBlock(T id) {
         int low = 0;
         int high = blocks.size() - 1;
-        while (low <= high) {
-            int mid = (low + high) >>> 1;
-            List<T> midBlock = blocks.get(mid);
-            T first = midBlock.get(0);
-            T last = midBlock.get(midBlock.size() - 1);
-            if (comparator.compare(id, first) < 0) {
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (comparator.compare(id, (T) fences[mid]) < 0) {
                 high = mid - 1;
-            } else if (comparator.compare(id, last) > 0) {
-                low = mid + 1;
             } else {
-                return mid;
+                low = mid;
             }
         }
         return low;
     }
-    
 
     /**
      * Provides a string representation of the UnrolledSkipList for debugging purposes.
@@ -348,7 +776,8 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
     }
     
     /**
-     * Checks if a neighbor exists in this neighborhood using binary search across blocks.
+     * Checks if a neighbor exists in this neighborhood using binary search across blocks,
+     * after asking the filter, if there is one, whether it can be there at all.
      *
      * @param id The ID of the neighbor to check.
      * @return True if the neighbor exists, otherwise false.
@@ -356,9 +785,181 @@ public class UnrolledSkipList<T extends Comparable<T>> implements Neighborhood<T
     @Override
     public boolean contains(T id) {
         if (id == null) return false;
+        if (filter != null && !filter.mightContain(hash(id))) return false;
         int blockIndex = findBlock(id);
         if (blockIndex == blocks.size()) return false;
         List<T> targetBlock = blocks.get(blockIndex);
         return Collections.binarySearch(targetBlock, id, comparator) >= 0;
     }
+
+    /**
+     * Gets the weight of the edge to a neighbor using binary search across blocks.
+     *
+     * @param id The ID of the neighbor.
+     * @return the edge weight, 1.0 if it was added without one, or NaN if id is not a neighbor.
+     */
+    @Override
+    public double getWeight(T id) {
+        if (id == null) return Double.NaN;
+        int blockIndex = findBlock(id);
+        if (blockIndex == blocks.size()) return Double.NaN;
+        int pos = Collections.binarySearch(blocks.get(blockIndex), id, comparator);
+        if (pos < 0) return Double.NaN;
+        return columns == null ? EdgeColumns.DEFAULT_WEIGHT : columns.get(blockIndex).weight(pos);
+    }
+
+    /**
+     * Sets a property of the edge to a neighbor, found using binary search across blocks.
+     *
+     * @param id       The ID of the neighbor.
+     * @param property The property to set.
+     * @param bits     The stored bits of the value.
+     * @return true if id is a neighbor, false if nothing was set.
+     */
+    @Override
+    public boolean setProperty(T id, EdgeProperty property, long bits) {
+        if (id == null) return false;
+        int blockIndex = findBlock(id);
+        if (blockIndex == blocks.size()) return false;
+        int pos = Collections.binarySearch(blocks.get(blockIndex), id, comparator);
+        if (pos < 0) return false;
+        ensureColumns();
+        columns.get(blockIndex).setProperty(property, pos, bits);
+        return true;
+    }
+
+    /**
+     * Gets a property of the edge to a neighbor, found using binary search across blocks.
+     *
+     * @param id       The ID of the neighbor.
+     * @param property The property to read.
+     * @return the stored bits, or 0 if id is not a neighbor or the property was never set.
+     */
+    @Override
+    public long getProperty(T id, EdgeProperty property) {
+        if (id == null || columns == null) return 0;
+        int blockIndex = findBlock(id);
+        if (blockIndex == blocks.size()) return 0;
+        int pos = Collections.binarySearch(blocks.get(blockIndex), id, comparator);
+        return pos < 0 ? 0 : columns.get(blockIndex).property(property, pos);
+    }
+
+    /**
+     * Checks if this neighborhood stores edge weights.
+     *
+     * @return true once any neighbor has been added with a weight.
+     */
+    @Override
+    public boolean isWeighted() {
+        if (columns == null) return false;
+        for (EdgeColumns blockColumns : columns) {
+            if (blockColumns.hasWeights()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Creates a cursor that walks the blocks, their weights and properties in place.
+     *
+     * @return a cursor positioned before the first neighbor.
+     */
+    @Override
+    public NeighborCursor<T> cursor() {
+        return new NeighborCursor<T>() {
+            private int blockIndex = 0;
+            private int pos = -1;
+            private List<T> block = blocks.isEmpty() ? null : blocks.get(0);
+
+            @Override
+            public boolean next() {
+                if (block == null) return false;
+                if (++pos < block.size()) return true;
+                // Move on to the next block; blocks are never empty
+                pos = 0;
+                block = ++blockIndex < blocks.size() ? blocks.get(blockIndex) : null;
+                return block != null;
+            }
+
+            @Override
+            public T id() {
+                return block.get(pos);
+            }
+
+            @Override
+            public double weight() {
+                return columns == null ? EdgeColumns.DEFAULT_WEIGHT : columns.get(blockIndex).weight(pos);
+            }
+
+            @Override
+            public long propertyBits(EdgeProperty property) {
+                return columns == null ? 0 : columns.get(blockIndex).property(property, pos);
+            }
+        };
+    }
+
+    /**
+     * Spy class for testing purposes.
+     */
+    public static class Spy {
+        /**
+         * Keep a Bloom filter of the neighbors of a list, or drop it.
+         *
+         * @param list     the list, must not be null.
+         * @param filtered whether to keep a filter.
+         */
+        public void setFiltered(UnrolledSkipList<?> list, boolean filtered) {
+            list.setFiltered(filtered);
+        }
+
+        /**
+         * Return whether the Bloom filter of a list may hold an ID, without searching the blocks.
+         *
+         * @param list the list, must have a filter.
+         * @param id   the ID to ask about.
+         * @return false if the filter rules the ID out.
+         */
+        public <U extends Comparable<U>> boolean filterMightContain(UnrolledSkipList<U> list, U id) {
+            return list.filter.mightContain(hash(id));
+        }
+
+        /**
+         * Return the number of keys the Bloom filter of a list was last built for.
+         *
+         * @param list the list, must not be null.
+         * @return the capacity, or 0 if the list has no filter.
+         */
+        public int getFilterCapacity(UnrolledSkipList<?> list) {
+            return list.filter == null ? 0 : list.filter.capacity();
+        }
+
+        /**
+         * Return the number of removed neighbors the Bloom filter of a list still reports.
+         *
+         * @param list the list, must not be null.
+         * @return the count since the filter was last built.
+         */
+        public int getStaleKeys(UnrolledSkipList<?> list) {
+            return list.staleKeys;
+        }
+
+        /**
+         * Replace the Bloom filter of a list with an empty one of the same capacity, so that it
+         * wrongly rules out every neighbor.
+         *
+         * @param list the list, must have a filter.
+         */
+        public void clearFilter(UnrolledSkipList<?> list) {
+            list.filter = new BloomFilter(list.filter.capacity());
+        }
+
+        /**
+         * Return whether a list meets the requirements on the invariant, checking every block.
+         *
+         * @param list the list, must not be null.
+         * @return whether it passes the check.
+         */
+        public boolean wellFormed(UnrolledSkipList<?> list) {
+            return list.checkInvariant();
+        }
+    }
 }
@@ -5,6 +5,8 @@ import java.util.function.Consumer;
 /**
  * VertexRecord represents a vertex in the SortledtonGraph, containing its logical ID,
  * adjacency set (neighbors), and the size of the adjacency set.
+ * In a directed graph the adjacency set holds the out-neighbors, and the optional
+ * in-adjacency set holds the in-neighbors.
  *
  * @param <T> The type of the vertex ID.
  */
@@ -12,6 +14,8 @@ public class VertexRecord<T extends Comparable<T>> {
     public Neighborhood<T> adjacencySet; // Pointer to the Neighborhood object (PowerofTwo or UnrolledSkipList)
     public int logicalId; // The hash code for the vertex
     public int adjacencySetSize; // Number of neighbors in the adjacency set
+    public Neighborhood<T> inAdjacencySet; // In-neighbors of a directed graph, or null when not stored
+    public int inAdjacencySetSize; // Number of neighbors in the in-adjacency set
 
     private static Consumer<WellFormedError> reporter = (s) -> System.out.println("Invariant error: " + s.toString());
 
@@ -27,7 +31,9 @@ public class VertexRecord<T extends Comparable<T>> {
 		LOGICAL_ID("logicalID cannot be negative"),
 		ADJACENCY_SET("the adjacency set must be initialized (non-null)"),
 		ADJACENCY_SET_SIZE("the adjacency set's size must be non-negative"),
-		ADJACENCY_SET_MISMATCH("adjacencySetSize does not match the actual number of neighbors.");
+		ADJACENCY_SET_MISMATCH("adjacencySetSize does not match the actual number of neighbors."),
+		IN_ADJACENCY_SET_SIZE("the in-adjacency set's size must be zero when it is not stored"),
+		IN_ADJACENCY_SET_MISMATCH("inAdjacencySetSize does not match the actual number of in-neighbors.");
 
 		private String message; // Message for the enum key
 
@@ -52,7 +58,14 @@ public class VertexRecord<T extends Comparable<T>> {
         if (adjacencySetSize < 0) return report(WellFormedError.ADJACENCY_SET_SIZE);
 
         // 4. adjacencySetSize must match the actual number of neighbors
-        if (adjacencySetSize != adjacencySet.getNeighbors().size()) return report(WellFormedError.ADJACENCY_SET_MISMATCH);
+        if (adjacencySetSize != adjacencySet.size()) return report(WellFormedError.ADJACENCY_SET_MISMATCH);
+
+        // 5. the in-adjacency set is optional, but its size must match its contents
+        if (inAdjacencySet == null) {
+            if (inAdjacencySetSize != 0) return report(WellFormedError.IN_ADJACENCY_SET_SIZE);
+        } else if (inAdjacencySetSize != inAdjacencySet.size()) {
+            return report(WellFormedError.IN_ADJACENCY_SET_MISMATCH);
+        }
 
         return true;
     }
@@ -76,7 +89,23 @@ public class VertexRecord<T extends Comparable<T>> {
     public VertexRecord(int logicalId, Neighborhood<T> adjacencySet) {
         this.logicalId = logicalId;
         this.adjacencySet = adjacencySet;
-        this.adjacencySetSize = adjacencySet.getNeighbors().size();
+        this.adjacencySetSize = adjacencySet.size();
+        assert wellFormed() : "invariant failed at end of VertexRecord constructor.";
+    }
+
+    /**
+     * Constructor for VertexRecord of a directed graph with separate out- and in-neighborhoods.
+     *
+     * @param logicalId      The logical ID of the vertex.
+     * @param adjacencySet   The out-neighbors of the vertex.
+     * @param inAdjacencySet The in-neighbors of the vertex, or null to not store them.
+     */
+    public VertexRecord(int logicalId, Neighborhood<T> adjacencySet, Neighborhood<T> inAdjacencySet) {
+        this.logicalId = logicalId;
+        this.adjacencySet = adjacencySet;
+        this.adjacencySetSize = adjacencySet.size();
+        this.inAdjacencySet = inAdjacencySet;
+        this.inAdjacencySetSize = inAdjacencySet == null ? 0 : inAdjacencySet.size();
         assert wellFormed() : "invariant failed at end of VertexRecord constructor.";
     }
 
@@ -89,6 +118,15 @@ public class VertexRecord<T extends Comparable<T>> {
         return adjacencySetSize;
     }
 
+    /**
+     * Gets the size of the in-adjacency set for this vertex.
+     *
+     * @return the number of in-neighbors, or 0 when they are not stored.
+     */
+    public int getInAdjacencySetSize() {
+        return inAdjacencySetSize;
+    }
+
     /**
      * Gets the logical ID associated with this vertex.
      *
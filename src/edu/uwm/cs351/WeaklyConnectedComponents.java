@@ -0,0 +1,210 @@
+package edu.uwm.cs351;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import edu.uwm.cs351.SortledtonGraph.Direction;
+
+/**
+ * WeaklyConnectedComponents labels every vertex with the component it belongs to when the
+ * direction of edges is ignored, using the Afforest algorithm of Sutton et al.
+ *
+ * Components are kept in a lock-free union-find over physical IDs: linking hooks the higher
+ * root under the lower one with a compare-and-set, and compression shortcuts every vertex to
+ * its root. Instead of linking every edge, Afforest first links only the first few neighbors
+ * of each vertex, which is usually enough to form most of the largest component. It then
+ * samples the labels to find that component and links the remaining edges of the vertices
+ * outside it only, skipping most of the edges of the graph.
+ *
+ * Since a vertex only ever hooks under a lower physical ID, each component ends up labeled with
+ * the smallest physical ID among its vertices.
+ *
+ * <p>Sources:</p>
+ * <ul>
+ *     <li>M. Sutton, T. Ben-Nun, A. Barak, "Optimizing Parallel Graph Connectivity Computation
+ *     via Subgraph Sampling", IPDPS 2018.</li>
+ * </ul>
+ *
+ * @param <T> The type of the vertex ID
+ */
+public class WeaklyConnectedComponents<T extends Comparable<T>> extends GraphKernel<T> {
+    /** Number of neighbors per vertex linked before sampling. */
+    private static final int NEIGHBOR_ROUNDS = 2;
+    /** Number of vertices sampled to find the largest component. */
+    private static final int SAMPLES = 1024;
+
+    private int componentCount;
+
+    /**
+     * Creates a component computation over the given graph that runs on the common ForkJoinPool.
+     *
+     * @param graph The graph to label.
+     * @throws IllegalArgumentException if graph is null.
+     */
+    public WeaklyConnectedComponents(SortledtonGraph<T> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a component computation over the given graph that runs on the given ForkJoinPool.
+     *
+     * @param graph The graph to label.
+     * @param pool  The pool that links the edges.
+     * @throws IllegalArgumentException if graph or pool is null.
+     */
+    public WeaklyConnectedComponents(SortledtonGraph<T> graph, ForkJoinPool pool) {
+        super(graph, pool);
+    }
+
+    /**
+     * Computes the components. The graph must not be modified while this runs.
+     *
+     * @return the component label of every vertex indexed by physical ID, which is the
+     *         smallest physical ID in its component.
+     */
+    public int[] run() {
+        snapshot();
+        int n = vertexCount;
+        AtomicIntegerArray comp = new AtomicIntegerArray(n);
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            for (int v = low; v < high; v++) {
+                comp.lazySet(v, v);
+            }
+        });
+
+        // Link the first few neighbors of every vertex
+        for (int round = 0; round < NEIGHBOR_ROUNDS; round++) {
+            int r = round;
+            parallelFor(0, n, GRAIN, (low, high) -> {
+                for (int v = low; v < high; v++) {
+                    NeighborCursor<T> cursor = cursor(v, Direction.OUT);
+                    if (skip(cursor, r) && cursor.next()) {
+                        link(comp, v, physicalIndex(cursor.id()));
+                    }
+                }
+            });
+            compress(comp);
+        }
+
+        // Vertices of the largest component need not link their other out-edges, unless an edge
+        // from it into another component can only be found from its own side
+        int largest = canPull() ? sampleFrequentLabel(comp) : -1;
+        boolean linkInEdges = graph.isDirected() && graph.hasInEdges();
+
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            for (int v = low; v < high; v++) {
+                if (comp.get(v) == largest) continue;
+                NeighborCursor<T> cursor = cursor(v, Direction.OUT);
+                if (skip(cursor, NEIGHBOR_ROUNDS)) {
+                    while (cursor.next()) {
+                        link(comp, v, physicalIndex(cursor.id()));
+                    }
+                }
+                if (linkInEdges) {
+                    cursor = cursor(v, Direction.IN);
+                    while (cursor.next()) {
+                        link(comp, v, physicalIndex(cursor.id()));
+                    }
+                }
+            }
+        });
+        compress(comp);
+
+        int[] labels = new int[n];
+        AtomicInteger roots = new AtomicInteger();
+        parallelFor(0, n, GRAIN, (low, high) -> {
+            int count = 0;
+            for (int v = low; v < high; v++) {
+                labels[v] = comp.get(v);
+                if (labels[v] == v) count++;
+            }
+            roots.addAndGet(count);
+        });
+        componentCount = roots.get();
+        return labels;
+    }
+
+    /**
+     * Gets the number of components found by the last run.
+     *
+     * @return the component count.
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Moves a cursor past its first count neighbors.
+     *
+     * @return false if the neighborhood has fewer than count neighbors.
+     */
+    private static boolean skip(NeighborCursor<?> cursor, int count) {
+        for (int i = 0; i < count; i++) {
+            if (!cursor.next()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Joins the components of two vertices, hooking the higher root under the lower one.
+     */
+    private static void link(AtomicIntegerArray comp, int u, int v) {
+        int p1 = comp.get(u);
+        int p2 = comp.get(v);
+        while (p1 != p2) {
+            int high = Math.max(p1, p2);
+            int low = p1 + p2 - high;
+            int pHigh = comp.get(high);
+            if (pHigh == low) return;                                        // Already linked
+            if (pHigh == high && comp.compareAndSet(high, high, low)) return; // Hooked a root
+            p1 = comp.get(comp.get(high));
+            p2 = comp.get(low);
+        }
+    }
+
+    /**
+     * Points every vertex directly at its root.
+     */
+    private void compress(AtomicIntegerArray comp) {
+        parallelFor(0, vertexCount, GRAIN, (low, high) -> {
+            for (int v = low; v < high; v++) {
+                int parent;
+                while ((parent = comp.get(v)) != comp.get(parent)) {
+                    comp.set(v, comp.get(parent));
+                }
+            }
+        });
+    }
+
+    /**
+     * Estimates the label of the largest component from a fixed-seed sample of vertices.
+     *
+     * @return the most frequent label in the sample, or -1 for an empty graph.
+     */
+    private int sampleFrequentLabel(AtomicIntegerArray comp) {
+        int n = vertexCount;
+        if (n == 0) return -1;
+        Random random = new Random(n);
+        int[] sample = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            sample[i] = comp.get(random.nextInt(n));
+        }
+        Arrays.sort(sample);
+        int best = sample[0];
+        int bestRun = 0;
+        int i = 0;
+        while (i < SAMPLES) {
+            int j = i + 1;
+            while (j < SAMPLES && sample[j] == sample[i]) j++;
+            if (j - i > bestRun) {
+                bestRun = j - i;
+                best = sample[i];
+            }
+            i = j;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,430 @@
+package edu.uwm.cs351;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * WorkloadDriver replays a log of edge updates against a SortledtonGraph while reader threads
+ * query it, and measures the throughput and latency of every kind of operation.
+ *
+ * The update log has one update per line, {@code timestamp op source destination [weight]},
+ * with timestamps in milliseconds that do not decrease, op one of {@code +}, {@code insert},
+ * {@code -} or {@code delete}, and integer vertex IDs. Blank lines and lines starting with
+ * {@code #} are skipped. Every vertex named in the log is inserted before the replay, so reads
+ * never miss a vertex; an optional initial edge file is bulk loaded first.
+ *
+ * One writer thread applies the updates in log order, either at a fixed target rate, or at the
+ * pace of the timestamps sped up by a factor, or as fast as it can. When paced, the latency of an
+ * update is measured from the time it was scheduled, not from when the writer got to it, so a
+ * stall shows up in the latency of every update that waited behind it.
+ *
+ * While the writer runs, each reader thread repeatedly runs findEdge on the endpoints of a random
+ * logged update, scanNeighbors on a random vertex, or intersectNeighbors on the endpoints of a
+ * random logged update, in the proportions of the read mix. Their latencies are service times.
+ *
+ * The driver owns the read-write lock that guards the graph. Reader threads share its read
+ * lock; the writer takes the write lock for a single update and releases it before the next,
+ * so reads interleave with the replay instead of waiting for it. Each thread records its
+ * latencies in its own {@link LatencyHistogram}, so nothing is allocated or shared per operation.
+ *
+ * <p>Usage: {@code java edu.uwm.cs351.WorkloadDriver <update-log> [--initial edges-file] [--directed]
+ * [--readers N] [--rate UPDATES_PER_SECOND] [--speedup FACTOR] [--read-mix FIND,SCAN,INTERSECT]
+ * [--seed S]}</p>
+ */
+public final class WorkloadDriver {
+    /** The names of the operations, in the order they are reported. */
+    public static final List<String> OPERATIONS = Arrays.asList(
+        "insertEdge", "deleteEdge", "findEdge", "scanNeighbors", "intersectNeighbors");
+
+    private static final int INSERT = 0;
+    private static final int DELETE = 1;
+    private static final int FIND = 2;
+    private static final int SCAN = 3;
+    private static final int INTERSECT = 4;
+
+    /** Waits shorter than this are spun instead of parked, since parking oversleeps. */
+    private static final long SPIN_NANOS = 50_000;
+
+    private final SortledtonGraph<Integer> graph;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // The update log, as parallel arrays
+    private int size;
+    private long[] timestamps = new long[1024];
+    private boolean[] inserts = new boolean[1024];
+    private int[] sources = new int[1024];
+    private int[] destinations = new int[1024];
+    private double[] weights = new double[1024];   // NaN for an unweighted insert
+    private Integer[] vertices = new Integer[0];
+
+    private volatile boolean writing;
+    private long failedUpdates;
+    private double elapsedSeconds;
+
+    /**
+     * Creates a driver that replays updates against the given graph.
+     *
+     * @param graph The graph to update and query.
+     * @throws IllegalArgumentException if graph is null.
+     */
+    public WorkloadDriver(SortledtonGraph<Integer> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("@WorkloadDriver, the parameter, graph, may not be null.");
+        }
+        this.graph = graph;
+        graph.setDebug(false);
+    }
+
+    /**
+     * Adds an update to the end of the log.
+     *
+     * @param timestamp   When the update happens, in milliseconds, not before the previous one.
+     * @param insert      true to insert the edge, false to delete it.
+     * @param source      The source vertex ID.
+     * @param destination The destination vertex ID.
+     * @param weight      The weight of an inserted edge, or NaN for none.
+     * @throws IllegalArgumentException if the timestamp is before the previous one.
+     */
+    public void addUpdate(long timestamp, boolean insert, int source, int destination, double weight) {
+        if (size > 0 && timestamp < timestamps[size - 1]) {
+            throw new IllegalArgumentException("Update log is out of order at timestamp " + timestamp);
+        }
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            inserts = Arrays.copyOf(inserts, capacity);
+            sources = Arrays.copyOf(sources, capacity);
+            destinations = Arrays.copyOf(destinations, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        timestamps[size] = timestamp;
+        inserts[size] = insert;
+        sources[size] = source;
+        destinations[size] = destination;
+        weights[size] = weight;
+        size++;
+    }
+
+    /**
+     * Reads an update log and adds its updates to the end of the log.
+     *
+     * @param file The update log.
+     * @throws IOException           if the file cannot be read.
+     * @throws IllegalStateException if a line cannot be parsed or is out of order.
+     */
+    public void readLog(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split("\\s+");
+                try {
+                    if (fields.length < 4) throw new IllegalArgumentException("expected timestamp op source destination");
+                    boolean insert;
+                    switch (fields[1]) {
+                        case "+": case "insert": insert = true; break;
+                        case "-": case "delete": insert = false; break;
+                        default: throw new IllegalArgumentException("unknown op " + fields[1]);
+                    }
+                    double weight = fields.length > 4 ? Double.parseDouble(fields[4]) : Double.NaN;
+                    addUpdate(Long.parseLong(fields[0]), insert, Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), weight);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalStateException(file + ":" + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of updates in the log.
+     *
+     * @return the log size.
+     */
+    public int getUpdateCount() {
+        return size;
+    }
+
+    /**
+     * Gets the number of updates the last run could not apply, such as deletes of missing edges.
+     *
+     * @return the failed update count.
+     */
+    public long getFailedUpdates() {
+        return failedUpdates;
+    }
+
+    /**
+     * Gets the wall-clock time of the last run, from the first update to the last.
+     *
+     * @return the elapsed seconds.
+     */
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    /**
+     * Replays the log once while readers query the graph.
+     *
+     * @param readers The number of reader threads, may be 0.
+     * @param rate    The target updates per second, or 0 to not pace by rate.
+     * @param speedup If rate is 0, how many times faster than the timestamps to replay,
+     *                or 0 to replay as fast as possible.
+     * @param readMix The relative weights of findEdge, scanNeighbors and intersectNeighbors.
+     * @param seed    The seed of the readers' random choices.
+     * @return the latency histogram of every operation, in nanoseconds, keyed by name in
+     *         the order of OPERATIONS.
+     * @throws IllegalArgumentException if a parameter is negative or the read mix does not
+     *                                  have three weights with a positive sum.
+     * @throws InterruptedException     if interrupted while waiting for the readers.
+     */
+    public Map<String, LatencyHistogram> run(int readers, double rate, double speedup, double[] readMix, long seed)
+            throws InterruptedException {
+        if (readers < 0 || !(rate >= 0) || !(speedup >= 0) || readMix == null || readMix.length != 3
+                || !(readMix[0] >= 0 && readMix[1] >= 0 && readMix[2] >= 0 && readMix[0] + readMix[1] + readMix[2] > 0)) {
+            throw new IllegalArgumentException("@run, the parameters, readers, rate and speedup, may not be negative and readMix needs three non-negative weights.");
+        }
+        insertVertices();
+
+        LatencyHistogram[] totals = new LatencyHistogram[OPERATIONS.size()];
+        for (int op = 0; op < totals.length; op++) {
+            totals[op] = new LatencyHistogram();
+        }
+        List<LatencyHistogram[]> readerHistograms = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        writing = true;
+        for (int r = 0; r < readers; r++) {
+            LatencyHistogram[] histograms = { new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram() };
+            readerHistograms.add(histograms);
+            Random random = new Random(seed + r);
+            Thread thread = new Thread(() -> read(random, readMix, histograms), "workload-reader-" + r);
+            threads.add(thread);
+            thread.start();
+        }
+
+        try {
+            write(rate, speedup, totals[INSERT], totals[DELETE]);
+        } finally {
+            writing = false;
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        for (LatencyHistogram[] histograms : readerHistograms) {
+            totals[FIND].add(histograms[0]);
+            totals[SCAN].add(histograms[1]);
+            totals[INTERSECT].add(histograms[2]);
+        }
+
+        Map<String, LatencyHistogram> result = new LinkedHashMap<>();
+        for (int op = 0; op < totals.length; op++) {
+            result.put(OPERATIONS.get(op), totals[op]);
+        }
+        return result;
+    }
+
+    /**
+     * Inserts every vertex named in the log that is not in the graph yet.
+     */
+    private void insertVertices() {
+        Set<Integer> named = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            named.add(sources[i]);
+            named.add(destinations[i]);
+        }
+        for (Integer id : named) {
+            if (!graph.hasVertex(id)) graph.insertVertex(id);
+        }
+        vertices = named.toArray(new Integer[0]);
+    }
+
+    /**
+     * Applies the updates in order, pacing them if asked to.
+     */
+    private void write(double rate, double speedup, LatencyHistogram insertLatency, LatencyHistogram deleteLatency) {
+        failedUpdates = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            long scheduled;
+            if (rate > 0) {
+                scheduled = start + (long) (i * 1e9 / rate);
+            } else if (speedup > 0) {
+                scheduled = start + (long) ((timestamps[i] - timestamps[0]) * 1e6 / speedup);
+            } else {
+                scheduled = System.nanoTime();
+            }
+            waitUntil(scheduled);
+
+            Integer source = sources[i];
+            Integer destination = destinations[i];
+            lock.writeLock().lock();
+            try {
+                if (inserts[i]) {
+                    if (Double.isNaN(weights[i])) {
+                        graph.insertEdge(source, destination);
+                    } else {
+                        graph.insertEdge(source, destination, weights[i]);
+                    }
+                } else {
+                    graph.deleteEdge(source, destination);
+                }
+            } catch (IllegalArgumentException e) {
+                failedUpdates++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            (inserts[i] ? insertLatency : deleteLatency).record(System.nanoTime() - scheduled);
+        }
+        elapsedSeconds = (System.nanoTime() - start) / 1e9;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) LockSupport.parkNanos(remaining - SPIN_NANOS);
+        }
+    }
+
+    /**
+     * Runs random reads until the writer is done.
+     */
+    private void read(Random random, double[] readMix, LatencyHistogram[] histograms) {
+        double total = readMix[0] + readMix[1] + readMix[2];
+        long[] visited = new long[1];
+        Consumer<Integer> counter = id -> visited[0]++;
+        while (writing) {
+            if (size == 0 || vertices.length == 0) {
+                Thread.yield();
+                continue;
+            }
+            double pick = random.nextDouble() * total;
+            int op = pick < readMix[0] ? 0 : pick < readMix[0] + readMix[1] ? 1 : 2;
+            int update = random.nextInt(size);
+            Integer source = sources[update];
+            Integer destination = destinations[update];
+
+            long start = System.nanoTime();
+            lock.readLock().lock();
+            try {
+                switch (op) {
+                    case 0:
+                        if (graph.findEdge(source, destination)) visited[0]++;
+                        break;
+                    case 1:
+                        graph.scanNeighbors(vertices[random.nextInt(vertices.length)], counter);
+                        break;
+                    default:
+                        visited[0] += graph.intersectNeighbors(source, destination).size();
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            histograms[op].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Formats the measurements of one operation as a JSON object, with latencies in microseconds.
+     *
+     * @param operation The name of the operation.
+     * @param latency   Its latency histogram, in nanoseconds.
+     * @return one line of JSON.
+     */
+    public String toJson(String operation, LatencyHistogram latency) {
+        double seconds = elapsedSeconds > 0 ? elapsedSeconds : Double.NaN;
+        return String.format(Locale.ROOT,
+            "{\"operation\":\"%s\",\"count\":%d,\"throughput\":%.1f,\"mean_us\":%.3f,\"p50_us\":%.3f,"
+            + "\"p90_us\":%.3f,\"p99_us\":%.3f,\"p999_us\":%.3f,\"max_us\":%.3f}",
+            operation, latency.getCount(), latency.getCount() / seconds, latency.getMean() / 1e3,
+            latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(90) / 1e3,
+            latency.getValueAtPercentile(99) / 1e3, latency.getValueAtPercentile(99.9) / 1e3,
+            latency.getMax() / 1e3);
+    }
+
+    /**
+     * Loads an optional initial graph, replays an update log against it and prints one JSON line
+     * per operation, then a summary line.
+     *
+     * @param args the update log, then the options described in the class comment.
+     * @throws IOException          if a file cannot be read.
+     * @throws InterruptedException if interrupted while waiting for the readers.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: WorkloadDriver <update-log> [--initial edges-file] [--directed] [--readers N] "
+                               + "[--rate UPDATES_PER_SECOND] [--speedup FACTOR] [--read-mix FIND,SCAN,INTERSECT] [--seed S]");
+            System.exit(2);
+        }
+        String initial = null;
+        boolean directed = false;
+        int readers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        double rate = 0;
+        double speedup = 0;
+        double[] readMix = { 1, 1, 1 };
+        long seed = 42;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--directed": directed = true; break;
+                case "--initial":  initial = args[++i]; break;
+                case "--readers":  readers = Integer.parseInt(args[++i]); break;
+                case "--rate":     rate = Double.parseDouble(args[++i]); break;
+                case "--speedup":  speedup = Double.parseDouble(args[++i]); break;
+                case "--seed":     seed = Long.parseLong(args[++i]); break;
+                case "--read-mix":
+                    readMix = Arrays.stream(args[++i].split(",")).mapToDouble(Double::parseDouble).toArray();
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        SortledtonGraph<Integer> graph = new SortledtonGraph<>(directed, directed);
+        graph.setDebug(false);
+        long loadStart = System.nanoTime();
+        if (initial != null) {
+            BulkLoader<Integer> loader = new BulkLoader<>(graph, ForkJoinPool.commonPool());
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(initial), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.trim().split("\\s+");
+                    if (fields.length < 2 || fields[0].startsWith("#")) continue;
+                    loader.addEdge(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]));
+                }
+            }
+            loader.load();
+        }
+        double loadSeconds = (System.nanoTime() - loadStart) / 1e9;
+
+        WorkloadDriver driver = new WorkloadDriver(graph);
+        driver.readLog(Paths.get(args[0]));
+        Map<String, LatencyHistogram> latencies = driver.run(readers, rate, speedup, readMix, seed);
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            System.out.println(driver.toJson(entry.getKey(), entry.getValue()));
+        }
+        System.out.println(String.format(Locale.ROOT,
+            "{\"summary\":true,\"updates\":%d,\"failed_updates\":%d,\"readers\":%d,\"target_rate\":%.1f,"
+            + "\"load_seconds\":%.6f,\"elapsed_seconds\":%.6f,\"update_throughput\":%.1f,\"vertices\":%d}",
+            driver.getUpdateCount(), driver.getFailedUpdates(), readers, rate, loadSeconds,
+            driver.getElapsedSeconds(), driver.getUpdateCount() / driver.getElapsedSeconds(), graph.getVertexCount()));
+    }
+}